@@ -0,0 +1,109 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eval.BatchEvaluation;
+import eval.BatchEvaluator;
+import eval.EvalWeights;
+import eval.Evaluator;
+import eval.PositionBatch;
+import model.BoardEngine;
+import model.Posn;
+import model.ReversiModel;
+
+/**
+ * 'EvalBenchmarks' times scoring positions: many at once with the batch evaluator, and one
+ * move at a time with the incremental evaluation features.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvalBenchmarks {
+  // positions evaluated together by the batch evaluator
+  private static final int BATCH_SIZE = 1024;
+
+  /**
+   * A full batch of positions from random games and random cell weights.
+   */
+  @State(Scope.Thread)
+  public static class Batch {
+    private PositionBatch batch;
+    private BatchEvaluator evaluator;
+    private BatchEvaluation evaluation;
+
+    @Setup
+    public void setUp() {
+      Random random = new Random(9);
+      this.batch = new PositionBatch(Positions.BOARD_SIZE, BATCH_SIZE);
+      while (this.batch.size() < BATCH_SIZE) {
+        this.batch.add(Positions.playRandomly(BoardEngine.BITBOARD, random.nextInt(60),
+                random));
+      }
+      int[] weights = new int[Positions.BOARD_SIZE * Positions.BOARD_SIZE];
+      for (int cell = 0; cell < weights.length; cell++) {
+        weights[cell] = random.nextInt(21) - 10;
+      }
+      this.evaluator = new BatchEvaluator(Positions.BOARD_SIZE, weights);
+      this.evaluation = new BatchEvaluation(BATCH_SIZE);
+    }
+  }
+
+  /**
+   * Evaluates a whole batch per call; the reported time is per position.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public BatchEvaluation batchEvaluate(Batch batch) {
+    batch.evaluator.evaluate(batch.batch, batch.evaluation);
+    return batch.evaluation;
+  }
+
+  /**
+   * A midgame position followed by an evaluator with every standard feature.
+   */
+  @State(Scope.Thread)
+  public static class Incremental {
+    private ReversiModel model;
+    private List<Posn> moves;
+    private Evaluator evaluator;
+
+    @Setup
+    public void setUp() {
+      this.model = Positions.playRandomly(BoardEngine.ARRAY, 30, new Random(10));
+      this.moves = this.model.getLegalMoves();
+      this.evaluator = new Evaluator(EvalWeights.DEFAULT);
+      this.evaluator.reset(this.model);
+    }
+  }
+
+  /**
+   * Plays every legal move of the position through the evaluator, which updates its features
+   * from the flips the model reports, scores it and takes it back again.
+   */
+  @Benchmark
+  public long evaluateIncremental(Incremental incremental) {
+    long sum = 0;
+    for (Posn move : incremental.moves) {
+      incremental.evaluator.makeMove(incremental.model, move.getX(), move.getY());
+      sum += incremental.evaluator.evaluate();
+      incremental.evaluator.undoMove(incremental.model);
+    }
+    return sum;
+  }
+}
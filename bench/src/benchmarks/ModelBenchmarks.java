@@ -0,0 +1,120 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import discs.Disc;
+import model.BoardEngine;
+import model.HexGeometry;
+import model.Posn;
+import model.ReversiModel;
+
+/**
+ * 'ModelBenchmarks' times the hot paths of a game on a midgame position, for both board
+ * engines: making and taking back a move, checking for the end of the game, reading discs, and
+ * whole random games.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmarks {
+  @Param({"ARRAY", "BITBOARD"})
+  public BoardEngine engine;
+
+  private ReversiModel model;
+  private List<Posn> moves;
+  private int nextMove;
+  // the grid cells of the board inside the hexagon, and the corners of the grid outside it
+  private int[] inside;
+  private int[] outside;
+  private int nextCell;
+  private Random random;
+
+  @Setup
+  public void setUp() {
+    this.model = Positions.midgame(this.engine);
+    this.moves = this.model.getLegalMoves();
+    this.nextMove = 0;
+    HexGeometry geometry = HexGeometry.forSize(Positions.BOARD_SIZE);
+    this.inside = cells(geometry, true);
+    this.outside = cells(geometry, false);
+    this.nextCell = 0;
+    this.random = new Random(2);
+  }
+
+  private static int[] cells(HexGeometry geometry, boolean inside) {
+    int[] cells = new int[Positions.BOARD_SIZE * Positions.BOARD_SIZE];
+    int count = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (geometry.isValid(cell) == inside) {
+        cells[count++] = cell;
+      }
+    }
+    return Arrays.copyOf(cells, count);
+  }
+
+  /**
+   * Makes a legal move and takes it back, cycling through the legal moves of the position so
+   * that it is the same before every call.
+   */
+  @Benchmark
+  public int makeMoveAndUndo() {
+    Posn move = this.moves.get(this.nextMove);
+    this.nextMove = (this.nextMove + 1) % this.moves.size();
+    this.model.makeMove(move.getX(), move.getY());
+    this.model.undoMove();
+    return move.getX();
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return this.model.isGameOver();
+  }
+
+  @Benchmark
+  public Disc getDiscAt() {
+    this.nextCell = (this.nextCell + 1) % this.inside.length;
+    int cell = this.inside[this.nextCell];
+    return this.model.getDiscAt(cell % Positions.BOARD_SIZE, cell / Positions.BOARD_SIZE);
+  }
+
+  /**
+   * Asks about the corners of the grid, which the view does and skips when they throw.
+   */
+  @Benchmark
+  public Disc getDiscAtOutsideHexagon() {
+    this.nextCell = (this.nextCell + 1) % this.outside.length;
+    int cell = this.outside[this.nextCell];
+    try {
+      return this.model.getDiscAt(cell % Positions.BOARD_SIZE, cell / Positions.BOARD_SIZE);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Plays a whole game from startGame to game over, choosing uniformly random legal moves.
+   */
+  @Benchmark
+  public int randomGame() {
+    return Positions.playRandomly(this.engine, Integer.MAX_VALUE, this.random)
+            .getMoveLog().size();
+  }
+}
@@ -0,0 +1,174 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import archive.GameRecord;
+import model.BoardEngine;
+import model.GameState;
+import model.ReversiModel;
+import model.ReversiModelFactory;
+import player.AlphaBetaStrategy;
+import player.BookMove;
+import player.EndgameSolver;
+import player.MctsStrategy;
+import player.OpeningBook;
+import player.SearchLimits;
+import player.TranspositionTable;
+
+/**
+ * 'PlayerBenchmarks' times the computer players: a fixed-depth alpha-beta search, a fixed
+ * number of Monte Carlo playouts, opening book lookups and exact endgame solves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmarks {
+  // the transposition table size AlphaBetaStrategy uses by default
+  private static final int TABLE_ENTRIES = 1 << 18;
+  // empty cells left in the positions the endgame solver is timed on
+  private static final int ENDGAME_EMPTIES = 24;
+
+  /**
+   * The start of a game on a size 9 board, searched with an empty transposition table each
+   * time so that no search is answered from the entries of the one before.
+   */
+  @State(Scope.Thread)
+  public static class Search {
+    private final TranspositionTable table = new TranspositionTable(TABLE_ENTRIES);
+    private final AlphaBetaStrategy strategy =
+            new AlphaBetaStrategy(SearchLimits.ofDepth(4), BoardEngine.ARRAY, this.table);
+    private ReversiModel model;
+
+    @Setup
+    public void setUp() {
+      this.model = ReversiModelFactory.create(BoardEngine.ARRAY);
+      this.model.startGame(9);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+      this.table.clear();
+    }
+  }
+
+  @Benchmark
+  public long alphaBetaDepth4(Search search) {
+    return search.strategy.search(search.model).getNodes();
+  }
+
+  /**
+   * The start of a game on the benchmark board.
+   */
+  @State(Scope.Thread)
+  public static class Start {
+    private ReversiModel model;
+
+    @Setup
+    public void setUp() {
+      this.model = ReversiModelFactory.create(BoardEngine.ARRAY);
+      this.model.startGame(Positions.BOARD_SIZE);
+    }
+  }
+
+  /**
+   * Searches with a new strategy each time: a strategy keeps the subtree of a position it
+   * searched before, so this one grows its tree from nothing.
+   */
+  @Benchmark
+  public long mcts1000Playouts(Start start) {
+    return new MctsStrategy(SearchLimits.ofNodes(1000), 1).search(start.model).getNodes();
+  }
+
+  /**
+   * A book of the first plies of random games, each scored as if the game ended there, and
+   * positions that are in it.
+   */
+  @State(Scope.Thread)
+  public static class Book {
+    private OpeningBook book;
+    private List<ReversiModel> positions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+      Random random = new Random(3);
+      List<GameRecord> games = new ArrayList<>();
+      this.positions = new ArrayList<>();
+      for (int game = 0; game < 5000; game++) {
+        ReversiModel model = Positions.playRandomly(BoardEngine.BITBOARD,
+                1 + random.nextInt(8), random);
+        int margin = model.getScore().getBlackCount() - model.getScore().getWhiteCount();
+        GameState result = margin > 0 ? GameState.PLAYER1WIN
+                : margin < 0 ? GameState.PLAYER2WIN : GameState.STALEMATE;
+        int[] plies = new int[model.getMoveLog().size()];
+        for (int ply = 0; ply < plies.length; ply++) {
+          plies[ply] = model.getMoveLog().get(ply);
+        }
+        games.add(new GameRecord(Positions.BOARD_SIZE, result, plies));
+        if (game < 64) {
+          model.undoMove();
+          this.positions.add(model);
+        }
+      }
+      this.book = OpeningBook.build(games, 8, 1);
+      this.next = 0;
+    }
+  }
+
+  @Benchmark
+  public List<BookMove> openingBookLookup(Book book) {
+    book.next = (book.next + 1) % book.positions.size();
+    return book.book.lookup(book.positions.get(book.next));
+  }
+
+  /**
+   * Positions from random games with few enough empty cells left to solve exactly.
+   */
+  @State(Scope.Thread)
+  public static class Endgames {
+    private List<ReversiModel> positions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+      Random random = new Random(5);
+      this.positions = new ArrayList<>();
+      while (this.positions.size() < 16) {
+        ReversiModel model = Positions.playRandomly(BoardEngine.BITBOARD, Integer.MAX_VALUE,
+                random, ENDGAME_EMPTIES);
+        if (!model.isGameOver()) {
+          this.positions.add(model);
+        }
+      }
+      this.next = 0;
+    }
+  }
+
+  /**
+   * Solves with a new solver each time, so that no position is answered from an earlier solve.
+   */
+  @Benchmark
+  public long endgameSolve(Endgames endgames) {
+    endgames.next = (endgames.next + 1) % endgames.positions.size();
+    return new EndgameSolver(ENDGAME_EMPTIES, game -> Optional.empty())
+            .solve(endgames.positions.get(endgames.next)).getNodes();
+  }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Random;
+
+import model.BoardEngine;
+import model.Posn;
+import model.ReversiModel;
+import model.ReversiModelFactory;
+
+/**
+ * 'Positions' sets up the games the benchmarks work on: seeded random games of a fixed board
+ * size, so that every run measures the same positions.
+ */
+final class Positions {
+  static final int BOARD_SIZE = 11;
+  // plies played before measuring operations that need a position in the middle of a game
+  static final int MIDGAME_PLIES = 12;
+
+  private Positions() {
+  }
+
+  /**
+   * Returns a position from the middle of a seeded random game.
+   */
+  static ReversiModel midgame(BoardEngine engine) {
+    return playRandomly(engine, MIDGAME_PLIES, new Random(1));
+  }
+
+  /**
+   * Plays a seeded random game of the given length, or until it ends, and returns the model.
+   */
+  static ReversiModel playRandomly(BoardEngine engine, int plies, Random random) {
+    return playRandomly(engine, plies, random, 0);
+  }
+
+  /**
+   * Plays a seeded random game of the given length, or until it ends or has no more than the
+   * given number of empty cells left, and returns the model.
+   */
+  static ReversiModel playRandomly(BoardEngine engine, int plies, Random random, int empties) {
+    ReversiModel model = ReversiModelFactory.create(engine);
+    model.startGame(BOARD_SIZE);
+    for (int ply = 0; ply < plies && !model.isGameOver()
+            && model.getScore().getEmptyCount() > empties; ply++) {
+      List<Posn> moves = model.getLegalMoves();
+      Posn move = moves.get(random.nextInt(moves.size()));
+      model.makeMove(move.getX(), move.getY());
+    }
+    return model;
+  }
+}
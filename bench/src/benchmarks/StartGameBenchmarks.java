@@ -0,0 +1,39 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.BoardEngine;
+import model.ReversiModel;
+import model.ReversiModelFactory;
+
+/**
+ * 'StartGameBenchmarks' times setting up a new game at several board sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartGameBenchmarks {
+  @Param({"7", "11", "21", "41"})
+  public int size;
+
+  @Benchmark
+  public ReversiModel startGame() {
+    ReversiModel model = ReversiModelFactory.create(BoardEngine.ARRAY);
+    model.startGame(this.size);
+    return model;
+  }
+}
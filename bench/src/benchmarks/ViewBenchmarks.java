@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.BoardEngine;
+import view.TextualView;
+
+/**
+ * 'ViewBenchmarks' times redrawing the textual view of a midgame position, for both board
+ * engines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewBenchmarks {
+  @Param({"ARRAY", "BITBOARD"})
+  public BoardEngine engine;
+
+  private TextualView view;
+
+  @Setup
+  public void setUp() {
+    this.view = new TextualView(Positions.midgame(this.engine), new StringBuilder());
+  }
+
+  @Benchmark
+  public TextualView textualViewUpdateBoard() {
+    this.view.updateBoard();
+    return this.view;
+  }
+}
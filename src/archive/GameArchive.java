@@ -0,0 +1,274 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+import model.GameState;
+import model.ReversiHexModel;
+import model.ReversiModel;
+
+/**
+ * A 'GameArchive' gives random access to a file of concatenated {@link GameRecord}s through a
+ * sidecar index. Both files are memory-mapped, so finding game n is one read of the index and
+ * replaying it decodes the plies straight out of the mapped file without copying the record.
+ * <p>
+ * The index is the file with ".idx" added to the archive's name. After a four-byte magic number
+ * it holds one eight-byte entry per game: the record's offset in the archive as an int, the
+ * board size as a short, the result's {@link GameState} ordinal as a byte and a spare byte.
+ * Filtering by size or result reads only the index, never the records. An archive can hold up
+ * to 2 GiB of records, the most one mapping can cover.
+ */
+public final class GameArchive implements Closeable {
+  static final int INDEX_MAGIC = 0x48584931; // "HXI1"
+  static final int INDEX_HEADER_BYTES = 4;
+  static final int INDEX_ENTRY_BYTES = 8;
+  static final long MAX_ARCHIVE_BYTES = Integer.MAX_VALUE;
+  static final int MAX_BOARD_SIZE = Short.MAX_VALUE;
+  private static final GameState[] RESULTS = GameState.values();
+
+  private final MappedByteBuffer records;
+  private final MappedByteBuffer index;
+  private final int numGames;
+
+  private GameArchive(MappedByteBuffer records, MappedByteBuffer index, int numGames) {
+    this.records = records;
+    this.index = index;
+    this.numGames = numGames;
+  }
+
+  /**
+   * Returns where the index of the given archive file lives.
+   */
+  public static Path indexPathOf(Path archive) {
+    return archive.resolveSibling(archive.getFileName() + ".idx");
+  }
+
+  /**
+   * Maps an archive and its index. Games added to the files later are not seen.
+   *
+   * @param path the archive file
+   * @return the mapped archive
+   * @throws IOException if a file can't be read, is too large or the index doesn't fit the
+   *                     archive
+   */
+  public static GameArchive open(Path path) throws IOException {
+    try (FileChannel recordChannel = FileChannel.open(path, StandardOpenOption.READ);
+         FileChannel indexChannel = FileChannel.open(indexPathOf(path),
+                 StandardOpenOption.READ)) {
+      long recordBytes = recordChannel.size();
+      long indexBytes = indexChannel.size();
+      if (recordBytes > MAX_ARCHIVE_BYTES || indexBytes > MAX_ARCHIVE_BYTES) {
+        throw new IOException("The archive is too large to map");
+      }
+      if (indexBytes < INDEX_HEADER_BYTES
+              || (indexBytes - INDEX_HEADER_BYTES) % INDEX_ENTRY_BYTES != 0) {
+        throw new IOException("Not an archive index: " + indexPathOf(path));
+      }
+      MappedByteBuffer index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexBytes);
+      if (index.getInt(0) != INDEX_MAGIC) {
+        throw new IOException("Not an archive index: " + indexPathOf(path));
+      }
+      int numGames = (int) ((indexBytes - INDEX_HEADER_BYTES) / INDEX_ENTRY_BYTES);
+      MappedByteBuffer records = recordChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+              recordBytes);
+      GameArchive archive = new GameArchive(records, index, numGames);
+      if (numGames > 0 && archive.getOffset(numGames - 1) >= recordBytes) {
+        throw new IOException("The index refers past the end of the archive");
+      }
+      return archive;
+    }
+  }
+
+  /**
+   * Writes a new index for an archive file by reading every record in it, for archives written
+   * with a plain {@link GameRecordWriter} or whose index was lost.
+   *
+   * @param path the archive file
+   * @return the number of games indexed
+   * @throws IOException if the archive can't be read or holds something that isn't a record
+   */
+  public static int rebuildIndex(Path path) throws IOException {
+    int numGames = 0;
+    try (GameRecordReader reader = GameRecordReader.open(path);
+         FileChannel index = FileChannel.open(indexPathOf(path), StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+      buffer.putInt(INDEX_MAGIC);
+      long offset = reader.position();
+      for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+        if (buffer.remaining() < INDEX_ENTRY_BYTES) {
+          writeFully(index, buffer);
+        }
+        putIndexEntry(buffer, offset, record);
+        offset = reader.position();
+        numGames++;
+      }
+      writeFully(index, buffer);
+    }
+    return numGames;
+  }
+
+  /**
+   * Adds the index entry of a record at the given offset to the buffer.
+   *
+   * @throws IOException if the offset or board size doesn't fit in an entry
+   */
+  static void putIndexEntry(ByteBuffer buffer, long offset, GameRecord record)
+          throws IOException {
+    if (offset > MAX_ARCHIVE_BYTES) {
+      throw new IOException("The archive is full");
+    }
+    if (record.getBoardSize() > MAX_BOARD_SIZE) {
+      throw new IOException("Board size " + record.getBoardSize() + " can't be indexed");
+    }
+    buffer.putInt((int) offset);
+    buffer.putShort((short) record.getBoardSize());
+    buffer.put((byte) record.getResult().ordinal());
+    buffer.put((byte) 0);
+  }
+
+  /**
+   * Writes everything in the buffer to the channel and clears the buffer.
+   */
+  static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Returns the number of games in the archive.
+   */
+  public int size() {
+    return this.numGames;
+  }
+
+  private int entry(int game) {
+    if (game < 0 || game >= this.numGames) {
+      throw new IndexOutOfBoundsException("No game " + game + " in an archive of "
+              + this.numGames);
+    }
+    return INDEX_HEADER_BYTES + game * INDEX_ENTRY_BYTES;
+  }
+
+  /**
+   * Returns the offset of the given game's record in the archive file.
+   *
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public long getOffset(int game) {
+    return this.index.getInt(this.entry(game));
+  }
+
+  /**
+   * Returns the board size of the given game, read from the index.
+   *
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public int getBoardSize(int game) {
+    return this.index.getShort(this.entry(game) + 4);
+  }
+
+  /**
+   * Returns the result of the given game, read from the index.
+   *
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public GameState getResult(int game) {
+    return RESULTS[this.index.get(this.entry(game) + 6)];
+  }
+
+  /**
+   * Returns the numbers of every game in the archive, in order.
+   */
+  public IntStream games() {
+    return IntStream.range(0, this.numGames);
+  }
+
+  /**
+   * Returns the numbers of the games played on the given board size, in order.
+   */
+  public IntStream withBoardSize(int boardSize) {
+    return this.games().filter(game -> this.getBoardSize(game) == boardSize);
+  }
+
+  /**
+   * Returns the numbers of the games with the given result, in order.
+   */
+  public IntStream withResult(GameState result) {
+    return this.games().filter(game -> this.getResult(game) == result);
+  }
+
+  /**
+   * Returns a view of the mapped archive positioned at the given game's record. Views are
+   * independent, so games can be read from several threads at once.
+   */
+  private ByteBuffer recordOf(int game) {
+    ByteBuffer view = this.records.duplicate();
+    view.position((int) this.getOffset(game));
+    return view;
+  }
+
+  /**
+   * Decodes the given game into a record.
+   *
+   * @throws IndexOutOfBoundsException if there is no such game
+   * @throws IllegalStateException     if the archive doesn't hold a valid record there
+   */
+  public GameRecord read(int game) {
+    try {
+      return GameRecord.readFrom(this.recordOf(game));
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IllegalStateException("Game " + game + " of the archive is corrupt", e);
+    }
+  }
+
+  /**
+   * Plays the given game on the given unstarted model, decoding the plies straight from the
+   * mapped archive.
+   *
+   * @param game  the number of the game
+   * @param model a game that hasn't been started
+   * @throws IndexOutOfBoundsException if there is no such game
+   * @throws IllegalStateException     if the model was already started or the archive doesn't
+   *                                   hold a valid, legal game there
+   */
+  public void replayInto(int game, ReversiModel model) {
+    try {
+      GameRecord.replayFrom(this.recordOf(game), model);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IllegalStateException("Game " + game + " of the archive is corrupt", e);
+    }
+  }
+
+  /**
+   * Replays the given game into a new {@link ReversiHexModel}.
+   *
+   * @param game the number of the game
+   * @return the game as it stood at the end of the record
+   * @throws IndexOutOfBoundsException if there is no such game
+   * @throws IllegalStateException     if the archive doesn't hold a valid, legal game there
+   */
+  public ReversiHexModel replay(int game) {
+    ReversiHexModel model = new ReversiHexModel();
+    this.replayInto(game, model);
+    return model;
+  }
+
+  /**
+   * Does nothing but mark the archive as finished with: the mappings stay valid until they are
+   * garbage collected, which Java gives no way to hurry.
+   */
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,135 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A 'GameArchiveWriter' appends games to a {@link GameArchive}: each record goes to the end of
+ * the archive file and a fixed-size entry describing it goes to the end of its index.
+ */
+public final class GameArchiveWriter implements Closeable {
+  private static final int INDEX_BUFFER_SIZE = 1 << 16;
+
+  private final GameRecordWriter records;
+  private final FileChannel index;
+  private final ByteBuffer indexBuffer;
+  private int numGames;
+
+  private GameArchiveWriter(GameRecordWriter records, FileChannel index, int numGames) {
+    this.records = records;
+    this.index = index;
+    this.indexBuffer = ByteBuffer.allocateDirect(INDEX_BUFFER_SIZE);
+    this.numGames = numGames;
+  }
+
+  /**
+   * Creates a new, empty archive and its index, replacing any already there.
+   *
+   * @param path the archive file; the index goes next to it
+   * @return a writer for the new archive
+   * @throws IOException if the files can't be created
+   */
+  public static GameArchiveWriter create(Path path) throws IOException {
+    GameRecordWriter records = GameRecordWriter.create(path);
+    FileChannel index = openIndex(path, records, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    GameArchiveWriter writer = new GameArchiveWriter(records, index, 0);
+    writer.indexBuffer.putInt(GameArchive.INDEX_MAGIC);
+    return writer;
+  }
+
+  /**
+   * Opens an existing archive to add more games after the ones already in it.
+   *
+   * @param path the archive file, whose index must be next to it
+   * @return a writer positioned after the last game
+   * @throws IOException if the files can't be opened or don't belong together
+   */
+  public static GameArchiveWriter append(Path path) throws IOException {
+    int numGames;
+    try (GameArchive existing = GameArchive.open(path)) {
+      numGames = existing.size();
+    }
+    long end = Files.size(path);
+    GameRecordWriter records = new GameRecordWriter(
+            FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND), end);
+    FileChannel index = openIndex(path, records, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+    return new GameArchiveWriter(records, index, numGames);
+  }
+
+  /**
+   * Opens the index of an archive whose record file is already open, and closes the record
+   * file if the index can't be opened.
+   */
+  private static FileChannel openIndex(Path path, GameRecordWriter records,
+                                       OpenOption... options) throws IOException {
+    try {
+      return FileChannel.open(GameArchive.indexPathOf(path), options);
+    } catch (IOException | RuntimeException e) {
+      try {
+        records.close();
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Adds a game to the archive.
+   *
+   * @param record the game
+   * @return the number of the game in the archive, counting from 0
+   * @throws IOException if the files can't be written or the archive has reached the largest
+   *                     size that can be mapped
+   */
+  public int append(GameRecord record) throws IOException {
+    if (this.records.position() + record.encodedSize() > GameArchive.MAX_ARCHIVE_BYTES) {
+      throw new IOException("The archive is full");
+    }
+    if (this.indexBuffer.remaining() < GameArchive.INDEX_ENTRY_BYTES) {
+      GameArchive.writeFully(this.index, this.indexBuffer);
+    }
+    GameArchive.putIndexEntry(this.indexBuffer, this.records.position(), record);
+    this.records.write(record);
+    return this.numGames++;
+  }
+
+  /**
+   * Returns the number of games in the archive, including those added by this writer.
+   */
+  public int size() {
+    return this.numGames;
+  }
+
+  /**
+   * Writes every buffered game and index entry to the files.
+   *
+   * @throws IOException if the files can't be written
+   */
+  public void flush() throws IOException {
+    // records first, so the index never refers to a record that isn't there yet
+    this.records.flush();
+    GameArchive.writeFully(this.index, this.indexBuffer);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.flush();
+    } finally {
+      try {
+        this.records.close();
+      } finally {
+        this.index.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package archive;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+import model.GameScore;
+import model.GameState;
+import model.MoveLog;
+import model.ReversiModel;
+
+/**
+ * A 'GameRecord' is a compact, immutable record of one game: the board size, the result and
+ * every ply in order, each ply being a {@link MoveLog} entry (a cell index or
+ * {@link MoveLog#PASS}).
+ * <p>
+ * In binary a record is the board size as a varint, the result as one byte holding its
+ * {@link GameState} ordinal, the number of plies as a varint, and then every ply as the varint
+ * of its entry plus one, so a pass is 0. A varint stores seven bits per byte, low bits first,
+ * with the top bit set on every byte but the last. Cells on boards up to size 11 take one byte,
+ * so a whole game usually fits in about as many bytes as it has plies. Records carry their own
+ * length, so they can simply be concatenated.
+ */
+public final class GameRecord {
+  private static final GameState[] RESULTS = GameState.values();
+
+  private final int boardSize;
+  private final GameState result;
+  private final int[] plies;
+
+  /**
+   * Creates a record.
+   *
+   * @param boardSize the square nxn dimension of the board
+   * @param result    how the game ended, or ONGOING if it hasn't
+   * @param plies     the move log entries, which are copied
+   * @throws IllegalArgumentException if the size is invalid, the result is null or an entry
+   *                                  isn't a pass or a cell of the board
+   */
+  public GameRecord(int boardSize, GameState result, int[] plies) {
+    if (boardSize <= 3 || boardSize % 2 == 0) {
+      throw new IllegalArgumentException("Invalid Board Sizes");
+    }
+    if (result == null || plies == null) {
+      throw new IllegalArgumentException("Result and plies can't be null");
+    }
+    for (int entry : plies) {
+      if (entry < MoveLog.PASS || entry >= boardSize * boardSize) {
+        throw new IllegalArgumentException("No cell " + entry + " on a board of " + boardSize);
+      }
+    }
+    this.boardSize = boardSize;
+    this.result = result;
+    this.plies = plies.clone();
+  }
+
+  /**
+   * Records the game played so far. The result is ONGOING unless the game is over, and then
+   * goes to whoever owns more discs, with equal counts a STALEMATE.
+   *
+   * @param model a started game
+   * @return a record of it
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  public static GameRecord of(ReversiModel model) {
+    MoveLog log = model.getMoveLog();
+    int[] plies = new int[log.size()];
+    PrimitiveIterator.OfInt entries = log.iterator();
+    for (int ply = 0; ply < plies.length; ply++) {
+      plies[ply] = entries.nextInt();
+    }
+    GameState result = GameState.ONGOING;
+    if (model.isGameOver()) {
+      GameScore score = model.getScore();
+      int margin = score.getBlackCount() - score.getWhiteCount();
+      result = margin > 0 ? GameState.PLAYER1WIN
+              : margin < 0 ? GameState.PLAYER2WIN : GameState.STALEMATE;
+    }
+    return new GameRecord(model.getDimensions(), result, plies);
+  }
+
+  /**
+   * Returns the square nxn dimension of the board.
+   */
+  public int getBoardSize() {
+    return this.boardSize;
+  }
+
+  /**
+   * Returns how the game ended, or ONGOING if it hadn't when it was recorded.
+   */
+  public GameState getResult() {
+    return this.result;
+  }
+
+  /**
+   * Returns the number of moves and passes recorded.
+   */
+  public int getNumPlies() {
+    return this.plies.length;
+  }
+
+  /**
+   * Returns the move log entry of the given ply: a cell index, or {@link MoveLog#PASS}.
+   *
+   * @throws IndexOutOfBoundsException if there is no such ply
+   */
+  public int getPly(int ply) {
+    return this.plies[ply];
+  }
+
+  /**
+   * Starts the given game on this record's board and plays every recorded ply on it.
+   *
+   * @param model a game that hasn't been started
+   * @throws IllegalStateException if the game was already started or a recorded move is
+   *                               illegal in it
+   */
+  public void replayInto(ReversiModel model) {
+    model.startGame(this.boardSize);
+    for (int ply = 0; ply < this.plies.length; ply++) {
+      play(model, ply, this.plies[ply]);
+    }
+  }
+
+  /**
+   * Starts the given game and plays the record at the position of the given buffer on it,
+   * decoding each ply straight from the buffer instead of building a record first. Moves the
+   * position past the record.
+   *
+   * @param buffer a buffer positioned at the start of a record
+   * @param model  a game that hasn't been started
+   * @throws BufferUnderflowException if the buffer ends before the record does
+   * @throws IllegalArgumentException if the bytes aren't a valid record
+   * @throws IllegalStateException    if the game was already started or a recorded move is
+   *                                  illegal in it
+   */
+  static void replayFrom(ByteBuffer buffer, ReversiModel model) {
+    int boardSize = getVarint(buffer);
+    buffer.get();
+    int numPlies = getVarint(buffer);
+    model.startGame(boardSize);
+    for (int ply = 0; ply < numPlies; ply++) {
+      play(model, ply, getVarint(buffer) - 1);
+    }
+  }
+
+  private static void play(ReversiModel model, int ply, int entry) {
+    if (entry == MoveLog.PASS) {
+      model.pass();
+      return;
+    }
+    int boardSize = model.getDimensions();
+    try {
+      model.makeMove(entry % boardSize, entry / boardSize);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw new IllegalStateException("Ply " + ply + " of the record is illegal", e);
+    }
+  }
+
+  /**
+   * Returns the number of bytes {@link #writeTo} takes.
+   */
+  public int encodedSize() {
+    int bytes = varintSize(this.boardSize) + 1 + varintSize(this.plies.length);
+    for (int entry : this.plies) {
+      bytes += varintSize(entry + 1);
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes this record at the position of the given buffer and moves the position past it.
+   *
+   * @param buffer a buffer with at least {@link #encodedSize()} bytes remaining
+   * @throws java.nio.BufferOverflowException if there isn't enough room
+   */
+  public void writeTo(ByteBuffer buffer) {
+    putVarint(buffer, this.boardSize);
+    buffer.put((byte) this.result.ordinal());
+    putVarint(buffer, this.plies.length);
+    for (int entry : this.plies) {
+      putVarint(buffer, entry + 1);
+    }
+  }
+
+  /**
+   * Reads one record from the position of the given buffer and moves the position past it.
+   *
+   * @param buffer a buffer positioned at the start of a record
+   * @return the record
+   * @throws BufferUnderflowException if the buffer ends before the record does
+   * @throws IllegalArgumentException if the bytes aren't a valid record
+   */
+  public static GameRecord readFrom(ByteBuffer buffer) {
+    int boardSize = getVarint(buffer);
+    int result = buffer.get();
+    if (result < 0 || result >= RESULTS.length) {
+      throw new IllegalArgumentException("Corrupt game record: no result " + result);
+    }
+    int numPlies = getVarint(buffer);
+    if (numPlies < 0) {
+      throw new IllegalArgumentException("Corrupt game record: " + numPlies + " plies");
+    }
+    if (numPlies > buffer.remaining()) {
+      // every ply takes at least a byte, so the buffer can't hold them all
+      throw new BufferUnderflowException();
+    }
+    int[] plies = new int[numPlies];
+    for (int ply = 0; ply < numPlies; ply++) {
+      plies[ply] = getVarint(buffer) - 1;
+    }
+    return new GameRecord(boardSize, RESULTS[result], plies);
+  }
+
+  static int varintSize(int value) {
+    int bytes = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      bytes++;
+    }
+    return bytes;
+  }
+
+  static void putVarint(ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  static int getVarint(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Corrupt game record: varint too long");
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    GameRecord other = (GameRecord) o;
+    return other.boardSize == this.boardSize && other.result == this.result
+            && Arrays.equals(other.plies, this.plies);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * this.boardSize + this.result.hashCode()) + Arrays.hashCode(this.plies);
+  }
+
+  @Override
+  public String toString() {
+    return "GameRecord[size " + this.boardSize + ", " + this.result + ", "
+            + this.plies.length + " plies]";
+  }
+}
@@ -0,0 +1,110 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A 'GameRecordReader' reads back the {@link GameRecord}s a {@link GameRecordWriter} wrote,
+ * in order. The channel is read in large blocks and records are decoded straight out of the
+ * block, so a record is only copied once, into its own ply array.
+ */
+public final class GameRecordReader implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final ReadableByteChannel channel;
+  // bytes read from the channel but not yet decoded, between position and limit
+  private ByteBuffer buffer;
+  private long position;
+
+  /**
+   * Creates a reader of the records in the given channel, from its current position.
+   *
+   * @param channel a blocking channel positioned at the start of a record; closed when this
+   *                reader is closed
+   */
+  public GameRecordReader(ReadableByteChannel channel) {
+    if (channel == null) {
+      throw new IllegalArgumentException("Channel can't be null");
+    }
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.buffer.flip();
+    this.position = 0;
+  }
+
+  /**
+   * Opens a file of records for reading.
+   *
+   * @param path the file to read
+   * @return a reader positioned at the first record
+   * @throws IOException if the file can't be opened
+   */
+  public static GameRecordReader open(Path path) throws IOException {
+    return new GameRecordReader(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the record, or null at the end of the channel
+   * @throws EOFException if the channel ends in the middle of a record
+   * @throws IOException  if the channel fails or holds something that isn't a record
+   */
+  public GameRecord read() throws IOException {
+    while (true) {
+      int start = this.buffer.position();
+      try {
+        GameRecord record = GameRecord.readFrom(this.buffer);
+        this.position += this.buffer.position() - start;
+        return record;
+      } catch (BufferUnderflowException e) {
+        this.buffer.position(start);
+        if (!this.fill()) {
+          if (this.buffer.hasRemaining()) {
+            throw new EOFException("Truncated game record at offset " + this.position);
+          }
+          return null;
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Bad game record at offset " + this.position, e);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of bytes of records read so far.
+   */
+  public long position() {
+    return this.position;
+  }
+
+  /**
+   * Reads more of the channel after the undecoded bytes, growing the buffer if they fill it.
+   *
+   * @return false if the channel had nothing more
+   */
+  private boolean fill() throws IOException {
+    if (this.buffer.position() == 0 && this.buffer.limit() == this.buffer.capacity()) {
+      ByteBuffer bigger = ByteBuffer.allocateDirect(this.buffer.capacity() * 2);
+      bigger.put(this.buffer);
+      this.buffer = bigger;
+    } else {
+      this.buffer.compact();
+    }
+    int read = this.channel.read(this.buffer);
+    this.buffer.flip();
+    return read > 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+}
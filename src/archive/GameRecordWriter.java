@@ -0,0 +1,100 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A 'GameRecordWriter' streams {@link GameRecord}s to a channel one after another. Records are
+ * encoded into a buffer that is written out whenever it fills up, so writing many small records
+ * costs few system calls. Call {@link #close()} or {@link #flush()} to make sure everything has
+ * reached the channel.
+ */
+public final class GameRecordWriter implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final WritableByteChannel channel;
+  private ByteBuffer buffer;
+  private long position;
+
+  /**
+   * Creates a writer that appends records to the given channel, starting at the given offset.
+   *
+   * @param channel  where to write; closed when this writer is closed
+   * @param position the offset of the channel's current position, reported by {@link #write}
+   */
+  public GameRecordWriter(WritableByteChannel channel, long position) {
+    if (channel == null) {
+      throw new IllegalArgumentException("Channel can't be null");
+    }
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.position = position;
+  }
+
+  /**
+   * Creates a writer for a new file, replacing any file already there.
+   *
+   * @param path the file to write
+   * @return a writer positioned at the start of the file
+   * @throws IOException if the file can't be created
+   */
+  public static GameRecordWriter create(Path path) throws IOException {
+    return new GameRecordWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 0);
+  }
+
+  /**
+   * Appends one record.
+   *
+   * @param record the record to write
+   * @return the offset the record starts at
+   * @throws IOException if the channel fails
+   */
+  public long write(GameRecord record) throws IOException {
+    int size = record.encodedSize();
+    if (this.buffer.remaining() < size) {
+      this.flush();
+      if (this.buffer.capacity() < size) {
+        this.buffer = ByteBuffer.allocateDirect(size);
+      }
+    }
+    long start = this.position;
+    record.writeTo(this.buffer);
+    this.position += size;
+    return start;
+  }
+
+  /**
+   * Returns the offset the next record will start at.
+   */
+  public long position() {
+    return this.position;
+  }
+
+  /**
+   * Writes every buffered record to the channel.
+   *
+   * @throws IOException if the channel fails
+   */
+  public void flush() throws IOException {
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.flush();
+    } finally {
+      this.channel.close();
+    }
+  }
+}
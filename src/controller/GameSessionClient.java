@@ -0,0 +1,98 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A 'GameSessionClient' is a minimal blocking client for a {@link GameSessionServer} running on
+ * the same machine. It sends one command at a time and waits for its reply.
+ */
+public class GameSessionClient implements AutoCloseable {
+  private final Socket socket;
+  private final BufferedReader in;
+  private final Writer out;
+
+  /**
+   * Connects to a server on the loopback interface.
+   *
+   * @param port the port the server listens on
+   * @throws IOException if the connection can't be made
+   */
+  public GameSessionClient(int port) throws IOException {
+    this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    this.in = new BufferedReader(new InputStreamReader(this.socket.getInputStream(),
+            StandardCharsets.UTF_8));
+    this.out = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(),
+            StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Sends one command and returns the server's reply.
+   *
+   * @param command the command, without a line terminator
+   * @return the reply line
+   * @throws IOException if the connection fails or the server closes it
+   */
+  public String send(String command) throws IOException {
+    this.out.write(command);
+    this.out.write('\n');
+    this.out.flush();
+    String reply = this.in.readLine();
+    if (reply == null) {
+      throw new IOException("The server closed the connection");
+    }
+    return reply;
+  }
+
+  /**
+   * Starts a new game and returns its ID.
+   *
+   * @param size the board size
+   * @return the new game's ID
+   * @throws IOException           if the connection fails
+   * @throws IllegalStateException if the server refused to start the game
+   */
+  public String newGame(int size) throws IOException {
+    return expectOk(this.send("NEW " + size)).substring(3);
+  }
+
+  public String move(String gameId, int x, int y) throws IOException {
+    return this.send("MOVE " + gameId + " " + x + " " + y);
+  }
+
+  public String pass(String gameId) throws IOException {
+    return this.send("PASS " + gameId);
+  }
+
+  public String state(String gameId) throws IOException {
+    return this.send("STATE " + gameId);
+  }
+
+  private static String expectOk(String reply) {
+    if (!reply.startsWith("OK")) {
+      throw new IllegalStateException(reply);
+    }
+    return reply;
+  }
+
+  /**
+   * Says goodbye to the server and closes the connection.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.send("QUIT");
+    } catch (IOException e) {
+      // the connection is being closed anyway
+    } finally {
+      this.socket.close();
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A 'GameSessionServer' hosts the games of a {@link GameSessions} registry over a local TCP
+ * socket. Clients send one command per line and get one reply line back, see
+ * {@link GameSessions}; {@code QUIT} closes the connection with the reply {@code BYE}.
+ * <p>
+ * Every connection is served by its own thread. On a JDK with virtual threads these are
+ * virtual threads, so a server can hold tens of thousands of idle connections; on older JDKs
+ * they are pooled platform threads. A connection may drive any number of games, and any game
+ * may be driven from several connections.
+ */
+public class GameSessionServer implements AutoCloseable {
+  // the pauses before retrying a failed accept, doubling from the shortest to the longest
+  private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+  private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+  private final GameSessions sessions;
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+  private final Set<Socket> openSockets;
+  private final Thread acceptor;
+
+  /**
+   * Starts a server on the loopback interface.
+   *
+   * @param sessions the games to host
+   * @param port     the port to listen on, or 0 for any free port
+   * @throws IOException if the port can't be bound
+   */
+  public GameSessionServer(GameSessions sessions, int port) throws IOException {
+    this.sessions = sessions;
+    this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    this.connections = newConnectionExecutor();
+    this.openSockets = ConcurrentHashMap.newKeySet();
+    this.acceptor = new Thread(this::acceptConnections, "reversi-session-acceptor");
+    this.acceptor.setDaemon(true);
+    this.acceptor.start();
+  }
+
+  /**
+   * Returns an executor that runs every task on a new virtual thread if the JDK has them, or
+   * on a cached pool of daemon platform threads if it doesn't.
+   */
+  static ExecutorService newConnectionExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+              .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "reversi-session");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   */
+  public int getPort() {
+    return this.serverSocket.getLocalPort();
+  }
+
+  /**
+   * Accepts connections until the server is closed. A failed accept is reported on standard
+   * error and retried after a pause that doubles while the failures go on, so that a lasting
+   * error such as running out of file descriptors doesn't turn into a busy loop.
+   */
+  private void acceptConnections() {
+    long backoffMillis = 0;
+    while (!this.serverSocket.isClosed()) {
+      Socket socket;
+      try {
+        socket = this.serverSocket.accept();
+      } catch (IOException e) {
+        if (this.serverSocket.isClosed()) {
+          return;
+        }
+        backoffMillis = Math.max(MIN_ACCEPT_BACKOFF_MILLIS,
+                Math.min(backoffMillis * 2, MAX_ACCEPT_BACKOFF_MILLIS));
+        System.err.println("GameSessionServer: accepting a connection failed, retrying in "
+                + backoffMillis + " ms: " + e);
+        try {
+          Thread.sleep(backoffMillis);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        continue;
+      }
+      backoffMillis = 0;
+      this.openSockets.add(socket);
+      this.connections.execute(() -> this.serve(socket));
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket connection = socket;
+         BufferedReader in = new BufferedReader(new InputStreamReader(
+                 connection.getInputStream(), StandardCharsets.UTF_8));
+         Writer out = new BufferedWriter(new OutputStreamWriter(
+                 connection.getOutputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        if (line.trim().equalsIgnoreCase("QUIT")) {
+          out.write("BYE\n");
+          out.flush();
+          return;
+        }
+        String reply;
+        try {
+          reply = this.sessions.handle(line);
+        } catch (RuntimeException e) {
+          // every command gets a reply, even one that broke the registry
+          reply = "ERR internal error";
+        }
+        out.write(reply);
+        out.write('\n');
+        out.flush();
+      }
+    } catch (SocketException e) {
+      // the client went away or the server is closing
+    } catch (IOException e) {
+      // nothing can be reported to a client whose connection failed
+    } finally {
+      this.openSockets.remove(socket);
+    }
+  }
+
+  /**
+   * Stops accepting connections and closes every open one. The games stay in the registry.
+   */
+  @Override
+  public void close() throws IOException {
+    this.serverSocket.close();
+    for (Socket socket : this.openSockets) {
+      socket.close();
+    }
+    this.connections.shutdownNow();
+  }
+}
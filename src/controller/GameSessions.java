@@ -0,0 +1,190 @@
+package controller;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import discs.Disc;
+import discs.DiscColor;
+import model.BoardEngine;
+import model.GameScore;
+import model.ReversiModel;
+import model.ReversiModelFactory;
+
+/**
+ * A 'GameSessions' is a registry of running games keyed by game ID, driven by one-line text
+ * commands. Every command gets exactly one line back, starting with {@code OK} or
+ * {@code ERR}:
+ * <pre>
+ *   NEW size           OK gameId
+ *   MOVE gameId x y    OK
+ *   PASS gameId        OK
+ *   STATE gameId       OK size turn black white empty over cells
+ *   END gameId         OK
+ * </pre>
+ * In a STATE reply, turn is PLAYER1 or PLAYER2, over is true or false, and cells lists every
+ * grid cell row by row as X (black), O (white), - (facedown) or . (outside the hexagon).
+ * <p>
+ * Commands on the same game run one at a time, each holding that game's own lock, while
+ * commands on different games run in parallel. The registry itself is lock-free.
+ */
+public class GameSessions {
+  /**
+   * The largest board a client may start a game on, so that one command can't take the memory
+   * every other game shares.
+   */
+  public static final int MAX_BOARD_SIZE = 99;
+
+  private final Map<String, Session> games;
+  private final AtomicLong nextId;
+  private final BoardEngine engine;
+
+  /**
+   * Creates an empty registry whose games use the given board representation.
+   *
+   * @param engine the board representation of new games
+   * @throws IllegalArgumentException if engine is null
+   */
+  public GameSessions(BoardEngine engine) {
+    if (engine == null) {
+      throw new IllegalArgumentException("Engine can't be null");
+    }
+    this.games = new ConcurrentHashMap<>();
+    this.nextId = new AtomicLong(1);
+    this.engine = engine;
+  }
+
+  /**
+   * Returns the number of games currently held.
+   */
+  public int size() {
+    return this.games.size();
+  }
+
+  /**
+   * Runs one command and returns its reply. Malformed commands, rule violations and any other
+   * failure of the command are reported as {@code ERR} replies rather than thrown.
+   *
+   * @param line the command
+   * @return the reply, without a line terminator
+   */
+  public String handle(String line) {
+    String[] words = line.trim().split("\\s+");
+    try {
+      switch (words[0].toUpperCase()) {
+        case "NEW":
+          expectArguments(words, 1);
+          return this.newGame(Integer.parseInt(words[1]));
+        case "MOVE":
+          expectArguments(words, 3);
+          int x = Integer.parseInt(words[2]);
+          int y = Integer.parseInt(words[3]);
+          return this.withGame(words[1], model -> model.makeMove(x, y));
+        case "PASS":
+          expectArguments(words, 1);
+          return this.withGame(words[1], ReversiModel::pass);
+        case "STATE":
+          expectArguments(words, 1);
+          return this.state(words[1]);
+        case "END":
+          expectArguments(words, 1);
+          return this.games.remove(words[1]) == null ? unknownGame(words[1]) : "OK";
+        default:
+          return "ERR unknown command " + words[0];
+      }
+    } catch (NumberFormatException e) {
+      return "ERR expected a number";
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return "ERR " + e.getMessage();
+    } catch (RuntimeException e) {
+      return "ERR internal error: " + e.getClass().getSimpleName();
+    }
+  }
+
+  private static void expectArguments(String[] words, int count) {
+    if (words.length != count + 1) {
+      throw new IllegalArgumentException(words[0].toUpperCase() + " takes " + count
+              + " argument(s)");
+    }
+  }
+
+  private static String unknownGame(String id) {
+    return "ERR no game " + id;
+  }
+
+  private String newGame(int size) {
+    if (size > MAX_BOARD_SIZE) {
+      return "ERR board size can be at most " + MAX_BOARD_SIZE;
+    }
+    ReversiModel model = ReversiModelFactory.create(this.engine);
+    model.startGame(size);
+    String id = "g" + this.nextId.getAndIncrement();
+    this.games.put(id, new Session(model));
+    return "OK " + id;
+  }
+
+  private String withGame(String id, Consumer<ReversiModel> action) {
+    Session session = this.games.get(id);
+    if (session == null) {
+      return unknownGame(id);
+    }
+    session.lock.lock();
+    try {
+      action.accept(session.model);
+      return "OK";
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  private String state(String id) {
+    Session session = this.games.get(id);
+    if (session == null) {
+      return unknownGame(id);
+    }
+    session.lock.lock();
+    try {
+      ReversiModel model = session.model;
+      int size = model.getDimensions();
+      GameScore score = model.getScore();
+      StringBuilder reply = new StringBuilder("OK ").append(size).append(' ')
+              .append(model.currentTurn()).append(' ')
+              .append(score.getBlackCount()).append(' ')
+              .append(score.getWhiteCount()).append(' ')
+              .append(score.getEmptyCount()).append(' ')
+              .append(model.isGameOver()).append(' ');
+      Disc[][] board = model.getBoard();
+      for (int y = 0; y < size; y++) {
+        for (int x = 0; x < size; x++) {
+          reply.append(cellSymbol(board[y][x]));
+        }
+      }
+      return reply.toString();
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  private static char cellSymbol(Disc disc) {
+    if (disc == null) {
+      return '.';
+    }
+    DiscColor color = disc.getColor();
+    return color == DiscColor.BLACK ? 'X' : color == DiscColor.WHITE ? 'O' : '-';
+  }
+
+  /**
+   * A 'Session' is one hosted game and the lock that serialises commands on it.
+   */
+  private static final class Session {
+    private final ReversiModel model;
+    private final ReentrantLock lock;
+
+    private Session(ReversiModel model) {
+      this.model = model;
+      this.lock = new ReentrantLock();
+    }
+  }
+}
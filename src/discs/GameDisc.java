@@ -4,13 +4,37 @@ import java.util.Objects;
 
 // find better name.
 public class GameDisc implements Disc {
+  // one shared disc per type and colour, indexed by ordinal
+  private static final GameDisc[][] CANONICAL =
+          new GameDisc[DiscType.values().length][DiscColor.values().length];
+
+  static {
+    for (DiscType type : DiscType.values()) {
+      for (DiscColor color : DiscColor.values()) {
+        CANONICAL[type.ordinal()][color.ordinal()] = new GameDisc(type, color);
+      }
+    }
+  }
+
   private final DiscType type;
-  private DiscColor color;
+  private final DiscColor color;
   public GameDisc(DiscType type, DiscColor tileColor) {
     this.type = type;
     this.color = tileColor;
   }
 
+  /**
+   * Returns the shared disc of the given type and colour. Discs are immutable, so every cell
+   * holding the same kind of disc can use the same instance instead of allocating its own.
+   *
+   * @param type  the type of the disc
+   * @param color the colour of the disc
+   * @return the canonical disc for that type and colour
+   */
+  public static GameDisc of(DiscType type, DiscColor color) {
+    return CANONICAL[type.ordinal()][color.ordinal()];
+  }
+
   @Override
   public DiscColor getColor() {
     return this.color;
@@ -33,4 +57,9 @@ public class GameDisc implements Disc {
   public int hashcode() {
     return Objects.hash(this.color, this.type);
   }
+
+  @Override
+  public int hashCode() {
+    return this.hashcode();
+  }
 }
\ No newline at end of file
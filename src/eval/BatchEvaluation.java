@@ -0,0 +1,100 @@
+package eval;
+
+/**
+ * A 'BatchEvaluation' holds the features a {@link BatchEvaluator} computed for every position
+ * of a {@link PositionBatch}, one array per feature, indexed like the batch. It can be reused
+ * for batch after batch of up to its capacity.
+ */
+public final class BatchEvaluation {
+  private int size;
+  final int[] blackCount;
+  final int[] whiteCount;
+  final int[] mobility;
+  final int[] blackFrontier;
+  final int[] whiteFrontier;
+  final int[] weightedScore;
+
+  /**
+   * Creates an evaluation with room for the given number of positions.
+   *
+   * @param capacity the most positions one evaluation can hold
+   * @throws IllegalArgumentException if the capacity isn't positive
+   */
+  public BatchEvaluation(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("An evaluation needs room for at least one position");
+    }
+    this.blackCount = new int[capacity];
+    this.whiteCount = new int[capacity];
+    this.mobility = new int[capacity];
+    this.blackFrontier = new int[capacity];
+    this.whiteFrontier = new int[capacity];
+    this.weightedScore = new int[capacity];
+  }
+
+  public int capacity() {
+    return this.mobility.length;
+  }
+
+  /**
+   * Returns the number of positions evaluated.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  void setSize(int size) {
+    this.size = size;
+  }
+
+  /**
+   * Returns the number of black discs of the given position.
+   */
+  public int getBlackCount(int position) {
+    return this.blackCount[this.check(position)];
+  }
+
+  /**
+   * Returns the number of white discs of the given position.
+   */
+  public int getWhiteCount(int position) {
+    return this.whiteCount[this.check(position)];
+  }
+
+  /**
+   * Returns the number of legal moves of the player to move in the given position.
+   */
+  public int getMobility(int position) {
+    return this.mobility[this.check(position)];
+  }
+
+  /**
+   * Returns the number of black discs next to at least one empty cell in the given position.
+   */
+  public int getBlackFrontier(int position) {
+    return this.blackFrontier[this.check(position)];
+  }
+
+  /**
+   * Returns the number of white discs next to at least one empty cell in the given position.
+   */
+  public int getWhiteFrontier(int position) {
+    return this.whiteFrontier[this.check(position)];
+  }
+
+  /**
+   * Returns the total weight of the cells holding black discs minus that of the cells holding
+   * white discs in the given position.
+   */
+  public int getWeightedScore(int position) {
+    return this.weightedScore[this.check(position)];
+  }
+
+  private int check(int position) {
+    if (position < 0 || position >= this.size) {
+      throw new IndexOutOfBoundsException("No position " + position + " in an evaluation of "
+              + this.size);
+    }
+    return position;
+  }
+}
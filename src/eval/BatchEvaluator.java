@@ -0,0 +1,244 @@
+package eval;
+
+import java.util.Arrays;
+
+import model.BitboardLayout;
+import model.MoveDirection;
+
+/**
+ * A 'BatchEvaluator' computes, for every position of a {@link PositionBatch}, the disc counts,
+ * the mobility of the player to move, the frontier discs of each colour and a weighted-cell
+ * score.
+ * <p>
+ * Every feature is worked out one board word at a time across the whole batch, with the same
+ * shift-and-mask flood fills as {@link model.HexBitboard}: each inner loop runs over
+ * contiguous arrays of longs with no branches, which is the shape the JIT compiler vectorises.
+ * Only the weighted score visits discs one at a time.
+ * <p>
+ * Built with the vectorApi profile ({@code gradle build -PvectorApi}) and run with
+ * {@code --add-modules jdk.incubator.vector}, the flood fills use the JDK Vector API instead,
+ * so they are vectorised whatever the JIT compiler decides. The Vector API is still an
+ * incubator module that every program using this class would have to add, so plain loops
+ * remain the default.
+ * <p>
+ * An evaluator keeps scratch arrays sized for the largest batch it has seen, so it must not be
+ * shared between threads.
+ */
+public final class BatchEvaluator {
+  private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+
+  private final BatchKernels kernels;
+  private final BitboardLayout layout;
+  private final int numWords;
+  private final long[] validMask;
+  // the weight of the cell at each bit position
+  private final int[] bitWeights;
+  // scratch, [word][position]
+  private long[][] own;
+  private long[][] opp;
+  private long[][] empty;
+  private long[][] run;
+  private long[][] next;
+  private long[][] moves;
+  private long[][] frontier;
+
+  /**
+   * Creates an evaluator for boards of the given size.
+   *
+   * @param boardSize   the square nxn dimension of the boards to evaluate
+   * @param cellWeights the weight of every cell for the weighted score, indexed by
+   *                    {@code y * boardSize + x}; entries for cells outside the hexagon are
+   *                    ignored
+   * @throws IllegalArgumentException if the size is not a valid board size or there isn't one
+   *                                  weight per grid cell
+   */
+  public BatchEvaluator(int boardSize, int[] cellWeights) {
+    this.kernels = BatchKernels.BEST;
+    this.layout = BitboardLayout.forSize(boardSize);
+    if (cellWeights == null || cellWeights.length != boardSize * boardSize) {
+      throw new IllegalArgumentException("Need one weight per grid cell");
+    }
+    this.numWords = this.layout.getNumWords();
+    this.validMask = new long[this.numWords];
+    this.layout.copyValidMask(this.validMask);
+    this.bitWeights = new int[this.layout.getNumBits()];
+    for (int cell = 0; cell < this.layout.getNumCells(); cell++) {
+      int bit = this.layout.cellToBit(cell);
+      this.bitWeights[bit] = cellWeights[this.layout.rowOf(bit) * boardSize
+              + this.layout.columnOf(bit)];
+    }
+    this.ensureCapacity(1);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (this.own != null && this.own[0].length >= capacity) {
+      return;
+    }
+    this.own = new long[this.numWords][capacity];
+    this.opp = new long[this.numWords][capacity];
+    this.empty = new long[this.numWords][capacity];
+    this.run = new long[this.numWords][capacity];
+    this.next = new long[this.numWords][capacity];
+    this.moves = new long[this.numWords][capacity];
+    this.frontier = new long[this.numWords][capacity];
+  }
+
+  /**
+   * Returns true if the flood fills run on the JDK Vector API, which needs the vectorApi build
+   * profile and the {@code jdk.incubator.vector} module at run time.
+   */
+  public boolean isVectorised() {
+    return this.kernels.isVectorised();
+  }
+
+  /**
+   * Evaluates every position of a batch into a new evaluation.
+   *
+   * @see #evaluate(PositionBatch, BatchEvaluation)
+   */
+  public BatchEvaluation evaluate(PositionBatch batch) {
+    BatchEvaluation result = new BatchEvaluation(batch.capacity());
+    this.evaluate(batch, result);
+    return result;
+  }
+
+  /**
+   * Evaluates every position of a batch.
+   *
+   * @param batch  the positions to evaluate
+   * @param result where to store the features, overwriting what it held before
+   * @throws IllegalArgumentException if the batch is for another board size or the result
+   *                                  can't hold the whole batch
+   */
+  public void evaluate(PositionBatch batch, BatchEvaluation result) {
+    if (batch.getLayout() != this.layout) {
+      throw new IllegalArgumentException("Board size doesn't match the evaluator");
+    }
+    int count = batch.size();
+    if (result.capacity() < count) {
+      throw new IllegalArgumentException("The evaluation is too small for the batch");
+    }
+    this.ensureCapacity(count);
+    result.setSize(count);
+
+    for (int word = 0; word < this.numWords; word++) {
+      long[] black = batch.black[word];
+      long[] white = batch.white[word];
+      long[] own = this.own[word];
+      long[] opp = this.opp[word];
+      long[] empty = this.empty[word];
+      long valid = this.validMask[word];
+      for (int p = 0; p < count; p++) {
+        long mask = batch.blackToMove[p];
+        own[p] = (black[p] & mask) | (white[p] & ~mask);
+        opp[p] = (white[p] & mask) | (black[p] & ~mask);
+        empty[p] = valid & ~(black[p] | white[p]);
+      }
+      Arrays.fill(this.moves[word], 0, count, 0L);
+      Arrays.fill(this.frontier[word], 0, count, 0L);
+    }
+
+    for (MoveDirection direction : DIRECTIONS) {
+      int shift = this.layout.getShift(direction);
+      this.collectMoves(shift, count);
+      // a disc is on the frontier if an empty cell, shifted one step, lands on it
+      this.shift(this.empty, shift, this.next, count);
+      this.or(this.next, this.frontier, count);
+    }
+
+    Arrays.fill(result.blackCount, 0, count, 0);
+    Arrays.fill(result.whiteCount, 0, count, 0);
+    Arrays.fill(result.mobility, 0, count, 0);
+    Arrays.fill(result.blackFrontier, 0, count, 0);
+    Arrays.fill(result.whiteFrontier, 0, count, 0);
+    Arrays.fill(result.weightedScore, 0, count, 0);
+    for (int word = 0; word < this.numWords; word++) {
+      long[] black = batch.black[word];
+      long[] white = batch.white[word];
+      long[] moves = this.moves[word];
+      long[] frontier = this.frontier[word];
+      for (int p = 0; p < count; p++) {
+        result.blackCount[p] += Long.bitCount(black[p]);
+        result.whiteCount[p] += Long.bitCount(white[p]);
+        result.mobility[p] += Long.bitCount(moves[p]);
+        result.blackFrontier[p] += Long.bitCount(frontier[p] & black[p]);
+        result.whiteFrontier[p] += Long.bitCount(frontier[p] & white[p]);
+      }
+      int base = word << 6;
+      for (int p = 0; p < count; p++) {
+        int score = 0;
+        for (long bits = black[p]; bits != 0; bits &= bits - 1) {
+          score += this.bitWeights[base + Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = white[p]; bits != 0; bits &= bits - 1) {
+          score -= this.bitWeights[base + Long.numberOfTrailingZeros(bits)];
+        }
+        result.weightedScore[p] += score;
+      }
+    }
+  }
+
+  /**
+   * Extends every mover's discs along one direction across runs of opponent discs, and adds the
+   * empty cells that end a run to the moves. Only the fronts of the runs are shifted, so the
+   * loop ends once every run of every position has walked off the board or stopped.
+   */
+  private void collectMoves(int shift, int count) {
+    this.shift(this.own, shift, this.next, count);
+    boolean any = this.capture(count);
+    while (any) {
+      this.shift(this.run, shift, this.next, count);
+      for (int word = 0; word < this.numWords; word++) {
+        this.kernels.addMoves(this.next[word], this.empty[word], this.moves[word], 0, count);
+      }
+      any = this.capture(count);
+    }
+  }
+
+  /**
+   * Keeps the shifted cells that hold opponent discs as the new fronts of the runs, and
+   * returns true if any position still has a run going.
+   */
+  private boolean capture(int count) {
+    long any = 0;
+    for (int word = 0; word < this.numWords; word++) {
+      any |= this.kernels.capture(this.next[word], this.opp[word], this.run[word], 0, count);
+    }
+    return any != 0;
+  }
+
+  private void or(long[][] src, long[][] dest, int count) {
+    for (int word = 0; word < this.numWords; word++) {
+      this.kernels.or(src[word], dest[word], 0, count);
+    }
+  }
+
+  /**
+   * Writes every position of {@code src} shifted by {@code shift} bits into {@code dest},
+   * clearing the bits that don't land on a playable cell, like
+   * {@link BitboardLayout#shift(long[], int, long[])} does for one board.
+   */
+  private void shift(long[][] src, int shift, long[][] dest, int count) {
+    int distance = Math.abs(shift);
+    int wordShift = distance >>> 6;
+    int bitShift = distance & 63;
+    for (int word = 0; word < this.numWords; word++) {
+      long[] to = dest[word];
+      long valid = this.validMask[word];
+      // the word the bits come from, and the one the bits carried across a word boundary do
+      int from = shift >= 0 ? word - wordShift : word + wordShift;
+      int carry = shift >= 0 ? from - 1 : from + 1;
+      if (from < 0 || from >= this.numWords) {
+        Arrays.fill(to, 0, count, 0L);
+        continue;
+      }
+      long[] main = src[from];
+      long[] carried = bitShift != 0 && carry >= 0 && carry < this.numWords ? src[carry] : null;
+      if (shift >= 0) {
+        this.kernels.shiftLeft(main, carried, bitShift, valid, to, 0, count);
+      } else {
+        this.kernels.shiftRight(main, carried, bitShift, valid, to, 0, count);
+      }
+    }
+  }
+}
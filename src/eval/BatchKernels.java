@@ -0,0 +1,100 @@
+package eval;
+
+/**
+ * A 'BatchKernels' runs the inner loops of a {@link BatchEvaluator}: bitwise operations on one
+ * board word of a range of the positions of a batch, which are stored contiguously.
+ * <p>
+ * This class runs them as plain loops. When the build includes the optional Vector API
+ * sources and the {@code jdk.incubator.vector} module is present at run time, {@link #BEST}
+ * is a subclass that runs them with explicit vector instructions instead.
+ */
+class BatchKernels {
+  // compiled only by the vectorApi build profile; see build.gradle
+  private static final String VECTOR_KERNELS = "eval.VectorBatchKernels";
+
+  /**
+   * The fastest kernels available.
+   */
+  static final BatchKernels BEST = load();
+
+  private static BatchKernels load() {
+    try {
+      return (BatchKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor()
+              .newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // not built with the profile, or the module wasn't added at run time
+      return new BatchKernels();
+    }
+  }
+
+  /**
+   * Returns true if these kernels use the Vector API.
+   */
+  boolean isVectorised() {
+    return false;
+  }
+
+  /**
+   * Shifts each word of {@code from} left by {@code bitShift} bits, filling the low bits with
+   * the high bits of {@code carried} if it isn't null, and keeps only the bits of {@code valid}.
+   */
+  void shiftLeft(long[] from, long[] carried, int bitShift, long valid, long[] to, int start,
+                 int end) {
+    if (carried == null) {
+      for (int p = start; p < end; p++) {
+        to[p] = (from[p] << bitShift) & valid;
+      }
+    } else {
+      for (int p = start; p < end; p++) {
+        to[p] = ((from[p] << bitShift) | (carried[p] >>> (64 - bitShift))) & valid;
+      }
+    }
+  }
+
+  /**
+   * Shifts each word of {@code from} right by {@code bitShift} bits, filling the high bits with
+   * the low bits of {@code carried} if it isn't null, and keeps only the bits of {@code valid}.
+   */
+  void shiftRight(long[] from, long[] carried, int bitShift, long valid, long[] to, int start,
+                  int end) {
+    if (carried == null) {
+      for (int p = start; p < end; p++) {
+        to[p] = (from[p] >>> bitShift) & valid;
+      }
+    } else {
+      for (int p = start; p < end; p++) {
+        to[p] = ((from[p] >>> bitShift) | (carried[p] << (64 - bitShift))) & valid;
+      }
+    }
+  }
+
+  /**
+   * Sets {@code run} to {@code next & opp} and returns the bitwise or of the words it set.
+   */
+  long capture(long[] next, long[] opp, long[] run, int start, int end) {
+    long any = 0;
+    for (int p = start; p < end; p++) {
+      run[p] = next[p] & opp[p];
+      any |= run[p];
+    }
+    return any;
+  }
+
+  /**
+   * Adds {@code next & empty} to {@code moves}.
+   */
+  void addMoves(long[] next, long[] empty, long[] moves, int start, int end) {
+    for (int p = start; p < end; p++) {
+      moves[p] |= next[p] & empty[p];
+    }
+  }
+
+  /**
+   * Adds {@code from} to {@code to}.
+   */
+  void or(long[] from, long[] to, int start, int end) {
+    for (int p = start; p < end; p++) {
+      to[p] |= from[p];
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package eval;
+
+import discs.DiscColor;
+
+/**
+ * A 'CornerEdgeFeature' counts the discs each player owns in one region of the rim of the
+ * hexagon: the six corners, which have three neighbours and can never be flipped, or the other
+ * edge cells, which have four. Its value is the mover's count minus the other player's.
+ */
+public final class CornerEdgeFeature implements Feature {
+  public static final String CORNERS = "corners";
+  public static final String EDGES = "edges";
+
+  private final String name;
+  private final int numNeighbours;
+  // 1 for the cells of the region on the board last reset to, 0 elsewhere
+  private int[] region;
+  private int regionSize;
+  // black discs minus white discs in the region
+  private int margin;
+
+  private CornerEdgeFeature(String name, int numNeighbours) {
+    this.name = name;
+    this.numNeighbours = numNeighbours;
+    this.regionSize = -1;
+  }
+
+  /**
+   * Returns a feature for the six corner cells.
+   */
+  public static CornerEdgeFeature corners() {
+    return new CornerEdgeFeature(CORNERS, 3);
+  }
+
+  /**
+   * Returns a feature for the edge cells between the corners.
+   */
+  public static CornerEdgeFeature edges() {
+    return new CornerEdgeFeature(EDGES, 4);
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public void reset(EvalBoard board) {
+    int numCells = board.getSize() * board.getSize();
+    if (this.regionSize != board.getSize()) {
+      this.region = new int[numCells];
+      for (int cell = 0; cell < numCells; cell++) {
+        if (board.getGeometry().isValid(cell)
+                && board.neighbours(cell).length == this.numNeighbours) {
+          this.region[cell] = 1;
+        }
+      }
+      this.regionSize = board.getSize();
+    }
+    this.margin = 0;
+    for (int cell = 0; cell < numCells; cell++) {
+      this.margin += this.region[cell] * DiscFeature.sign(board.valueAt(cell));
+    }
+  }
+
+  @Override
+  public void moved(EvalBoard board, int cell, int[] flips, int numFlips) {
+    if (cell >= 0) {
+      this.margin -= DiscFeature.sign(board.getMover().ordinal()) * this.change(cell, flips,
+              numFlips);
+    }
+  }
+
+  @Override
+  public void undone(EvalBoard board, int cell, int[] flips, int numFlips) {
+    if (cell >= 0) {
+      this.margin -= DiscFeature.sign(board.getMover().ordinal()) * this.change(cell, flips,
+              numFlips);
+    }
+  }
+
+  /**
+   * Returns how much a move changes the margin in favour of the player who made it.
+   */
+  private int change(int cell, int[] flips, int numFlips) {
+    int change = this.region[cell];
+    for (int i = 0; i < numFlips; i++) {
+      change += 2 * this.region[flips[i]];
+    }
+    return change;
+  }
+
+  @Override
+  public int value(EvalBoard board) {
+    return board.getMover() == DiscColor.BLACK ? this.margin : -this.margin;
+  }
+}
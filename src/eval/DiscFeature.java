@@ -0,0 +1,55 @@
+package eval;
+
+import discs.DiscColor;
+
+/**
+ * A 'DiscFeature' is the disc margin: how many more discs the player to move has than the
+ * other player.
+ */
+public final class DiscFeature implements Feature {
+  public static final String NAME = "discs";
+
+  // black discs minus white discs
+  private int margin;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void reset(EvalBoard board) {
+    this.margin = 0;
+    int numCells = board.getSize() * board.getSize();
+    for (int cell = 0; cell < numCells; cell++) {
+      this.margin += sign(board.valueAt(cell));
+    }
+  }
+
+  @Override
+  public void moved(EvalBoard board, int cell, int[] flips, int numFlips) {
+    if (cell >= 0) {
+      // the player who moved is no longer the one to move
+      this.margin -= sign(board.getMover().ordinal()) * (1 + 2 * numFlips);
+    }
+  }
+
+  @Override
+  public void undone(EvalBoard board, int cell, int[] flips, int numFlips) {
+    if (cell >= 0) {
+      this.margin -= sign(board.getMover().ordinal()) * (1 + 2 * numFlips);
+    }
+  }
+
+  @Override
+  public int value(EvalBoard board) {
+    return board.getMover() == DiscColor.BLACK ? this.margin : -this.margin;
+  }
+
+  /**
+   * Returns 1 for a black disc, -1 for a white one and 0 for anything else.
+   */
+  static int sign(int value) {
+    return value == 0 ? 1 : value == 1 ? -1 : 0;
+  }
+}
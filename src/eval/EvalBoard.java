@@ -0,0 +1,238 @@
+package eval;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import discs.DiscColor;
+import model.BoardSnapshot;
+import model.HexGeometry;
+import model.MoveDirection;
+import player.PlayerTurn;
+
+/**
+ * An 'EvalBoard' is the position an {@link Evaluator} follows: the colour of every cell and the
+ * player to move. {@link Feature}s read it when they are reset and when they are told about a
+ * move.
+ * <p>
+ * It knows no rules: the game being followed works out what each move flips, and the board
+ * only copies the result.
+ */
+public final class EvalBoard {
+  private static final DiscColor[] COLORS = DiscColor.values();
+  private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+  // the cell value of grid cells that lie outside the hexagon
+  private static final byte OUTSIDE = -1;
+  static final byte EMPTY = (byte) DiscColor.FACEDOWN.ordinal();
+  private static final Map<Integer, Lines> LINES = new ConcurrentHashMap<>();
+
+  private final int size;
+  private final HexGeometry geometry;
+  private final Lines lines;
+  private final byte[] cells;
+  private DiscColor mover;
+  private int emptyCount;
+  private int plies;
+
+  /**
+   * Copies a position.
+   */
+  EvalBoard(BoardSnapshot snapshot) {
+    this.size = snapshot.getDimensions();
+    this.geometry = HexGeometry.forSize(this.size);
+    this.lines = LINES.computeIfAbsent(this.size, Lines::new);
+    this.cells = new byte[this.size * this.size];
+    for (int cell = 0; cell < this.cells.length; cell++) {
+      int x = cell % this.size;
+      int y = cell / this.size;
+      this.cells[cell] = snapshot.isValid(x, y)
+              ? (byte) snapshot.getColorAt(x, y).ordinal() : OUTSIDE;
+      if (this.cells[cell] == EMPTY) {
+        this.emptyCount++;
+      }
+    }
+    this.mover = snapshot.getTurn() == PlayerTurn.PLAYER1 ? DiscColor.BLACK : DiscColor.WHITE;
+    this.plies = 0;
+  }
+
+  /**
+   * Returns the square nxn dimension of the board.
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns the lines of the board, to find neighbours and rays.
+   */
+  public HexGeometry getGeometry() {
+    return this.geometry;
+  }
+
+  /**
+   * Returns the colour of the player to move.
+   */
+  public DiscColor getMover() {
+    return this.mover;
+  }
+
+  /**
+   * Returns the number of empty cells.
+   */
+  public int getEmptyCount() {
+    return this.emptyCount;
+  }
+
+  /**
+   * Returns the number of moves played or passed since the board was copied, which is the
+   * number that can be undone.
+   */
+  public int getPly() {
+    return this.plies;
+  }
+
+  /**
+   * Returns the colour on a cell.
+   *
+   * @param cell a grid cell index {@code y * size + x}
+   * @return the colour of its disc, FACEDOWN if it is empty
+   * @throws IllegalArgumentException if the cell isn't a cell of the hexagon
+   */
+  public DiscColor getColor(int cell) {
+    if (!this.geometry.isValid(cell)) {
+      throw new IllegalArgumentException("POSN provided by user is invalid");
+    }
+    return COLORS[this.cells[cell]];
+  }
+
+  /**
+   * Returns the colour ordinal on a cell of the hexagon, without checking the cell.
+   */
+  int valueAt(int cell) {
+    return this.cells[cell];
+  }
+
+  /**
+   * Returns the ray of cells met walking from a cell in one direction, nearest first. The array
+   * is shared and must not be changed.
+   */
+  int[] ray(int cell, int direction) {
+    return this.lines.rays[cell][direction];
+  }
+
+  /**
+   * Returns the cells next to a cell. The array is shared and must not be changed.
+   */
+  int[] neighbours(int cell) {
+    return this.lines.neighbours[cell];
+  }
+
+  /**
+   * Returns true if the given player could play on the given cell: it is empty and the disc
+   * would flip at least one of the other player's discs.
+   *
+   * @param cell   a cell of the hexagon
+   * @param player BLACK or WHITE
+   */
+  public boolean isLegal(int cell, DiscColor player) {
+    if (this.cells[cell] != EMPTY) {
+      return false;
+    }
+    byte own = (byte) player.ordinal();
+    for (int[] ray : this.lines.rays[cell]) {
+      int run = 0;
+      while (run < ray.length && this.cells[ray[run]] == 1 - own) {
+        run++;
+      }
+      if (run > 0 && run < ray.length && this.cells[ray[run]] == own) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Plays a move for the player to move, given the discs it flipped.
+   *
+   * @param cell     the cell the disc was placed on
+   * @param flips    the cells of the discs the move flipped
+   * @param numFlips how many entries of {@code flips} are used
+   */
+  void apply(int cell, int[] flips, int numFlips) {
+    byte own = (byte) this.mover.ordinal();
+    this.cells[cell] = own;
+    this.emptyCount--;
+    for (int i = 0; i < numFlips; i++) {
+      this.cells[flips[i]] = own;
+    }
+    this.mover = opponent(this.mover);
+    this.plies++;
+  }
+
+  /**
+   * Passes the turn.
+   */
+  void pass() {
+    this.mover = opponent(this.mover);
+    this.plies++;
+  }
+
+  /**
+   * Takes back the most recent move or pass, given the discs it had flipped.
+   *
+   * @param cell     the cell the disc was placed on, or -1 for a pass
+   * @param flips    the cells of the discs the move flipped
+   * @param numFlips how many entries of {@code flips} are used
+   */
+  void revert(int cell, int[] flips, int numFlips) {
+    this.plies--;
+    this.mover = opponent(this.mover);
+    if (cell >= 0) {
+      byte other = (byte) opponent(this.mover).ordinal();
+      for (int i = 0; i < numFlips; i++) {
+        this.cells[flips[i]] = other;
+      }
+      this.cells[cell] = EMPTY;
+      this.emptyCount++;
+    }
+  }
+
+  /**
+   * Returns the other player's colour.
+   */
+  static DiscColor opponent(DiscColor color) {
+    return color == DiscColor.BLACK ? DiscColor.WHITE : DiscColor.BLACK;
+  }
+
+  /**
+   * The rays and neighbours of every cell of one board size, shared by every board of that
+   * size.
+   */
+  private static final class Lines {
+    // [cell][direction], nearest first; null for cells outside the hexagon
+    private final int[][][] rays;
+    private final int[][] neighbours;
+
+    private Lines(int size) {
+      HexGeometry geometry = HexGeometry.forSize(size);
+      this.rays = new int[size * size][][];
+      this.neighbours = new int[size * size][];
+      for (int cell = 0; cell < this.rays.length; cell++) {
+        if (!geometry.isValid(cell)) {
+          continue;
+        }
+        this.rays[cell] = new int[DIRECTIONS.length][];
+        int[] around = new int[DIRECTIONS.length];
+        int count = 0;
+        for (MoveDirection direction : DIRECTIONS) {
+          this.rays[cell][direction.ordinal()] = geometry.ray(cell, direction);
+          int neighbour = geometry.neighbour(cell, direction);
+          if (neighbour >= 0) {
+            around[count++] = neighbour;
+          }
+        }
+        this.neighbours[cell] = Arrays.copyOf(around, count);
+      }
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package eval;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An 'EvalWeights' is the weight of each {@link Feature} of an {@link Evaluator}, by feature
+ * name. A feature without a weight counts for nothing.
+ * <p>
+ * Weights are kept in a plain text file of {@code name = weight} lines, where the weight is an
+ * integer and lines starting with '#' are comments, so a bot can be tuned by editing the file:
+ * <pre>
+ * # prefer corners and mobility over raw discs
+ * corners = 10
+ * mobility = 3
+ * discs = 1
+ * </pre>
+ */
+public final class EvalWeights {
+  /**
+   * The weights of the standard features that the search engine plays with by default.
+   */
+  public static final EvalWeights DEFAULT = new EvalWeights(defaults());
+
+  private final Map<String, Integer> weights;
+
+  private EvalWeights(Map<String, Integer> weights) {
+    this.weights = Collections.unmodifiableMap(new TreeMap<>(weights));
+  }
+
+  private static Map<String, Integer> defaults() {
+    Map<String, Integer> weights = new TreeMap<>();
+    weights.put(DiscFeature.NAME, 1);
+    weights.put(MobilityFeature.NAME, 3);
+    weights.put(CornerEdgeFeature.CORNERS, 10);
+    weights.put(CornerEdgeFeature.EDGES, 2);
+    weights.put(FrontierFeature.NAME, 2);
+    weights.put(StabilityFeature.NAME, 6);
+    weights.put(ParityFeature.NAME, 1);
+    return weights;
+  }
+
+  /**
+   * Returns the given weights.
+   *
+   * @throws IllegalArgumentException if weights is null or a name is empty or contains
+   *                                  whitespace or any of '=', ':', '#' and '!'
+   */
+  public static EvalWeights of(Map<String, Integer> weights) {
+    if (weights == null) {
+      throw new IllegalArgumentException("Weights can't be null");
+    }
+    for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+      checkName(entry.getKey());
+      if (entry.getValue() == null) {
+        throw new IllegalArgumentException("No weight for " + entry.getKey());
+      }
+    }
+    return new EvalWeights(weights);
+  }
+
+  /**
+   * Reads weights in the format of a weights file.
+   *
+   * @param text the lines of a weights file
+   * @throws IllegalArgumentException if a line isn't a name and an integer weight
+   */
+  public static EvalWeights parse(String text) {
+    Properties properties = new Properties();
+    try (Reader reader = new StringReader(text)) {
+      properties.load(reader);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Not a weights file: " + e.getMessage());
+    }
+    Map<String, Integer> weights = new TreeMap<>();
+    for (String name : properties.stringPropertyNames()) {
+      String value = properties.getProperty(name).trim();
+      try {
+        weights.put(name, Integer.parseInt(value));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("The weight of " + name + " isn't an integer: "
+                + value);
+      }
+    }
+    return of(weights);
+  }
+
+  /**
+   * Reads a weights file.
+   *
+   * @param path the file to read
+   * @return the weights in it
+   * @throws IOException if the file can't be read or isn't a weights file
+   */
+  public static EvalWeights load(Path path) throws IOException {
+    try {
+      return parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage() + " in " + path);
+    }
+  }
+
+  /**
+   * Writes these weights to a file in the weights file format, replacing any file already
+   * there.
+   *
+   * @param path the file to write
+   * @throws IOException if the file can't be written
+   */
+  public void save(Path path) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      writer.write(this.toString());
+    }
+  }
+
+  /**
+   * Returns the weight of the named feature, 0 if it has none.
+   */
+  public int getWeight(String name) {
+    return this.weights.getOrDefault(name, 0);
+  }
+
+  /**
+   * Returns the names of the features that have a weight, in alphabetical order.
+   */
+  public Set<String> getNames() {
+    return this.weights.keySet();
+  }
+
+  /**
+   * Returns a copy of these weights with the weight of one feature replaced.
+   *
+   * @throws IllegalArgumentException if the name is empty or contains whitespace or any of
+   *                                  '=', ':', '#' and '!'
+   */
+  public EvalWeights with(String name, int weight) {
+    checkName(name);
+    Map<String, Integer> weights = new TreeMap<>(this.weights);
+    weights.put(name, weight);
+    return new EvalWeights(weights);
+  }
+
+  private static void checkName(String name) {
+    if (name == null || name.isEmpty() || !name.matches("[^\\s=:#!]+")) {
+      throw new IllegalArgumentException("Not a feature name: " + name);
+    }
+  }
+
+  /**
+   * Returns the weights in the weights file format, one line per feature.
+   */
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    for (Map.Entry<String, Integer> entry : this.weights.entrySet()) {
+      text.append(entry.getKey()).append(" = ").append(entry.getValue())
+              .append(System.lineSeparator());
+    }
+    return text.toString();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EvalWeights && ((EvalWeights) other).weights.equals(this.weights);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.weights.hashCode();
+  }
+}
@@ -0,0 +1,218 @@
+package eval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.BoardSnapshot;
+import model.MoveLog;
+import model.ReversiModel;
+
+/**
+ * An 'Evaluator' scores positions for a search as the weighted sum of a set of
+ * {@link Feature}s.
+ * <p>
+ * Instead of looking at the whole board for every position it is asked about, it follows the
+ * search: it is reset to the game at the root, then makes and takes back the search's moves on
+ * that game, and passes the discs the game reports each move flipped on to its features so
+ * that they can update themselves from those cells alone. {@link #evaluate()} then only adds up
+ * what the features already know.
+ * <p>
+ * Features weighted 0 are left out and cost nothing. An evaluator keeps per-position state and
+ * must not be used by two threads at once.
+ */
+public final class Evaluator {
+  private final EvalWeights weights;
+  private final Feature[] features;
+  private final int[] featureWeights;
+  private EvalBoard board;
+  private int[] flips;
+
+  /**
+   * Creates an evaluator with the {@link #standardFeatures()} and the given weights.
+   *
+   * @throws IllegalArgumentException if weights is null or weighs a feature that isn't one of
+   *                                  the standard features
+   */
+  public Evaluator(EvalWeights weights) {
+    this(weights, standardFeatures());
+  }
+
+  /**
+   * Creates an evaluator with the given features and weights.
+   *
+   * @param weights  the weight of each feature, by name
+   * @param features the features to choose from; the evaluator takes them over
+   * @throws IllegalArgumentException if an argument is null, two features have the same name
+   *                                  or the weights name a feature that isn't in the list
+   */
+  public Evaluator(EvalWeights weights, List<Feature> features) {
+    if (weights == null || features == null) {
+      throw new IllegalArgumentException("Weights and features can't be null");
+    }
+    Set<String> names = new HashSet<>();
+    List<Feature> weighted = new ArrayList<>();
+    for (Feature feature : features) {
+      if (feature == null || !names.add(feature.getName())) {
+        throw new IllegalArgumentException("Features must be distinct and not null");
+      }
+      if (weights.getWeight(feature.getName()) != 0) {
+        weighted.add(feature);
+      }
+    }
+    for (String name : weights.getNames()) {
+      if (!names.contains(name)) {
+        throw new IllegalArgumentException("No feature called " + name);
+      }
+    }
+    this.weights = weights;
+    this.features = weighted.toArray(new Feature[0]);
+    this.featureWeights = new int[this.features.length];
+    for (int i = 0; i < this.features.length; i++) {
+      this.featureWeights[i] = weights.getWeight(this.features[i].getName());
+    }
+  }
+
+  /**
+   * Returns new instances of the built-in features: disc margin, corners, edges, mobility,
+   * frontier, stability and parity.
+   */
+  public static List<Feature> standardFeatures() {
+    return new ArrayList<>(Arrays.asList(new DiscFeature(), CornerEdgeFeature.corners(),
+            CornerEdgeFeature.edges(), new MobilityFeature(), new FrontierFeature(),
+            new StabilityFeature(), new ParityFeature()));
+  }
+
+  public EvalWeights getWeights() {
+    return this.weights;
+  }
+
+  /**
+   * Starts following the current position of a game.
+   *
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  public void reset(ReversiModel model) {
+    this.reset(model.snapshot());
+  }
+
+  /**
+   * Starts following a position.
+   */
+  public void reset(BoardSnapshot snapshot) {
+    this.board = new EvalBoard(snapshot);
+    int numCells = snapshot.getDimensions() * snapshot.getDimensions();
+    if (this.flips == null || this.flips.length < numCells) {
+      this.flips = new int[numCells];
+    }
+    for (Feature feature : this.features) {
+      feature.reset(this.board);
+    }
+  }
+
+  /**
+   * Plays a move on the game being followed and updates the features from the discs the game
+   * says it flipped.
+   *
+   * @param model the game the evaluator was reset to, in the position it is following
+   * @throws IllegalArgumentException if the coordinates are off the board
+   * @throws IllegalStateException    if the evaluator hasn't been reset or the move is illegal
+   */
+  public void makeMove(ReversiModel model, int x, int y) {
+    EvalBoard board = this.board();
+    model.makeMove(x, y);
+    int cell = y * board.getSize() + x;
+    int numFlips = model.lastFlips(this.flips);
+    board.apply(cell, this.flips, numFlips);
+    for (Feature feature : this.features) {
+      feature.moved(board, cell, this.flips, numFlips);
+    }
+  }
+
+  /**
+   * Passes the turn in the game being followed.
+   *
+   * @param model the game the evaluator was reset to, in the position it is following
+   * @throws IllegalStateException if the evaluator hasn't been reset
+   */
+  public void pass(ReversiModel model) {
+    EvalBoard board = this.board();
+    model.pass();
+    board.pass();
+    for (Feature feature : this.features) {
+      feature.moved(board, -1, this.flips, 0);
+    }
+  }
+
+  /**
+   * Takes back the most recent move or pass in the game being followed.
+   *
+   * @param model the game the evaluator was reset to, in the position it is following
+   * @throws IllegalStateException if the evaluator hasn't been reset or nothing has been played
+   *                               since
+   */
+  public void undoMove(ReversiModel model) {
+    EvalBoard board = this.board();
+    if (board.getPly() == 0) {
+      throw new IllegalStateException("There are no moves to undo.");
+    }
+    MoveLog log = model.getMoveLog();
+    int ply = log.size() - 1;
+    int cell = log.isPass(ply) ? -1 : log.getY(ply) * board.getSize() + log.getX(ply);
+    int numFlips = model.lastFlips(this.flips);
+    model.undoMove();
+    board.revert(cell, this.flips, numFlips);
+    for (Feature feature : this.features) {
+      feature.undone(board, cell, this.flips, numFlips);
+    }
+  }
+
+  /**
+   * Returns the score of the position being followed for the player to move: the sum of every
+   * feature's value times its weight.
+   *
+   * @throws IllegalStateException if the evaluator hasn't been reset
+   */
+  public int evaluate() {
+    EvalBoard board = this.board();
+    int score = 0;
+    for (int i = 0; i < this.features.length; i++) {
+      score += this.featureWeights[i] * this.features[i].value(board);
+    }
+    return score;
+  }
+
+  /**
+   * Returns the unweighted value of one feature for the player to move.
+   *
+   * @throws IllegalArgumentException if no feature with a non-zero weight has that name
+   * @throws IllegalStateException    if the evaluator hasn't been reset
+   */
+  public int getFeatureValue(String name) {
+    EvalBoard board = this.board();
+    for (Feature feature : this.features) {
+      if (feature.getName().equals(name)) {
+        return feature.value(board);
+      }
+    }
+    throw new IllegalArgumentException("No weighted feature called " + name);
+  }
+
+  /**
+   * Returns the position being followed.
+   *
+   * @throws IllegalStateException if the evaluator hasn't been reset
+   */
+  public EvalBoard getBoard() {
+    return this.board();
+  }
+
+  private EvalBoard board() {
+    if (this.board == null) {
+      throw new IllegalStateException("The evaluator hasn't been reset to a position");
+    }
+    return this.board;
+  }
+}
@@ -0,0 +1,50 @@
+package eval;
+
+/**
+ * A 'Feature' is one term of an {@link Evaluator}'s score, such as mobility or corner control.
+ * It keeps whatever it needs to know its value, and the evaluator tells it about every move
+ * so that it can update that from the cells the move changed rather than rescan the board.
+ * <p>
+ * A feature's value is from the point of view of the player to move: higher is better for that
+ * player. The evaluator multiplies it by the feature's weight, looked up by its name in an
+ * {@link EvalWeights}.
+ */
+public interface Feature {
+  /**
+   * Returns the name weights refer to this feature by. It must not contain whitespace or any
+   * of '=', ':', '#' and '!'.
+   */
+  String getName();
+
+  /**
+   * Works out the feature from scratch for the given position. Called whenever the evaluator
+   * starts following a new game.
+   */
+  void reset(EvalBoard board);
+
+  /**
+   * Updates the feature after a move or pass. The board already shows the position after it.
+   *
+   * @param board    the position after the move
+   * @param cell     the cell the disc was placed on, or -1 for a pass
+   * @param flips    the cells of the discs the move flipped
+   * @param numFlips how many entries of {@code flips} are used
+   */
+  void moved(EvalBoard board, int cell, int[] flips, int numFlips);
+
+  /**
+   * Updates the feature after a move or pass was taken back. The board already shows the
+   * position before it.
+   *
+   * @param board    the position before the move
+   * @param cell     the cell the disc was removed from, or -1 for a pass
+   * @param flips    the cells of the discs flipped back
+   * @param numFlips how many entries of {@code flips} are used
+   */
+  void undone(EvalBoard board, int cell, int[] flips, int numFlips);
+
+  /**
+   * Returns the value of the feature for the player to move.
+   */
+  int value(EvalBoard board);
+}
@@ -0,0 +1,97 @@
+package eval;
+
+import java.util.Arrays;
+
+/**
+ * A 'FrontierFeature' compares frontier discs, the discs next to at least one empty cell. They
+ * give the other player moves, so fewer is better: the value is the other player's frontier
+ * discs minus the mover's.
+ * <p>
+ * It keeps the number of empty neighbours of every cell, so a move only has to look again at
+ * the cell played, its neighbours and the discs it flipped.
+ */
+public final class FrontierFeature implements Feature {
+  public static final String NAME = "frontier";
+  private static final byte NONE = -1;
+
+  private int[] emptyNeighbours;
+  // [cell]: the colour of the frontier disc on it, or NONE
+  private byte[] frontier;
+  private final int[] counts;
+
+  public FrontierFeature() {
+    this.counts = new int[2];
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void reset(EvalBoard board) {
+    int numCells = board.getSize() * board.getSize();
+    this.emptyNeighbours = new int[numCells];
+    this.frontier = new byte[numCells];
+    Arrays.fill(this.frontier, NONE);
+    Arrays.fill(this.counts, 0);
+    for (int cell = 0; cell < numCells; cell++) {
+      if (board.getGeometry().isValid(cell)) {
+        for (int neighbour : board.neighbours(cell)) {
+          if (board.valueAt(neighbour) == EvalBoard.EMPTY) {
+            this.emptyNeighbours[cell]++;
+          }
+        }
+        this.refresh(board, cell);
+      }
+    }
+  }
+
+  @Override
+  public void moved(EvalBoard board, int cell, int[] flips, int numFlips) {
+    this.update(board, cell, flips, numFlips, -1);
+  }
+
+  @Override
+  public void undone(EvalBoard board, int cell, int[] flips, int numFlips) {
+    this.update(board, cell, flips, numFlips, 1);
+  }
+
+  /**
+   * Adds the given change to the empty neighbours of the cell played and refreshes every cell
+   * the move could have moved on or off the frontier.
+   */
+  private void update(EvalBoard board, int cell, int[] flips, int numFlips, int change) {
+    if (cell < 0) {
+      return;
+    }
+    this.refresh(board, cell);
+    for (int neighbour : board.neighbours(cell)) {
+      this.emptyNeighbours[neighbour] += change;
+      this.refresh(board, neighbour);
+    }
+    for (int i = 0; i < numFlips; i++) {
+      this.refresh(board, flips[i]);
+    }
+  }
+
+  private void refresh(EvalBoard board, int cell) {
+    int value = board.valueAt(cell);
+    byte now = value != EvalBoard.EMPTY && this.emptyNeighbours[cell] > 0 ? (byte) value : NONE;
+    if (now != this.frontier[cell]) {
+      if (this.frontier[cell] != NONE) {
+        this.counts[this.frontier[cell]]--;
+      }
+      if (now != NONE) {
+        this.counts[now]++;
+      }
+      this.frontier[cell] = now;
+    }
+  }
+
+  @Override
+  public int value(EvalBoard board) {
+    int mover = board.getMover().ordinal();
+    return this.counts[1 - mover] - this.counts[mover];
+  }
+}
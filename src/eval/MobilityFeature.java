@@ -0,0 +1,120 @@
+package eval;
+
+import java.util.Arrays;
+
+import discs.DiscColor;
+import model.HexGeometry;
+
+/**
+ * A 'MobilityFeature' is how many more legal moves the player to move has than the other player
+ * would have if it were their turn.
+ * <p>
+ * It remembers which empty cells are legal for each player. Whether an empty cell is legal only
+ * depends on the discs along its six rays up to the first empty cell, so after a move only the
+ * cell played and, along every ray from every changed disc, the first empty cell are checked
+ * again.
+ */
+public final class MobilityFeature implements Feature {
+  public static final String NAME = "mobility";
+
+  // [color][cell], and the number of true entries of each
+  private boolean[][] legal;
+  private final int[] counts;
+  // cells already checked by the current update are marked with its stamp
+  private int[] stamps;
+  private int stamp;
+
+  public MobilityFeature() {
+    this.counts = new int[2];
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void reset(EvalBoard board) {
+    int numCells = board.getSize() * board.getSize();
+    this.legal = new boolean[2][numCells];
+    this.stamps = new int[numCells];
+    this.stamp = 0;
+    Arrays.fill(this.counts, 0);
+    for (int cell = 0; cell < numCells; cell++) {
+      if (board.getGeometry().isValid(cell)) {
+        this.check(board, cell);
+      }
+    }
+  }
+
+  @Override
+  public void moved(EvalBoard board, int cell, int[] flips, int numFlips) {
+    this.update(board, cell, flips, numFlips);
+  }
+
+  @Override
+  public void undone(EvalBoard board, int cell, int[] flips, int numFlips) {
+    this.update(board, cell, flips, numFlips);
+  }
+
+  private void update(EvalBoard board, int cell, int[] flips, int numFlips) {
+    if (cell < 0) {
+      return;
+    }
+    this.stamp++;
+    this.recheck(board, cell);
+    this.recheckAround(board, cell);
+    for (int i = 0; i < numFlips; i++) {
+      this.recheckAround(board, flips[i]);
+    }
+  }
+
+  /**
+   * Checks again the first empty cell along each ray from a changed cell.
+   */
+  private void recheckAround(EvalBoard board, int cell) {
+    for (int direction = 0; direction < HexGeometry.NUM_DIRECTIONS; direction++) {
+      for (int next : board.ray(cell, direction)) {
+        if (board.valueAt(next) == EvalBoard.EMPTY) {
+          this.recheck(board, next);
+          break;
+        }
+      }
+    }
+  }
+
+  private void recheck(EvalBoard board, int cell) {
+    if (this.stamps[cell] != this.stamp) {
+      this.stamps[cell] = this.stamp;
+      this.check(board, cell);
+    }
+  }
+
+  private void check(EvalBoard board, int cell) {
+    for (int color = 0; color < 2; color++) {
+      boolean now = board.isLegal(cell, color == 0 ? DiscColor.BLACK : DiscColor.WHITE);
+      if (now != this.legal[color][cell]) {
+        this.legal[color][cell] = now;
+        this.counts[color] += now ? 1 : -1;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of moves the given player could make in the position last updated to.
+   *
+   * @throws IllegalArgumentException if the colour isn't BLACK or WHITE
+   */
+  public int getMoveCount(DiscColor color) {
+    if (color == DiscColor.FACEDOWN) {
+      throw new IllegalArgumentException("Only black and white have moves");
+    }
+    return this.counts[color.ordinal()];
+  }
+
+  @Override
+  public int value(EvalBoard board) {
+    int mover = board.getMover().ordinal();
+    return this.counts[mover] - this.counts[1 - mover];
+  }
+}
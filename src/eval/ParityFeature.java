@@ -0,0 +1,35 @@
+package eval;
+
+/**
+ * A 'ParityFeature' is 1 if an odd number of cells are empty and -1 otherwise. If nobody
+ * passes, the player to move with an odd number of empty cells gets the last move of the game,
+ * which can't be answered.
+ */
+public final class ParityFeature implements Feature {
+  public static final String NAME = "parity";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void reset(EvalBoard board) {
+    // the board already counts its empty cells
+  }
+
+  @Override
+  public void moved(EvalBoard board, int cell, int[] flips, int numFlips) {
+    // the board already counts its empty cells
+  }
+
+  @Override
+  public void undone(EvalBoard board, int cell, int[] flips, int numFlips) {
+    // the board already counts its empty cells
+  }
+
+  @Override
+  public int value(EvalBoard board) {
+    return (board.getEmptyCount() & 1) == 1 ? 1 : -1;
+  }
+}
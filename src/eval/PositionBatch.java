@@ -0,0 +1,153 @@
+package eval;
+
+import discs.DiscColor;
+import model.BitboardLayout;
+import model.BoardSnapshot;
+import model.HexBitboard;
+import model.ReversiModel;
+import player.PlayerTurn;
+
+/**
+ * A 'PositionBatch' packs many positions of one board size into flat arrays so that a
+ * {@link BatchEvaluator} can work on all of them in tight loops.
+ * <p>
+ * The layout is struct-of-arrays: each position is a pair of bitsets in the packing of a
+ * {@link BitboardLayout}, and word {@code w} of the black discs of every position sits side by
+ * side in {@code black[w]}, and likewise for white. Whose turn it is is kept as a mask of all
+ * ones for black to move and all zeros for white, so picking the mover's discs is bit
+ * arithmetic instead of a branch. Reading or writing one word across the whole batch is then a
+ * walk over one contiguous array.
+ * <p>
+ * A batch has a fixed capacity and is filled with {@link #add} and emptied with
+ * {@link #clear()}, so the same arrays can be reused for batch after batch.
+ */
+public final class PositionBatch {
+  private final BitboardLayout layout;
+  private final int capacity;
+  private int size;
+  // [word][position]
+  final long[][] black;
+  final long[][] white;
+  // [position]: -1 if black is to move, 0 if white is
+  final long[] blackToMove;
+
+  /**
+   * Creates an empty batch.
+   *
+   * @param boardSize the square nxn dimension of the boards in the batch
+   * @param capacity  the most positions the batch can hold
+   * @throws IllegalArgumentException if the size is not a valid board size or the capacity
+   *                                  isn't positive
+   */
+  public PositionBatch(int boardSize, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("A batch needs room for at least one position");
+    }
+    this.layout = BitboardLayout.forSize(boardSize);
+    this.capacity = capacity;
+    this.size = 0;
+    this.black = new long[this.layout.getNumWords()][capacity];
+    this.white = new long[this.layout.getNumWords()][capacity];
+    this.blackToMove = new long[capacity];
+  }
+
+  /**
+   * Returns the layout every position in the batch is packed with.
+   */
+  public BitboardLayout getLayout() {
+    return this.layout;
+  }
+
+  /**
+   * Returns the number of positions in the batch.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  public int capacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Removes every position from the batch.
+   */
+  public void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Adds a position given as a bitboard.
+   *
+   * @param board a position on a board of the batch's size
+   * @return the index of the position in the batch
+   * @throws IllegalArgumentException if the board is a different size
+   * @throws IllegalStateException    if the batch is full
+   */
+  public int add(HexBitboard board) {
+    if (board.getLayout() != this.layout) {
+      throw new IllegalArgumentException("Board size doesn't match the batch");
+    }
+    int position = this.nextPosition();
+    long[] words = new long[this.layout.getNumWords()];
+    board.copyDiscs(DiscColor.BLACK, words);
+    for (int word = 0; word < words.length; word++) {
+      this.black[word][position] = words[word];
+    }
+    board.copyDiscs(DiscColor.WHITE, words);
+    for (int word = 0; word < words.length; word++) {
+      this.white[word][position] = words[word];
+    }
+    this.blackToMove[position] = board.isBlackToMove() ? -1L : 0L;
+    return position;
+  }
+
+  /**
+   * Adds the current position of a game.
+   *
+   * @param model a started game on a board of the batch's size
+   * @return the index of the position in the batch
+   * @throws IllegalArgumentException if the game's board is a different size
+   * @throws IllegalStateException    if the batch is full or the game hasn't been started
+   */
+  public int add(ReversiModel model) {
+    return this.add(model.snapshot());
+  }
+
+  /**
+   * Adds a snapshot of a game.
+   *
+   * @param snapshot a position on a board of the batch's size
+   * @return the index of the position in the batch
+   * @throws IllegalArgumentException if the snapshot's board is a different size
+   * @throws IllegalStateException    if the batch is full
+   */
+  public int add(BoardSnapshot snapshot) {
+    if (snapshot.getDimensions() != this.layout.getSize()) {
+      throw new IllegalArgumentException("Board size doesn't match the batch");
+    }
+    int position = this.nextPosition();
+    for (int word = 0; word < this.layout.getNumWords(); word++) {
+      this.black[word][position] = 0;
+      this.white[word][position] = 0;
+    }
+    for (int cell = 0; cell < this.layout.getNumCells(); cell++) {
+      int bit = this.layout.cellToBit(cell);
+      DiscColor color = snapshot.getColorAt(this.layout.columnOf(bit), this.layout.rowOf(bit));
+      if (color == DiscColor.BLACK) {
+        this.black[bit >>> 6][position] |= 1L << bit;
+      } else if (color == DiscColor.WHITE) {
+        this.white[bit >>> 6][position] |= 1L << bit;
+      }
+    }
+    this.blackToMove[position] = snapshot.getTurn() == PlayerTurn.PLAYER1 ? -1L : 0L;
+    return position;
+  }
+
+  private int nextPosition() {
+    if (this.size == this.capacity) {
+      throw new IllegalStateException("The batch is full");
+    }
+    return this.size++;
+  }
+}
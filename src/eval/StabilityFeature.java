@@ -0,0 +1,177 @@
+package eval;
+
+import java.util.Arrays;
+
+import model.MoveDirection;
+
+/**
+ * A 'StabilityFeature' compares stable discs, the discs that can never be flipped again. Its
+ * value is the mover's stable discs minus the other player's.
+ * <p>
+ * A disc is stable if on each of the three axes through it the line is full, or one of its two
+ * neighbours on the axis is off the board or another stable disc of its colour, as in
+ * {@link player.EndgameSolver}. Stable discs stay stable, so a move can only add to them: only
+ * the cell played, the discs it flipped, the lines through it that it filled and then the
+ * neighbours of whatever becomes stable are looked at. The discs each move made stable are
+ * remembered so that undoing it removes exactly those.
+ */
+public final class StabilityFeature implements Feature {
+  public static final String NAME = "stability";
+  // pairs of opposite directions, one pair per axis of the hexagon
+  private static final int[][] AXES = {
+      {MoveDirection.LEFT.ordinal(), MoveDirection.RIGHT.ordinal()},
+      {MoveDirection.UPLEFT.ordinal(), MoveDirection.DOWNRIGHT.ordinal()},
+      {MoveDirection.UPRIGHT.ordinal(), MoveDirection.DOWNLEFT.ordinal()}
+  };
+  private static final byte NONE = -1;
+
+  // [cell]: the colour of the stable disc on it, or NONE
+  private byte[] stable;
+  private final int[] counts;
+  // the cells made stable so far, in order, and where each ply's cells start
+  private int[] added;
+  private int addedTop;
+  private int[] plyStarts;
+  private int plies;
+  // cells waiting to be looked at, and whether each is already waiting
+  private int[] queue;
+  private boolean[] queued;
+  private int queueTop;
+
+  public StabilityFeature() {
+    this.counts = new int[2];
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void reset(EvalBoard board) {
+    int numCells = board.getSize() * board.getSize();
+    this.stable = new byte[numCells];
+    Arrays.fill(this.stable, NONE);
+    Arrays.fill(this.counts, 0);
+    this.added = new int[numCells];
+    this.addedTop = 0;
+    this.plyStarts = new int[numCells];
+    this.plies = 0;
+    this.queue = new int[numCells];
+    this.queued = new boolean[numCells];
+    this.queueTop = 0;
+    for (int cell = 0; cell < numCells; cell++) {
+      if (board.getGeometry().isValid(cell)) {
+        this.enqueue(cell);
+      }
+    }
+    this.settle(board);
+    // what was stable to begin with can't be undone
+    this.addedTop = 0;
+  }
+
+  @Override
+  public void moved(EvalBoard board, int cell, int[] flips, int numFlips) {
+    if (this.plies == this.plyStarts.length) {
+      this.plyStarts = Arrays.copyOf(this.plyStarts, this.plies * 2);
+    }
+    this.plyStarts[this.plies++] = this.addedTop;
+    if (cell < 0) {
+      return;
+    }
+    this.enqueue(cell);
+    for (int i = 0; i < numFlips; i++) {
+      this.enqueue(flips[i]);
+    }
+    for (int[] axis : AXES) {
+      if (isLineFull(board, cell, axis)) {
+        for (int side : axis) {
+          for (int next : board.ray(cell, side)) {
+            this.enqueue(next);
+          }
+        }
+      }
+    }
+    this.settle(board);
+  }
+
+  @Override
+  public void undone(EvalBoard board, int cell, int[] flips, int numFlips) {
+    int start = this.plyStarts[--this.plies];
+    while (this.addedTop > start) {
+      int stableCell = this.added[--this.addedTop];
+      this.counts[this.stable[stableCell]]--;
+      this.stable[stableCell] = NONE;
+    }
+  }
+
+  @Override
+  public int value(EvalBoard board) {
+    int mover = board.getMover().ordinal();
+    return this.counts[mover] - this.counts[1 - mover];
+  }
+
+  private void enqueue(int cell) {
+    if (!this.queued[cell] && this.stable[cell] == NONE) {
+      this.queued[cell] = true;
+      this.queue[this.queueTop++] = cell;
+    }
+  }
+
+  /**
+   * Looks at every waiting cell, marking the ones that are now stable and queueing their
+   * neighbours, until nothing is waiting.
+   */
+  private void settle(EvalBoard board) {
+    while (this.queueTop > 0) {
+      int cell = this.queue[--this.queueTop];
+      this.queued[cell] = false;
+      if (this.isStable(board, cell)) {
+        this.stable[cell] = (byte) board.valueAt(cell);
+        this.counts[board.valueAt(cell)]++;
+        this.added[this.addedTop++] = cell;
+        for (int neighbour : board.neighbours(cell)) {
+          this.enqueue(neighbour);
+        }
+      }
+    }
+  }
+
+  private boolean isStable(EvalBoard board, int cell) {
+    int color = board.valueAt(cell);
+    if (color == EvalBoard.EMPTY) {
+      return false;
+    }
+    for (int[] axis : AXES) {
+      if (!this.isAnchored(board, cell, axis[0], color)
+              && !this.isAnchored(board, cell, axis[1], color)
+              && !isLineFull(board, cell, axis)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the neighbour of a cell in the given direction is off the board or a stable
+   * disc of the given colour.
+   */
+  private boolean isAnchored(EvalBoard board, int cell, int direction, int color) {
+    int[] ray = board.ray(cell, direction);
+    return ray.length == 0 || this.stable[ray[0]] == color;
+  }
+
+  private static boolean isLineFull(EvalBoard board, int cell, int[] axis) {
+    if (board.valueAt(cell) == EvalBoard.EMPTY) {
+      return false;
+    }
+    for (int side : axis) {
+      for (int next : board.ray(cell, side)) {
+        if (board.valueAt(next) == EvalBoard.EMPTY) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,278 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A 'BitboardLayout' maps the cells of a hexagonal board onto bit positions so that a whole
+ * board can be stored as a few {@code long} words.
+ * <p>
+ * Cells are packed row by row in axial coordinates ({@code q = x - y / 2}) instead of the
+ * offset coordinates used by {@link ReversiHexModel}. In axial coordinates every
+ * {@link MoveDirection} is a constant bit shift, no matter the parity of the row. Each row is
+ * followed by one unused guard bit, so a shift that runs off the end of a row lands on an
+ * invalid bit instead of wrapping onto the next row.
+ * <p>
+ * Layouts are immutable and cached, so every board of the same size shares one instance.
+ */
+public final class BitboardLayout {
+  private static final Map<Integer, BitboardLayout> CACHE = new ConcurrentHashMap<>();
+
+  private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+
+  private final int size;
+  private final int qMin;
+  private final int stride;
+  private final int numBits;
+  private final int numWords;
+  private final int numCells;
+  private final long[] validMask;
+  private final int[] cellToBit;
+  private final int[] bitToCell;
+  private final int[] shifts;
+
+  private BitboardLayout(int size) {
+    this.size = size;
+    int middle = size / 2;
+    int centerQ = middle - middle / 2;
+    this.qMin = centerQ - middle;
+    // one guard column per row keeps horizontal and diagonal shifts from wrapping
+    this.stride = 2 * middle + 2;
+    this.numBits = size * this.stride;
+    this.numWords = (this.numBits + 63) / 64;
+    this.validMask = new long[this.numWords];
+    this.bitToCell = new int[this.numBits];
+    Arrays.fill(this.bitToCell, -1);
+
+    int cells = 0;
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        if (isOnHexagon(x, y)) {
+          cells++;
+        }
+      }
+    }
+    this.numCells = cells;
+    this.cellToBit = new int[cells];
+
+    int cell = 0;
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        if (isOnHexagon(x, y)) {
+          int bit = this.rawBit(x, y);
+          this.validMask[bit >>> 6] |= 1L << bit;
+          this.cellToBit[cell] = bit;
+          this.bitToCell[bit] = cell;
+          cell++;
+        }
+      }
+    }
+
+    this.shifts = new int[DIRECTIONS.length];
+    for (MoveDirection direction : DIRECTIONS) {
+      this.shifts[direction.ordinal()] = shiftFor(direction, this.stride);
+    }
+  }
+
+  /**
+   * Returns the shared layout for boards of the given size.
+   *
+   * @param size the square nxn dimension of the board, as passed to
+   *             {@link ReversiModel#startGame(int)}
+   * @return the layout for that size
+   * @throws IllegalArgumentException if the size is not a valid board size
+   */
+  public static BitboardLayout forSize(int size) {
+    if (size <= 3 || size % 2 == 0) {
+      throw new IllegalArgumentException("Invalid Board Sizes");
+    }
+    return CACHE.computeIfAbsent(size, BitboardLayout::new);
+  }
+
+  private static int shiftFor(MoveDirection direction, int stride) {
+    switch (direction) {
+      case LEFT:
+        return -1;
+      case RIGHT:
+        return 1;
+      case UPLEFT:
+        return -stride;
+      case UPRIGHT:
+        return -stride + 1;
+      case DOWNLEFT:
+        return stride - 1;
+      case DOWNRIGHT:
+        return stride;
+      default:
+        throw new IllegalArgumentException("Unknown direction: " + direction);
+    }
+  }
+
+  /**
+   * Determines whether the given offset coordinate is part of the hexagon. The board built by
+   * {@link ReversiHexModel} is exactly the set of cells within hex distance size / 2 of the
+   * middle cell.
+   */
+  private boolean isOnHexagon(int x, int y) {
+    if (x < 0 || y < 0 || x >= this.size || y >= this.size) {
+      return false;
+    }
+    int middle = this.size / 2;
+    int dq = (x - y / 2) - (middle - middle / 2);
+    int dr = y - middle;
+    return Math.max(Math.abs(dq), Math.max(Math.abs(dr), Math.abs(dq + dr))) <= middle;
+  }
+
+  private int rawBit(int x, int y) {
+    return y * this.stride + (x - y / 2 - this.qMin);
+  }
+
+  /**
+   * Returns the board dimension this layout was built for.
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns the number of bits used by one board, including guard bits.
+   */
+  public int getNumBits() {
+    return this.numBits;
+  }
+
+  /**
+   * Returns the number of longs needed to hold one board.
+   */
+  public int getNumWords() {
+    return this.numWords;
+  }
+
+  /**
+   * Returns the number of playable cells on the board.
+   */
+  public int getNumCells() {
+    return this.numCells;
+  }
+
+  /**
+   * Returns the bit offset that moves one step in the given direction.
+   *
+   * @param direction the direction to step in
+   * @return the (possibly negative) shift for that direction
+   */
+  public int getShift(MoveDirection direction) {
+    return this.shifts[direction.ordinal()];
+  }
+
+  /**
+   * Returns true if the given offset coordinate is a playable cell.
+   *
+   * @param x the column of the cell
+   * @param y the row of the cell
+   * @return whether the coordinate is on the board
+   */
+  public boolean isValid(int x, int y) {
+    return this.isOnHexagon(x, y);
+  }
+
+  /**
+   * Returns true if the given bit position corresponds to a playable cell.
+   *
+   * @param bit the bit position, which may be out of range
+   * @return whether the bit is a playable cell
+   */
+  public boolean isValidBit(int bit) {
+    return bit >= 0 && bit < this.numBits && (this.validMask[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Returns the bit position of the given offset coordinate.
+   *
+   * @param x the column of the cell
+   * @param y the row of the cell
+   * @return the bit position
+   * @throws IllegalArgumentException if the coordinate is not on the board
+   */
+  public int bitOf(int x, int y) {
+    if (!this.isOnHexagon(x, y)) {
+      throw new IllegalArgumentException("POSN provided by user is invalid");
+    }
+    return this.rawBit(x, y);
+  }
+
+  /**
+   * Returns the row (y coordinate) of the given bit position.
+   */
+  public int rowOf(int bit) {
+    return bit / this.stride;
+  }
+
+  /**
+   * Returns the column (x coordinate) of the given bit position.
+   */
+  public int columnOf(int bit) {
+    int y = bit / this.stride;
+    return bit - y * this.stride + this.qMin + y / 2;
+  }
+
+  /**
+   * Returns the bit position of the n-th playable cell, counting row by row.
+   *
+   * @param cell a dense cell index in [0, getNumCells())
+   * @return the bit position of that cell
+   */
+  public int cellToBit(int cell) {
+    return this.cellToBit[cell];
+  }
+
+  /**
+   * Returns the dense cell index of a bit position, or -1 if the bit is not a playable cell.
+   */
+  public int bitToCell(int bit) {
+    return this.bitToCell[bit];
+  }
+
+  /**
+   * Copies the mask of playable cells into the given array.
+   *
+   * @param dest an array of at least getNumWords() longs
+   */
+  public void copyValidMask(long[] dest) {
+    System.arraycopy(this.validMask, 0, dest, 0, this.numWords);
+  }
+
+  /**
+   * Writes {@code src} shifted by {@code shift} bits into {@code dest}, clearing every bit that
+   * does not land on a playable cell. {@code src} and {@code dest} must not be the same array.
+   *
+   * @param src   the board to shift
+   * @param shift the number of bits to shift by; positive values move towards higher bits
+   * @param dest  the array to write the result to
+   */
+  public void shift(long[] src, int shift, long[] dest) {
+    int wordShift = Math.abs(shift) >>> 6;
+    int bitShift = Math.abs(shift) & 63;
+    int n = this.numWords;
+    if (shift >= 0) {
+      for (int i = n - 1; i >= 0; i--) {
+        int from = i - wordShift;
+        long word = from >= 0 ? src[from] << bitShift : 0L;
+        if (bitShift != 0 && from - 1 >= 0) {
+          word |= src[from - 1] >>> (64 - bitShift);
+        }
+        dest[i] = word & this.validMask[i];
+      }
+    } else {
+      for (int i = 0; i < n; i++) {
+        int from = i + wordShift;
+        long word = from < n ? src[from] >>> bitShift : 0L;
+        if (bitShift != 0 && from + 1 < n) {
+          word |= src[from + 1] << (64 - bitShift);
+        }
+        dest[i] = word & this.validMask[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,373 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import discs.Disc;
+import discs.DiscColor;
+import discs.DiscType;
+import discs.GameDisc;
+import player.PlayerTurn;
+
+/**
+ * A 'BitboardReversiHexModel' is a hexagonal Reversi game that keeps its board in a
+ * {@link HexBitboard} instead of a grid of disc objects. It follows the same rules as
+ * {@link ReversiHexModel}: the same board sizes and starting discs, the same move validation
+ * and exceptions, and the same game-over conditions.
+ */
+public class BitboardReversiHexModel implements ReversiModel {
+  private boolean gameOn;
+  private HexBitboard board;
+  private long[] flips;
+  private long[] moves;
+  // the discs flipped by each move, getNumWords() longs per move, used to undo moves
+  private long[] flipHistory;
+  private int flipHistoryTop;
+  private int numRows;
+  private MoveLog moveLog;
+  private GameState state;
+  private ZobristKeys zobristKeys;
+  private long positionHash;
+  // the chunks of the most recent snapshot, which the next one shares except for the chunks
+  // marked as changed by hashMove, and that snapshot itself until the game changes again
+  private byte[][] snapshotChunks;
+  private long[] changedChunks;
+  private BoardSnapshot latestSnapshot;
+
+  /**
+   * Constructor for a bitboard-backed Reversi hexagonal model.
+   */
+  public BitboardReversiHexModel() {
+    this.gameOn = false;
+    this.numRows = 0;
+    this.board = null;
+    this.moveLog = null;
+    this.state = GameState.ONGOING;
+  }
+
+  @Override
+  public void startGame(int boardSize) {
+    this.numRows = boardSize;
+    if (this.gameOn) {
+      throw new IllegalStateException("Game has already started");
+    } else if (boardSize <= 3 || boardSize % 2 == 0) {
+      throw new IllegalArgumentException("Invalid Board Sizes");
+    }
+
+    this.gameOn = true;
+    this.board = HexBitboard.startingPosition(boardSize);
+    this.flips = new long[this.board.getLayout().getNumWords()];
+    this.moves = new long[this.board.getLayout().getNumWords()];
+    this.moveLog = new MoveLog(boardSize, this.board.getLayout().getNumCells());
+    this.flipHistory = new long[this.flips.length * this.board.getLayout().getNumCells()];
+    this.flipHistoryTop = 0;
+    this.zobristKeys = ZobristKeys.forSize(boardSize);
+    this.positionHash = this.zobristKeys.hashOf(this);
+    int numChunks = BoardSnapshot.chunkCount(boardSize);
+    this.snapshotChunks = new byte[numChunks][];
+    for (int chunk = 0; chunk < numChunks; chunk++) {
+      this.snapshotChunks[chunk] = this.chunkOf(chunk);
+    }
+    this.changedChunks = new long[(numChunks + 63) >>> 6];
+    this.latestSnapshot = null;
+  }
+
+  @Override
+  public int getDimensions() {
+    return this.numRows;
+  }
+
+  /**
+   * Helper method for all in-game methods that throws an IllegalStateException
+   * if the game has not yet been started.
+   *
+   * @throws IllegalStateException if the game is inactive
+   */
+  private void gameNotYetStarted() {
+    if (!this.gameOn) {
+      throw new IllegalStateException("The game hasn't started.");
+    }
+  }
+
+  private static Disc discOf(DiscColor color) {
+    return GameDisc.of(DiscType.HEXDISC, color);
+  }
+
+  private DiscColor colorOf(PlayerTurn player) {
+    return player == PlayerTurn.PLAYER1 ? DiscColor.BLACK : DiscColor.WHITE;
+  }
+
+  private PlayerTurn currentPlayer() {
+    return this.board.isBlackToMove() ? PlayerTurn.PLAYER1 : PlayerTurn.PLAYER2;
+  }
+
+  @Override
+  public void makeMove(int x, int y) {
+    this.gameNotYetStarted();
+    if (!this.board.getLayout().isValid(x, y)) {
+      throw new IllegalArgumentException("Invalid coordinates provided by the user.");
+    }
+    int bit = this.board.getLayout().bitOf(x, y);
+    if (this.board.colorAt(bit) != DiscColor.FACEDOWN) {
+      throw new IllegalStateException("Invalid Move: Disc is not facedown.");
+    }
+    DiscColor moverColor = this.colorOf(this.currentPlayer());
+    if (this.board.play(bit, this.flips) == 0) {
+      throw new IllegalStateException("Invalid move: No valid moves found.");
+    }
+    this.hashMove(bit, moverColor);
+    if (this.flipHistoryTop + this.flips.length > this.flipHistory.length) {
+      this.flipHistory = Arrays.copyOf(this.flipHistory, this.flipHistory.length * 2);
+    }
+    System.arraycopy(this.flips, 0, this.flipHistory, this.flipHistoryTop, this.flips.length);
+    this.flipHistoryTop += this.flips.length;
+    this.moveLog.recordMove(x, y);
+  }
+
+  @Override
+  public MoveLog getMoveLog() {
+    this.gameNotYetStarted();
+    return this.moveLog;
+  }
+
+  @Override
+  public Boolean isGameOver() {
+    this.gameNotYetStarted();
+    PlayerTurn pt = this.currentPlayer();
+    boolean noMoves = !this.board.hasLegalMove();
+    boolean twoPassesInARow = this.moveLog.lastTwoArePasses();
+    boolean currentPlayerLost = this.board.count(this.colorOf(pt)) == 0;
+    boolean oppositePlayerLost = this.board.count(this.colorOf(this.getOpponent(pt))) == 0;
+
+    if (twoPassesInARow) {
+      this.state = GameState.STALEMATE;
+      return true;
+    }
+    if (currentPlayerLost) {
+      this.state = (pt == PlayerTurn.PLAYER1) ? GameState.PLAYER2WIN : GameState.PLAYER1WIN;
+      return true;
+    }
+    if (oppositePlayerLost) {
+      this.state = (pt == PlayerTurn.PLAYER1) ? GameState.PLAYER1WIN : GameState.PLAYER2WIN;
+      return true;
+    }
+    if (noMoves) {
+      this.state = GameState.STALEMATE;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public List<Posn> getLegalMoves() {
+    this.gameNotYetStarted();
+    BitboardLayout layout = this.board.getLayout();
+    List<Posn> legal = new ArrayList<>();
+    this.board.legalMoves(this.moves);
+    for (int cell = 0; cell < layout.getNumCells(); cell++) {
+      int bit = layout.cellToBit(cell);
+      if ((this.moves[bit >>> 6] & (1L << bit)) != 0) {
+        legal.add(new Posn(layout.columnOf(bit), layout.rowOf(bit)));
+      }
+    }
+    return legal;
+  }
+
+  @Override
+  public GameScore getScore() {
+    this.gameNotYetStarted();
+    return new GameScore(this.board.count(DiscColor.BLACK), this.board.count(DiscColor.WHITE),
+            this.board.count(DiscColor.FACEDOWN));
+  }
+
+  private PlayerTurn getOpponent(PlayerTurn player) {
+    return player == PlayerTurn.PLAYER1 ? PlayerTurn.PLAYER2 : PlayerTurn.PLAYER1;
+  }
+
+  @Override
+  public PlayerTurn currentTurn() {
+    this.gameNotYetStarted();
+    return this.currentPlayer();
+  }
+
+  @Override
+  public Disc getDiscAt(int x, int y) {
+    this.gameNotYetStarted();
+    if (!this.board.getLayout().isValid(x, y)) {
+      throw new IllegalArgumentException("getDiscAt: POSN provided by user is invalid");
+    }
+    return discOf(this.board.colorAt(this.board.getLayout().bitOf(x, y)));
+  }
+
+  @Override
+  public boolean isDiscFlipped(int x, int y) {
+    this.gameNotYetStarted();
+    if (!this.board.getLayout().isValid(x, y)) {
+      throw new IllegalArgumentException("isDiscFlipped: POSN provided by user is invalid");
+    }
+    return this.board.colorAt(this.board.getLayout().bitOf(x, y)) != DiscColor.FACEDOWN;
+  }
+
+  @Override
+  public void pass() {
+    this.gameNotYetStarted();
+    this.board.pass();
+    this.positionHash ^= this.zobristKeys.getPlayer2ToMoveKey();
+    this.moveLog.recordPass();
+    this.latestSnapshot = null;
+  }
+
+  /**
+   * Updates the position hash for a move by the given colour on the given cell that flipped the
+   * discs in {@code flips}. The update is its own inverse, so it also takes the move back.
+   * The chunks holding the changed cells are marked for the next snapshot.
+   */
+  private void hashMove(int bit, DiscColor moverColor) {
+    BitboardLayout layout = this.board.getLayout();
+    DiscColor opponentColor = moverColor == DiscColor.BLACK ? DiscColor.WHITE : DiscColor.BLACK;
+    int moveCell = this.gridCellOf(layout, bit);
+    this.markChanged(moveCell);
+    long hash = this.positionHash ^ this.zobristKeys.getPlayer2ToMoveKey()
+            ^ this.zobristKeys.discKey(moveCell, moverColor);
+    for (int word = 0; word < this.flips.length; word++) {
+      long bits = this.flips[word];
+      while (bits != 0) {
+        int flipped = (word << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        int cell = this.gridCellOf(layout, flipped);
+        this.markChanged(cell);
+        hash ^= this.zobristKeys.discKey(cell, moverColor)
+                ^ this.zobristKeys.discKey(cell, opponentColor);
+      }
+    }
+    this.positionHash = hash;
+    this.latestSnapshot = null;
+  }
+
+  private void markChanged(int cell) {
+    int chunk = cell >>> BoardSnapshot.CHUNK_SHIFT;
+    this.changedChunks[chunk >>> 6] |= 1L << chunk;
+  }
+
+  /**
+   * Returns a new copy of one snapshot chunk of the board, as DiscColor ordinals row by row.
+   */
+  private byte[] chunkOf(int chunk) {
+    BitboardLayout layout = this.board.getLayout();
+    int from = chunk << BoardSnapshot.CHUNK_SHIFT;
+    int to = Math.min(from + (1 << BoardSnapshot.CHUNK_SHIFT), this.numRows * this.numRows);
+    byte[] values = new byte[to - from];
+    for (int cell = from; cell < to; cell++) {
+      int x = cell % this.numRows;
+      int y = cell / this.numRows;
+      values[cell - from] = layout.isValid(x, y)
+              ? (byte) this.board.colorAt(layout.bitOf(x, y)).ordinal() : BoardSnapshot.OUTSIDE;
+    }
+    return values;
+  }
+
+  private int gridCellOf(BitboardLayout layout, int bit) {
+    return layout.rowOf(bit) * this.numRows + layout.columnOf(bit);
+  }
+
+  @Override
+  public long getPositionHash() {
+    this.gameNotYetStarted();
+    return this.positionHash;
+  }
+
+  @Override
+  public void undoMove() {
+    this.gameNotYetStarted();
+    int ply = this.moveLog.size() - 1;
+    if (ply < 0) {
+      throw new IllegalStateException("There are no moves to undo.");
+    }
+    if (this.moveLog.isPass(ply)) {
+      this.board.pass();
+      this.positionHash ^= this.zobristKeys.getPlayer2ToMoveKey();
+    } else {
+      this.flipHistoryTop -= this.flips.length;
+      System.arraycopy(this.flipHistory, this.flipHistoryTop, this.flips, 0, this.flips.length);
+      int bit = this.board.getLayout().bitOf(this.moveLog.getX(ply), this.moveLog.getY(ply));
+      this.board.undo(bit, this.flips);
+      this.hashMove(bit, this.colorOf(this.currentPlayer()));
+    }
+    this.moveLog.removeLast();
+    this.state = GameState.ONGOING;
+    this.latestSnapshot = null;
+  }
+
+  @Override
+  public int lastFlips(int[] flips) {
+    this.gameNotYetStarted();
+    int ply = this.moveLog.size() - 1;
+    if (ply < 0) {
+      throw new IllegalStateException("No move has been made.");
+    }
+    if (this.moveLog.isPass(ply)) {
+      return 0;
+    }
+    BitboardLayout layout = this.board.getLayout();
+    int from = this.flipHistoryTop - this.flips.length;
+    int count = 0;
+    for (int word = 0; word < this.flips.length; word++) {
+      long bits = this.flipHistory[from + word];
+      while (bits != 0) {
+        flips[count++] = this.gridCellOf(layout, (word << 6) + Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns a snapshot of the current position, sharing every chunk of cells that no move has
+   * touched since the previous snapshot.
+   */
+  @Override
+  public BoardSnapshot snapshot() {
+    this.gameNotYetStarted();
+    if (this.latestSnapshot == null) {
+      byte[][] chunks = this.snapshotChunks.clone();
+      for (int word = 0; word < this.changedChunks.length; word++) {
+        long bits = this.changedChunks[word];
+        while (bits != 0) {
+          int chunk = (word << 6) + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          chunks[chunk] = this.chunkOf(chunk);
+        }
+        this.changedChunks[word] = 0;
+      }
+      this.snapshotChunks = chunks;
+      List<Posn> moves = this.getLegalMoves();
+      int[] legalMoves = new int[moves.size()];
+      for (int i = 0; i < legalMoves.length; i++) {
+        legalMoves[i] = moves.get(i).getY() * this.numRows + moves.get(i).getX();
+      }
+      this.latestSnapshot = new BoardSnapshot(this.numRows, chunks, this.currentPlayer(),
+              this.getScore(), this.isGameOver(), this.moveLog.size(), this.positionHash,
+              legalMoves);
+    }
+    return this.latestSnapshot;
+  }
+
+  /**
+   * Returns a new grid of the discs on the board, with null for cells outside the hexagon.
+   * Changing the returned array does not change the game.
+   */
+  @Override
+  public Disc[][] getBoard() {
+    if (this.board == null) {
+      return null;
+    }
+    Disc[][] grid = new Disc[this.numRows][this.numRows];
+    BitboardLayout layout = this.board.getLayout();
+    for (int cell = 0; cell < layout.getNumCells(); cell++) {
+      int bit = layout.cellToBit(cell);
+      grid[layout.rowOf(bit)][layout.columnOf(bit)] = discOf(this.board.colorAt(bit));
+    }
+    return grid;
+  }
+}
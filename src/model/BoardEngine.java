@@ -0,0 +1,15 @@
+package model;
+
+/**
+ * A 'BoardEngine' names one of the ways a hexagonal Reversi board can be stored.
+ */
+public enum BoardEngine {
+  /**
+   * A grid of disc objects, as used by {@link ReversiHexModel}.
+   */
+  ARRAY,
+  /**
+   * One bitset per colour, as used by {@link BitboardReversiHexModel}.
+   */
+  BITBOARD
+}
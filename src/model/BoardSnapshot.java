@@ -0,0 +1,187 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import discs.Disc;
+import discs.DiscColor;
+import player.PlayerTurn;
+
+/**
+ * A 'BoardSnapshot' is an immutable picture of a game at one moment: the colour of every cell,
+ * the player to move, the score, whether the game is over and the moves available. Since it
+ * never changes, any number of threads can read it without locking, and everything read from
+ * one snapshot belongs to the same position.
+ * <p>
+ * The cells are stored in fixed-size chunks that are never written once a snapshot holds them.
+ * A model taking a new snapshot only copies the chunks that changed since its previous one and
+ * shares the rest, so snapshots are cheap to take after every move and cheap to keep.
+ */
+public final class BoardSnapshot {
+  /**
+   * Cells per chunk is {@code 1 << CHUNK_SHIFT}.
+   */
+  static final int CHUNK_SHIFT = 4;
+  private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+  // the cell value of grid cells that lie outside the hexagon
+  static final byte OUTSIDE = -1;
+  private static final DiscColor[] COLORS = DiscColor.values();
+
+  private final int size;
+  // the colour of every cell as a DiscColor ordinal, row by row, or OUTSIDE, split into chunks
+  private final byte[][] chunks;
+  private final PlayerTurn turn;
+  private final GameScore score;
+  private final boolean gameOver;
+  private final int ply;
+  private final long positionHash;
+  // the legal moves of the player to move, as cell indices in increasing order
+  private final int[] legalMoves;
+
+  /**
+   * Creates a snapshot from chunks that nobody will write to again.
+   */
+  BoardSnapshot(int size, byte[][] chunks, PlayerTurn turn, GameScore score, boolean gameOver,
+                int ply, long positionHash, int[] legalMoves) {
+    this.size = size;
+    this.chunks = chunks;
+    this.turn = turn;
+    this.score = score;
+    this.gameOver = gameOver;
+    this.ply = ply;
+    this.positionHash = positionHash;
+    this.legalMoves = legalMoves;
+  }
+
+  /**
+   * Returns the number of chunks needed for a board of the given size.
+   */
+  static int chunkCount(int size) {
+    return (size * size + CHUNK_MASK) >>> CHUNK_SHIFT;
+  }
+
+  /**
+   * Copies one chunk out of a row-major array of cell values.
+   */
+  static byte[] copyChunk(byte[] cells, int chunk) {
+    int from = chunk << CHUNK_SHIFT;
+    return Arrays.copyOfRange(cells, from, Math.min(from + CHUNK_MASK + 1, cells.length));
+  }
+
+  /**
+   * Takes a snapshot of a game from scratch through its public methods, for models that don't
+   * track which cells changed. The game must not change while the snapshot is being taken.
+   *
+   * @param model a started game
+   * @return a snapshot of its current position
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  static BoardSnapshot copyOf(ReversiModel model) {
+    int size = model.getDimensions();
+    boolean gameOver = model.isGameOver();
+    Disc[][] board = model.getBoard();
+    byte[] cells = new byte[size * size];
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        Disc disc = board[y][x];
+        cells[y * size + x] = disc == null ? OUTSIDE : (byte) disc.getColor().ordinal();
+      }
+    }
+    List<Posn> moves = model.getLegalMoves();
+    int[] legalMoves = new int[moves.size()];
+    for (int i = 0; i < legalMoves.length; i++) {
+      legalMoves[i] = moves.get(i).getY() * size + moves.get(i).getX();
+    }
+    byte[][] chunks = new byte[chunkCount(size)][];
+    for (int chunk = 0; chunk < chunks.length; chunk++) {
+      chunks[chunk] = copyChunk(cells, chunk);
+    }
+    return new BoardSnapshot(size, chunks, model.currentTurn(), model.getScore(), gameOver,
+            model.getMoveLog().size(), model.getPositionHash(), legalMoves);
+  }
+
+  /**
+   * Returns the square nxn dimension of the board.
+   */
+  public int getDimensions() {
+    return this.size;
+  }
+
+  /**
+   * Returns true if the given coordinates name a cell of the hexagon.
+   */
+  public boolean isValid(int x, int y) {
+    return x >= 0 && y >= 0 && x < this.size && y < this.size
+            && this.cellAt(y * this.size + x) != OUTSIDE;
+  }
+
+  /**
+   * Returns the colour of the disc on the given cell.
+   *
+   * @param x,y the coordinates of the cell
+   * @return the colour of its disc, FACEDOWN if it is empty
+   * @throws IllegalArgumentException if the coordinates aren't a cell of the hexagon
+   */
+  public DiscColor getColorAt(int x, int y) {
+    if (!this.isValid(x, y)) {
+      throw new IllegalArgumentException("getColorAt: POSN provided by user is invalid");
+    }
+    return COLORS[this.cellAt(y * this.size + x)];
+  }
+
+  /**
+   * Returns the value of a grid cell: a DiscColor ordinal, or OUTSIDE.
+   */
+  byte cellAt(int cell) {
+    return this.chunks[cell >>> CHUNK_SHIFT][cell & CHUNK_MASK];
+  }
+
+  /**
+   * Returns the player whose turn it was.
+   */
+  public PlayerTurn getTurn() {
+    return this.turn;
+  }
+
+  public GameScore getScore() {
+    return this.score;
+  }
+
+  public boolean isGameOver() {
+    return this.gameOver;
+  }
+
+  /**
+   * Returns how many plies had been played, which tells snapshots of one game apart.
+   */
+  public int getPly() {
+    return this.ply;
+  }
+
+  /**
+   * Returns the Zobrist hash of the position, see {@link ZobristKeys}.
+   */
+  public long getPositionHash() {
+    return this.positionHash;
+  }
+
+  /**
+   * Returns a copy of the cell indices of the legal moves, in increasing order.
+   */
+  int[] legalMoveCells() {
+    return this.legalMoves.clone();
+  }
+
+  /**
+   * Returns the legal moves of the player to move, in row-major order. The list and its
+   * positions are new, so callers may change them.
+   */
+  public List<Posn> getLegalMoves() {
+    List<Posn> moves = new ArrayList<>(this.legalMoves.length);
+    for (int cell : this.legalMoves) {
+      moves.add(new Posn(cell % this.size, cell / this.size));
+    }
+    return moves;
+  }
+}
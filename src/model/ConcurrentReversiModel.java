@@ -0,0 +1,271 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import discs.Disc;
+import discs.DiscColor;
+import discs.DiscType;
+import discs.GameDisc;
+import player.PlayerTurn;
+
+/**
+ * A 'ConcurrentReversiModel' makes any {@link ReversiModel} safe to share between threads.
+ * <p>
+ * Calls that change the game ({@link #startGame(int)}, {@link #makeMove(int, int)},
+ * {@link #pass()} and {@link #undoMove()}) take a lock, so they run one at a time. After each
+ * change the wrapper publishes a new immutable {@link BoardSnapshot} of the position, and every
+ * call that only reads the game answers from the latest published snapshot. Readers such as
+ * views or spectators therefore never take the lock, never wait for a writer and never see a
+ * half-made move. Use {@link #snapshot()} to read several things that must belong to the same
+ * position, like the board and the score.
+ * <p>
+ * Publishing costs as much as the snapshot, not the length of the game: the plies of the move
+ * log are kept in one array shared by every publication, which only ever appends to the
+ * entries any reader can see, and {@link #getMoveLog()} copies them out only when asked.
+ */
+public class ConcurrentReversiModel implements ReversiModel {
+  private final ReversiModel delegate;
+  private final ReentrantLock writeLock;
+  private volatile Published published;
+  // the plies of the game, shared with every publication; the first historyLength entries are
+  // never changed in place, so a publication can hold this array and a length. Written only
+  // under the lock.
+  private int[] history;
+  private int historyLength;
+
+  /**
+   * Wraps a game. From now on the game must only be used through this wrapper.
+   *
+   * @param delegate the game to wrap, started or not
+   * @throws IllegalArgumentException if delegate is null
+   */
+  public ConcurrentReversiModel(ReversiModel delegate) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("The wrapped model can't be null");
+    }
+    this.delegate = delegate;
+    this.writeLock = new ReentrantLock();
+    this.history = new int[0];
+    this.historyLength = 0;
+    this.writeLock.lock();
+    try {
+      this.published = isStarted(delegate) ? this.publish() : null;
+    } finally {
+      this.writeLock.unlock();
+    }
+  }
+
+  private static boolean isStarted(ReversiModel model) {
+    try {
+      model.currentTurn();
+      return true;
+    } catch (IllegalStateException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the latest published snapshot of the game.
+   *
+   * @return the snapshot taken after the most recent change
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  @Override
+  public BoardSnapshot snapshot() {
+    return this.current().snapshot;
+  }
+
+  private Published current() {
+    Published current = this.published;
+    if (current == null) {
+      throw new IllegalStateException("The game hasn't started.");
+    }
+    return current;
+  }
+
+  /**
+   * Runs a change on the wrapped game under the lock and publishes the resulting position. If
+   * the change throws, nothing is published.
+   */
+  private void write(Runnable change) {
+    this.writeLock.lock();
+    try {
+      change.run();
+      this.published = this.publish();
+    } finally {
+      this.writeLock.unlock();
+    }
+  }
+
+  /**
+   * Brings the shared history up to date with the wrapped game's log and returns the position
+   * to publish. Called under the lock after every change.
+   */
+  private Published publish() {
+    MoveLog log = this.delegate.getMoveLog();
+    int length = log.size();
+    int shared = Math.min(length, this.historyLength);
+    // a change adds or removes one ply, so only the last shared one can differ: a move made
+    // after an undo
+    if (shared > 0 && this.history[shared - 1] != log.get(shared - 1)) {
+      shared--;
+    }
+    if (shared < this.historyLength && length > shared) {
+      // older publications may still read the entries about to be replaced
+      this.history = Arrays.copyOf(this.history, Math.max(length, this.history.length));
+      this.historyLength = shared;
+    }
+    if (length > this.history.length) {
+      this.history = Arrays.copyOf(this.history, Math.max(length, this.history.length * 2));
+    }
+    for (int ply = this.historyLength; ply < length; ply++) {
+      this.history[ply] = log.get(ply);
+    }
+    this.historyLength = Math.max(this.historyLength, length);
+    BoardSnapshot snapshot = this.delegate.snapshot();
+    int[] flips = new int[0];
+    if (length > 0) {
+      flips = new int[snapshot.getDimensions() * snapshot.getDimensions()];
+      flips = Arrays.copyOf(flips, this.delegate.lastFlips(flips));
+    }
+    return new Published(snapshot, this.history, length, flips);
+  }
+
+  @Override
+  public void startGame(int boardSize) {
+    this.write(() -> {
+      this.delegate.startGame(boardSize);
+      this.history = new int[0];
+      this.historyLength = 0;
+    });
+  }
+
+  @Override
+  public void makeMove(int x, int y) {
+    this.write(() -> this.delegate.makeMove(x, y));
+  }
+
+  @Override
+  public void pass() {
+    this.write(this.delegate::pass);
+  }
+
+  @Override
+  public void undoMove() {
+    this.write(this.delegate::undoMove);
+  }
+
+  @Override
+  public Boolean isGameOver() {
+    return this.current().snapshot.isGameOver();
+  }
+
+  @Override
+  public List<Posn> getLegalMoves() {
+    return this.current().snapshot.getLegalMoves();
+  }
+
+  @Override
+  public GameScore getScore() {
+    return this.current().snapshot.getScore();
+  }
+
+  /**
+   * Returns a copy of the move log as of the latest published snapshot.
+   */
+  @Override
+  public MoveLog getMoveLog() {
+    Published current = this.current();
+    return MoveLog.of(current.snapshot.getDimensions(), current.plies, current.numPlies);
+  }
+
+  /**
+   * Writes the discs flipped by the most recent move as of the latest published snapshot.
+   */
+  @Override
+  public int lastFlips(int[] flips) {
+    Published current = this.current();
+    if (current.numPlies == 0) {
+      throw new IllegalStateException("No move has been made.");
+    }
+    System.arraycopy(current.flips, 0, flips, 0, current.flips.length);
+    return current.flips.length;
+  }
+
+  @Override
+  public PlayerTurn currentTurn() {
+    return this.current().snapshot.getTurn();
+  }
+
+  @Override
+  public Disc getDiscAt(int x, int y) {
+    BoardSnapshot snapshot = this.current().snapshot;
+    if (!snapshot.isValid(x, y)) {
+      throw new IllegalArgumentException("getDiscAt: POSN provided by user is invalid");
+    }
+    return GameDisc.of(DiscType.HEXDISC, snapshot.getColorAt(x, y));
+  }
+
+  @Override
+  public boolean isDiscFlipped(int x, int y) {
+    BoardSnapshot snapshot = this.current().snapshot;
+    if (!snapshot.isValid(x, y)) {
+      throw new IllegalArgumentException("isDiscFlipped: POSN provided by user is invalid");
+    }
+    return snapshot.getColorAt(x, y) != DiscColor.FACEDOWN;
+  }
+
+  @Override
+  public long getPositionHash() {
+    return this.current().snapshot.getPositionHash();
+  }
+
+  @Override
+  public int getDimensions() {
+    Published current = this.published;
+    return current == null ? this.delegate.getDimensions() : current.snapshot.getDimensions();
+  }
+
+  /**
+   * Returns a new grid of the discs in the latest published snapshot, with null for cells
+   * outside the hexagon, or null if the game hasn't started.
+   */
+  @Override
+  public Disc[][] getBoard() {
+    Published current = this.published;
+    if (current == null) {
+      return null;
+    }
+    BoardSnapshot snapshot = current.snapshot;
+    int size = snapshot.getDimensions();
+    Disc[][] grid = new Disc[size][size];
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        if (snapshot.isValid(x, y)) {
+          grid[y][x] = GameDisc.of(DiscType.HEXDISC, snapshot.getColorAt(x, y));
+        }
+      }
+    }
+    return grid;
+  }
+
+  /**
+   * A 'Published' is everything readers see of one position: its snapshot, the plies that led
+   * to it, the first numPlies entries of the shared history, and the discs the last one flipped.
+   */
+  private static final class Published {
+    private final BoardSnapshot snapshot;
+    private final int[] plies;
+    private final int numPlies;
+    private final int[] flips;
+
+    private Published(BoardSnapshot snapshot, int[] plies, int numPlies, int[] flips) {
+      this.snapshot = snapshot;
+      this.plies = plies;
+      this.numPlies = numPlies;
+      this.flips = flips;
+    }
+  }
+}
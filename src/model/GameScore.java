@@ -0,0 +1,87 @@
+package model;
+
+import java.util.Objects;
+
+import player.PlayerTurn;
+
+/**
+ * A 'GameScore' is an immutable count of the discs on a Reversi board at one moment: how many
+ * cells hold a black disc, how many hold a white disc, and how many are still facedown.
+ */
+public final class GameScore {
+  private final int blackCount;
+  private final int whiteCount;
+  private final int emptyCount;
+
+  /**
+   * Creates a score from the three disc counts.
+   *
+   * @param blackCount the number of black discs
+   * @param whiteCount the number of white discs
+   * @param emptyCount the number of facedown cells
+   * @throws IllegalArgumentException if any count is negative
+   */
+  public GameScore(int blackCount, int whiteCount, int emptyCount) {
+    if (blackCount < 0 || whiteCount < 0 || emptyCount < 0) {
+      throw new IllegalArgumentException("Disc counts can't be negative");
+    }
+    this.blackCount = blackCount;
+    this.whiteCount = whiteCount;
+    this.emptyCount = emptyCount;
+  }
+
+  /**
+   * Returns the number of black discs, which belong to PLAYER1.
+   */
+  public int getBlackCount() {
+    return this.blackCount;
+  }
+
+  /**
+   * Returns the number of white discs, which belong to PLAYER2.
+   */
+  public int getWhiteCount() {
+    return this.whiteCount;
+  }
+
+  /**
+   * Returns the number of facedown cells.
+   */
+  public int getEmptyCount() {
+    return this.emptyCount;
+  }
+
+  /**
+   * Returns the number of discs owned by the given player.
+   *
+   * @param player the player to count discs for
+   * @return that player's disc count
+   */
+  public int getPlayerCount(PlayerTurn player) {
+    return player == PlayerTurn.PLAYER1 ? this.blackCount : this.whiteCount;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    GameScore other = (GameScore) o;
+    return other.blackCount == this.blackCount && other.whiteCount == this.whiteCount
+            && other.emptyCount == this.emptyCount;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.blackCount, this.whiteCount, this.emptyCount);
+  }
+
+  @Override
+  public String toString() {
+    return "BLACK " + this.blackCount + ", WHITE " + this.whiteCount
+            + ", FACEDOWN " + this.emptyCount;
+  }
+}
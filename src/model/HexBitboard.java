@@ -0,0 +1,363 @@
+package model;
+
+import discs.DiscColor;
+
+/**
+ * A 'HexBitboard' is the raw position of a hexagonal Reversi game: which cells hold black and
+ * white discs, and whose turn it is. Occupancy is stored as one bitset per colour, using the
+ * cell packing of a {@link BitboardLayout}.
+ * <p>
+ * Unlike a {@link ReversiModel}, a HexBitboard does not throw on illegal moves or keep any
+ * history; {@link #play(int, long[])} simply reports that nothing was flipped. This makes it
+ * cheap enough to copy and mutate inside searches and playouts.
+ */
+public final class HexBitboard {
+  private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+
+  private final BitboardLayout layout;
+  private final long[] black;
+  private final long[] white;
+  private boolean blackToMove;
+
+  // scratch space for legal move generation, reused between calls
+  private final long[] empty;
+  private final long[] run;
+  private final long[] next;
+  private final long[] moves;
+
+  /**
+   * Creates an empty board of the given layout with black to move.
+   *
+   * @param layout the layout describing the board
+   */
+  public HexBitboard(BitboardLayout layout) {
+    this.layout = layout;
+    this.black = new long[layout.getNumWords()];
+    this.white = new long[layout.getNumWords()];
+    this.empty = new long[layout.getNumWords()];
+    this.run = new long[layout.getNumWords()];
+    this.next = new long[layout.getNumWords()];
+    this.moves = new long[layout.getNumWords()];
+    this.blackToMove = true;
+  }
+
+  /**
+   * Creates the opening position for the given board size, with the same six discs that
+   * {@link ReversiHexModel} places when a game starts, and black to move.
+   *
+   * @param size the square nxn dimension of the board
+   * @return the starting position
+   * @throws IllegalArgumentException if the size is not a valid board size
+   */
+  public static HexBitboard startingPosition(int size) {
+    HexBitboard board = new HexBitboard(BitboardLayout.forSize(size));
+    int middle = size / 2;
+    board.set(middle + 1, middle, DiscColor.BLACK);
+    board.set(middle, middle - 1, DiscColor.BLACK);
+    board.set(middle, middle + 1, DiscColor.BLACK);
+    board.set(middle + 1, middle + 1, DiscColor.WHITE);
+    board.set(middle + 1, middle - 1, DiscColor.WHITE);
+    board.set(middle - 1, middle, DiscColor.WHITE);
+    return board;
+  }
+
+  /**
+   * Creates a board in the current position of the given game by replaying its move log from
+   * the starting position.
+   *
+   * @param model a started game
+   * @return a board with the same discs and the same player to move as the game
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  public static HexBitboard replayOf(ReversiModel model) {
+    MoveLog log = model.getMoveLog();
+    HexBitboard board = startingPosition(model.getDimensions());
+    long[] flips = new long[board.layout.getNumWords()];
+    for (int ply = 0; ply < log.size(); ply++) {
+      if (log.isPass(ply)) {
+        board.pass();
+      } else if (board.play(board.layout.bitOf(log.getX(ply), log.getY(ply)), flips) == 0) {
+        throw new IllegalStateException("The move log contains an illegal move");
+      }
+    }
+    return board;
+  }
+
+  /**
+   * Returns an independent copy of this board.
+   */
+  public HexBitboard copy() {
+    HexBitboard copy = new HexBitboard(this.layout);
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  /**
+   * Overwrites this board with the position of another board of the same layout.
+   *
+   * @param other the board to copy
+   */
+  public void copyFrom(HexBitboard other) {
+    if (other.layout != this.layout) {
+      throw new IllegalArgumentException("Boards have different sizes");
+    }
+    System.arraycopy(other.black, 0, this.black, 0, this.black.length);
+    System.arraycopy(other.white, 0, this.white, 0, this.white.length);
+    this.blackToMove = other.blackToMove;
+  }
+
+  /**
+   * Returns the layout of this board.
+   */
+  public BitboardLayout getLayout() {
+    return this.layout;
+  }
+
+  /**
+   * Returns true if black is the side to move.
+   */
+  public boolean isBlackToMove() {
+    return this.blackToMove;
+  }
+
+  /**
+   * Sets which side is to move.
+   */
+  public void setBlackToMove(boolean blackToMove) {
+    this.blackToMove = blackToMove;
+  }
+
+  /**
+   * Returns the colour of the disc on the given cell.
+   *
+   * @param bit the bit position of a playable cell
+   * @return the colour at that cell, FACEDOWN if it is empty
+   */
+  public DiscColor colorAt(int bit) {
+    long mask = 1L << bit;
+    if ((this.black[bit >>> 6] & mask) != 0) {
+      return DiscColor.BLACK;
+    }
+    if ((this.white[bit >>> 6] & mask) != 0) {
+      return DiscColor.WHITE;
+    }
+    return DiscColor.FACEDOWN;
+  }
+
+  /**
+   * Places a disc of the given colour on the given coordinate, replacing whatever was there.
+   *
+   * @param x     the column of the cell
+   * @param y     the row of the cell
+   * @param color the colour to set, FACEDOWN to empty the cell
+   */
+  public void set(int x, int y, DiscColor color) {
+    this.setBit(this.layout.bitOf(x, y), color);
+  }
+
+  /**
+   * Places a disc of the given colour on the given cell, replacing whatever was there.
+   *
+   * @param bit   the bit position of a playable cell
+   * @param color the colour to set, FACEDOWN to empty the cell
+   */
+  public void setBit(int bit, DiscColor color) {
+    long mask = 1L << bit;
+    int word = bit >>> 6;
+    this.black[word] &= ~mask;
+    this.white[word] &= ~mask;
+    if (color == DiscColor.BLACK) {
+      this.black[word] |= mask;
+    } else if (color == DiscColor.WHITE) {
+      this.white[word] |= mask;
+    }
+  }
+
+  /**
+   * Returns the number of discs of the given colour, or of empty cells for FACEDOWN.
+   */
+  public int count(DiscColor color) {
+    int blackCount = bitCount(this.black);
+    int whiteCount = bitCount(this.white);
+    switch (color) {
+      case BLACK:
+        return blackCount;
+      case WHITE:
+        return whiteCount;
+      default:
+        return this.layout.getNumCells() - blackCount - whiteCount;
+    }
+  }
+
+  private static int bitCount(long[] words) {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Copies the discs of the given colour into {@code dest}.
+   *
+   * @param color BLACK or WHITE
+   * @param dest  an array of at least getNumWords() longs
+   */
+  public void copyDiscs(DiscColor color, long[] dest) {
+    long[] src = color == DiscColor.BLACK ? this.black : this.white;
+    System.arraycopy(src, 0, dest, 0, src.length);
+  }
+
+  /**
+   * Computes every legal move of the side to move with shift-and-mask flood fills: starting
+   * from the mover's discs, each direction is extended across runs of opponent discs, and the
+   * first empty cell past a run is a legal move.
+   *
+   * @param moves an array of at least getNumWords() longs; receives one bit per legal move
+   * @return the number of legal moves
+   */
+  public int legalMoves(long[] moves) {
+    long[] own = this.blackToMove ? this.black : this.white;
+    long[] opp = this.blackToMove ? this.white : this.black;
+    int n = this.layout.getNumWords();
+    this.layout.copyValidMask(this.empty);
+    for (int i = 0; i < n; i++) {
+      this.empty[i] &= ~(own[i] | opp[i]);
+      moves[i] = 0L;
+    }
+    for (MoveDirection direction : DIRECTIONS) {
+      this.floodAndCollect(own, opp, this.layout.getShift(direction), moves);
+    }
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      count += Long.bitCount(moves[i]);
+    }
+    return count;
+  }
+
+  /**
+   * Extends the mover's discs along one direction across opponent runs and ORs the empty
+   * cells that end a run into {@code moves}. Only the front of each run is shifted, so the
+   * loop ends once every run has walked off the board or stopped.
+   */
+  private void floodAndCollect(long[] own, long[] opp, int shift, long[] moves) {
+    int n = this.layout.getNumWords();
+    this.layout.shift(own, shift, this.next);
+    boolean any = false;
+    for (int i = 0; i < n; i++) {
+      this.run[i] = this.next[i] & opp[i];
+      any |= this.run[i] != 0;
+    }
+    while (any) {
+      this.layout.shift(this.run, shift, this.next);
+      any = false;
+      for (int i = 0; i < n; i++) {
+        moves[i] |= this.next[i] & this.empty[i];
+        this.run[i] = this.next[i] & opp[i];
+        any |= this.run[i] != 0;
+      }
+    }
+  }
+
+  /**
+   * Returns true if the side to move has at least one legal move.
+   */
+  public boolean hasLegalMove() {
+    return this.legalMoves(this.moves) > 0;
+  }
+
+  /**
+   * Computes the discs the side to move would flip by playing on the given cell, without
+   * changing the board.
+   *
+   * @param bit   the bit position of the cell to play on
+   * @param flips an array of at least getNumWords() longs that receives the flipped discs, or
+   *              null if only the count is needed
+   * @return the number of discs that would be flipped; 0 means the move is illegal
+   */
+  public int flipsFor(int bit, long[] flips) {
+    long[] own = this.blackToMove ? this.black : this.white;
+    long[] opp = this.blackToMove ? this.white : this.black;
+    if (flips != null) {
+      for (int i = 0; i < flips.length; i++) {
+        flips[i] = 0L;
+      }
+    }
+    int total = 0;
+    for (MoveDirection direction : DIRECTIONS) {
+      int shift = this.layout.getShift(direction);
+      int cursor = bit + shift;
+      int run = 0;
+      while (this.layout.isValidBit(cursor) && isSet(opp, cursor)) {
+        cursor += shift;
+        run++;
+      }
+      if (run > 0 && this.layout.isValidBit(cursor) && isSet(own, cursor)) {
+        total += run;
+        if (flips != null) {
+          for (int step = 1; step <= run; step++) {
+            int flipped = bit + step * shift;
+            flips[flipped >>> 6] |= 1L << flipped;
+          }
+        }
+      }
+    }
+    return total;
+  }
+
+  private static boolean isSet(long[] words, int bit) {
+    return (words[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Plays the side to move on the given cell, flips the captured discs and hands the turn to
+   * the opponent. If the cell is occupied or captures nothing, the board is left unchanged.
+   *
+   * @param bit   the bit position of the cell to play on
+   * @param flips an array of at least getNumWords() longs that receives the flipped discs, so
+   *              the move can later be taken back with {@link #undo(int, long[])}
+   * @return the number of discs flipped; 0 means the move was illegal and nothing changed
+   */
+  public int play(int bit, long[] flips) {
+    if (this.colorAt(bit) != DiscColor.FACEDOWN) {
+      return 0;
+    }
+    int flipped = this.flipsFor(bit, flips);
+    if (flipped == 0) {
+      return 0;
+    }
+    long[] own = this.blackToMove ? this.black : this.white;
+    long[] opp = this.blackToMove ? this.white : this.black;
+    for (int i = 0; i < own.length; i++) {
+      own[i] |= flips[i];
+      opp[i] &= ~flips[i];
+    }
+    own[bit >>> 6] |= 1L << bit;
+    this.blackToMove = !this.blackToMove;
+    return flipped;
+  }
+
+  /**
+   * Takes back a move made with {@link #play(int, long[])}.
+   *
+   * @param bit   the cell the move was played on
+   * @param flips the discs that move flipped
+   */
+  public void undo(int bit, long[] flips) {
+    this.blackToMove = !this.blackToMove;
+    long[] own = this.blackToMove ? this.black : this.white;
+    long[] opp = this.blackToMove ? this.white : this.black;
+    for (int i = 0; i < own.length; i++) {
+      own[i] &= ~flips[i];
+      opp[i] |= flips[i];
+    }
+    own[bit >>> 6] &= ~(1L << bit);
+  }
+
+  /**
+   * Hands the turn to the other side without changing the discs.
+   */
+  public void pass() {
+    this.blackToMove = !this.blackToMove;
+  }
+}
@@ -0,0 +1,147 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A 'HexGeometry' holds the lines of the hexagonal board of one size: for every cell and each
+ * of the six {@link MoveDirection}s, the ray of cells met walking from it in that direction up
+ * to the edge of the hexagon. Models walk these rays to find flips instead of shifting
+ * coordinates with {@link MoveRules} and checking bounds at every step, so a ray walk is a run
+ * of array reads.
+ * <p>
+ * Cells are grid cell indices {@code y * size + x}. The rays of all cells are stored back to
+ * back in one array, the ray of a cell in a direction starting at
+ * {@code rayStarts[cell * NUM_DIRECTIONS + direction.ordinal()]}. Every ray is followed by a
+ * grid cell outside the hexagon, so a walk can stop on that cell's contents instead of checking
+ * how long the ray is. Cells outside the hexagon have empty rays. The rays are worked out once
+ * per board size with {@link MoveRules}, so both always agree.
+ * <p>
+ * Geometries are immutable and cached, so every board of the same size shares one instance.
+ */
+public final class HexGeometry {
+  /**
+   * The number of directions a ray can go in.
+   */
+  public static final int NUM_DIRECTIONS = MoveDirection.values().length;
+
+  private static final Map<Integer, HexGeometry> CACHE = new ConcurrentHashMap<>();
+
+  private final int size;
+  private final boolean[] valid;
+  // where each ray starts in rayCells, indexed by cell * NUM_DIRECTIONS + direction, with one
+  // extra entry marking the end of the last ray
+  final int[] rayStarts;
+  // the rays, each followed by outsideCell
+  final int[] rayCells;
+  final int outsideCell;
+
+  private HexGeometry(int size) {
+    this.size = size;
+    BitboardLayout layout = BitboardLayout.forSize(size);
+    this.valid = new boolean[size * size];
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        this.valid[y * size + x] = layout.isValid(x, y);
+      }
+    }
+    // the top left corner is never part of the hexagon
+    this.outsideCell = 0;
+    this.rayStarts = new int[size * size * NUM_DIRECTIONS + 1];
+    int[] cells = new int[size * size * NUM_DIRECTIONS * (size + 1)];
+    int count = 0;
+    for (int cell = 0; cell < size * size; cell++) {
+      for (MoveDirection direction : MoveDirection.values()) {
+        this.rayStarts[cell * NUM_DIRECTIONS + direction.ordinal()] = count;
+        if (!this.valid[cell]) {
+          continue;
+        }
+        int x = cell % size;
+        int y = cell / size;
+        while (true) {
+          List<Integer> next = MoveRules.applyShiftBasedOnDirection(x, y, direction);
+          x = next.get(0);
+          y = next.get(1);
+          if (x < 0 || y < 0 || x >= size || y >= size || !this.valid[y * size + x]) {
+            break;
+          }
+          cells[count++] = y * size + x;
+        }
+        cells[count++] = this.outsideCell;
+      }
+    }
+    this.rayStarts[size * size * NUM_DIRECTIONS] = count;
+    this.rayCells = Arrays.copyOf(cells, count);
+  }
+
+  /**
+   * Returns the shared geometry for boards of the given size.
+   *
+   * @param size the square nxn dimension of the board
+   * @return the geometry for that size
+   * @throws IllegalArgumentException if the size is not a valid board size
+   */
+  public static HexGeometry forSize(int size) {
+    if (size <= 3 || size % 2 == 0) {
+      throw new IllegalArgumentException("Invalid Board Sizes");
+    }
+    return CACHE.computeIfAbsent(size, HexGeometry::new);
+  }
+
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns true if the given grid cell index is a cell of the hexagon.
+   */
+  public boolean isValid(int cell) {
+    return cell >= 0 && cell < this.valid.length && this.valid[cell];
+  }
+
+  /**
+   * Returns the neighbour of a cell in the given direction.
+   *
+   * @param cell      a grid cell index
+   * @param direction the direction to look in
+   * @return the neighbour's grid cell index, or -1 if the cell is on the edge of the hexagon
+   *         in that direction
+   * @throws IllegalArgumentException if the cell isn't a cell of the hexagon
+   */
+  public int neighbour(int cell, MoveDirection direction) {
+    int start = this.rayStart(cell, direction);
+    return this.rayLength(cell, direction) == 0 ? -1 : this.rayCells[start];
+  }
+
+  /**
+   * Returns the ray of cells met walking from a cell in the given direction, nearest first.
+   *
+   * @param cell      a grid cell index
+   * @param direction the direction to walk in
+   * @return a new array of the grid cell indices on the ray, empty at the edge of the hexagon
+   * @throws IllegalArgumentException if the cell isn't a cell of the hexagon
+   */
+  public int[] ray(int cell, MoveDirection direction) {
+    int start = this.rayStart(cell, direction);
+    return Arrays.copyOfRange(this.rayCells, start, start + this.rayLength(cell, direction));
+  }
+
+  /**
+   * Returns the number of cells on the ray from a cell in the given direction.
+   *
+   * @throws IllegalArgumentException if the cell isn't a cell of the hexagon
+   */
+  public int rayLength(int cell, MoveDirection direction) {
+    int index = this.rayStart(cell, direction);
+    return this.rayStarts[cell * NUM_DIRECTIONS + direction.ordinal() + 1] - index - 1;
+  }
+
+  private int rayStart(int cell, MoveDirection direction) {
+    if (!this.isValid(cell)) {
+      throw new IllegalArgumentException("POSN provided by user is invalid");
+    }
+    return this.rayStarts[cell * NUM_DIRECTIONS + direction.ordinal()];
+  }
+}
@@ -0,0 +1,276 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import discs.DiscColor;
+import player.PlayerTurn;
+
+/**
+ * A 'HexSymmetry' is the table of the twelve symmetries of the hexagonal board of one size: the
+ * six rotations by multiples of 60 degrees about the middle cell, each on its own and after a
+ * reflection. A symmetry moves every disc to another cell without changing which cells line up,
+ * so it turns a position into one that plays exactly the same, with every move moved the same
+ * way.
+ * <p>
+ * Symmetry 0 is the identity, symmetries 1 to 5 rotate by that many steps of 60 degrees, and
+ * symmetry 6 + k reflects the board and then rotates it by k steps. Each symmetry is stored as a
+ * permutation of the grid cell indices {@code y * size + x}, computed once per board size in
+ * cube coordinates around the middle cell.
+ * <p>
+ * Of the up to twelve positions a symmetry can turn a position into, the one whose cells read
+ * smallest row by row is its canonical form. Equivalent positions have the same canonical form,
+ * so caches and books keyed on {@link #canonicalHash(BoardSnapshot)} store each of them once;
+ * moves are mapped into the canonical form with {@link #canonicalSymmetry(BoardSnapshot)} and
+ * back with its {@link #inverse(int) inverse}.
+ * <p>
+ * Tables are immutable and cached, so every board of the same size shares one instance.
+ */
+public final class HexSymmetry {
+  /**
+   * The number of symmetries of the board.
+   */
+  public static final int COUNT = 12;
+  /**
+   * The symmetry that leaves every cell where it is.
+   */
+  public static final int IDENTITY = 0;
+
+  private static final Map<Integer, HexSymmetry> CACHE = new ConcurrentHashMap<>();
+  private static final DiscColor[] COLORS = DiscColor.values();
+
+  private final int size;
+  private final ZobristKeys keys;
+  // [symmetry][grid cell] -> the grid cell it moves to, or -1 for cells outside the hexagon
+  private final int[][] targets;
+  // the grid cells of the hexagon in row-major order
+  private final int[] cells;
+  // [symmetry][i] -> the grid cell whose disc the symmetry moves onto cells[i]
+  private final int[][] sources;
+
+  private HexSymmetry(int size) {
+    this.size = size;
+    this.keys = ZobristKeys.forSize(size);
+    BitboardLayout layout = BitboardLayout.forSize(size);
+    int middle = size / 2;
+    int centerQ = middle - middle / 2;
+    this.cells = new int[layout.getNumCells()];
+    this.targets = new int[COUNT][size * size];
+    for (int[] target : this.targets) {
+      Arrays.fill(target, -1);
+    }
+    int count = 0;
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        if (!layout.isValid(x, y)) {
+          continue;
+        }
+        this.cells[count++] = y * size + x;
+        int q = x - y / 2 - centerQ;
+        int r = y - middle;
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+          int[] cube = {q, r, -q - r};
+          if (symmetry >= 6) {
+            // swapping q and r is a reflection across one of the axes
+            cube = new int[]{cube[1], cube[0], cube[2]};
+          }
+          for (int step = 0; step < symmetry % 6; step++) {
+            cube = new int[]{-cube[1], -cube[2], -cube[0]};
+          }
+          int toY = cube[1] + middle;
+          int toX = cube[0] + centerQ + toY / 2;
+          this.targets[symmetry][y * size + x] = toY * size + toX;
+        }
+      }
+    }
+    this.sources = new int[COUNT][this.cells.length];
+    for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+      for (int i = 0; i < this.cells.length; i++) {
+        this.sources[symmetry][i] = this.targets[inverse(symmetry)][this.cells[i]];
+      }
+    }
+  }
+
+  /**
+   * Returns the shared symmetry table for boards of the given size.
+   *
+   * @param size the square nxn dimension of the board
+   * @return the table for that size
+   * @throws IllegalArgumentException if the size is not a valid board size
+   */
+  public static HexSymmetry forSize(int size) {
+    if (size <= 3 || size % 2 == 0) {
+      throw new IllegalArgumentException("Invalid Board Sizes");
+    }
+    return CACHE.computeIfAbsent(size, HexSymmetry::new);
+  }
+
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns the symmetry that undoes the given one. A rotation is undone by rotating the other
+   * way, and a reflection followed by a rotation is a reflection, which undoes itself.
+   *
+   * @param symmetry a symmetry in [0, COUNT)
+   * @return its inverse
+   * @throws IllegalArgumentException if the symmetry is out of range
+   */
+  public static int inverse(int symmetry) {
+    checkSymmetry(symmetry);
+    return symmetry < 6 ? (6 - symmetry) % 6 : symmetry;
+  }
+
+  private static void checkSymmetry(int symmetry) {
+    if (symmetry < 0 || symmetry >= COUNT) {
+      throw new IllegalArgumentException("No symmetry " + symmetry);
+    }
+  }
+
+  /**
+   * Returns the cell the given symmetry moves a cell to.
+   *
+   * @param symmetry a symmetry in [0, COUNT)
+   * @param cell     a grid cell index {@code y * size + x}
+   * @return the grid cell index it moves to, or -1 if the cell isn't part of the hexagon
+   * @throws IllegalArgumentException if the symmetry is out of range
+   */
+  public int mapCell(int symmetry, int cell) {
+    checkSymmetry(symmetry);
+    if (cell < 0 || cell >= this.size * this.size) {
+      return -1;
+    }
+    return this.targets[symmetry][cell];
+  }
+
+  /**
+   * Returns the position the given symmetry moves a move to.
+   *
+   * @param symmetry a symmetry in [0, COUNT)
+   * @param move     a cell of the hexagon
+   * @return the cell it moves to
+   * @throws IllegalArgumentException if the symmetry is out of range or the move isn't a cell
+   *                                  of the hexagon
+   */
+  public Posn map(int symmetry, Posn move) {
+    int x = move.getX();
+    int y = move.getY();
+    int cell = x >= 0 && x < this.size ? this.mapCell(symmetry, y * this.size + x) : -1;
+    if (cell < 0) {
+      throw new IllegalArgumentException("POSN provided by user is invalid");
+    }
+    return new Posn(cell % this.size, cell / this.size);
+  }
+
+  /**
+   * Returns the symmetry that turns the given position into its canonical form. When several
+   * symmetries do, because the position is itself symmetric, the lowest one is returned.
+   *
+   * @param snapshot a position on a board of this table's size
+   * @return the symmetry to apply
+   * @throws IllegalArgumentException if the position's board is a different size
+   */
+  public int canonicalSymmetry(BoardSnapshot snapshot) {
+    this.checkSize(snapshot);
+    int best = IDENTITY;
+    for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+      int[] candidate = this.sources[symmetry];
+      int[] current = this.sources[best];
+      for (int i = 0; i < this.cells.length; i++) {
+        int difference = snapshot.cellAt(candidate[i]) - snapshot.cellAt(current[i]);
+        if (difference != 0) {
+          if (difference < 0) {
+            best = symmetry;
+          }
+          break;
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns the Zobrist hash, see {@link ZobristKeys}, that the given position would have after
+   * applying the given symmetry.
+   *
+   * @param snapshot a position on a board of this table's size
+   * @param symmetry a symmetry in [0, COUNT)
+   * @return the hash of the moved position
+   * @throws IllegalArgumentException if the position's board is a different size or the
+   *                                  symmetry is out of range
+   */
+  public long hashOf(BoardSnapshot snapshot, int symmetry) {
+    this.checkSize(snapshot);
+    checkSymmetry(symmetry);
+    long hash = snapshot.getTurn() == PlayerTurn.PLAYER2 ? this.keys.getPlayer2ToMoveKey() : 0;
+    int[] target = this.targets[symmetry];
+    for (int cell : this.cells) {
+      byte color = snapshot.cellAt(cell);
+      if (color != DiscColor.FACEDOWN.ordinal()) {
+        hash ^= this.keys.discKey(target[cell], COLORS[color]);
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the Zobrist hash of the canonical form of the given position, which is the same for
+   * every position equivalent to it.
+   *
+   * @param snapshot a position on a board of this table's size
+   * @return the hash of its canonical form
+   * @throws IllegalArgumentException if the position's board is a different size
+   */
+  public long canonicalHash(BoardSnapshot snapshot) {
+    return this.hashOf(snapshot, this.canonicalSymmetry(snapshot));
+  }
+
+  /**
+   * Applies a symmetry to a whole position, moving its discs and legal moves. The turn, score,
+   * ply and whether the game is over stay the same.
+   *
+   * @param snapshot a position on a board of this table's size
+   * @param symmetry a symmetry in [0, COUNT)
+   * @return the moved position
+   * @throws IllegalArgumentException if the position's board is a different size or the
+   *                                  symmetry is out of range
+   */
+  public BoardSnapshot transform(BoardSnapshot snapshot, int symmetry) {
+    long hash = this.hashOf(snapshot, symmetry);
+    byte[] moved = new byte[this.size * this.size];
+    Arrays.fill(moved, BoardSnapshot.OUTSIDE);
+    for (int i = 0; i < this.cells.length; i++) {
+      moved[this.cells[i]] = snapshot.cellAt(this.sources[symmetry][i]);
+    }
+    byte[][] chunks = new byte[BoardSnapshot.chunkCount(this.size)][];
+    for (int chunk = 0; chunk < chunks.length; chunk++) {
+      chunks[chunk] = BoardSnapshot.copyChunk(moved, chunk);
+    }
+    int[] legalMoves = snapshot.legalMoveCells();
+    for (int i = 0; i < legalMoves.length; i++) {
+      legalMoves[i] = this.targets[symmetry][legalMoves[i]];
+    }
+    Arrays.sort(legalMoves);
+    return new BoardSnapshot(this.size, chunks, snapshot.getTurn(), snapshot.getScore(),
+            snapshot.isGameOver(), snapshot.getPly(), hash, legalMoves);
+  }
+
+  /**
+   * Returns the canonical form of the given position.
+   *
+   * @param snapshot a position on a board of this table's size
+   * @return the position its canonical symmetry moves it to
+   * @throws IllegalArgumentException if the position's board is a different size
+   */
+  public BoardSnapshot canonicalize(BoardSnapshot snapshot) {
+    return this.transform(snapshot, this.canonicalSymmetry(snapshot));
+  }
+
+  private void checkSize(BoardSnapshot snapshot) {
+    if (snapshot.getDimensions() != this.size) {
+      throw new IllegalArgumentException("Board size doesn't match these symmetries");
+    }
+  }
+}
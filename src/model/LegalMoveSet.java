@@ -0,0 +1,62 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A 'LegalMoveSet' is a set of board cells, stored as cell indices, that supports constant time
+ * add, remove and membership checks without allocating. Models use it to keep each player's
+ * legal moves up to date as the board changes.
+ */
+final class LegalMoveSet {
+  private final int[] members;
+  private final int[] positions;
+  private int size;
+
+  /**
+   * Creates an empty set able to hold cell indices in [0, capacity).
+   *
+   * @param capacity one more than the largest cell index that will be stored
+   */
+  LegalMoveSet(int capacity) {
+    this.members = new int[capacity];
+    this.positions = new int[capacity];
+    Arrays.fill(this.positions, -1);
+    this.size = 0;
+  }
+
+  boolean contains(int cell) {
+    return this.positions[cell] >= 0;
+  }
+
+  void add(int cell) {
+    if (this.positions[cell] < 0) {
+      this.positions[cell] = this.size;
+      this.members[this.size] = cell;
+      this.size++;
+    }
+  }
+
+  void remove(int cell) {
+    int position = this.positions[cell];
+    if (position >= 0) {
+      int last = this.members[this.size - 1];
+      this.members[position] = last;
+      this.positions[last] = position;
+      this.positions[cell] = -1;
+      this.size--;
+    }
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the members of this set in increasing order of cell index.
+   */
+  int[] toSortedArray() {
+    int[] cells = Arrays.copyOf(this.members, this.size);
+    Arrays.sort(cells);
+    return cells;
+  }
+}
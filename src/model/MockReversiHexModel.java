@@ -14,6 +14,10 @@ import discs.GameDisc;
 
 /**
  * A 'ReversiHexModel' defines a hexagonal Reversi game.
+ * <p>
+ * The mock plays on whatever board it is given. Its move log records the moves and passes made
+ * on it since then, so replaying the log only recreates the position when the mock was given
+ * a starting board.
  */
 public class MockReversiHexModel implements ReversiModel {
   private boolean gameOn;
@@ -23,7 +27,10 @@ public class MockReversiHexModel implements ReversiModel {
   private  Map<PlayerTurn, DiscColor> playerColorMap;
   private int numRows;
   private int numColumns;
-  private StringBuilder playerAction;
+  private MoveLog moveLog;
+  // the board and turn before each ply, most recent last, for undoMove
+  private final List<Disc[][]> previousBoards;
+  private final List<PlayerTurn> previousTurns;
   private GameState state;
 
   /**
@@ -32,12 +39,14 @@ public class MockReversiHexModel implements ReversiModel {
    */
   public MockReversiHexModel(Disc[][] mockBoard) {
     this.gameBoard = mockBoard;
+    this.moveLog = new MoveLog(mockBoard.length, mockBoard.length * mockBoard.length);
+    this.previousBoards = new ArrayList<>();
+    this.previousTurns = new ArrayList<>();
     this.gameOn = false;
     this.numRows = 0;
     this.numColumns = 0;
     this.type = DiscType.HEXDISC;
     this.pt = PlayerTurn.PLAYER1;
-    this.playerAction = new StringBuilder();
     this.state = GameState.ONGOING;
     this.playerColorMap = new HashMap<>();
     playerColorMap.put(PlayerTurn.PLAYER1, DiscColor.BLACK);
@@ -50,8 +59,10 @@ public class MockReversiHexModel implements ReversiModel {
     this.numColumns = 0;
     this.type = DiscType.HEXDISC;
     this.gameBoard = null;
+    this.moveLog = new MoveLog(0, 1);
+    this.previousBoards = new ArrayList<>();
+    this.previousTurns = new ArrayList<>();
     this.pt = PlayerTurn.PLAYER1;
-    this.playerAction = new StringBuilder();
     this.state = GameState.ONGOING;
 
     this.playerColorMap = new HashMap<>();
@@ -72,7 +83,7 @@ public class MockReversiHexModel implements ReversiModel {
     for (int j = 0; j < this.gameBoard[0].length; j++) {
       if (j >= spacesMaxLeft && j < this.gameBoard.length - spacesMaxRight) {
         sb1.append("-");
-        this.gameBoard[i][j] = new GameDisc(this.type, DiscColor.FACEDOWN);
+        this.gameBoard[i][j] = GameDisc.of(this.type, DiscColor.FACEDOWN);
       } else {
         sb1.append("n");
       }
@@ -85,7 +96,7 @@ public class MockReversiHexModel implements ReversiModel {
 
 
   private void setPiece(int x, int y, DiscColor color) {
-    GameDisc replacementDisc = new GameDisc(this.type, color);
+    GameDisc replacementDisc = GameDisc.of(this.type, color);
 
     this.gameBoard[y][x] = replacementDisc;
   }
@@ -178,12 +189,12 @@ public class MockReversiHexModel implements ReversiModel {
       throw new IllegalStateException("Invalid move: No valid moves found.");
     }
 
+    this.saveForUndo();
     for (List<List<Integer>> l : moves ) {
       l.forEach(innerList -> applyColorFilter(innerList, this.getPlayerColor(this.pt)));
     }
     this.togglePlayer();
-    this.playerAction.append(this.getPlayerColor(this.pt).toString())
-            .append(" moved to (").append(x).append(y).append("), ");
+    this.moveLog.recordMove(x, y);
   }
 
 
@@ -194,16 +205,7 @@ public class MockReversiHexModel implements ReversiModel {
   }
 
   private boolean consecutivePasses() {
-    List<String> moveHistory = Arrays.asList(this.playerAction.toString().split(" "));
-
-    if(moveHistory.size() >= 2) {
-      String last = moveHistory.get(moveHistory.size() -1);
-      String penultimate = moveHistory.get(moveHistory.size() -2);
-
-      return last.equals("pass") && penultimate.equals("pass");
-    } else {
-      return false;
-    }
+    return this.moveLog.lastTwoArePasses();
   }
 
 
@@ -252,6 +254,21 @@ public class MockReversiHexModel implements ReversiModel {
     return true;
   }
 
+  @Override
+  public List<Posn> getLegalMoves() {
+    List<Posn> moves = new ArrayList<>();
+    for (int y = 0; y < this.gameBoard.length; y++) {
+      for (int x = 0; x < this.gameBoard[y].length; x++) {
+        if (this.gameBoard[y][x] != null
+                && this.gameBoard[y][x].getColor() == DiscColor.FACEDOWN
+                && !bfs(x, y).stream().allMatch(List::isEmpty)) {
+          moves.add(new Posn(x, y));
+        }
+      }
+    }
+    return moves;
+  }
+
   @Override
   public PlayerTurn currentTurn() {
 
@@ -291,6 +308,90 @@ public class MockReversiHexModel implements ReversiModel {
     return countDiscsForThisPlayer;
   }
 
+  @Override
+  public GameScore getScore() {
+    int empty = 0;
+    for (Disc[] row : this.gameBoard) {
+      for (Disc disc : row) {
+        if (disc != null && disc.getColor() == DiscColor.FACEDOWN) {
+          empty++;
+        }
+      }
+    }
+    return new GameScore(this.getPlayerScore(PlayerTurn.PLAYER1),
+            this.getPlayerScore(PlayerTurn.PLAYER2), empty);
+  }
+
+  @Override
+  public MoveLog getMoveLog() {
+    return this.moveLog;
+  }
+
+  @Override
+  public void undoMove() {
+    if (this.previousBoards.isEmpty()) {
+      throw new IllegalStateException("There are no moves to undo.");
+    }
+    this.gameBoard = this.previousBoards.remove(this.previousBoards.size() - 1);
+    this.pt = this.previousTurns.remove(this.previousTurns.size() - 1);
+    this.moveLog.removeLast();
+  }
+
+  /**
+   * Finds the flipped discs by comparing the board with the one saved before the most recent
+   * ply, leaving out the cell the disc was placed on.
+   */
+  @Override
+  public int lastFlips(int[] flips) {
+    if (this.previousBoards.isEmpty()) {
+      throw new IllegalStateException("No move has been made.");
+    }
+    int ply = this.moveLog.size() - 1;
+    Disc[][] before = this.previousBoards.get(this.previousBoards.size() - 1);
+    if (before == null || this.moveLog.isPass(ply)) {
+      return 0;
+    }
+    int size = this.gameBoard.length;
+    int placed = this.moveLog.getY(ply) * size + this.moveLog.getX(ply);
+    int count = 0;
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        Disc now = this.gameBoard[y][x];
+        if (now != null && y * size + x != placed
+                && now.getColor() != before[y][x].getColor()) {
+          flips[count++] = y * size + x;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Remembers the board and turn before a ply. Discs are immutable, so copying the rows is
+   * enough.
+   */
+  private void saveForUndo() {
+    Disc[][] copy = null;
+    if (this.gameBoard != null) {
+      copy = new Disc[this.gameBoard.length][];
+      for (int row = 0; row < copy.length; row++) {
+        copy[row] = this.gameBoard[row].clone();
+      }
+    }
+    this.previousBoards.add(copy);
+    this.previousTurns.add(this.pt);
+  }
+
+  @Override
+  public long getPositionHash() {
+    return ZobristKeys.forSize(this.getDimensions()).hashOf(this);
+  }
+
+  @Override
+  public BoardSnapshot snapshot() {
+    return BoardSnapshot.copyOf(this);
+  }
+
   @Override
   public Disc getDiscAt(int x, int y) {
     if (!this.checkValidCoordinates(x, y)) {
@@ -309,9 +410,10 @@ public class MockReversiHexModel implements ReversiModel {
 
   @Override
   public void pass() {
+    this.saveForUndo();
     this.togglePlayer();
 
-    this.playerAction.append("pass ");
+    this.moveLog.recordPass();
   }
 
   @Override
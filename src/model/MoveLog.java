@@ -0,0 +1,181 @@
+package model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A 'MoveLog' is the append-only history of a game, one entry per ply. A move is stored as the
+ * index of the cell it was played on ({@code y * boardSize + x}) and a pass as {@link #PASS}.
+ * <p>
+ * Only the model that owns a log can add to it; everyone else gets read access through
+ * {@link ReversiModel#getMoveLog()}.
+ */
+public final class MoveLog implements Iterable<Integer> {
+  /**
+   * The entry recorded for a pass.
+   */
+  public static final int PASS = -1;
+
+  private final int boardSize;
+  private int[] plies;
+  private int size;
+  // how many of the most recent plies are passes
+  private int trailingPasses;
+
+  /**
+   * Creates an empty log for a board of the given size.
+   *
+   * @param boardSize       the square nxn dimension of the board
+   * @param initialCapacity how many plies to make room for up front
+   */
+  MoveLog(int boardSize, int initialCapacity) {
+    this.boardSize = boardSize;
+    this.plies = new int[Math.max(initialCapacity, 1)];
+    this.size = 0;
+    this.trailingPasses = 0;
+  }
+
+  void recordMove(int x, int y) {
+    this.append(y * this.boardSize + x);
+    this.trailingPasses = 0;
+  }
+
+  void recordPass() {
+    this.append(PASS);
+    this.trailingPasses++;
+  }
+
+  private void append(int entry) {
+    if (this.size == this.plies.length) {
+      this.plies = Arrays.copyOf(this.plies, this.plies.length * 2);
+    }
+    this.plies[this.size++] = entry;
+  }
+
+  /**
+   * Removes the most recent ply.
+   *
+   * @throws IllegalStateException if the log is empty
+   */
+  void removeLast() {
+    if (this.size == 0) {
+      throw new IllegalStateException("No moves to remove");
+    }
+    this.size--;
+    if (this.trailingPasses > 0) {
+      this.trailingPasses--;
+    } else {
+      int ply = this.size - 1;
+      while (ply >= 0 && this.plies[ply] == PASS) {
+        this.trailingPasses++;
+        ply--;
+      }
+    }
+  }
+
+  /**
+   * Returns a new log holding the first {@code size} entries of the given plies.
+   */
+  static MoveLog of(int boardSize, int[] plies, int size) {
+    MoveLog log = new MoveLog(boardSize, size);
+    for (int ply = 0; ply < size; ply++) {
+      log.append(plies[ply]);
+      log.trailingPasses = plies[ply] == PASS ? log.trailingPasses + 1 : 0;
+    }
+    return log;
+  }
+
+  /**
+   * Returns the dimension of the board the cell indices in this log refer to.
+   */
+  public int getBoardSize() {
+    return this.boardSize;
+  }
+
+  /**
+   * Returns the number of plies recorded so far.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the raw entry of the given ply: a cell index, or {@link #PASS}.
+   *
+   * @param ply the ply to read, starting at 0
+   * @return the entry recorded for that ply
+   * @throws IndexOutOfBoundsException if no such ply has been recorded
+   */
+  public int get(int ply) {
+    if (ply < 0 || ply >= this.size) {
+      throw new IndexOutOfBoundsException("No ply " + ply + " in a log of " + this.size);
+    }
+    return this.plies[ply];
+  }
+
+  /**
+   * Returns true if the given ply was a pass.
+   */
+  public boolean isPass(int ply) {
+    return this.get(ply) == PASS;
+  }
+
+  /**
+   * Returns the x coordinate of the move played on the given ply.
+   *
+   * @throws IllegalArgumentException if that ply was a pass
+   */
+  public int getX(int ply) {
+    return this.cellOf(ply) % this.boardSize;
+  }
+
+  /**
+   * Returns the y coordinate of the move played on the given ply.
+   *
+   * @throws IllegalArgumentException if that ply was a pass
+   */
+  public int getY(int ply) {
+    return this.cellOf(ply) / this.boardSize;
+  }
+
+  private int cellOf(int ply) {
+    int entry = this.get(ply);
+    if (entry == PASS) {
+      throw new IllegalArgumentException("Ply " + ply + " was a pass");
+    }
+    return entry;
+  }
+
+  /**
+   * Returns true if the two most recent plies were both passes.
+   */
+  public boolean lastTwoArePasses() {
+    return this.trailingPasses >= 2;
+  }
+
+  /**
+   * Iterates over the raw entries of the plies recorded when this method was called, oldest
+   * first. Use {@link PrimitiveIterator.OfInt#nextInt()} to avoid boxing.
+   */
+  @Override
+  public PrimitiveIterator.OfInt iterator() {
+    final int end = this.size;
+    return new PrimitiveIterator.OfInt() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return this.next < end;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return MoveLog.this.plies[this.next++];
+      }
+    };
+  }
+}
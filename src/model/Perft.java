@@ -0,0 +1,152 @@
+package model;
+
+/**
+ * 'Perft' counts the positions reachable from a game in exactly a given number of plies. The
+ * counts only depend on the rules, so they pin down move generation: two board engines agree
+ * on every count only if they generate the same moves, and a change to move generation that
+ * changes a count is a bug. Timing the count gives a single nodes-per-second figure for the
+ * speed of move generation.
+ * <p>
+ * A game that ends before the given depth adds nothing to the count. Passes are counted as
+ * moves only when asked for: then every unfinished position can also be passed from, and two
+ * passes in a row end the game, just like {@link ReversiModel#isGameOver()}.
+ * <p>
+ * Run from the command line as {@code Perft size depth [passes] [array|bitboard|raw]} to print
+ * the count and speed at every depth up to the given one.
+ */
+public final class Perft {
+
+  private Perft() {
+  }
+
+  /**
+   * Counts the positions reachable from the current position of a game in exactly the given
+   * number of plies, using the model's own moves. The game is left as it was.
+   *
+   * @param model         a started game
+   * @param depth         the number of plies to look ahead
+   * @param includePasses true to count passes as moves
+   * @return the number of positions at that depth
+   * @throws IllegalArgumentException if depth is negative
+   * @throws IllegalStateException    if the game hasn't been started yet
+   */
+  public static long count(ReversiModel model, int depth, boolean includePasses) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth can't be negative");
+    }
+    return countModel(model, depth, includePasses);
+  }
+
+  private static long countModel(ReversiModel model, int depth, boolean includePasses) {
+    if (depth == 0) {
+      return 1;
+    }
+    if (model.isGameOver()) {
+      return 0;
+    }
+    long nodes = 0;
+    for (Posn move : model.getLegalMoves()) {
+      model.makeMove(move.getX(), move.getY());
+      nodes += countModel(model, depth - 1, includePasses);
+      model.undoMove();
+    }
+    if (includePasses) {
+      model.pass();
+      nodes += countModel(model, depth - 1, true);
+      model.undoMove();
+    }
+    return nodes;
+  }
+
+  /**
+   * Counts the positions reachable from the given board in exactly the given number of plies.
+   * The board is taken to not follow a pass. It is left as it was.
+   *
+   * @param board         the position to count from
+   * @param depth         the number of plies to look ahead
+   * @param includePasses true to count passes as moves
+   * @return the number of positions at that depth
+   * @throws IllegalArgumentException if depth is negative
+   */
+  public static long count(HexBitboard board, int depth, boolean includePasses) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth can't be negative");
+    }
+    int words = board.getLayout().getNumWords();
+    return countBoard(board, depth, includePasses, 0, new long[depth + 1][words],
+            new long[depth + 1][words]);
+  }
+
+  private static long countBoard(HexBitboard board, int depth, boolean includePasses,
+                                 int trailingPasses, long[][] moves, long[][] flips) {
+    if (depth == 0) {
+      return 1;
+    }
+    long[] legal = moves[depth];
+    int count = board.legalMoves(legal);
+    if (count == 0 || trailingPasses >= 2) {
+      return 0;
+    }
+    long nodes = 0;
+    if (depth == 1) {
+      nodes = count;
+    } else {
+      for (int word = 0; word < legal.length; word++) {
+        long remaining = legal[word];
+        while (remaining != 0) {
+          int bit = (word << 6) + Long.numberOfTrailingZeros(remaining);
+          remaining &= remaining - 1;
+          board.play(bit, flips[depth]);
+          nodes += countBoard(board, depth - 1, includePasses, 0, moves, flips);
+          board.undo(bit, flips[depth]);
+        }
+      }
+    }
+    if (includePasses) {
+      board.pass();
+      nodes += countBoard(board, depth - 1, true, trailingPasses + 1, moves, flips);
+      board.pass();
+    }
+    return nodes;
+  }
+
+  /**
+   * Prints the count, the time taken and the nodes per second at every depth from 1 up to the
+   * given one, for a new game of the given size.
+   *
+   * @param args the board size, the maximum depth, and optionally "passes" and the engine to
+   *             count with: "array", "bitboard" (the two models) or "raw" (a bare HexBitboard)
+   */
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      System.out.println("usage: Perft size depth [passes] [array|bitboard|raw]");
+      return;
+    }
+    int size = Integer.parseInt(args[0]);
+    int maxDepth = Integer.parseInt(args[1]);
+    boolean includePasses = false;
+    String engine = "raw";
+    for (int i = 2; i < args.length; i++) {
+      if (args[i].equals("passes")) {
+        includePasses = true;
+      } else {
+        engine = args[i];
+      }
+    }
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      long start = System.nanoTime();
+      long nodes;
+      if (engine.equals("raw")) {
+        nodes = count(HexBitboard.startingPosition(size), depth, includePasses);
+      } else {
+        ReversiModel model = ReversiModelFactory.create(
+                engine.equals("bitboard") ? BoardEngine.BITBOARD : BoardEngine.ARRAY);
+        model.startGame(size);
+        nodes = count(model, depth, includePasses);
+      }
+      long elapsed = Math.max(System.nanoTime() - start, 1);
+      System.out.println("depth " + depth + " nodes " + nodes + " time "
+              + elapsed / 1_000_000 + "ms nps " + Math.round(nodes * 1e9 / elapsed));
+    }
+  }
+}
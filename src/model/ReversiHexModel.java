@@ -16,15 +16,48 @@ import discs.GameDisc;
  * A 'ReversiHexModel' defines a hexagonal Reversi game.
  */
 public class ReversiHexModel implements ReversiModel {
+  private static final PlayerTurn[] PLAYERS = PlayerTurn.values();
+  private static final DiscColor[] COLORS = DiscColor.values();
+  // the cell value of grid cells that lie outside the hexagon
+  private static final byte OUTSIDE = -1;
+  private static final byte FACEDOWN = (byte) DiscColor.FACEDOWN.ordinal();
+
   private boolean gameOn;
-  private Disc[][] gameBoard;
+  // the colour of every cell as a DiscColor ordinal, row by row, or OUTSIDE
+  private byte[] cells;
   private PlayerTurn pt;
   private final DiscType type;
   private final Map<PlayerTurn, DiscColor> playerColorMap;
   private int numRows;
   private int numColumns;
-  private StringBuilder playerAction;
+  private MoveLog moveLog;
   private GameState state;
+  private int[] flipBuffer;
+  // number of cells of each colour, indexed by DiscColor ordinal and updated by setPiece
+  private final int[] discCounts;
+  // each player's legal moves, indexed by PlayerTurn ordinal and kept current after every move
+  private LegalMoveSet[] legalMoves;
+  // cells whose legality must be rechecked after the board changed
+  private int[] dirtyCells;
+  private int dirtyCount;
+  private int[] dirtyStamps;
+  private int dirtyGeneration;
+  // undo history: every disc flipped so far, and for each ply where its flips start on the
+  // flip stack and which player made it
+  private int[] flipStack;
+  private int flipTop;
+  private int[] plyFlipStarts;
+  private PlayerTurn[] plyPlayers;
+  // Zobrist hash of the current position, updated by setPiece and togglePlayer
+  private ZobristKeys zobristKeys;
+  private long positionHash;
+  // the rays of cells in every direction from every cell, shared by all games of this size
+  private HexGeometry geometry;
+  // the chunks of the most recent snapshot, which the next one shares except for the chunks
+  // marked as changed by setPiece, and that snapshot itself until the game changes again
+  private byte[][] snapshotChunks;
+  private long[] changedChunks;
+  private BoardSnapshot latestSnapshot;
 
   /**
    * Constructor for a Reversi hexagonal model.
@@ -35,26 +68,28 @@ public class ReversiHexModel implements ReversiModel {
     this.numRows = 0;
     this.numColumns = 0;
     this.type = DiscType.HEXDISC;
-    this.gameBoard = null;
+    this.cells = null;
     this.pt = PlayerTurn.PLAYER1;
-    this.playerAction = new StringBuilder();
+    this.moveLog = null;
     this.state = GameState.ONGOING;
+    this.discCounts = new int[DiscColor.values().length];
     this.playerColorMap = new HashMap<>();
     playerColorMap.put(PlayerTurn.PLAYER1, DiscColor.BLACK);
     playerColorMap.put(PlayerTurn.PLAYER2, DiscColor.WHITE);
   }
 
   /**
-   * Helps create initial game board by placing discs into the null 2D array gameBoard.
+   * Helps create initial game board by placing facedown discs into one row of the board.
    *
    * @param spacesMaxLeft The maximum null spaces for this row to the left of the discs
    * @param spacesMaxRight The maximum null spaces for this row to the right of the discs
    * @param i
    */
   private void placeGameDiscs(int spacesMaxLeft, int spacesMaxRight, int i) {
-    for (int j = 0; j < this.gameBoard[0].length; j++) {
-      if (j >= spacesMaxLeft && j < this.gameBoard.length - spacesMaxRight) {
-        this.gameBoard[i][j] = new GameDisc(this.type, DiscColor.FACEDOWN);
+    for (int j = 0; j < this.numColumns; j++) {
+      if (j >= spacesMaxLeft && j < this.numRows - spacesMaxRight) {
+        this.cells[i * this.numColumns + j] = FACEDOWN;
+        this.discCounts[DiscColor.FACEDOWN.ordinal()]++;
       }
     }
   }
@@ -64,12 +99,12 @@ public class ReversiHexModel implements ReversiModel {
    */
 
   private void initBoardWithOddMiddle() {
-    int middle = this.gameBoard.length / 2;
-    double MaxSpaces = (double) this.gameBoard.length - ((double) (this.gameBoard.length + 1) / 2);
+    int middle = this.numRows / 2;
+    double MaxSpaces = (double) this.numRows - ((double) (this.numRows + 1) / 2);
     int SpacesMaxLeft = (int) Math.ceil(MaxSpaces / 2);
     int SpacesMaxRight = (int) (MaxSpaces - SpacesMaxLeft);
     boolean middleCrossed = false;
-    for (int i = 0; i < this.gameBoard.length; i++) {
+    for (int i = 0; i < this.numRows; i++) {
       int distanceFromMiddle = Math.abs(middle - i);
 
       if (!middleCrossed) {
@@ -107,15 +142,14 @@ public class ReversiHexModel implements ReversiModel {
    * Helps create the initial game board when the middle row is even.
    */
   private void initBoardWithEvenMiddle() {
-    int middle = this.gameBoard.length / 2;
+    int middle = this.numRows / 2;
 
-    double MaxSpaces = (double) this.gameBoard.length - ((double) (this.gameBoard.length + 1) / 2);
+    double MaxSpaces = (double) this.numRows - ((double) (this.numRows + 1) / 2);
     int SpacesMaxLeft = (int) Math.ceil(MaxSpaces / 2);
     int SpacesMaxRight = (int) (MaxSpaces - SpacesMaxLeft);
     boolean middleCrossed = false;
-    StringBuilder sb1 = new StringBuilder();
 
-    for (int i = 0; i < this.gameBoard.length; i++) {
+    for (int i = 0; i < this.numRows; i++) {
       int distanceFromMiddle = Math.abs(middle - i);
 
       if (middleCrossed) {
@@ -143,7 +177,6 @@ public class ReversiHexModel implements ReversiModel {
         SpacesMaxLeft = 0;
       }
     }
-    System.out.println(sb1.toString());
   }
 
 
@@ -151,7 +184,7 @@ public class ReversiHexModel implements ReversiModel {
    * Creates the initial game board of a hexagonal reversi.
    */
   private void initBoard() {
-    int middle = this.gameBoard.length / 2;
+    int middle = this.numRows / 2;
 
     if (middle % 2 == 0) {
       this.initBoardWithEvenMiddle();
@@ -162,13 +195,20 @@ public class ReversiHexModel implements ReversiModel {
   }
 
   private void setPiece(int x, int y, DiscColor color) {
-    GameDisc replacementDisc = new GameDisc(this.type, color);
-
-    this.gameBoard[y][x] = replacementDisc;
+    int cell = y * this.numColumns + x;
+    DiscColor previous = COLORS[this.cells[cell]];
+    this.discCounts[previous.ordinal()]--;
+    this.discCounts[color.ordinal()]++;
+    this.positionHash ^= this.zobristKeys.discKey(cell, previous)
+            ^ this.zobristKeys.discKey(cell, color);
+    this.cells[cell] = (byte) color.ordinal();
+    int chunk = cell >>> BoardSnapshot.CHUNK_SHIFT;
+    this.changedChunks[chunk >>> 6] |= 1L << chunk;
+    this.latestSnapshot = null;
   }
 
   private void setStartingPieces() {
-    int middle = this.gameBoard.length / 2;
+    int middle = this.numRows / 2;
     this.setPiece(middle + 1, middle, DiscColor.BLACK); // 4,3
     this.setPiece(middle, middle - 1, DiscColor.BLACK); // 3,2
     this.setPiece(middle, middle + 1, DiscColor.BLACK); // 3,4
@@ -177,9 +217,26 @@ public class ReversiHexModel implements ReversiModel {
     this.setPiece(middle - 1, middle, DiscColor.WHITE); // 2,3
   }
 
+  /**
+   * Returns a new grid of the discs on the board, with null for cells outside the hexagon.
+   * The discs are the shared {@link GameDisc#of} instances, so building the grid allocates
+   * only the arrays. Changing the returned array does not change the game.
+   */
   @Override
   public Disc[][] getBoard() {
-    return this.gameBoard;
+    if (this.cells == null) {
+      return null;
+    }
+    Disc[][] grid = new Disc[this.numRows][this.numColumns];
+    for (int y = 0; y < this.numRows; y++) {
+      for (int x = 0; x < this.numColumns; x++) {
+        byte value = this.cells[y * this.numColumns + x];
+        if (value != OUTSIDE) {
+          grid[y][x] = GameDisc.of(this.type, COLORS[value]);
+        }
+      }
+    }
+    return grid;
   }
 
   /**
@@ -203,8 +260,36 @@ public class ReversiHexModel implements ReversiModel {
     checkStartGameConditions(boardSize);
 
     this.gameOn = true;
-    this.gameBoard = new Disc[numRows][numColumns];
+    this.cells = new byte[numRows * numColumns];
+    Arrays.fill(this.cells, OUTSIDE);
+    this.flipBuffer = new int[numRows * numColumns];
+    this.legalMoves = new LegalMoveSet[PLAYERS.length];
+    for (PlayerTurn player : PLAYERS) {
+      this.legalMoves[player.ordinal()] = new LegalMoveSet(numRows * numColumns);
+    }
+    this.dirtyCells = new int[numRows * numColumns];
+    this.dirtyStamps = new int[numRows * numColumns];
+    this.dirtyGeneration = 1;
+    // sized for a typical game so that making moves doesn't have to grow the undo history
+    this.flipStack = new int[numRows * numColumns * 4];
+    this.flipTop = 0;
+    this.plyFlipStarts = new int[numRows * numColumns];
+    this.plyPlayers = new PlayerTurn[numRows * numColumns];
+    // one ply per grid cell covers a typical game; passes can still grow the log
+    this.moveLog = new MoveLog(boardSize, numRows * numColumns);
+    this.zobristKeys = ZobristKeys.forSize(boardSize);
+    this.positionHash = 0;
+    this.geometry = HexGeometry.forSize(boardSize);
+    int numChunks = BoardSnapshot.chunkCount(boardSize);
+    this.snapshotChunks = new byte[numChunks][];
+    this.changedChunks = new long[(numChunks + 63) >>> 6];
+    this.latestSnapshot = null;
     initBoard();
+    for (int chunk = 0; chunk < numChunks; chunk++) {
+      this.snapshotChunks[chunk] = BoardSnapshot.copyChunk(this.cells, chunk);
+    }
+    Arrays.fill(this.changedChunks, 0);
+    this.initLegalMoves();
   }
 
   @Override
@@ -233,111 +318,177 @@ public class ReversiHexModel implements ReversiModel {
    */
   private boolean checkValidCoordinates(int x, int y) {
 
-    if (x >= this.gameBoard.length || y >= this.gameBoard.length || x < 0 || y < 0) {
+    if (x >= this.numColumns || y >= this.numRows || x < 0 || y < 0) {
       return false;
     }
-    return this.gameBoard[y][x] != null;
-  }
-
-  private List<List<List<Integer>>> bfs(int destX, int destY) {
-    List<List<List<Integer>>> res = new ArrayList<>();
-    res.add(bfsHelper(destX,destY,MoveDirection.LEFT,new ArrayList<>(), true));
-    res.add(bfsHelper(destX,destY,MoveDirection.RIGHT, new ArrayList<>(), true));
-    res.add(bfsHelper(destX,destY,MoveDirection.UPLEFT, new ArrayList<>(), true));
-    res.add(bfsHelper(destX,destY,MoveDirection.UPRIGHT, new ArrayList<>(), true));
-    res.add(bfsHelper(destX,destY,MoveDirection.DOWNLEFT, new ArrayList<>(), true));
-    res.add(bfsHelper(destX,destY,MoveDirection.DOWNRIGHT, new ArrayList<>(), true));
-    return res;
-  }
-  private List<List<Integer>> bfsHelper(int x, int y, MoveDirection moveDirection, List<List<Integer>> res,
-                                        boolean firstPass) {
-
-    while (true) {
-      res.add(Arrays.asList(x,y));
-      DiscColor playerTurnColor = this.getPlayerColor(this.pt);
-      List<Integer> nextPos = MoveRules.applyShiftBasedOnDirection(x,y,moveDirection);
-      int nextPosX = nextPos.get(0);
-      int nextPosY = nextPos.get(1);
-      x = nextPosX;
-      y = nextPosY;
-      if (!this.checkValidCoordinates(nextPosX, nextPosY)) {
-        return new ArrayList<>();
-      }
-      if (firstPass) {
-        DiscColor opponentTurnColor = this.getPlayerColor(getOpponent(this.pt));
-        if (opponentTurnColor == this.getDiscAt(nextPosX, nextPosY).getColor()) {
-          res.add(Arrays.asList(x, y));
-          res.add(Arrays.asList(nextPosX, nextPosY));
-        } else {
-          return new ArrayList<>();
-        }
-        firstPass = false;
-      } else {
-        if (this.getDiscAt(nextPosX,nextPosY).getColor() == playerTurnColor) {
-          return res;
-        } else if (this.getDiscAt(nextPosX,nextPosY).getColor() == DiscColor.FACEDOWN) {
-          return new ArrayList<>();
-        } else {
-          res.add(Arrays.asList(nextPosX,nextPosY));
+    return this.cells[y * this.numColumns + x] != OUTSIDE;
+  }
+
+  /**
+   * Counts the discs the given player would flip by placing a disc at the given coordinate,
+   * walking the precomputed ray of each of the six directions.
+   * When {@code record} is true the flipped cells are also written into the flip buffer.
+   *
+   * @param x,y    the coordinate the disc would be placed on
+   * @param player the player placing the disc
+   * @param record whether to store the flipped cells in the flip buffer
+   * @return the number of discs that would be flipped, 0 if the move captures nothing
+   */
+  private int collectFlips(int x, int y, PlayerTurn player, boolean record) {
+    byte playerTurnColor = (byte) this.getPlayerColor(player).ordinal();
+    byte opponentTurnColor = (byte) this.getPlayerColor(this.getOpponent(player)).ordinal();
+    int[] rayStarts = this.geometry.rayStarts;
+    int[] rayCells = this.geometry.rayCells;
+    int ray = (y * this.numColumns + x) * HexGeometry.NUM_DIRECTIONS;
+    int total = 0;
+    for (int direction = 0; direction < HexGeometry.NUM_DIRECTIONS; direction++) {
+      // every ray ends on a cell outside the hexagon, which stops the walk by its colour
+      int i = rayStarts[ray + direction];
+      int next = rayCells[i];
+      int run = 0;
+      while (this.cells[next] == opponentTurnColor) {
+        if (record) {
+          this.flipBuffer[total + run] = next;
         }
+        run++;
+        next = rayCells[++i];
+      }
+      if (run > 0 && this.cells[next] == playerTurnColor) {
+        total += run;
       }
     }
+    return total;
   }
+
   @Override
   public void makeMove(int x, int y) {
     // Check if the game has not yet started
     this.gameNotYetStarted();
-    List<Integer> originalCoordinate = new ArrayList<>();
-    originalCoordinate.add(x);
-    originalCoordinate.add(y);
     if (!this.checkValidCoordinates(x, y)) {
       throw new IllegalArgumentException("Invalid coordinates provided by the user.");
     }
-    if (this.getDiscAt(x, y).getColor() != DiscColor.FACEDOWN) {
+    if (this.cells[y * this.numColumns + x] != FACEDOWN) {
       throw new IllegalStateException("Invalid Move: Disc is not facedown.");
     }
 
-    List<List<List<Integer>>> moves = bfs(x,y);
-    boolean allEmptyLists = moves.stream().allMatch(List::isEmpty);
-
-    if (allEmptyLists) {
+    int flipped = this.collectFlips(x, y, this.pt, true);
+    if (flipped == 0) {
       throw new IllegalStateException("Invalid move: No valid moves found.");
     }
 
-    for (List<List<Integer>> l : moves ) {
-      l.forEach(innerList -> applyColorFilter(innerList, this.getPlayerColor(this.pt)));
+    this.pushPly();
+    if (this.flipTop + flipped > this.flipStack.length) {
+      this.flipStack = Arrays.copyOf(this.flipStack,
+              Math.max(this.flipStack.length * 2, this.flipTop + flipped));
     }
+    DiscColor playerTurnColor = this.getPlayerColor(this.pt);
+    this.setPiece(x, y, playerTurnColor);
+    this.markNeighbourhoodDirty(x, y);
+    for (int i = 0; i < flipped; i++) {
+      int cell = this.flipBuffer[i];
+      this.flipStack[this.flipTop++] = cell;
+      this.setPiece(cell % this.numColumns, cell / this.numColumns, playerTurnColor);
+      this.markNeighbourhoodDirty(cell % this.numColumns, cell / this.numColumns);
+    }
+    this.refreshDirtyCells();
     this.togglePlayer();
-    this.playerAction.append(this.getPlayerColor(this.pt).toString())
-            .append(" moved to (").append(x).append(y).append("), ");
+    this.moveLog.recordMove(x, y);
   }
 
 
-  // setDisc(x,y,color)
+  /**
+   * Computes both players' legal moves from scratch. Only needed once the starting discs are
+   * placed; afterwards the sets are kept current by {@link #refreshDirtyCells()}.
+   */
+  private void initLegalMoves() {
+    for (int y = 0; y < this.numRows; y++) {
+      for (int x = 0; x < this.numColumns; x++) {
+        if (this.checkValidCoordinates(x, y)) {
+          this.updateLegality(x, y);
+        }
+      }
+    }
+  }
 
-  private void applyColorFilter(List<Integer> list, DiscColor discColor) {
-    this.setPiece(list.get(0),list.get(1), discColor);
+  /**
+   * Marks every cell whose legality may have changed because the disc at the given coordinate
+   * changed: the cell itself, and the nearest empty cell in each direction across a
+   * contiguous run of discs. A ray from an empty cell stops at the first empty cell it meets,
+   * so no cell further away can be affected.
+   *
+   * @param x,y the coordinate of the cell that changed
+   */
+  private void markNeighbourhoodDirty(int x, int y) {
+    this.markDirty(y * this.numColumns + x);
+    int[] rayStarts = this.geometry.rayStarts;
+    int[] rayCells = this.geometry.rayCells;
+    int ray = (y * this.numColumns + x) * HexGeometry.NUM_DIRECTIONS;
+    for (int direction = 0; direction < HexGeometry.NUM_DIRECTIONS; direction++) {
+      int i = rayStarts[ray + direction];
+      byte color = this.cells[rayCells[i]];
+      while (color != FACEDOWN && color != OUTSIDE) {
+        color = this.cells[rayCells[++i]];
+      }
+      if (color == FACEDOWN) {
+        this.markDirty(rayCells[i]);
+      }
+    }
   }
 
-  private boolean consecutivePasses() {
-    List<String> moveHistory = Arrays.asList(this.playerAction.toString().split(" "));
+  private void markDirty(int cell) {
+    if (this.dirtyStamps[cell] != this.dirtyGeneration) {
+      this.dirtyStamps[cell] = this.dirtyGeneration;
+      this.dirtyCells[this.dirtyCount++] = cell;
+    }
+  }
 
-    if(moveHistory.size() >= 2) {
-      String last = moveHistory.get(moveHistory.size() -1);
-      String penultimate = moveHistory.get(moveHistory.size() -2);
+  /**
+   * Rechecks the legality of every cell marked dirty since the last refresh.
+   */
+  private void refreshDirtyCells() {
+    for (int i = 0; i < this.dirtyCount; i++) {
+      int cell = this.dirtyCells[i];
+      this.updateLegality(cell % this.numColumns, cell / this.numColumns);
+    }
+    this.dirtyCount = 0;
+    this.dirtyGeneration++;
+  }
 
-      return last.equals("pass") && penultimate.equals("pass");
-    } else {
-      return false;
+  private void updateLegality(int x, int y) {
+    int cell = y * this.numColumns + x;
+    boolean empty = this.cells[cell] == FACEDOWN;
+    for (PlayerTurn player : PLAYERS) {
+      if (empty && this.collectFlips(x, y, player, false) > 0) {
+        this.legalMoves[player.ordinal()].add(cell);
+      } else {
+        this.legalMoves[player.ordinal()].remove(cell);
+      }
+    }
+  }
+
+  @Override
+  public List<Posn> getLegalMoves() {
+    this.gameNotYetStarted();
+    List<Posn> moves = new ArrayList<>();
+    for (int cell : this.legalMoves[this.pt.ordinal()].toSortedArray()) {
+      moves.add(new Posn(cell % this.numColumns, cell / this.numColumns));
     }
+    return moves;
+  }
+
+  @Override
+  public MoveLog getMoveLog() {
+    this.gameNotYetStarted();
+
+    return this.moveLog;
   }
 
 
   @Override
   public Boolean isGameOver() {
     this.gameNotYetStarted();
-    boolean noMoves = this.noMoreLegalMoves();
-    boolean twoPassesInARow = this.consecutivePasses();
+    boolean noMoves = this.legalMoves[this.pt.ordinal()].size() == 0;
+    boolean twoPassesInARow = this.moveLog.lastTwoArePasses();
     boolean currentPlayerLost = this.getPlayerScore(this.pt) == 0;
     boolean oppositePlayerLost = this.getPlayerScore(this.getOpponent(this.pt)) == 0;
 
@@ -360,25 +511,6 @@ public class ReversiHexModel implements ReversiModel {
     return false;
   }
 
-  private Boolean noMoreLegalMoves() {
-    for(int i = 0; i < this.gameBoard.length; i ++) {
-      for(int j = 0; j < this.gameBoard[0].length; j ++) {
-        if(this.gameBoard[j][i] == null) {
-          int doNothing = 0;
-        }
-        else if(this.gameBoard[j][i].getColor() == DiscColor.FACEDOWN) {
-          List<List<List<Integer>>> moves = bfs(i,j);
-
-          boolean allEmptyLists = moves.stream().allMatch(List::isEmpty);
-          if(!allEmptyLists) {
-            return false;
-          }
-        }
-      }
-    }
-    return true;
-  }
-
   @Override
   public PlayerTurn currentTurn() {
     this.gameNotYetStarted();
@@ -406,18 +538,16 @@ public class ReversiHexModel implements ReversiModel {
   private int getPlayerScore(PlayerTurn player) {
     this.gameNotYetStarted();
 
-    int countDiscsForThisPlayer = 0;
+    return this.discCounts[this.getPlayerColor(player).ordinal()];
+  }
+
+  @Override
+  public GameScore getScore() {
+    this.gameNotYetStarted();
 
-    for (Disc[] row : this.gameBoard) {
-      for (Disc disc : row) {
-        if(disc == null) {
-          countDiscsForThisPlayer += 0;
-        } else if (disc.getColor() == this.getPlayerColor(player)) {
-          countDiscsForThisPlayer++;
-        }
-      }
-    }
-    return countDiscsForThisPlayer;
+    return new GameScore(this.discCounts[DiscColor.BLACK.ordinal()],
+            this.discCounts[DiscColor.WHITE.ordinal()],
+            this.discCounts[DiscColor.FACEDOWN.ordinal()]);
   }
 
   @Override
@@ -426,7 +556,7 @@ public class ReversiHexModel implements ReversiModel {
     if (!this.checkValidCoordinates(x, y)) {
       throw new IllegalArgumentException("getDiscAt: POSN provided by user is invalid");
     }
-    return this.gameBoard[y][x];
+    return GameDisc.of(this.type, COLORS[this.cells[y * this.numColumns + x]]);
   }
 
   @Override
@@ -435,15 +565,73 @@ public class ReversiHexModel implements ReversiModel {
     if (!this.checkValidCoordinates(x, y)) {
       throw new IllegalArgumentException("isDiscFlipped: POSN provided by user is invalid");
     }
-    return this.gameBoard[y][x].getColor() != DiscColor.FACEDOWN;
+    return this.cells[y * this.numColumns + x] != FACEDOWN;
   }
 
   @Override
   public void pass() {
     this.gameNotYetStarted();
+    this.pushPly();
     this.togglePlayer();
 
-    this.playerAction.append("pass ");
+    this.moveLog.recordPass();
+  }
+
+  /**
+   * Records the start of a new ply in the undo history, made by the current player.
+   */
+  private void pushPly() {
+    int ply = this.moveLog.size();
+    if (ply == this.plyFlipStarts.length) {
+      this.plyFlipStarts = Arrays.copyOf(this.plyFlipStarts, ply * 2);
+      this.plyPlayers = Arrays.copyOf(this.plyPlayers, ply * 2);
+    }
+    this.plyFlipStarts[ply] = this.flipTop;
+    this.plyPlayers[ply] = this.pt;
+  }
+
+  @Override
+  public void undoMove() {
+    this.gameNotYetStarted();
+    int ply = this.moveLog.size() - 1;
+    if (ply < 0) {
+      throw new IllegalStateException("There are no moves to undo.");
+    }
+    PlayerTurn mover = this.plyPlayers[ply];
+    if (!this.moveLog.isPass(ply)) {
+      int x = this.moveLog.getX(ply);
+      int y = this.moveLog.getY(ply);
+      DiscColor opponentColor = this.getPlayerColor(this.getOpponent(mover));
+      int start = this.plyFlipStarts[ply];
+      for (int i = start; i < this.flipTop; i++) {
+        int cell = this.flipStack[i];
+        this.setPiece(cell % this.numColumns, cell / this.numColumns, opponentColor);
+        this.markNeighbourhoodDirty(cell % this.numColumns, cell / this.numColumns);
+      }
+      this.flipTop = start;
+      this.setPiece(x, y, DiscColor.FACEDOWN);
+      this.markNeighbourhoodDirty(x, y);
+      this.refreshDirtyCells();
+    }
+    this.plyPlayers[ply] = null;
+    this.moveLog.removeLast();
+    this.latestSnapshot = null;
+    if (this.pt != mover) {
+      this.togglePlayer();
+    }
+    this.state = GameState.ONGOING;
+  }
+
+  @Override
+  public int lastFlips(int[] flips) {
+    this.gameNotYetStarted();
+    int ply = this.moveLog.size() - 1;
+    if (ply < 0) {
+      throw new IllegalStateException("No move has been made.");
+    }
+    int start = this.plyFlipStarts[ply];
+    System.arraycopy(this.flipStack, start, flips, 0, this.flipTop - start);
+    return this.flipTop - start;
   }
 
   private void togglePlayer() {
@@ -453,5 +641,40 @@ public class ReversiHexModel implements ReversiModel {
     } else {
       this.pt = PlayerTurn.PLAYER1;
     }
+    this.positionHash ^= this.zobristKeys.getPlayer2ToMoveKey();
+    this.latestSnapshot = null;
+  }
+
+  @Override
+  public long getPositionHash() {
+    this.gameNotYetStarted();
+    return this.positionHash;
+  }
+
+  /**
+   * Returns a snapshot of the current position. Only the chunks of cells that changed since the
+   * previous snapshot are copied, so after a move this costs a few small arrays rather than a
+   * copy of the whole board.
+   */
+  @Override
+  public BoardSnapshot snapshot() {
+    this.gameNotYetStarted();
+    if (this.latestSnapshot == null) {
+      byte[][] chunks = this.snapshotChunks.clone();
+      for (int word = 0; word < this.changedChunks.length; word++) {
+        long bits = this.changedChunks[word];
+        while (bits != 0) {
+          int chunk = (word << 6) + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          chunks[chunk] = BoardSnapshot.copyChunk(this.cells, chunk);
+        }
+        this.changedChunks[word] = 0;
+      }
+      this.snapshotChunks = chunks;
+      this.latestSnapshot = new BoardSnapshot(this.numRows, chunks, this.pt, this.getScore(),
+              this.isGameOver(), this.moveLog.size(), this.positionHash,
+              this.legalMoves[this.pt.ordinal()].toSortedArray());
+    }
+    return this.latestSnapshot;
   }
 }
\ No newline at end of file
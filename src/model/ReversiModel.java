@@ -1,5 +1,7 @@
 package model;
 
+import java.util.List;
+
 import player.PlayerTurn;
 import discs.Disc;
 
@@ -67,6 +69,33 @@ public interface ReversiModel {
    */
   Boolean isGameOver();
 
+  /**
+   * Returns every move the current player can legally make, ordered by row and then by column.
+   * An empty list means the current player has no legal move.
+   *
+   * @return the coordinates of the current player's legal moves
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  List<Posn> getLegalMoves();
+
+  /**
+   * Returns the number of black and white discs on the board and the number of cells that are
+   * still facedown.
+   *
+   * @return the current disc counts
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  GameScore getScore();
+
+  /**
+   * Returns the history of this game, one entry per move or pass. The log is owned by the
+   * model and grows as the game goes on; callers can read it but not change it.
+   *
+   * @return the log of every ply played so far
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  MoveLog getMoveLog();
+
   /**
    * Returns the player who made the latest move.
    *
@@ -103,6 +132,46 @@ public interface ReversiModel {
    */
   void pass();
 
+  /**
+   * Takes back the most recent move or pass. The discs that move placed and flipped go back to
+   * how they were, and the turn, the score and the record of passes are restored, so the game
+   * continues exactly as if the move had never been made.
+   *
+   * @throws IllegalStateException if the game hasn't started yet or no move has been made
+   */
+  void undoMove();
+
+  /**
+   * Writes the cells of the discs the most recent move flipped, as grid cell indices
+   * {@code y * size + x}, so that code following the game can update itself from them.
+   *
+   * @param flips where to write the cells; needs room for every cell of the board
+   * @return the number of cells written, 0 if the most recent ply was a pass
+   * @throws IllegalStateException if the game hasn't started yet or no move has been made
+   */
+  int lastFlips(int[] flips);
+
+  /**
+   * Returns the Zobrist hash of the current position: the discs on the board and the player to
+   * move, as defined by {@link ZobristKeys}. Positions reached through different move orders
+   * have the same hash.
+   *
+   * @return the 64-bit hash of the current position
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  long getPositionHash();
+
+  /**
+   * Returns an immutable snapshot of the current position. Snapshots can be shared freely,
+   * including between threads, and stay valid however the game goes on. Taking a snapshot is
+   * cheap: consecutive snapshots share the parts of the board that didn't change, and asking
+   * again before the game changes returns the same snapshot.
+   *
+   * @return a snapshot of the board, turn and score
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  BoardSnapshot snapshot();
+
   /**
    * Returns a board dimensions
    */
@@ -0,0 +1,54 @@
+package model;
+
+/**
+ * A 'ReversiModelFactory' builds hexagonal Reversi models, so callers can choose the board
+ * engine without depending on a concrete model class.
+ */
+public final class ReversiModelFactory {
+
+  private ReversiModelFactory() {
+  }
+
+  /**
+   * Creates a new, not yet started hexagonal Reversi model.
+   *
+   * @param engine the board representation to use
+   * @return a new model using that engine
+   * @throws IllegalArgumentException if the engine is null
+   */
+  public static ReversiModel create(BoardEngine engine) {
+    if (engine == null) {
+      throw new IllegalArgumentException("Board engine can't be null");
+    }
+    switch (engine) {
+      case BITBOARD:
+        return new BitboardReversiHexModel();
+      case ARRAY:
+      default:
+        return new ReversiHexModel();
+    }
+  }
+
+  /**
+   * Creates an independent copy of a started game by replaying its move log on a new model.
+   * Moves made on the copy do not affect the original, and the other way around.
+   *
+   * @param source the game to copy
+   * @param engine the board representation the copy should use
+   * @return a started model in the same position as the source, with the same history
+   * @throws IllegalStateException if the source game hasn't been started yet
+   */
+  public static ReversiModel copyOf(ReversiModel source, BoardEngine engine) {
+    MoveLog log = source.getMoveLog();
+    ReversiModel copy = create(engine);
+    copy.startGame(source.getDimensions());
+    for (int ply = 0; ply < log.size(); ply++) {
+      if (log.isPass(ply)) {
+        copy.pass();
+      } else {
+        copy.makeMove(log.getX(ply), log.getY(ply));
+      }
+    }
+    return copy;
+  }
+}
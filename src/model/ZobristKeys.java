@@ -0,0 +1,105 @@
+package model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import discs.Disc;
+import discs.DiscColor;
+import player.PlayerTurn;
+
+/**
+ * A 'ZobristKeys' is the table of random 64-bit keys used to hash Reversi positions of one
+ * board size. A position's hash is the XOR of the key of every disc on the board, plus
+ * {@link #getPlayer2ToMoveKey()} when it is PLAYER2's turn. Facedown cells add nothing, so
+ * placing, flipping or removing a disc changes the hash by XOR-ing one or two keys, and models
+ * can keep it up to date as moves are made and undone.
+ * <p>
+ * Keys are generated from a fixed seed, so every model and every run agrees on the hash of a
+ * position. Tables are immutable and cached, so every board of the same size shares one.
+ */
+public final class ZobristKeys {
+  private static final Map<Integer, ZobristKeys> CACHE = new ConcurrentHashMap<>();
+  private static final long SEED = 0x5DEECE66DL;
+
+  private final int size;
+  // two keys per grid cell y * size + x: BLACK first, then WHITE
+  private final long[] discKeys;
+  private final long player2ToMoveKey;
+
+  private ZobristKeys(int size) {
+    this.size = size;
+    SplittableRandom random = new SplittableRandom(SEED + size);
+    this.discKeys = new long[size * size * 2];
+    for (int i = 0; i < this.discKeys.length; i++) {
+      this.discKeys[i] = random.nextLong();
+    }
+    this.player2ToMoveKey = random.nextLong();
+  }
+
+  /**
+   * Returns the shared keys for boards of the given size.
+   *
+   * @param size the square nxn dimension of the board
+   * @return the keys for that size
+   * @throws IllegalArgumentException if the size is not a valid board size
+   */
+  public static ZobristKeys forSize(int size) {
+    if (size <= 3 || size % 2 == 0) {
+      throw new IllegalArgumentException("Invalid Board Sizes");
+    }
+    return CACHE.computeIfAbsent(size, ZobristKeys::new);
+  }
+
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns the key of a disc of the given colour on the given cell, or 0 for a facedown cell.
+   *
+   * @param cell  the cell index {@code y * size + x}
+   * @param color the colour of the disc
+   * @return the key to XOR into the hash
+   */
+  public long discKey(int cell, DiscColor color) {
+    switch (color) {
+      case BLACK:
+        return this.discKeys[cell * 2];
+      case WHITE:
+        return this.discKeys[cell * 2 + 1];
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Returns the key XOR-ed into the hash while it is PLAYER2's turn.
+   */
+  public long getPlayer2ToMoveKey() {
+    return this.player2ToMoveKey;
+  }
+
+  /**
+   * Computes the hash of a game's current position from scratch.
+   *
+   * @param model a started game on a board of this table's size
+   * @return the hash of the discs on the board and the player to move
+   * @throws IllegalArgumentException if the game's board is a different size
+   */
+  public long hashOf(ReversiModel model) {
+    if (model.getDimensions() != this.size) {
+      throw new IllegalArgumentException("Board size doesn't match these keys");
+    }
+    long hash = model.currentTurn() == PlayerTurn.PLAYER2 ? this.player2ToMoveKey : 0;
+    Disc[][] board = model.getBoard();
+    for (int y = 0; y < this.size; y++) {
+      for (int x = 0; x < this.size; x++) {
+        if (board[y][x] != null) {
+          hash ^= this.discKey(y * this.size + x, board[y][x].getColor());
+        }
+      }
+    }
+    return hash;
+  }
+}
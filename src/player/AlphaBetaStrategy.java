@@ -0,0 +1,381 @@
+package player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import eval.EvalWeights;
+import eval.Evaluator;
+import model.BoardEngine;
+import model.GameScore;
+import model.Posn;
+import model.ReversiModel;
+import model.ReversiModelFactory;
+
+/**
+ * An 'AlphaBetaStrategy' chooses moves with an iterative-deepening alpha-beta search. It
+ * searches one ply deeper per iteration until it runs out of time, positions or depth, and then
+ * plays the best move of the deepest iteration it finished. Moves are ordered by the previous
+ * iteration's scores at the root and, below it, by the best move remembered in a
+ * {@link TranspositionTable} followed by a history heuristic, so that most cutoffs happen on the
+ * first move tried. The table also lets the search skip positions it has already searched deeply
+ * enough through a different move order.
+ * <p>
+ * Positions the search stops at are scored by disc margin and mobility, or, given
+ * {@link EvalWeights}, by an {@link Evaluator} that follows the search move by move.
+ * <p>
+ * The search runs on a private copy of the game, so the model passed in is never changed. A
+ * strategy keeps per-search state and must not be used by two threads at once.
+ */
+public class AlphaBetaStrategy implements Strategy {
+  /**
+   * Scores at or beyond this magnitude mean the game is decided.
+   */
+  public static final int WIN_SCORE = 1_000_000;
+  private static final int INFINITY = Integer.MAX_VALUE - 1;
+  // how many positions are visited between checks of the clock
+  private static final int CLOCK_CHECK_INTERVAL = 256;
+  private static final int MOBILITY_WEIGHT = 3;
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 18;
+
+  private final SearchLimits limits;
+  private final BoardEngine engine;
+  private final TranspositionTable table;
+  // null to score positions with evaluate(ReversiModel)
+  private final Evaluator evaluator;
+  private int[] history;
+  private long nodes;
+  private long deadline;
+  private AtomicBoolean stop;
+  private boolean aborted;
+
+  /**
+   * Creates a strategy that searches on the array-backed board.
+   *
+   * @param limits how much work to do per move
+   * @throws IllegalArgumentException if limits is null
+   */
+  public AlphaBetaStrategy(SearchLimits limits) {
+    this(limits, BoardEngine.ARRAY);
+  }
+
+  /**
+   * Creates a strategy that searches on the given board representation with its own
+   * transposition table.
+   *
+   * @param limits how much work to do per move
+   * @param engine the board representation to search on
+   * @throws IllegalArgumentException if limits or engine is null
+   */
+  public AlphaBetaStrategy(SearchLimits limits, BoardEngine engine) {
+    this(limits, engine, new TranspositionTable(DEFAULT_TABLE_ENTRIES));
+  }
+
+  /**
+   * Creates a strategy that searches on the given board representation and remembers positions
+   * in the given transposition table, which may be shared with other strategies.
+   *
+   * @param limits how much work to do per move
+   * @param engine the board representation to search on
+   * @param table  the table to use, or null to search without one
+   * @throws IllegalArgumentException if limits or engine is null
+   */
+  public AlphaBetaStrategy(SearchLimits limits, BoardEngine engine, TranspositionTable table) {
+    this(limits, engine, table, null);
+  }
+
+  /**
+   * Creates a strategy that searches like
+   * {@link #AlphaBetaStrategy(SearchLimits, BoardEngine, TranspositionTable)} but scores the
+   * positions it stops at with the standard evaluation features and the given weights. A table
+   * shared with other strategies should only be shared with ones using the same weights.
+   *
+   * @param limits  how much work to do per move
+   * @param engine  the board representation to search on
+   * @param table   the table to use, or null to search without one
+   * @param weights the weights of the {@link Evaluator#standardFeatures()}, or null to score
+   *                positions by disc margin and mobility
+   * @throws IllegalArgumentException if limits or engine is null or the weights name a feature
+   *                                  that isn't a standard one
+   */
+  public AlphaBetaStrategy(SearchLimits limits, BoardEngine engine, TranspositionTable table,
+                           EvalWeights weights) {
+    if (limits == null || engine == null) {
+      throw new IllegalArgumentException("Limits and engine can't be null");
+    }
+    this.limits = limits;
+    this.engine = engine;
+    this.table = table;
+    this.evaluator = weights == null ? null : new Evaluator(weights);
+  }
+
+  @Override
+  public Optional<Posn> chooseMove(ReversiModel model) {
+    return this.search(model).getBestMove();
+  }
+
+  /**
+   * Searches the current position of the given game and reports the move it would play.
+   *
+   * @param model the game to search
+   * @return the chosen move, its score and the work done to find it
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  public SearchReport search(ReversiModel model) {
+    if (this.table != null) {
+      this.table.newSearch();
+    }
+    return this.search(model, 1, this.limits.deadlineFrom(System.nanoTime()), null);
+  }
+
+  /**
+   * Searches like {@link #search(ReversiModel)}, but starts deepening at the given depth, stops
+   * at the given deadline and also stops as soon as the given flag is set. It doesn't start a
+   * new transposition table search, so several of these can share one table as helpers of a
+   * parallel search.
+   */
+  SearchReport search(ReversiModel model, int firstDepth, long deadline, AtomicBoolean stop) {
+    long start = System.nanoTime();
+    ReversiModel copy = this.prepare(model, deadline, stop);
+    List<Posn> rootMoves = new ArrayList<>(copy.getLegalMoves());
+    if (rootMoves.isEmpty() || copy.isGameOver()) {
+      return new SearchReport(null, 0, 0, 0, System.nanoTime() - start);
+    }
+
+    Posn bestMove = rootMoves.get(0);
+    int bestScore = 0;
+    int completedDepth = 0;
+    int[] scores = new int[rootMoves.size()];
+    for (int depth = firstDepth; depth <= this.limits.getMaxDepth(); depth++) {
+      int alpha = -INFINITY;
+      Posn iterationBest = null;
+      for (int i = 0; i < rootMoves.size(); i++) {
+        Posn move = rootMoves.get(i);
+        this.play(copy, move);
+        this.nodes++;
+        int score = -this.alphaBeta(copy, depth - 1, -INFINITY, -alpha);
+        this.takeBack(copy);
+        if (this.aborted) {
+          break;
+        }
+        scores[i] = score;
+        if (score > alpha) {
+          alpha = score;
+          iterationBest = move;
+        }
+      }
+      if (iterationBest != null) {
+        // a partial iteration still searched the previous best move first, so anything it
+        // prefers scored at least as well at a greater depth
+        bestMove = iterationBest;
+        bestScore = alpha;
+      }
+      if (this.aborted) {
+        break;
+      }
+      completedDepth = depth;
+      sortByScore(rootMoves, scores);
+      if (Math.abs(bestScore) >= WIN_SCORE || depth >= copy.getScore().getEmptyCount()) {
+        break;
+      }
+    }
+    return new SearchReport(bestMove, bestScore, completedDepth, this.nodes,
+            System.nanoTime() - start);
+  }
+
+  /**
+   * Returns the exact score of playing the given legal move, searched to the given depth with
+   * a full window. The result only depends on the position, the move and the depth, which makes
+   * it the building block of a deterministic parallel search.
+   *
+   * @return a report whose depth is 0 if the search was stopped before it finished
+   */
+  SearchReport searchMove(ReversiModel model, Posn move, int depth, long deadline,
+                          AtomicBoolean stop) {
+    long start = System.nanoTime();
+    ReversiModel copy = this.prepare(model, deadline, stop);
+    this.play(copy, move);
+    this.nodes++;
+    int score = -this.alphaBeta(copy, depth - 1, -INFINITY, INFINITY);
+    return new SearchReport(move, score, this.aborted ? 0 : depth, this.nodes,
+            System.nanoTime() - start);
+  }
+
+  /**
+   * Resets the per-search state and returns a private copy of the game to search on.
+   */
+  private ReversiModel prepare(ReversiModel model, long deadline, AtomicBoolean stop) {
+    this.deadline = deadline;
+    this.stop = stop;
+    this.nodes = 0;
+    this.aborted = false;
+    ReversiModel copy = ReversiModelFactory.copyOf(model, this.engine);
+    int size = copy.getDimensions();
+    this.history = new int[size * size];
+    if (this.evaluator != null) {
+      this.evaluator.reset(copy);
+    }
+    return copy;
+  }
+
+  /**
+   * Plays a move on the search board, through the evaluator if there is one.
+   */
+  private void play(ReversiModel board, Posn move) {
+    if (this.evaluator != null) {
+      this.evaluator.makeMove(board, move.getX(), move.getY());
+    } else {
+      board.makeMove(move.getX(), move.getY());
+    }
+  }
+
+  /**
+   * Takes back the last move on the search board, through the evaluator if there is one.
+   */
+  private void takeBack(ReversiModel board) {
+    if (this.evaluator != null) {
+      this.evaluator.undoMove(board);
+    } else {
+      board.undoMove();
+    }
+  }
+
+  /**
+   * Returns the negamax score of the position on the board for the player to move, searched to
+   * the given depth with an alpha-beta window.
+   */
+  private int alphaBeta(ReversiModel board, int depth, int alpha, int beta) {
+    this.nodes++;
+    if (this.nodes % CLOCK_CHECK_INTERVAL == 0 && (this.nodes >= this.limits.getNodeBudget()
+            || System.nanoTime() - this.deadline >= 0
+            || (this.stop != null && this.stop.get()))) {
+      this.aborted = true;
+    }
+    if (this.aborted) {
+      return 0;
+    }
+    if (board.isGameOver()) {
+      return finalScore(board);
+    }
+    if (depth == 0) {
+      return this.evaluator != null ? this.evaluator.evaluate() : evaluate(board);
+    }
+
+    int size = board.getDimensions();
+    long hash = board.getPositionHash();
+    int tableMove = TranspositionTable.NO_MOVE;
+    if (this.table != null) {
+      long entry = this.table.probe(hash);
+      if (entry != TranspositionTable.MISS) {
+        tableMove = TranspositionTable.move(entry);
+        if (TranspositionTable.depth(entry) >= depth) {
+          int score = TranspositionTable.score(entry);
+          int bound = TranspositionTable.bound(entry);
+          if (bound == TranspositionTable.EXACT
+                  || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                  || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+            return score;
+          }
+        }
+      }
+    }
+
+    List<Posn> moves = board.getLegalMoves();
+    this.orderByHistory(moves, size, tableMove);
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = TranspositionTable.NO_MOVE;
+    for (Posn move : moves) {
+      this.play(board, move);
+      int score = -this.alphaBeta(board, depth - 1, -beta, -alpha);
+      this.takeBack(board);
+      if (this.aborted) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestMove = move.getY() * size + move.getX();
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            this.history[move.getY() * size + move.getX()] += depth * depth;
+            break;
+          }
+        }
+      }
+    }
+    if (this.table != null) {
+      int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+              : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+      this.table.store(hash, best, depth, bound, bestMove);
+    }
+    return best;
+  }
+
+  /**
+   * Returns the score of a finished game for the player to move: a win or loss worth more than
+   * any heuristic score, adjusted by the final disc margin.
+   */
+  private static int finalScore(ReversiModel board) {
+    int margin = discMargin(board);
+    if (margin > 0) {
+      return WIN_SCORE + margin;
+    } else if (margin < 0) {
+      return -WIN_SCORE + margin;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns a heuristic score of an unfinished game for the player to move, made of the disc
+   * margin and the number of moves available.
+   */
+  private static int evaluate(ReversiModel board) {
+    return discMargin(board) + MOBILITY_WEIGHT * board.getLegalMoves().size();
+  }
+
+  private static int discMargin(ReversiModel board) {
+    GameScore score = board.getScore();
+    int black = score.getBlackCount();
+    int white = score.getWhiteCount();
+    return board.currentTurn() == PlayerTurn.PLAYER1 ? black - white : white - black;
+  }
+
+  /**
+   * Orders moves by their history score, except that the given move, if present, goes first.
+   */
+  private void orderByHistory(List<Posn> moves, int size, int firstMove) {
+    // insertion sort: move lists are short and this keeps equal moves in board order
+    for (int i = 1; i < moves.size(); i++) {
+      Posn move = moves.get(i);
+      int key = this.orderingKey(move, size, firstMove);
+      int j = i - 1;
+      while (j >= 0 && this.orderingKey(moves.get(j), size, firstMove) < key) {
+        moves.set(j + 1, moves.get(j));
+        j--;
+      }
+      moves.set(j + 1, move);
+    }
+  }
+
+  private int orderingKey(Posn move, int size, int firstMove) {
+    int cell = move.getY() * size + move.getX();
+    return cell == firstMove ? Integer.MAX_VALUE : this.history[cell];
+  }
+
+  private static void sortByScore(List<Posn> moves, int[] scores) {
+    for (int i = 1; i < moves.size(); i++) {
+      Posn move = moves.get(i);
+      int key = scores[i];
+      int j = i - 1;
+      while (j >= 0 && scores[j] < key) {
+        moves.set(j + 1, moves.get(j));
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      moves.set(j + 1, move);
+      scores[j + 1] = key;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package player;
+
+import model.Posn;
+
+/**
+ * A 'BookMove' is one candidate move an {@link OpeningBook} knows for a position, with how
+ * often it was played there and how well it went for the player who played it.
+ */
+public final class BookMove {
+  private final int x;
+  private final int y;
+  private final int games;
+  private final double points;
+
+  /**
+   * Creates a candidate move.
+   *
+   * @param x,y    the cell the move is played on
+   * @param games  the number of games the move was played in
+   * @param points the points the mover scored in those games, 1 per win and 0.5 per draw
+   */
+  BookMove(int x, int y, int games, double points) {
+    this.x = x;
+    this.y = y;
+    this.games = games;
+    this.points = points;
+  }
+
+  /**
+   * Returns the cell the move is played on.
+   */
+  public Posn getMove() {
+    return new Posn(this.x, this.y);
+  }
+
+  /**
+   * Returns the number of recorded games in which this move was played from this position.
+   */
+  public int getGames() {
+    return this.games;
+  }
+
+  /**
+   * Returns the mover's average score in those games, from 0 for all losses to 1 for all wins.
+   */
+  public double getScore() {
+    return this.points / this.games;
+  }
+
+  /**
+   * Returns how much the book favours this move: the number of games it was played in times
+   * its score, with one virtual draw added to the score so that a move with few games isn't
+   * judged on them alone. Weights are relative to the other candidates of the same position.
+   */
+  public double getWeight() {
+    return this.games * (this.points + 0.5) / (this.games + 1);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + this.x + ", " + this.y + ") " + this.games + " games, score "
+            + String.format("%.3f", this.getScore());
+  }
+}
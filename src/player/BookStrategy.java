@@ -0,0 +1,83 @@
+package player;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import model.Posn;
+import model.ReversiModel;
+
+/**
+ * A 'BookStrategy' plays from an {@link OpeningBook} while the game is in the book and hands
+ * over to another strategy once it isn't. Among the book's candidates it picks at random in
+ * proportion to their weights, so it doesn't always play the same opening, and it only plays a
+ * book move that is legal in the actual position.
+ */
+public class BookStrategy implements Strategy {
+  private final OpeningBook book;
+  private final Strategy fallback;
+  private final int maxPlies;
+  private final Random random;
+
+  /**
+   * Creates a strategy that plays from the book for the first plies of a game.
+   *
+   * @param book     the opening book
+   * @param fallback the strategy to use outside the book
+   * @param maxPlies the number of plies after which the book is no longer consulted
+   * @param seed     the seed for choosing between candidate moves
+   * @throws IllegalArgumentException if the book or fallback is null
+   */
+  public BookStrategy(OpeningBook book, Strategy fallback, int maxPlies, long seed) {
+    if (book == null || fallback == null) {
+      throw new IllegalArgumentException("Book and fallback strategy can't be null");
+    }
+    this.book = book;
+    this.fallback = fallback;
+    this.maxPlies = maxPlies;
+    this.random = new Random(seed);
+  }
+
+  @Override
+  public Optional<Posn> chooseMove(ReversiModel model) {
+    Optional<Posn> move = this.bookMove(model);
+    return move.isPresent() ? move : this.fallback.chooseMove(model);
+  }
+
+  /**
+   * Returns a weighted random book move for the current position, or an empty Optional if the
+   * position is past the book's plies or has no legal book move.
+   *
+   * @param model a started game
+   * @return the chosen book move
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  public Optional<Posn> bookMove(ReversiModel model) {
+    if (model.getMoveLog().size() >= this.maxPlies) {
+      return Optional.empty();
+    }
+    List<BookMove> candidates = this.book.lookup(model);
+    double total = 0;
+    for (BookMove candidate : candidates) {
+      total += candidate.getWeight();
+    }
+    double pick = this.random.nextDouble() * total;
+    for (BookMove candidate : candidates) {
+      pick -= candidate.getWeight();
+      Posn move = candidate.getMove();
+      if (pick < 0 && this.isLegal(model, move)) {
+        return Optional.of(move);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private boolean isLegal(ReversiModel model, Posn move) {
+    for (Posn legal : model.getLegalMoves()) {
+      if (legal.getX() == move.getX() && legal.getY() == move.getY()) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,536 @@
+package player;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import discs.DiscColor;
+import model.BitboardLayout;
+import model.BoardSnapshot;
+import model.HexGeometry;
+import model.MoveDirection;
+import model.Posn;
+import model.ReversiModel;
+
+/**
+ * An 'EndgameSolver' plays the end of a game perfectly: it searches every line of play to the
+ * end of the game and finds the move with the best final disc margin. It follows the rules of
+ * {@link ReversiModel}, so a player without a legal move ends the game.
+ * <p>
+ * The solver keeps its own board of two bitsets per colour with one bit per cell of the
+ * hexagon, so it handles boards of up to {@link #MAX_CELLS} cells (sizes up to 13). Flips are
+ * found by walking precomputed rays. Moves are tried fastest-first, the move that leaves the
+ * opponent the fewest replies first, with ties going to moves in a region of the board with an
+ * odd number of empty cells; the board is split into six triangular regions around the centre.
+ * A node whose opponent already owns enough stable discs that it can't beat alpha is cut off
+ * without being searched, and the bounds found for positions deep enough to be worth it are
+ * kept in a transposition table.
+ * <p>
+ * Outside the endgame, or on larger boards, it hands the move over to another strategy.
+ */
+public class EndgameSolver implements Strategy {
+  /**
+   * The most cells a board can have for the solver to handle it.
+   */
+  public static final int MAX_CELLS = 128;
+  // nodes with at least this many empty cells order their moves fastest-first, smaller ones
+  // by parity alone
+  private static final int FASTEST_FIRST_EMPTIES = 7;
+  // nodes with at least this many empty cells try the stable-disc cutoff
+  private static final int STABILITY_EMPTIES = 6;
+  // nodes with at least this many empty cells are remembered in the transposition table
+  private static final int TABLE_EMPTIES = 9;
+  private static final int TABLE_BITS = 18;
+  private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+  // pairs of opposite directions, one pair per axis of the hexagon
+  private static final MoveDirection[][] AXES = {
+      {MoveDirection.LEFT, MoveDirection.RIGHT},
+      {MoveDirection.UPLEFT, MoveDirection.DOWNRIGHT},
+      {MoveDirection.UPRIGHT, MoveDirection.DOWNLEFT}
+  };
+  private static final Map<Integer, Geometry> GEOMETRIES = new ConcurrentHashMap<>();
+
+  private final int maxEmpties;
+  private final Strategy fallback;
+  // Bitsets are split into a low word for cells 0 to 63 and a high word for the rest. Java
+  // shifts longs by the distance modulo 64, so 1L << cell is the right bit in either word.
+  private Geometry geometry;
+  private long nodes;
+  // transposition table: the four words of a position per slot, and the lower and upper bounds
+  // on its value found so far. Values don't depend on the search window, so the table is kept
+  // between solves on the same board size.
+  private long[] tableKeys;
+  private int[] tableBounds;
+  // per remaining-empties level: the moves found and the discs each one flips
+  private int[][] moveCells;
+  private long[][] moveFlipsLow;
+  private long[][] moveFlipsHigh;
+  private int[][] moveKeys;
+  // the flips found by the last call to flips
+  private long flipLow;
+  private long flipHigh;
+
+  /**
+   * Creates a solver for positions with at most the given number of empty cells.
+   *
+   * @param maxEmpties the most empty cells a position can have to be solved
+   * @param fallback   the strategy used for positions with more empty cells or boards too
+   *                   large to solve
+   * @throws IllegalArgumentException if maxEmpties is negative or fallback is null
+   */
+  public EndgameSolver(int maxEmpties, Strategy fallback) {
+    if (maxEmpties < 0 || fallback == null) {
+      throw new IllegalArgumentException("Need a fallback and a non-negative number of empties");
+    }
+    this.maxEmpties = maxEmpties;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public Optional<Posn> chooseMove(ReversiModel model) {
+    int size = model.getDimensions();
+    if (model.getScore().getEmptyCount() > this.maxEmpties
+            || BitboardLayout.forSize(size).getNumCells() > MAX_CELLS) {
+      return this.fallback.chooseMove(model);
+    }
+    return this.solve(model).getBestMove();
+  }
+
+  private static Geometry geometryFor(int size) {
+    return GEOMETRIES.computeIfAbsent(size, Geometry::new);
+  }
+
+  /**
+   * Solves the current position exactly. The model is only read.
+   *
+   * @param model a started game on a board of at most {@link #MAX_CELLS} cells
+   * @return the best move, or none if the game is over; the final disc margin of the player to
+   *         move under perfect play as the score; the number of empty cells as the depth; and
+   *         the number of positions searched
+   * @throws IllegalStateException    if the game hasn't been started yet
+   * @throws IllegalArgumentException if the board is too large
+   */
+  public SearchReport solve(ReversiModel model) {
+    long start = System.nanoTime();
+    BoardSnapshot snapshot = model.snapshot();
+    if (BitboardLayout.forSize(snapshot.getDimensions()).getNumCells() > MAX_CELLS) {
+      throw new IllegalArgumentException("The board is too large for the endgame solver");
+    }
+    Geometry geometry = geometryFor(snapshot.getDimensions());
+    DiscColor mine = snapshot.getTurn() == PlayerTurn.PLAYER1 ? DiscColor.BLACK : DiscColor.WHITE;
+    long meLow = 0;
+    long meHigh = 0;
+    long opLow = 0;
+    long opHigh = 0;
+    int empties = 0;
+    int parity = 0;
+    for (int cell = 0; cell < geometry.numCells; cell++) {
+      DiscColor color = snapshot.getColorAt(geometry.cellX[cell], geometry.cellY[cell]);
+      long low = cell < 64 ? 1L << cell : 0;
+      long high = cell < 64 ? 0 : 1L << cell;
+      if (color == DiscColor.FACEDOWN) {
+        empties++;
+        parity ^= 1 << geometry.region[cell];
+      } else if (color == mine) {
+        meLow |= low;
+        meHigh |= high;
+      } else {
+        opLow |= low;
+        opHigh |= high;
+      }
+    }
+    if (this.geometry != geometry) {
+      this.tableKeys = new long[4 << TABLE_BITS];
+      this.tableBounds = new int[2 << TABLE_BITS];
+    }
+    this.geometry = geometry;
+    this.nodes = 0;
+    int width = geometry.numCells;
+    this.moveCells = new int[empties + 1][width];
+    this.moveFlipsLow = new long[empties + 1][width];
+    this.moveFlipsHigh = new long[empties + 1][width];
+    this.moveKeys = new int[empties + 1][width];
+
+    int count = this.generateMoves(meLow, meHigh, opLow, opHigh, empties, parity);
+    Posn best = null;
+    int bestScore;
+    if (count == 0) {
+      this.nodes++;
+      bestScore = Long.bitCount(meLow) + Long.bitCount(meHigh)
+              - Long.bitCount(opLow) - Long.bitCount(opHigh);
+    } else {
+      int alpha = -geometry.numCells - 1;
+      bestScore = alpha;
+      for (int i = 0; i < count; i++) {
+        int cell = this.moveCells[empties][i];
+        long flipsLow = this.moveFlipsLow[empties][i];
+        long flipsHigh = this.moveFlipsHigh[empties][i];
+        int score = -this.search(opLow & ~flipsLow, opHigh & ~flipsHigh,
+                meLow | flipsLow | (cell < 64 ? 1L << cell : 0),
+                meHigh | flipsHigh | (cell < 64 ? 0 : 1L << cell),
+                -geometry.numCells - 1, -alpha, empties - 1,
+                parity ^ (1 << geometry.region[cell]));
+        if (score > bestScore) {
+          bestScore = score;
+          best = new Posn(geometry.cellX[cell], geometry.cellY[cell]);
+          alpha = score;
+        }
+      }
+    }
+    return new SearchReport(best, bestScore, empties, this.nodes, System.nanoTime() - start);
+  }
+
+  /**
+   * Returns the final margin of the player to move under perfect play, or a bound on it
+   * outside the window (alpha, beta).
+   */
+  private int search(long meLow, long meHigh, long opLow, long opHigh, int alpha, int beta,
+                     int empties, int parity) {
+    this.nodes++;
+    Geometry geometry = this.geometry;
+    if (empties >= STABILITY_EMPTIES) {
+      // the opponent keeps its stable discs, so the mover can't end better than this
+      int opCount = Long.bitCount(opLow) + Long.bitCount(opHigh);
+      if (geometry.numCells - 2 * opCount <= alpha) {
+        int bound = geometry.numCells - 2 * this.countStable(opLow, opHigh, meLow, meHigh);
+        if (bound <= alpha) {
+          return bound;
+        }
+      }
+    }
+    int slot = -1;
+    if (empties >= TABLE_EMPTIES) {
+      slot = slotOf(meLow, meHigh, opLow, opHigh);
+      int key = 4 * slot;
+      if (this.tableKeys[key] == meLow && this.tableKeys[key + 1] == meHigh
+              && this.tableKeys[key + 2] == opLow && this.tableKeys[key + 3] == opHigh) {
+        int lower = this.tableBounds[2 * slot];
+        int upper = this.tableBounds[2 * slot + 1];
+        if (lower >= beta || lower == upper) {
+          return lower;
+        }
+        if (upper <= alpha) {
+          return upper;
+        }
+        alpha = Math.max(alpha, lower);
+        beta = Math.min(beta, upper);
+      } else {
+        this.tableKeys[key] = meLow;
+        this.tableKeys[key + 1] = meHigh;
+        this.tableKeys[key + 2] = opLow;
+        this.tableKeys[key + 3] = opHigh;
+        this.tableBounds[2 * slot] = -geometry.numCells;
+        this.tableBounds[2 * slot + 1] = geometry.numCells;
+      }
+    }
+    int count = this.generateMoves(meLow, meHigh, opLow, opHigh, empties, parity);
+    if (count == 0) {
+      return Long.bitCount(meLow) + Long.bitCount(meHigh)
+              - Long.bitCount(opLow) - Long.bitCount(opHigh);
+    }
+    int searchedAlpha = alpha;
+    int best = -geometry.numCells - 1;
+    int[] cells = this.moveCells[empties];
+    long[] flipsLow = this.moveFlipsLow[empties];
+    long[] flipsHigh = this.moveFlipsHigh[empties];
+    for (int i = 0; i < count; i++) {
+      int cell = cells[i];
+      int score = -this.search(opLow & ~flipsLow[i], opHigh & ~flipsHigh[i],
+              meLow | flipsLow[i] | (cell < 64 ? 1L << cell : 0),
+              meHigh | flipsHigh[i] | (cell < 64 ? 0 : 1L << cell),
+              -beta, -alpha, empties - 1, parity ^ (1 << geometry.region[cell]));
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    if (slot >= 0 && this.tableKeys[4 * slot] == meLow && this.tableKeys[4 * slot + 1] == meHigh
+            && this.tableKeys[4 * slot + 2] == opLow && this.tableKeys[4 * slot + 3] == opHigh) {
+      // the entry may have been replaced by a position deeper in this search
+      if (best > searchedAlpha) {
+        this.tableBounds[2 * slot] = best;
+      }
+      if (best < beta) {
+        this.tableBounds[2 * slot + 1] = best;
+      }
+    }
+    return best;
+  }
+
+  private static int slotOf(long meLow, long meHigh, long opLow, long opHigh) {
+    long mixed = meLow * 0x9E3779B97F4A7C15L ^ meHigh * 0xC2B2AE3D27D4EB4FL
+            ^ opLow * 0x165667B19E3779F9L ^ opHigh * 0xD6E8FEB86659FD93L;
+    return (int) (mixed >>> (64 - TABLE_BITS));
+  }
+
+  /**
+   * Finds the legal moves of the player to move, stores them with their flips at the given
+   * level and sorts them best first.
+   *
+   * @return the number of legal moves
+   */
+  private int generateMoves(long meLow, long meHigh, long opLow, long opHigh, int empties,
+                            int parity) {
+    Geometry geometry = this.geometry;
+    int[] cells = this.moveCells[empties];
+    long[] flipsLow = this.moveFlipsLow[empties];
+    long[] flipsHigh = this.moveFlipsHigh[empties];
+    int[] keys = this.moveKeys[empties];
+    long emptyLow = geometry.validLow & ~(meLow | opLow);
+    long emptyHigh = geometry.validHigh & ~(meHigh | opHigh);
+    int count = 0;
+    for (int word = 0; word < 2; word++) {
+      long bits = word == 0 ? emptyLow : emptyHigh;
+      while (bits != 0) {
+        int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        if (!this.flips(cell, meLow, meHigh, opLow, opHigh)) {
+          continue;
+        }
+        cells[count] = cell;
+        flipsLow[count] = this.flipLow;
+        flipsHigh[count] = this.flipHigh;
+        // moves in regions with an odd number of empties come first among equals
+        int key = (parity >>> geometry.region[cell] & 1) == 0 ? 1 : 0;
+        if (empties >= FASTEST_FIRST_EMPTIES) {
+          long placedLow = cell < 64 ? 1L << cell : 0;
+          long placedHigh = cell < 64 ? 0 : 1L << cell;
+          key += 2 * this.countMoves(opLow & ~this.flipLow, opHigh & ~this.flipHigh,
+                  meLow | this.flipLow | placedLow, meHigh | this.flipHigh | placedHigh,
+                  emptyLow & ~placedLow, emptyHigh & ~placedHigh);
+        }
+        // insertion sort by key, smallest first
+        int i = count++;
+        while (i > 0 && keys[i - 1] > key) {
+          cells[i] = cells[i - 1];
+          flipsLow[i] = flipsLow[i - 1];
+          flipsHigh[i] = flipsHigh[i - 1];
+          keys[i] = keys[i - 1];
+          i--;
+        }
+        cells[i] = cell;
+        flipsLow[i] = this.flipLow;
+        flipsHigh[i] = this.flipHigh;
+        keys[i] = key;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Finds the discs a move on the given empty cell would flip and leaves them in flipLow and
+   * flipHigh.
+   *
+   * @return true if the move flips anything, so is legal
+   */
+  private boolean flips(int cell, long meLow, long meHigh, long opLow, long opHigh) {
+    long low = 0;
+    long high = 0;
+    for (int[] ray : this.geometry.rays[cell]) {
+      long rayLow = 0;
+      long rayHigh = 0;
+      for (int next : ray) {
+        if (next < 64 ? (opLow >>> next & 1) != 0 : (opHigh >>> next & 1) != 0) {
+          if (next < 64) {
+            rayLow |= 1L << next;
+          } else {
+            rayHigh |= 1L << next;
+          }
+        } else {
+          if (next < 64 ? (meLow >>> next & 1) != 0 : (meHigh >>> next & 1) != 0) {
+            low |= rayLow;
+            high |= rayHigh;
+          }
+          break;
+        }
+      }
+    }
+    this.flipLow = low;
+    this.flipHigh = high;
+    return (low | high) != 0;
+  }
+
+  /**
+   * Counts the legal moves of the player owning me among the given empty cells.
+   */
+  private int countMoves(long meLow, long meHigh, long opLow, long opHigh, long emptyLow,
+                         long emptyHigh) {
+    int count = 0;
+    for (int word = 0; word < 2; word++) {
+      long bits = word == 0 ? emptyLow : emptyHigh;
+      while (bits != 0) {
+        int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        if (this.hasFlips(cell, meLow, meHigh, opLow, opHigh)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  private boolean hasFlips(int cell, long meLow, long meHigh, long opLow, long opHigh) {
+    for (int[] ray : this.geometry.rays[cell]) {
+      for (int i = 0; i < ray.length; i++) {
+        int next = ray[i];
+        if (next < 64 ? (opLow >>> next & 1) == 0 : (opHigh >>> next & 1) == 0) {
+          if (i > 0 && (next < 64 ? (meLow >>> next & 1) != 0 : (meHigh >>> next & 1) != 0)) {
+            return true;
+          }
+          break;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts discs of the first colour that can never be flipped again. A disc is stable if on
+   * each of the three axes its line is full, or its neighbour on one side is off the board or
+   * another stable disc of its colour; the count grows from nothing until nothing changes, so
+   * it never counts a disc that could still flip.
+   */
+  private int countStable(long ownLow, long ownHigh, long otherLow, long otherHigh) {
+    Geometry geometry = this.geometry;
+    long emptyLow = geometry.validLow & ~(ownLow | otherLow);
+    long emptyHigh = geometry.validHigh & ~(ownHigh | otherHigh);
+    long stableLow = 0;
+    long stableHigh = 0;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int word = 0; word < 2; word++) {
+        long bits = word == 0 ? ownLow & ~stableLow : ownHigh & ~stableHigh;
+        while (bits != 0) {
+          int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          boolean stable = true;
+          for (int axis = 0; axis < AXES.length && stable; axis++) {
+            stable = ((geometry.lineLow[cell][axis] & emptyLow)
+                    | (geometry.lineHigh[cell][axis] & emptyHigh)) == 0
+                    || isAnchored(geometry.neighbours[cell][2 * axis], stableLow, stableHigh)
+                    || isAnchored(geometry.neighbours[cell][2 * axis + 1], stableLow, stableHigh);
+          }
+          if (stable) {
+            if (cell < 64) {
+              stableLow |= 1L << cell;
+            } else {
+              stableHigh |= 1L << cell;
+            }
+            changed = true;
+          }
+        }
+      }
+    }
+    return Long.bitCount(stableLow) + Long.bitCount(stableHigh);
+  }
+
+  private static boolean isAnchored(int neighbour, long stableLow, long stableHigh) {
+    return neighbour < 0 || (neighbour < 64 ? (stableLow >>> neighbour & 1) != 0
+            : (stableHigh >>> neighbour & 1) != 0);
+  }
+
+  /**
+   * A 'Geometry' is everything the solver precomputes about one board size: which grid cell
+   * each bit stands for, the rays leaving each cell, the full lines and neighbours along each
+   * axis, and the parity region of each cell.
+   */
+  private static final class Geometry {
+    private final int numCells;
+    private final int[] cellX;
+    private final int[] cellY;
+    private final long validLow;
+    private final long validHigh;
+    // rays[cell][direction]: the cells met walking from the cell in that direction, nearest first
+    private final int[][][] rays;
+    // neighbours[cell][2 * axis + side], or -1 off the board
+    private final int[][] neighbours;
+    private final long[][] lineLow;
+    private final long[][] lineHigh;
+    private final int[] region;
+
+    private Geometry(int size) {
+      BitboardLayout layout = BitboardLayout.forSize(size);
+      HexGeometry hexGeometry = HexGeometry.forSize(size);
+      // cellIndex[y][x]: the bit of each grid cell, or -1 outside the hexagon
+      int[][] cellIndex = new int[size][size];
+      this.numCells = layout.getNumCells();
+      this.cellX = new int[this.numCells];
+      this.cellY = new int[this.numCells];
+      int count = 0;
+      for (int y = 0; y < size; y++) {
+        for (int x = 0; x < size; x++) {
+          cellIndex[y][x] = layout.isValid(x, y) ? count : -1;
+          if (layout.isValid(x, y)) {
+            this.cellX[count] = x;
+            this.cellY[count] = y;
+            count++;
+          }
+        }
+      }
+      long low = 0;
+      long high = 0;
+      for (int cell = 0; cell < this.numCells; cell++) {
+        if (cell < 64) {
+          low |= 1L << cell;
+        } else {
+          high |= 1L << cell;
+        }
+      }
+      this.validLow = low;
+      this.validHigh = high;
+      this.rays = new int[this.numCells][][];
+      this.neighbours = new int[this.numCells][2 * AXES.length];
+      this.lineLow = new long[this.numCells][AXES.length];
+      this.lineHigh = new long[this.numCells][AXES.length];
+      this.region = new int[this.numCells];
+      int middle = size / 2;
+      for (int cell = 0; cell < this.numCells; cell++) {
+        this.rays[cell] = new int[DIRECTIONS.length][];
+        for (MoveDirection direction : DIRECTIONS) {
+          this.rays[cell][direction.ordinal()] = this.walk(hexGeometry, cellIndex, cell, direction);
+        }
+        for (int axis = 0; axis < AXES.length; axis++) {
+          long lineLow = cell < 64 ? 1L << cell : 0;
+          long lineHigh = cell < 64 ? 0 : 1L << cell;
+          for (int side = 0; side < 2; side++) {
+            int[] ray = this.rays[cell][AXES[axis][side].ordinal()];
+            this.neighbours[cell][2 * axis + side] = ray.length == 0 ? -1 : ray[0];
+            for (int next : ray) {
+              if (next < 64) {
+                lineLow |= 1L << next;
+              } else {
+                lineHigh |= 1L << next;
+              }
+            }
+          }
+          this.lineLow[cell][axis] = lineLow;
+          this.lineHigh[cell][axis] = lineHigh;
+        }
+        // odd rows sit half a cell to the right, and rows are sqrt(3)/2 apart
+        double dx = this.cellX[cell] + 0.5 * (this.cellY[cell] % 2) - middle - 0.5 * (middle % 2);
+        double dy = (this.cellY[cell] - middle) * Math.sqrt(3) / 2;
+        this.region[cell] = dx == 0 && dy == 0 ? 0
+                : (int) ((Math.atan2(dy, dx) + Math.PI) / (Math.PI / 3)) % 6;
+      }
+    }
+
+    /**
+     * Returns the ray from a cell in the given direction as cells of this geometry.
+     */
+    private int[] walk(HexGeometry hexGeometry, int[][] cellIndex, int cell,
+                       MoveDirection direction) {
+      int size = cellIndex.length;
+      int[] ray = hexGeometry.ray(this.cellY[cell] * size + this.cellX[cell], direction);
+      for (int i = 0; i < ray.length; i++) {
+        ray[i] = cellIndex[ray[i] / size][ray[i] % size];
+      }
+      return ray;
+    }
+  }
+}
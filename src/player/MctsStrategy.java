@@ -0,0 +1,406 @@
+package player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import discs.DiscColor;
+import model.BitboardLayout;
+import model.HexBitboard;
+import model.MoveLog;
+import model.Posn;
+import model.ReversiModel;
+
+/**
+ * An 'MctsStrategy' chooses moves with Monte Carlo tree search: it grows a game tree one node
+ * per iteration, picking which branch to explore with the UCT formula, and scores each new
+ * node by playing the game out with random moves. The move played is the root move that was
+ * explored the most.
+ * <p>
+ * Playouts run on a {@link HexBitboard} copy of the position, never through the model, and
+ * follow the model's rules: the game ends as soon as the player to move has no legal move, and
+ * the player with more discs wins.
+ * <p>
+ * The tree is kept between turns. When the game passed to the next call continues the game of
+ * the previous call, the subtree of the moves played since becomes the new root, so the work
+ * already spent on it isn't lost.
+ * <p>
+ * With more than one thread the strategy uses root parallelism: every thread grows its own
+ * tree with its own random numbers, and the root visit counts of all trees are added up. The
+ * time budget of the {@link SearchLimits} applies to every thread, and the node budget is the
+ * total number of playouts, shared between threads. The depth limit is not used. A
+ * single-threaded search limited by playouts is deterministic for a given seed.
+ */
+public class MctsStrategy implements Strategy, AutoCloseable {
+  private static final double EXPLORATION = Math.sqrt(2);
+  // how many playouts are run between checks of the clock
+  private static final int CLOCK_CHECK_INTERVAL = 64;
+
+  private final SearchLimits limits;
+  private final SearchTree[] trees;
+  private final ExecutorService pool;
+
+  /**
+   * Creates a single-threaded strategy.
+   *
+   * @param limits how many playouts to run, or how long to run them, per move
+   * @param seed   the seed of the random playouts
+   * @throws IllegalArgumentException if limits is null
+   */
+  public MctsStrategy(SearchLimits limits, long seed) {
+    this(limits, seed, 1);
+  }
+
+  /**
+   * Creates a strategy that grows one tree per thread.
+   *
+   * @param limits  how many playouts to run, or how long to run them, per move
+   * @param seed    the seed of the random playouts
+   * @param threads the number of trees to grow in parallel
+   * @throws IllegalArgumentException if limits is null or threads is not positive
+   */
+  public MctsStrategy(SearchLimits limits, long seed, int threads) {
+    if (limits == null) {
+      throw new IllegalArgumentException("Limits can't be null");
+    } else if (threads <= 0) {
+      throw new IllegalArgumentException("A search needs at least one thread");
+    }
+    this.limits = limits;
+    this.trees = new SearchTree[threads];
+    SplittableRandom seeds = new SplittableRandom(seed);
+    for (int i = 0; i < threads; i++) {
+      this.trees[i] = new SearchTree(seeds.split());
+    }
+    this.pool = threads == 1 ? null : Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "reversi-mcts");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public Optional<Posn> chooseMove(ReversiModel model) {
+    return this.search(model).getBestMove();
+  }
+
+  /**
+   * Searches the current position of the given game and reports the move it would play. The
+   * score is the chosen move's win rate in thousandths, the depth is the deepest the tree
+   * reached and the node count is the number of playouts.
+   *
+   * @param model the game to search; it must not change until the search returns
+   * @return the chosen move and the work done to find it
+   * @throws IllegalStateException if the game hasn't been started yet, or the strategy has
+   *                               been closed
+   */
+  public SearchReport search(ReversiModel model) {
+    long start = System.nanoTime();
+    if (model.isGameOver()) {
+      return new SearchReport(null, 0, 0, 0, System.nanoTime() - start);
+    }
+    long deadline = this.limits.deadlineFrom(start);
+    HexBitboard position = HexBitboard.replayOf(model);
+    MoveLog log = model.getMoveLog();
+    for (SearchTree tree : this.trees) {
+      tree.moveTo(log, position);
+    }
+
+    long budget = this.limits.getNodeBudget();
+    if (this.pool == null) {
+      this.trees[0].grow(budget, deadline);
+    } else {
+      List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < this.trees.length; i++) {
+        SearchTree tree = this.trees[i];
+        long share = budget / this.trees.length + (i < budget % this.trees.length ? 1 : 0);
+        if (this.pool.isShutdown()) {
+          throw new IllegalStateException("The strategy has been closed");
+        }
+        results.add(this.pool.submit(() -> tree.grow(share, deadline)));
+      }
+      for (Future<?> result : results) {
+        await(result);
+      }
+    }
+    return this.report(position.getLayout(), System.nanoTime() - start);
+  }
+
+  /**
+   * Adds up the root statistics of every tree and reports the most visited move.
+   */
+  private SearchReport report(BitboardLayout layout, long elapsedNanos) {
+    int[] visits = new int[layout.getNumBits()];
+    double[] wins = new double[layout.getNumBits()];
+    long playouts = 0;
+    int depth = 0;
+    for (SearchTree tree : this.trees) {
+      playouts += tree.playouts;
+      depth = Math.max(depth, tree.maxDepth);
+      Node root = tree.root;
+      for (int i = 0; i < root.childCount; i++) {
+        visits[root.children[i].move] += root.children[i].visits;
+        wins[root.children[i].move] += root.children[i].wins;
+      }
+    }
+    int best = -1;
+    for (int bit = 0; bit < visits.length; bit++) {
+      if (visits[bit] > 0 && (best < 0 || visits[bit] > visits[best])) {
+        best = bit;
+      }
+    }
+    if (best < 0) {
+      // not a single playout finished: any legal move will do
+      Node root = this.trees[0].root;
+      if (root.untriedCount == 0) {
+        return new SearchReport(null, 0, 0, playouts, elapsedNanos);
+      }
+      best = root.untried[0];
+      return new SearchReport(new Posn(layout.columnOf(best), layout.rowOf(best)), 0, 0,
+              playouts, elapsedNanos);
+    }
+    int score = (int) Math.round(1000 * wins[best] / visits[best]);
+    return new SearchReport(new Posn(layout.columnOf(best), layout.rowOf(best)), score, depth,
+            playouts, elapsedNanos);
+  }
+
+  private static void await(Future<?> result) {
+    try {
+      result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while searching", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Search failed", e.getCause());
+    }
+  }
+
+  /**
+   * Stops the worker threads, if any. The strategy can't search with more than one thread
+   * afterwards.
+   */
+  @Override
+  public void close() {
+    if (this.pool != null) {
+      this.pool.shutdownNow();
+    }
+  }
+
+  /**
+   * A node of a search tree: the position reached by playing {@code move}, with the statistics
+   * of every playout that passed through it.
+   */
+  private static final class Node {
+    // the bit of the move that led here, or -1 at the root
+    private final int move;
+    // the colour that played that move; wins are counted for this colour
+    private final boolean blackMoved;
+    private Node parent;
+    private final Node[] children;
+    private int childCount;
+    // legal moves not yet expanded into children
+    private final int[] untried;
+    private int untriedCount;
+    private int visits;
+    private double wins;
+
+    private Node(Node parent, int move, boolean blackMoved, int[] untried) {
+      this.parent = parent;
+      this.move = move;
+      this.blackMoved = blackMoved;
+      this.untried = untried;
+      this.untriedCount = untried.length;
+      this.children = new Node[untried.length];
+    }
+
+    private Node childFor(int bit) {
+      for (int i = 0; i < this.childCount; i++) {
+        if (this.children[i].move == bit) {
+          return this.children[i];
+        }
+      }
+      return null;
+    }
+
+    private Node bestChild() {
+      double logVisits = Math.log(this.visits);
+      Node best = null;
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < this.childCount; i++) {
+        Node child = this.children[i];
+        double value = child.wins / child.visits
+                + EXPLORATION * Math.sqrt(logVisits / child.visits);
+        if (value > bestValue) {
+          bestValue = value;
+          best = child;
+        }
+      }
+      return best;
+    }
+  }
+
+  /**
+   * A 'SearchTree' is one thread's tree together with the boards and random numbers it
+   * searches with.
+   */
+  private static final class SearchTree {
+    private final SplittableRandom random;
+    private Node root;
+    // the move log entries leading to the root, used to find it again on the next turn
+    private int[] rootHistory;
+    private HexBitboard rootPosition;
+    private HexBitboard board;
+    private long[] flips;
+    private long[] moves;
+    private long playouts;
+    private int maxDepth;
+
+    private SearchTree(SplittableRandom random) {
+      this.random = random;
+    }
+
+    /**
+     * Makes the root of this tree the given position, keeping the subtree already grown for
+     * it if the game continues the one searched last time.
+     */
+    private void moveTo(MoveLog log, HexBitboard position) {
+      this.playouts = 0;
+      this.maxDepth = 0;
+      Node reused = this.findReusableRoot(log, position);
+      this.rootHistory = new int[log.size()];
+      for (int ply = 0; ply < log.size(); ply++) {
+        this.rootHistory[ply] = log.get(ply);
+      }
+      if (this.board == null || this.board.getLayout() != position.getLayout()) {
+        this.board = position.copy();
+        this.flips = new long[position.getLayout().getNumWords()];
+        this.moves = new long[position.getLayout().getNumWords()];
+      }
+      this.rootPosition = position;
+      if (reused != null) {
+        reused.parent = null;
+        this.root = reused;
+      } else {
+        this.board.copyFrom(position);
+        this.root = new Node(null, -1, !position.isBlackToMove(), this.legalMoves());
+      }
+    }
+
+    private Node findReusableRoot(MoveLog log, HexBitboard position) {
+      if (this.root == null || this.rootPosition.getLayout() != position.getLayout()
+              || log.size() < this.rootHistory.length) {
+        return null;
+      }
+      for (int ply = 0; ply < this.rootHistory.length; ply++) {
+        if (log.get(ply) != this.rootHistory[ply]) {
+          return null;
+        }
+      }
+      Node node = this.root;
+      for (int ply = this.rootHistory.length; ply < log.size() && node != null; ply++) {
+        if (log.isPass(ply)) {
+          return null;
+        }
+        node = node.childFor(position.getLayout().bitOf(log.getX(ply), log.getY(ply)));
+      }
+      return node;
+    }
+
+    /**
+     * Runs playouts until the budget is spent or the deadline passes.
+     */
+    private void grow(long budget, long deadline) {
+      while (this.playouts < budget) {
+        if (this.playouts % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline >= 0) {
+          return;
+        }
+        this.iterate();
+        this.playouts++;
+      }
+    }
+
+    /**
+     * Runs one iteration: selects a leaf by UCT, expands one of its moves, plays the game out
+     * randomly from there and records the result along the path.
+     */
+    private void iterate() {
+      this.board.copyFrom(this.rootPosition);
+      Node node = this.root;
+      int depth = 0;
+      while (node.untriedCount == 0 && node.childCount > 0) {
+        node = node.bestChild();
+        this.board.play(node.move, this.flips);
+        depth++;
+      }
+      if (node.untriedCount > 0) {
+        int pick = this.random.nextInt(node.untriedCount);
+        int bit = node.untried[pick];
+        node.untried[pick] = node.untried[--node.untriedCount];
+        boolean blackMoves = this.board.isBlackToMove();
+        this.board.play(bit, this.flips);
+        Node child = new Node(node, bit, blackMoves, this.legalMoves());
+        node.children[node.childCount++] = child;
+        node = child;
+        depth++;
+      }
+      this.maxDepth = Math.max(this.maxDepth, depth);
+
+      int blackMargin = this.playOut();
+      for (; node != null; node = node.parent) {
+        node.visits++;
+        if (blackMargin == 0) {
+          node.wins += 0.5;
+        } else if ((blackMargin > 0) == node.blackMoved) {
+          node.wins += 1;
+        }
+      }
+    }
+
+    /**
+     * Plays random moves on the board until the player to move has none, and returns how many
+     * more discs black has than white at the end.
+     */
+    private int playOut() {
+      int count = this.board.legalMoves(this.moves);
+      while (count > 0) {
+        int bit = this.nthSetBit(this.moves, this.random.nextInt(count));
+        this.board.play(bit, this.flips);
+        count = this.board.legalMoves(this.moves);
+      }
+      return this.board.count(DiscColor.BLACK) - this.board.count(DiscColor.WHITE);
+    }
+
+    private int[] legalMoves() {
+      int count = this.board.legalMoves(this.moves);
+      int[] bits = new int[count];
+      int i = 0;
+      for (int word = 0; word < this.moves.length; word++) {
+        long remaining = this.moves[word];
+        while (remaining != 0) {
+          bits[i++] = (word << 6) + Long.numberOfTrailingZeros(remaining);
+          remaining &= remaining - 1;
+        }
+      }
+      return bits;
+    }
+
+    private int nthSetBit(long[] bits, int n) {
+      for (int word = 0; word < bits.length; word++) {
+        int inWord = Long.bitCount(bits[word]);
+        if (n < inWord) {
+          long remaining = bits[word];
+          for (int i = 0; i < n; i++) {
+            remaining &= remaining - 1;
+          }
+          return (word << 6) + Long.numberOfTrailingZeros(remaining);
+        }
+        n -= inWord;
+      }
+      throw new IllegalStateException("Fewer set bits than expected");
+    }
+  }
+}
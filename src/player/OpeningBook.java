@@ -0,0 +1,224 @@
+package player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import archive.GameArchive;
+import archive.GameRecord;
+import model.BitboardReversiHexModel;
+import model.BoardSnapshot;
+import model.GameState;
+import model.HexSymmetry;
+import model.MoveLog;
+import model.ReversiModel;
+
+/**
+ * An 'OpeningBook' knows which moves were played in the early positions of recorded games and
+ * how well they did, so a player can answer those positions without searching.
+ * <p>
+ * Positions that are rotations or reflections of each other share their entries: every
+ * position is stored in its canonical form, see {@link HexSymmetry}, with its moves moved the
+ * same way, and moves found for a position are moved back before they are returned.
+ * <p>
+ * The book is one flat table of fixed-size entries, one per position and move, sorted by the
+ * canonical position's {@link ReversiModel#getPositionHash() hash} and then by move. An entry is
+ * the hash (8 bytes), the cell index of the move (4), the number of games (4) and the mover's
+ * points doubled, so that draws are whole numbers (4). Looking up a position is a binary search
+ * for its hash followed by a scan of the neighbouring entries, which takes about a microsecond
+ * even for millions of entries. The same table is the file format: a book is saved as a four-byte
+ * magic number and the entries, and opening a book maps the file and searches it in place.
+ */
+public final class OpeningBook {
+  private static final int MAGIC = 0x48584232; // "HXB2"
+  private static final int HEADER_BYTES = 4;
+  private static final int ENTRY_BYTES = 20;
+
+  private final ByteBuffer entries;
+  private final int size;
+
+  private OpeningBook(ByteBuffer entries) {
+    this.entries = entries;
+    this.size = (entries.capacity() - HEADER_BYTES) / ENTRY_BYTES;
+  }
+
+  /**
+   * Builds a book from finished games, counting every move played in their first plies.
+   * Unfinished games and passes are skipped.
+   *
+   * @param games    the games to learn from
+   * @param maxPlies how many plies of each game to learn
+   * @param minGames how many games a move needs to be kept
+   * @return the book
+   * @throws IllegalArgumentException if maxPlies or minGames is less than 1
+   * @throws IllegalStateException    if a game doesn't replay
+   */
+  public static OpeningBook build(Iterable<GameRecord> games, int maxPlies, int minGames) {
+    if (maxPlies < 1 || minGames < 1) {
+      throw new IllegalArgumentException("A book needs at least one ply and one game");
+    }
+    // position hash -> move cell -> {games, doubled points}
+    Map<Long, Map<Integer, int[]>> positions = new HashMap<>();
+    for (GameRecord game : games) {
+      if (game.getResult() == GameState.ONGOING) {
+        continue;
+      }
+      ReversiModel model = new BitboardReversiHexModel();
+      model.startGame(game.getBoardSize());
+      int size = game.getBoardSize();
+      HexSymmetry symmetries = HexSymmetry.forSize(size);
+      for (int ply = 0; ply < Math.min(maxPlies, game.getNumPlies()); ply++) {
+        int entry = game.getPly(ply);
+        if (entry == MoveLog.PASS) {
+          model.pass();
+          continue;
+        }
+        BoardSnapshot position = model.snapshot();
+        int symmetry = symmetries.canonicalSymmetry(position);
+        int[] stats = positions.computeIfAbsent(symmetries.hashOf(position, symmetry),
+                hash -> new HashMap<>())
+                .computeIfAbsent(symmetries.mapCell(symmetry, entry), cell -> new int[2]);
+        stats[0]++;
+        stats[1] += doubledPoints(game.getResult(), model.currentTurn());
+        model.makeMove(entry % size, entry / size);
+      }
+    }
+
+    List<long[]> kept = new ArrayList<>();
+    for (Map.Entry<Long, Map<Integer, int[]>> position : positions.entrySet()) {
+      for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+        if (move.getValue()[0] >= minGames) {
+          kept.add(new long[]{position.getKey(), move.getKey(), move.getValue()[0],
+              move.getValue()[1]});
+        }
+      }
+    }
+    kept.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+    ByteBuffer entries = ByteBuffer.allocate(HEADER_BYTES + kept.size() * ENTRY_BYTES);
+    entries.putInt(MAGIC);
+    for (long[] entry : kept) {
+      entries.putLong(entry[0]);
+      entries.putInt((int) entry[1]);
+      entries.putInt((int) entry[2]);
+      entries.putInt((int) entry[3]);
+    }
+    return new OpeningBook(entries);
+  }
+
+  /**
+   * Builds a book from every game in an archive.
+   *
+   * @see #build(Iterable, int, int)
+   */
+  public static OpeningBook build(GameArchive archive, int maxPlies, int minGames) {
+    return build(() -> archive.games().mapToObj(archive::read).iterator(), maxPlies, minGames);
+  }
+
+  /**
+   * Returns the points, doubled, that a game's result gives the given player.
+   */
+  private static int doubledPoints(GameState result, PlayerTurn player) {
+    if (result == GameState.STALEMATE) {
+      return 1;
+    }
+    boolean player1Won = result == GameState.PLAYER1WIN;
+    return player1Won == (player == PlayerTurn.PLAYER1) ? 2 : 0;
+  }
+
+  /**
+   * Maps a saved book. The file must not change while the book is in use.
+   *
+   * @param path the book file
+   * @return the book, searched in place in the mapped file
+   * @throws IOException if the file can't be read or isn't a book
+   */
+  public static OpeningBook open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long bytes = channel.size();
+      if (bytes > Integer.MAX_VALUE || bytes < HEADER_BYTES
+              || (bytes - HEADER_BYTES) % ENTRY_BYTES != 0) {
+        throw new IOException("Not an opening book: " + path);
+      }
+      ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+      if (entries.getInt(0) != MAGIC) {
+        throw new IOException("Not an opening book: " + path);
+      }
+      return new OpeningBook(entries);
+    }
+  }
+
+  /**
+   * Writes this book to a file, replacing any file already there.
+   *
+   * @param path the file to write
+   * @throws IOException if the file can't be written
+   */
+  public void save(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer all = this.entries.duplicate();
+      all.clear();
+      while (all.hasRemaining()) {
+        channel.write(all);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of position and move pairs in the book.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  private long hashAt(int entry) {
+    return this.entries.getLong(HEADER_BYTES + entry * ENTRY_BYTES);
+  }
+
+  /**
+   * Returns the moves the book knows for the current position of the given game, most favoured
+   * first, or an empty list if the position isn't in the book.
+   *
+   * @param model a started game
+   * @return the candidate moves
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  public List<BookMove> lookup(ReversiModel model) {
+    int size = model.getDimensions();
+    HexSymmetry symmetries = HexSymmetry.forSize(size);
+    BoardSnapshot position = model.snapshot();
+    int symmetry = symmetries.canonicalSymmetry(position);
+    long hash = symmetries.hashOf(position, symmetry);
+    int back = HexSymmetry.inverse(symmetry);
+    int low = 0;
+    int high = this.size;
+    // find the first entry whose hash is not below the one we want
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (this.hashAt(middle) < hash) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    List<BookMove> moves = new ArrayList<>();
+    for (int entry = low; entry < this.size && this.hashAt(entry) == hash; entry++) {
+      int offset = HEADER_BYTES + entry * ENTRY_BYTES;
+      int cell = symmetries.mapCell(back, this.entries.getInt(offset + 8));
+      if (cell < 0) {
+        // a hash collision with a position on another board
+        continue;
+      }
+      moves.add(new BookMove(cell % size, cell / size, this.entries.getInt(offset + 12),
+              this.entries.getInt(offset + 16) / 2.0));
+    }
+    moves.sort((a, b) -> Double.compare(b.getWeight(), a.getWeight()));
+    return moves;
+  }
+}
@@ -0,0 +1,227 @@
+package player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.BoardEngine;
+import model.Posn;
+import model.ReversiModel;
+
+/**
+ * A 'ParallelSearchStrategy' runs an alpha-beta search on several threads of its own worker
+ * pool. Every thread searches its own copy of the game.
+ * <p>
+ * By default it runs a Lazy SMP search: every thread runs the same iterative-deepening search
+ * as {@link AlphaBetaStrategy}, sharing one {@link TranspositionTable}, with half of the helper
+ * threads starting one ply deeper so they fill the table ahead of the main thread. When the
+ * main thread finishes, the helpers are stopped and the deepest finished result is played.
+ * Which thread stores what first depends on scheduling, so repeated searches can differ.
+ * <p>
+ * In deterministic mode it splits the root moves instead: each root move is searched with a
+ * full window and no transposition table by whichever thread is free, and the results are
+ * combined in move order. Searches limited by depth then always return the same move, score
+ * and node count, no matter how many threads run them.
+ * <p>
+ * A strategy owns its threads; {@link #close()} stops them. It must not be used by two callers
+ * at once.
+ */
+public class ParallelSearchStrategy implements Strategy, AutoCloseable {
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 20;
+
+  private final SearchLimits limits;
+  private final BoardEngine engine;
+  private final int threads;
+  private final boolean deterministic;
+  private final TranspositionTable table;
+  private final ExecutorService pool;
+
+  /**
+   * Creates a parallel strategy that searches on the array-backed board.
+   *
+   * @param limits        how much work each thread may do per move
+   * @param threads       the number of search threads
+   * @param deterministic true to split root moves deterministically, false for Lazy SMP
+   * @throws IllegalArgumentException if limits is null or threads is not positive
+   */
+  public ParallelSearchStrategy(SearchLimits limits, int threads, boolean deterministic) {
+    this(limits, BoardEngine.ARRAY, threads, deterministic);
+  }
+
+  /**
+   * Creates a parallel strategy that searches on the given board representation.
+   *
+   * @param limits        how much work each thread may do per move
+   * @param engine        the board representation to search on
+   * @param threads       the number of search threads
+   * @param deterministic true to split root moves deterministically, false for Lazy SMP
+   * @throws IllegalArgumentException if limits or engine is null or threads is not positive
+   */
+  public ParallelSearchStrategy(SearchLimits limits, BoardEngine engine, int threads,
+                                boolean deterministic) {
+    if (limits == null || engine == null) {
+      throw new IllegalArgumentException("Limits and engine can't be null");
+    } else if (threads <= 0) {
+      throw new IllegalArgumentException("A search needs at least one thread");
+    }
+    this.limits = limits;
+    this.engine = engine;
+    this.threads = threads;
+    this.deterministic = deterministic;
+    this.table = deterministic ? null : new TranspositionTable(DEFAULT_TABLE_ENTRIES);
+    this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "reversi-search");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public int getThreads() {
+    return this.threads;
+  }
+
+  @Override
+  public Optional<Posn> chooseMove(ReversiModel model) {
+    return this.search(model).getBestMove();
+  }
+
+  /**
+   * Searches the current position of the given game on all threads and reports the move it
+   * would play. The node count is the total over all threads.
+   *
+   * @param model the game to search; it must not change until the search returns
+   * @return the chosen move, its score and the work done to find it
+   * @throws IllegalStateException if the game hasn't been started yet, or the strategy has
+   *                               been closed
+   */
+  public SearchReport search(ReversiModel model) {
+    long start = System.nanoTime();
+    if (model.isGameOver()) {
+      return new SearchReport(null, 0, 0, 0, System.nanoTime() - start);
+    }
+    long deadline = this.limits.deadlineFrom(start);
+    SearchReport report = this.deterministic ? this.splitRoot(model, deadline)
+            : this.lazySmp(model, deadline);
+    return new SearchReport(report.getBestMove().orElse(null), report.getScore(),
+            report.getDepth(), report.getNodes(), System.nanoTime() - start);
+  }
+
+  private SearchReport lazySmp(ReversiModel model, long deadline) {
+    this.table.newSearch();
+    AtomicBoolean stop = new AtomicBoolean(false);
+    List<Future<SearchReport>> helpers = new ArrayList<>();
+    for (int i = 1; i < this.threads; i++) {
+      int firstDepth = 1 + i % 2;
+      AlphaBetaStrategy helper = new AlphaBetaStrategy(this.limits, this.engine, this.table);
+      helpers.add(this.submit(() -> helper.search(model, firstDepth, deadline, stop)));
+    }
+    AlphaBetaStrategy main = new AlphaBetaStrategy(this.limits, this.engine, this.table);
+    Future<SearchReport> mainResult = this.submit(() -> main.search(model, 1, deadline, stop));
+    SearchReport best = this.await(mainResult);
+    stop.set(true);
+    long nodes = best.getNodes();
+    for (Future<SearchReport> helper : helpers) {
+      SearchReport report = this.await(helper);
+      nodes += report.getNodes();
+      if (report.getDepth() > best.getDepth() && report.getBestMove().isPresent()) {
+        best = report;
+      }
+    }
+    return new SearchReport(best.getBestMove().orElse(null), best.getScore(), best.getDepth(),
+            nodes, 0);
+  }
+
+  private SearchReport splitRoot(ReversiModel model, long deadline) {
+    List<Posn> rootMoves = model.getLegalMoves();
+    AtomicBoolean stop = new AtomicBoolean(false);
+    Posn bestMove = rootMoves.get(0);
+    int bestScore = 0;
+    int completedDepth = 0;
+    long nodes = 0;
+    int empty = model.getScore().getEmptyCount();
+    for (int depth = 1; depth <= this.limits.getMaxDepth(); depth++) {
+      int searchDepth = depth;
+      List<Future<SearchReport>> results = new ArrayList<>();
+      for (Posn move : rootMoves) {
+        AlphaBetaStrategy worker = new AlphaBetaStrategy(this.limits, this.engine, null);
+        results.add(this.submit(
+            () -> worker.searchMove(model, move, searchDepth, deadline, stop)));
+      }
+      boolean finished = true;
+      Posn iterationBest = null;
+      int iterationScore = 0;
+      for (Future<SearchReport> result : results) {
+        SearchReport report = this.await(result);
+        nodes += report.getNodes();
+        finished &= report.getDepth() == depth;
+        if (iterationBest == null || report.getScore() > iterationScore) {
+          iterationBest = report.getBestMove().get();
+          iterationScore = report.getScore();
+        }
+      }
+      if (!finished) {
+        break;
+      }
+      bestMove = iterationBest;
+      bestScore = iterationScore;
+      completedDepth = depth;
+      if (Math.abs(bestScore) >= AlphaBetaStrategy.WIN_SCORE || depth >= empty) {
+        break;
+      }
+    }
+    return new SearchReport(bestMove, bestScore, completedDepth, nodes, 0);
+  }
+
+  private Future<SearchReport> submit(Callable<SearchReport> task) {
+    if (this.pool.isShutdown()) {
+      throw new IllegalStateException("The strategy has been closed");
+    }
+    return this.pool.submit(task);
+  }
+
+  private SearchReport await(Future<SearchReport> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while searching", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Search failed", e.getCause());
+    }
+  }
+
+  /**
+   * Measures the parallel speedup of searching the given position to a fixed depth: the time
+   * a single {@link AlphaBetaStrategy} takes divided by the time this strategy takes.
+   *
+   * @param model the game to search
+   * @param depth the depth to search to
+   * @return the speedup; above 1 means the parallel search was faster
+   */
+  public double measureSpeedup(ReversiModel model, int depth) {
+    SearchLimits fixedDepth = SearchLimits.ofDepth(depth);
+    TranspositionTable serialTable = this.deterministic ? null
+            : new TranspositionTable(DEFAULT_TABLE_ENTRIES);
+    long serial = new AlphaBetaStrategy(fixedDepth, this.engine, serialTable)
+            .search(model).getElapsedNanos();
+    try (ParallelSearchStrategy parallel = new ParallelSearchStrategy(fixedDepth, this.engine,
+            this.threads, this.deterministic)) {
+      long elapsed = parallel.search(model).getElapsedNanos();
+      return (double) serial / Math.max(elapsed, 1);
+    }
+  }
+
+  /**
+   * Stops the worker threads. The strategy can't search afterwards.
+   */
+  @Override
+  public void close() {
+    this.pool.shutdownNow();
+  }
+}
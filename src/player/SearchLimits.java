@@ -0,0 +1,84 @@
+package player;
+
+/**
+ * A 'SearchLimits' bounds how much work a searching strategy may do for one move: a wall-clock
+ * budget, a budget of positions visited, and a maximum depth. The search stops at whichever
+ * limit it reaches first.
+ */
+public final class SearchLimits {
+  /**
+   * The deepest a search will ever go, used when no depth limit is given.
+   */
+  public static final int MAX_DEPTH = 64;
+
+  // about 73 years: far enough away to never be reached, close enough not to overflow
+  private static final long UNLIMITED_MILLIS = Long.MAX_VALUE / 4 / 1_000_000;
+
+  private final long timeBudgetMillis;
+  private final long nodeBudget;
+  private final int maxDepth;
+
+  /**
+   * Creates search limits.
+   *
+   * @param timeBudgetMillis the wall-clock time allowed for one move, in milliseconds
+   * @param nodeBudget       the number of positions the search may visit for one move
+   * @param maxDepth         the deepest the search may look, in plies
+   * @throws IllegalArgumentException if any limit is not positive
+   */
+  public SearchLimits(long timeBudgetMillis, long nodeBudget, int maxDepth) {
+    if (timeBudgetMillis <= 0 || nodeBudget <= 0 || maxDepth <= 0) {
+      throw new IllegalArgumentException("Search limits must be positive");
+    }
+    this.timeBudgetMillis = timeBudgetMillis;
+    this.nodeBudget = nodeBudget;
+    this.maxDepth = Math.min(maxDepth, MAX_DEPTH);
+  }
+
+  /**
+   * Returns limits that only bound the time spent per move.
+   */
+  public static SearchLimits ofTime(long timeBudgetMillis) {
+    return new SearchLimits(timeBudgetMillis, Long.MAX_VALUE, MAX_DEPTH);
+  }
+
+  /**
+   * Returns limits that only bound the number of positions visited per move. Searches with
+   * these limits are deterministic.
+   */
+  public static SearchLimits ofNodes(long nodeBudget) {
+    return new SearchLimits(Long.MAX_VALUE, nodeBudget, MAX_DEPTH);
+  }
+
+  /**
+   * Returns limits that only bound the search depth. Searches with these limits are
+   * deterministic.
+   */
+  public static SearchLimits ofDepth(int maxDepth) {
+    return new SearchLimits(Long.MAX_VALUE, Long.MAX_VALUE, maxDepth);
+  }
+
+  /**
+   * Returns the {@link System#nanoTime()} by which a search started at the given time must
+   * stop. Compare it with {@code System.nanoTime() - deadline >= 0}; budgets beyond a few
+   * decades are treated as unlimited.
+   *
+   * @param startNanos the {@link System#nanoTime()} the search started at
+   * @return the deadline of that search
+   */
+  public long deadlineFrom(long startNanos) {
+    return startNanos + Math.min(this.timeBudgetMillis, UNLIMITED_MILLIS) * 1_000_000;
+  }
+
+  public long getTimeBudgetMillis() {
+    return this.timeBudgetMillis;
+  }
+
+  public long getNodeBudget() {
+    return this.nodeBudget;
+  }
+
+  public int getMaxDepth() {
+    return this.maxDepth;
+  }
+}
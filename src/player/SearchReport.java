@@ -0,0 +1,69 @@
+package player;
+
+import java.util.Optional;
+
+import model.Posn;
+
+/**
+ * A 'SearchReport' describes the outcome of one search: the move it chose, the score of that
+ * move for the player to move, how deep the search got and how much work it did.
+ */
+public final class SearchReport {
+  private final Posn bestMove;
+  private final int score;
+  private final int depth;
+  private final long nodes;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a report.
+   *
+   * @param bestMove     the chosen move, or null to pass
+   * @param score        the score of the chosen move for the player to move
+   * @param depth        the deepest fully completed iteration
+   * @param nodes        the number of positions visited
+   * @param elapsedNanos the wall-clock time the search took
+   */
+  public SearchReport(Posn bestMove, int score, int depth, long nodes, long elapsedNanos) {
+    this.bestMove = bestMove;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public Optional<Posn> getBestMove() {
+    return Optional.ofNullable(this.bestMove);
+  }
+
+  public int getScore() {
+    return this.score;
+  }
+
+  public int getDepth() {
+    return this.depth;
+  }
+
+  public long getNodes() {
+    return this.nodes;
+  }
+
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  /**
+   * Returns how many positions were visited per second of wall-clock time.
+   */
+  public double getNodesPerSecond() {
+    return this.elapsedNanos == 0 ? 0 : this.nodes * 1_000_000_000.0 / this.elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    String move = this.bestMove == null ? "pass"
+            : "(" + this.bestMove.getX() + ", " + this.bestMove.getY() + ")";
+    return "best " + move + " score " + this.score + " depth " + this.depth + " nodes "
+            + this.nodes + " nps " + Math.round(this.getNodesPerSecond());
+  }
+}
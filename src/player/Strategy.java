@@ -0,0 +1,22 @@
+package player;
+
+import java.util.Optional;
+
+import model.Posn;
+import model.ReversiModel;
+
+/**
+ * A 'Strategy' decides what a computer-controlled player does on its turn.
+ */
+public interface Strategy {
+
+  /**
+   * Chooses a move for the player whose turn it currently is. The model is only read; any
+   * exploring a strategy does happens on its own copy of the game.
+   *
+   * @param model the game to choose a move in
+   * @return the coordinates to play on, or an empty Optional to pass
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  Optional<Posn> chooseMove(ReversiModel model);
+}
@@ -0,0 +1,179 @@
+package player;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A 'TranspositionTable' remembers the results of searched positions, keyed by their Zobrist
+ * hash, so that a search reaching the same position through a different move order can reuse
+ * the earlier result instead of searching it again.
+ * <p>
+ * The table has a fixed number of two-slot buckets. The first slot of a bucket keeps the
+ * deepest result seen (results from an earlier search may always be replaced), and the second
+ * slot always takes whatever the first one refused, so recent shallow results are not lost.
+ * <p>
+ * Entries are packed into a single {@code long} and stored next to {@code hash ^ entry}, so
+ * any number of search threads can share one table without locking: a probe only accepts an
+ * entry whose stored check word XOR-s back to the probed hash, which rejects both other
+ * positions and entries torn by two threads writing the same slot at once.
+ */
+public final class TranspositionTable {
+  /**
+   * Bound type of a score that is exact.
+   */
+  public static final int EXACT = 1;
+  /**
+   * Bound type of a score that is at least the stored value: the search failed high.
+   */
+  public static final int LOWER_BOUND = 2;
+  /**
+   * Bound type of a score that is at most the stored value: the search failed low.
+   */
+  public static final int UPPER_BOUND = 3;
+  /**
+   * The stored move of an entry that has no best move.
+   */
+  public static final int NO_MOVE = -1;
+  /**
+   * What {@link #probe(long)} returns when the position isn't in the table.
+   */
+  public static final long MISS = 0;
+
+  // entry layout, low bits first: score 32, depth 8, bound 2, age 6, move + 1 16
+  private static final int DEPTH_SHIFT = 32;
+  private static final int BOUND_SHIFT = 40;
+  private static final int AGE_SHIFT = 42;
+  private static final int MOVE_SHIFT = 48;
+  private static final int AGE_MASK = 0x3F;
+
+  // each slot is two longs: hash ^ entry, then entry
+  private final AtomicLongArray slots;
+  private final int bucketMask;
+  private volatile int age;
+
+  /**
+   * Creates an empty table with at least the given number of entries, rounded up to a power of
+   * two. Each entry takes 16 bytes.
+   *
+   * @param entries the number of positions the table can hold
+   * @throws IllegalArgumentException if entries is less than 2 or more than 2^28
+   */
+  public TranspositionTable(int entries) {
+    if (entries < 2 || entries > (1 << 28)) {
+      throw new IllegalArgumentException("A table needs between 2 and 2^28 entries");
+    }
+    int buckets = Integer.highestOneBit(entries - 1);
+    this.slots = new AtomicLongArray(buckets * 4);
+    this.bucketMask = buckets - 1;
+    this.age = 0;
+  }
+
+  /**
+   * Returns the number of entries the table can hold.
+   */
+  public int capacity() {
+    return this.slots.length() / 2;
+  }
+
+  /**
+   * Marks the start of a new search. Entries stored by earlier searches stay usable but may be
+   * replaced by shallower results from this one.
+   */
+  public void newSearch() {
+    this.age = (this.age + 1) & AGE_MASK;
+  }
+
+  /**
+   * Removes every entry.
+   */
+  public void clear() {
+    for (int i = 0; i < this.slots.length(); i++) {
+      this.slots.setOpaque(i, 0);
+    }
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param hash the Zobrist hash of the position
+   * @return the packed entry stored for it, or {@link #MISS}
+   */
+  public long probe(long hash) {
+    int slot = this.firstSlot(hash);
+    for (int i = 0; i < 2; i++, slot += 2) {
+      long entry = this.slots.getOpaque(slot + 1);
+      if (entry != MISS && (this.slots.getOpaque(slot) ^ entry) == hash) {
+        return entry;
+      }
+    }
+    return MISS;
+  }
+
+  /**
+   * Stores the result of searching a position.
+   *
+   * @param hash  the Zobrist hash of the position
+   * @param score the score found
+   * @param depth the depth searched, from 0 to 255
+   * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+   * @param move  the cell index of the best move found, or {@link #NO_MOVE}
+   */
+  public void store(long hash, int score, int depth, int bound, int move) {
+    int currentAge = this.age;
+    long entry = (score & 0xFFFFFFFFL)
+            | ((long) Math.min(depth, 0xFF) << DEPTH_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | ((long) currentAge << AGE_SHIFT)
+            | ((long) (move + 1) << MOVE_SHIFT);
+    int slot = this.firstSlot(hash);
+    long deepest = this.slots.getOpaque(slot + 1);
+    boolean samePosition = (this.slots.getOpaque(slot) ^ deepest) == hash;
+    if (deepest == MISS || samePosition || age(deepest) != currentAge
+            || depth >= depth(deepest)) {
+      this.write(slot, hash, entry);
+    } else {
+      this.write(slot + 2, hash, entry);
+    }
+  }
+
+  private void write(int slot, long hash, long entry) {
+    this.slots.setOpaque(slot, hash ^ entry);
+    this.slots.setOpaque(slot + 1, entry);
+  }
+
+  private int firstSlot(long hash) {
+    // the low bits pick the bucket; mixing in the high bits keeps similar hashes apart
+    return (int) ((hash ^ (hash >>> 32)) & this.bucketMask) * 4;
+  }
+
+  /**
+   * Returns the score of a packed entry.
+   */
+  public static int score(long entry) {
+    return (int) entry;
+  }
+
+  /**
+   * Returns the depth a packed entry was searched to.
+   */
+  public static int depth(long entry) {
+    return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+  }
+
+  /**
+   * Returns the bound type of a packed entry's score.
+   */
+  public static int bound(long entry) {
+    return (int) (entry >>> BOUND_SHIFT) & 0x3;
+  }
+
+  /**
+   * Returns the best move cell index of a packed entry, or {@link #NO_MOVE}.
+   */
+  public static int move(long entry) {
+    return (int) (entry >>> MOVE_SHIFT) - 1;
+  }
+
+  private static int age(long entry) {
+    return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+  }
+}
@@ -0,0 +1,148 @@
+package tournament;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An 'EloRatings' is a set of Elo estimates fitted to the results of a tournament, with a 95%
+ * confidence margin for each.
+ * <p>
+ * Ratings are the maximum likelihood fit of the Bradley-Terry model, in which a player rated
+ * {@code d} points above another expects to score {@code 1 / (1 + 10^(-d / 400))} against it,
+ * and a draw counts as half a win. To keep the fit finite when someone wins or loses every game,
+ * each pair that met is also credited with one virtual draw. Ratings are relative, so they are
+ * shifted to average zero. Margins come from the curvature of the likelihood at the fit.
+ */
+public final class EloRatings {
+  private static final double ELO_PER_NATURAL_UNIT = 400 / Math.log(10);
+  private static final double Z_95 = 1.959964;
+  private static final int MAX_ITERATIONS = 10_000;
+  private static final double TOLERANCE = 1e-10;
+
+  private final List<String> names;
+  private final double[] ratings;
+  private final double[] margins;
+
+  private EloRatings(List<String> names, double[] ratings, double[] margins) {
+    this.names = names;
+    this.ratings = ratings;
+    this.margins = margins;
+  }
+
+  /**
+   * Fits ratings for the given players to the given games.
+   *
+   * @param names   the players, each exactly once
+   * @param results finished games between those players
+   * @return the fitted ratings
+   * @throws IllegalArgumentException if a name repeats or a game involves someone else
+   */
+  public static EloRatings estimate(List<String> names, List<MatchResult> results) {
+    int players = names.size();
+    Map<String, Integer> index = new HashMap<>();
+    for (String name : names) {
+      if (index.put(name, index.size()) != null) {
+        throw new IllegalArgumentException("Duplicate player " + name);
+      }
+    }
+    // games[i][j] and points[i][j]: games between i and j and the points i scored in them,
+    // including the virtual draw
+    double[][] games = new double[players][players];
+    double[][] points = new double[players][players];
+    for (MatchResult result : results) {
+      Integer black = index.get(result.getBlack());
+      Integer white = index.get(result.getWhite());
+      if (black == null || white == null) {
+        throw new IllegalArgumentException("Unknown player in " + result);
+      }
+      if (games[black][white] == 0) {
+        games[black][white] = games[white][black] = 1;
+        points[black][white] = points[white][black] = 0.5;
+      }
+      games[black][white]++;
+      games[white][black]++;
+      points[black][white] += result.pointsFor(result.getBlack());
+      points[white][black] += result.pointsFor(result.getWhite());
+    }
+
+    // the minorization-maximization iteration for Bradley-Terry strengths
+    double[] strength = new double[players];
+    Arrays.fill(strength, 1);
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      double change = 0;
+      for (int i = 0; i < players; i++) {
+        double scored = 0;
+        double expected = 0;
+        for (int j = 0; j < players; j++) {
+          if (games[i][j] > 0) {
+            scored += points[i][j];
+            expected += games[i][j] / (strength[i] + strength[j]);
+          }
+        }
+        if (expected > 0) {
+          double next = scored / expected;
+          change = Math.max(change, Math.abs(Math.log(next / strength[i])));
+          strength[i] = next;
+        }
+      }
+      if (change < TOLERANCE) {
+        break;
+      }
+    }
+
+    double[] ratings = new double[players];
+    double mean = 0;
+    for (int i = 0; i < players; i++) {
+      ratings[i] = ELO_PER_NATURAL_UNIT * Math.log(strength[i]);
+      mean += ratings[i] / players;
+    }
+    double[] margins = new double[players];
+    for (int i = 0; i < players; i++) {
+      ratings[i] -= mean;
+      double information = 0;
+      for (int j = 0; j < players; j++) {
+        double p = strength[i] / (strength[i] + strength[j]);
+        information += games[i][j] * p * (1 - p);
+      }
+      margins[i] = information > 0
+              ? Z_95 * ELO_PER_NATURAL_UNIT / Math.sqrt(information) : Double.POSITIVE_INFINITY;
+    }
+    return new EloRatings(List.copyOf(names), ratings, margins);
+  }
+
+  /**
+   * Returns the players, in the order they were given.
+   */
+  public List<String> getNames() {
+    return this.names;
+  }
+
+  /**
+   * Returns the rating of the given player, relative to an average of zero.
+   *
+   * @throws IllegalArgumentException if the player isn't rated here
+   */
+  public double getRating(String name) {
+    return this.ratings[this.indexOf(name)];
+  }
+
+  /**
+   * Returns the half-width of the 95% confidence interval of the given player's rating, or
+   * infinity if the player hasn't played.
+   *
+   * @throws IllegalArgumentException if the player isn't rated here
+   */
+  public double getMargin(String name) {
+    return this.margins[this.indexOf(name)];
+  }
+
+  private int indexOf(String name) {
+    int index = this.names.indexOf(name);
+    if (index < 0) {
+      throw new IllegalArgumentException("No rating for " + name);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,108 @@
+package tournament;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+import eval.EvalWeights;
+import model.BoardEngine;
+import player.AlphaBetaStrategy;
+import player.MctsStrategy;
+import player.SearchLimits;
+import player.Strategy;
+import player.TranspositionTable;
+
+/**
+ * An 'Entrant' is a named player in a tournament. Since strategies keep state between moves
+ * and games run in parallel, an entrant doesn't hold a strategy but builds a fresh one for every
+ * game, from a seed that is fixed for that game so tournaments can be repeated.
+ */
+public final class Entrant {
+  // a game is short and many run at once, so each search gets a smaller table than usual
+  private static final int GAME_TABLE_ENTRIES = 1 << 16;
+
+  private final String name;
+  private final LongFunction<? extends Strategy> factory;
+
+  /**
+   * Creates an entrant.
+   *
+   * @param name    the name shown in results, unique within a tournament
+   * @param factory builds the strategy for one game from that game's seed
+   * @throws IllegalArgumentException if the name is empty or the factory is null
+   */
+  public Entrant(String name, LongFunction<? extends Strategy> factory) {
+    if (name == null || name.isEmpty() || factory == null) {
+      throw new IllegalArgumentException("An entrant needs a name and a strategy factory");
+    }
+    this.name = name;
+    this.factory = factory;
+  }
+
+  /**
+   * Parses an entrant from a short description: {@code alphabeta:depth} for alpha-beta search
+   * to a fixed depth, {@code alphabeta:depth:file} for the same search scoring positions with
+   * the evaluation weights in the given file, or {@code mcts:playouts} for Monte Carlo tree
+   * search with a fixed number of playouts.
+   *
+   * @param spec the description
+   * @return an entrant named after the description
+   * @throws IllegalArgumentException if the description isn't one of the above or the weights
+   *                                  file can't be read
+   */
+  public static Entrant parse(String spec) {
+    String[] parts = spec.split(":", 3);
+    if (parts.length < 2 || (parts.length == 3 && !parts[0].equals("alphabeta"))) {
+      throw new IllegalArgumentException("Expected kind:budget, got " + spec);
+    }
+    int budget;
+    try {
+      budget = Integer.parseInt(parts[1]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Expected a number after ':' in " + spec);
+    }
+    switch (parts[0]) {
+      case "alphabeta":
+        SearchLimits depth = SearchLimits.ofDepth(budget);
+        EvalWeights weights = parts.length == 3 ? loadWeights(parts[2]) : null;
+        return new Entrant(spec, seed -> new AlphaBetaStrategy(depth, BoardEngine.BITBOARD,
+                new TranspositionTable(GAME_TABLE_ENTRIES), weights));
+      case "mcts":
+        SearchLimits playouts = SearchLimits.ofNodes(budget);
+        return new Entrant(spec, seed -> new MctsStrategy(playouts, seed));
+      default:
+        throw new IllegalArgumentException("Unknown strategy " + parts[0]);
+    }
+  }
+
+  private static EvalWeights loadWeights(String file) {
+    try {
+      return EvalWeights.load(Paths.get(file));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Can't read weights: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the name of this entrant.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Builds the strategy this entrant plays one game with.
+   *
+   * @param seed the seed of the game
+   * @return a new strategy
+   */
+  public Strategy newStrategy(long seed) {
+    return Objects.requireNonNull(this.factory.apply(seed), "Strategy factory returned null");
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
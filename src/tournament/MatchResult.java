@@ -0,0 +1,125 @@
+package tournament;
+
+import model.GameScore;
+import model.GameState;
+
+/**
+ * A 'MatchResult' is the outcome of one finished tournament game: who played which colour, on
+ * what board, the final score and how many plies it took. The winner is whoever owns more discs
+ * at the end; equal counts are a draw.
+ */
+public final class MatchResult {
+  private final int round;
+  private final String black;
+  private final String white;
+  private final int boardSize;
+  private final GameScore score;
+  private final int plies;
+
+  /**
+   * Creates the result of one game.
+   *
+   * @param round     the position of the game in the tournament schedule
+   * @param black     the name of the entrant that played black, PLAYER1
+   * @param white     the name of the entrant that played white, PLAYER2
+   * @param boardSize the dimension of the board
+   * @param score     the final disc counts
+   * @param plies     the number of moves and passes played
+   * @throws IllegalArgumentException if a name or the score is null
+   */
+  public MatchResult(int round, String black, String white, int boardSize, GameScore score,
+                     int plies) {
+    if (black == null || white == null || score == null) {
+      throw new IllegalArgumentException("Players and score can't be null");
+    }
+    this.round = round;
+    this.black = black;
+    this.white = white;
+    this.boardSize = boardSize;
+    this.score = score;
+    this.plies = plies;
+  }
+
+  /**
+   * Returns the position of this game in the tournament schedule.
+   */
+  public int getRound() {
+    return this.round;
+  }
+
+  /**
+   * Returns the name of the entrant that played black.
+   */
+  public String getBlack() {
+    return this.black;
+  }
+
+  /**
+   * Returns the name of the entrant that played white.
+   */
+  public String getWhite() {
+    return this.white;
+  }
+
+  /**
+   * Returns the dimension of the board the game was played on.
+   */
+  public int getBoardSize() {
+    return this.boardSize;
+  }
+
+  /**
+   * Returns the final disc counts.
+   */
+  public GameScore getScore() {
+    return this.score;
+  }
+
+  /**
+   * Returns the number of moves and passes played.
+   */
+  public int getPlies() {
+    return this.plies;
+  }
+
+  /**
+   * Returns PLAYER1WIN if black won, PLAYER2WIN if white won and STALEMATE for a draw.
+   */
+  public GameState getOutcome() {
+    int margin = this.score.getBlackCount() - this.score.getWhiteCount();
+    if (margin > 0) {
+      return GameState.PLAYER1WIN;
+    }
+    return margin < 0 ? GameState.PLAYER2WIN : GameState.STALEMATE;
+  }
+
+  /**
+   * Returns the points the given entrant earned in this game: 1 for a win, 0.5 for a draw and 0
+   * for a loss.
+   *
+   * @param name the name of one of the two entrants
+   * @return that entrant's points
+   * @throws IllegalArgumentException if the entrant didn't play this game
+   */
+  public double pointsFor(String name) {
+    GameState outcome = this.getOutcome();
+    if (outcome == GameState.STALEMATE) {
+      if (!name.equals(this.black) && !name.equals(this.white)) {
+        throw new IllegalArgumentException(name + " didn't play this game");
+      }
+      return 0.5;
+    }
+    if (name.equals(this.black)) {
+      return outcome == GameState.PLAYER1WIN ? 1 : 0;
+    }
+    if (name.equals(this.white)) {
+      return outcome == GameState.PLAYER2WIN ? 1 : 0;
+    }
+    throw new IllegalArgumentException(name + " didn't play this game");
+  }
+
+  @Override
+  public String toString() {
+    return this.black + " vs " + this.white + " on " + this.boardSize + ": " + this.score;
+  }
+}
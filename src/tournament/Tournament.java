@@ -0,0 +1,240 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.BoardEngine;
+import model.Posn;
+import model.ReversiModel;
+import model.ReversiModelFactory;
+import player.PlayerTurn;
+import player.Strategy;
+
+/**
+ * A 'Tournament' plays computer strategies against each other and rates them. Every pairing
+ * the format calls for plays the same number of games on each board size, alternating who has
+ * black, and the games run in parallel on a pool of threads. The results come back in schedule
+ * order whatever order the games finish in, and every strategy is built from a seed fixed by the
+ * game's place in the schedule, so running the same tournament twice gives the same results as
+ * long as the strategies don't depend on the clock.
+ */
+public final class Tournament {
+  private final TournamentFormat format;
+  private final List<Entrant> entrants;
+  private final List<Integer> boardSizes;
+  private final int gamesPerPairing;
+  private final BoardEngine engine;
+
+  /**
+   * Creates a tournament.
+   *
+   * @param format          which entrants play each other
+   * @param entrants        at least two entrants with different names; for a gauntlet the
+   *                        first one plays all the others
+   * @param boardSizes      the board sizes every pairing plays on
+   * @param gamesPerPairing the number of games each pairing plays on each size
+   * @param engine          the board representation the games are played on
+   * @throws IllegalArgumentException if any argument is missing or out of range
+   */
+  public Tournament(TournamentFormat format, List<Entrant> entrants, List<Integer> boardSizes,
+                    int gamesPerPairing, BoardEngine engine) {
+    if (format == null || entrants == null || boardSizes == null || engine == null) {
+      throw new IllegalArgumentException("Tournament arguments can't be null");
+    }
+    if (entrants.size() < 2 || boardSizes.isEmpty() || gamesPerPairing < 1) {
+      throw new IllegalArgumentException(
+              "A tournament needs two entrants, a board size and at least one game");
+    }
+    Set<String> names = new HashSet<>();
+    for (Entrant entrant : entrants) {
+      if (!names.add(entrant.getName())) {
+        throw new IllegalArgumentException("Duplicate entrant " + entrant.getName());
+      }
+    }
+    for (int size : boardSizes) {
+      if (size <= 3 || size % 2 == 0) {
+        throw new IllegalArgumentException("Invalid Board Sizes");
+      }
+    }
+    this.format = format;
+    this.entrants = List.copyOf(entrants);
+    this.boardSizes = List.copyOf(boardSizes);
+    this.gamesPerPairing = gamesPerPairing;
+    this.engine = engine;
+  }
+
+  /**
+   * Returns the number of games this tournament plays.
+   */
+  public int getNumGames() {
+    return this.schedule().size();
+  }
+
+  /**
+   * Lists every game as {black entrant, white entrant, board size}, in schedule order.
+   */
+  private List<int[]> schedule() {
+    List<int[]> games = new ArrayList<>();
+    int firstOpponentsOf = this.format == TournamentFormat.GAUNTLET ? 1 : this.entrants.size();
+    for (int first = 0; first < firstOpponentsOf; first++) {
+      for (int second = first + 1; second < this.entrants.size(); second++) {
+        for (int size : this.boardSizes) {
+          for (int game = 0; game < this.gamesPerPairing; game++) {
+            games.add(game % 2 == 0
+                    ? new int[]{first, second, size} : new int[]{second, first, size});
+          }
+        }
+      }
+    }
+    return games;
+  }
+
+  /**
+   * Plays every game of the tournament.
+   *
+   * @param threads the number of games to play at once
+   * @return the results, ratings and throughput
+   * @throws IllegalArgumentException if threads is less than 1
+   * @throws IllegalStateException    if a strategy fails or makes an illegal move
+   */
+  public TournamentResult run(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("A tournament needs at least one thread");
+    }
+    List<int[]> games = this.schedule();
+    ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "reversi-tournament");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long start = System.nanoTime();
+    List<MatchResult> results = new ArrayList<>();
+    try {
+      List<Future<MatchResult>> pending = new ArrayList<>();
+      for (int round = 0; round < games.size(); round++) {
+        int[] game = games.get(round);
+        int seed = round;
+        pending.add(pool.submit(() -> play(seed, this.entrants.get(game[0]),
+                this.entrants.get(game[1]), game[2], this.engine)));
+      }
+      for (Future<MatchResult> result : pending) {
+        results.add(result.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while playing the tournament", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A tournament game failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    List<String> names = new ArrayList<>();
+    for (Entrant entrant : this.entrants) {
+      names.add(entrant.getName());
+    }
+    return new TournamentResult(names, results, System.nanoTime() - start, threads);
+  }
+
+  /**
+   * Plays one game to the end on the calling thread.
+   *
+   * @param round     the game's place in the schedule, which also seeds both strategies
+   * @param black     the entrant moving first
+   * @param white     the entrant moving second
+   * @param boardSize the dimension of the board
+   * @param engine    the board representation to play on
+   * @return the result of the game
+   * @throws IllegalStateException if a strategy makes an illegal move
+   */
+  public static MatchResult play(int round, Entrant black, Entrant white, int boardSize,
+                                 BoardEngine engine) {
+    ReversiModel model = ReversiModelFactory.create(engine);
+    model.startGame(boardSize);
+    Strategy blackStrategy = black.newStrategy(2L * round);
+    Strategy whiteStrategy = null;
+    try {
+      whiteStrategy = white.newStrategy(2L * round + 1);
+      while (!model.isGameOver()) {
+        boolean blackToMove = model.currentTurn() == PlayerTurn.PLAYER1;
+        Optional<Posn> move = (blackToMove ? blackStrategy : whiteStrategy).chooseMove(model);
+        if (move.isEmpty()) {
+          model.pass();
+          continue;
+        }
+        try {
+          model.makeMove(move.get().getX(), move.get().getY());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          throw new IllegalStateException((blackToMove ? black : white).getName()
+                  + " made an illegal move in game " + round, e);
+        }
+      }
+    } finally {
+      close(blackStrategy);
+      close(whiteStrategy);
+    }
+    return new MatchResult(round, black.getName(), white.getName(), boardSize,
+            model.getScore(), model.getMoveLog().size());
+  }
+
+  private static void close(Strategy strategy) {
+    if (strategy instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) strategy).close();
+      } catch (Exception e) {
+        throw new IllegalStateException("Couldn't close " + strategy, e);
+      }
+    }
+  }
+
+  /**
+   * Runs a tournament from the command line and prints its tables. Entrants are described as
+   * in {@link Entrant#parse}.
+   * Options: {@code --format=round-robin|gauntlet}, {@code --sizes=7,9}, {@code --games=n} per
+   * pairing and size, {@code --threads=n} (all cores by default) and
+   * {@code --engine=array|bitboard}.
+   *
+   * @param args the options followed by at least two entrants
+   */
+  public static void main(String[] args) {
+    TournamentFormat format = TournamentFormat.ROUND_ROBIN;
+    List<Integer> sizes = List.of(7);
+    int games = 10;
+    int threads = Runtime.getRuntime().availableProcessors();
+    BoardEngine engine = BoardEngine.BITBOARD;
+    List<Entrant> entrants = new ArrayList<>();
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--format=")) {
+        format = value.equals("gauntlet") ? TournamentFormat.GAUNTLET
+                : TournamentFormat.ROUND_ROBIN;
+      } else if (arg.startsWith("--sizes=")) {
+        sizes = new ArrayList<>();
+        for (String size : value.split(",")) {
+          sizes.add(Integer.parseInt(size));
+        }
+      } else if (arg.startsWith("--games=")) {
+        games = Integer.parseInt(value);
+      } else if (arg.startsWith("--threads=")) {
+        threads = Integer.parseInt(value);
+      } else if (arg.startsWith("--engine=")) {
+        engine = value.equals("array") ? BoardEngine.ARRAY : BoardEngine.BITBOARD;
+      } else if (arg.startsWith("--")) {
+        throw new IllegalArgumentException("Unknown option " + arg);
+      } else {
+        entrants.add(Entrant.parse(arg));
+      }
+    }
+    if (entrants.size() < 2) {
+      System.out.println("usage: Tournament [options] alphabeta:depth|mcts:playouts...");
+      return;
+    }
+    System.out.print(new Tournament(format, entrants, sizes, games, engine).run(threads));
+  }
+}
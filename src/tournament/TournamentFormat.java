@@ -0,0 +1,15 @@
+package tournament;
+
+/**
+ * A 'TournamentFormat' decides which entrants play each other.
+ */
+public enum TournamentFormat {
+  /**
+   * Every entrant plays every other entrant.
+   */
+  ROUND_ROBIN,
+  /**
+   * The first entrant plays every other entrant, and the others don't play each other.
+   */
+  GAUNTLET
+}
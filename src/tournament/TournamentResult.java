@@ -0,0 +1,182 @@
+package tournament;
+
+import java.util.List;
+
+/**
+ * A 'TournamentResult' is everything a finished tournament produced: the result of every game
+ * in schedule order, each entrant's wins, draws and losses overall and against each opponent,
+ * Elo ratings fitted to those results, and how fast the games were played.
+ * {@link #toString()} renders it all as plain text tables.
+ */
+public final class TournamentResult {
+  private final List<String> names;
+  private final List<MatchResult> results;
+  private final long elapsedNanos;
+  private final int threads;
+  private final EloRatings ratings;
+  // wins, draws and losses of entrant i against entrant j
+  private final int[][] wins;
+  private final int[][] draws;
+  private final int[][] losses;
+  private final long plies;
+
+  /**
+   * Creates the result of a tournament.
+   *
+   * @param names        the entrants, in tournament order
+   * @param results      every game played, in schedule order
+   * @param elapsedNanos how long the games took to play
+   * @param threads      how many games were played at once
+   * @throws IllegalArgumentException if a game involves someone not in names
+   */
+  public TournamentResult(List<String> names, List<MatchResult> results, long elapsedNanos,
+                          int threads) {
+    this.names = List.copyOf(names);
+    this.results = List.copyOf(results);
+    this.elapsedNanos = elapsedNanos;
+    this.threads = threads;
+    this.ratings = EloRatings.estimate(this.names, this.results);
+    int n = this.names.size();
+    this.wins = new int[n][n];
+    this.draws = new int[n][n];
+    this.losses = new int[n][n];
+    long totalPlies = 0;
+    for (MatchResult result : this.results) {
+      int black = this.names.indexOf(result.getBlack());
+      int white = this.names.indexOf(result.getWhite());
+      double points = result.pointsFor(result.getBlack());
+      if (points == 1) {
+        this.wins[black][white]++;
+        this.losses[white][black]++;
+      } else if (points == 0) {
+        this.losses[black][white]++;
+        this.wins[white][black]++;
+      } else {
+        this.draws[black][white]++;
+        this.draws[white][black]++;
+      }
+      totalPlies += result.getPlies();
+    }
+    this.plies = totalPlies;
+  }
+
+  /**
+   * Returns every game played, in schedule order.
+   */
+  public List<MatchResult> getResults() {
+    return this.results;
+  }
+
+  /**
+   * Returns the Elo ratings fitted to the results.
+   */
+  public EloRatings getRatings() {
+    return this.ratings;
+  }
+
+  /**
+   * Returns how many games the given entrant won against the given opponent, or against
+   * everyone if the opponent is null.
+   */
+  public int getWins(String name, String opponent) {
+    return this.count(this.wins, name, opponent);
+  }
+
+  /**
+   * Returns how many games the given entrant drew against the given opponent, or against
+   * everyone if the opponent is null.
+   */
+  public int getDraws(String name, String opponent) {
+    return this.count(this.draws, name, opponent);
+  }
+
+  /**
+   * Returns how many games the given entrant lost against the given opponent, or against
+   * everyone if the opponent is null.
+   */
+  public int getLosses(String name, String opponent) {
+    return this.count(this.losses, name, opponent);
+  }
+
+  private int count(int[][] table, String name, String opponent) {
+    int row = this.indexOf(name);
+    if (opponent != null) {
+      return table[row][this.indexOf(opponent)];
+    }
+    int total = 0;
+    for (int count : table[row]) {
+      total += count;
+    }
+    return total;
+  }
+
+  private int indexOf(String name) {
+    int index = this.names.indexOf(name);
+    if (index < 0) {
+      throw new IllegalArgumentException("No entrant " + name);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the wall-clock time the games took, in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  /**
+   * Returns the number of games finished per second of wall-clock time.
+   */
+  public double getGamesPerSecond() {
+    return this.results.size() * 1e9 / Math.max(this.elapsedNanos, 1);
+  }
+
+  /**
+   * Returns the number of moves and passes played per second of wall-clock time.
+   */
+  public double getPliesPerSecond() {
+    return this.plies * 1e9 / Math.max(this.elapsedNanos, 1);
+  }
+
+  @Override
+  public String toString() {
+    int width = 8;
+    for (String name : this.names) {
+      width = Math.max(width, name.length() + 2);
+    }
+    StringBuilder text = new StringBuilder();
+    text.append(String.format("%-" + width + "s %6s %5s %5s %5s %7s %12s%n",
+            "entrant", "games", "win", "draw", "loss", "score", "elo"));
+    for (String name : this.names) {
+      int won = this.getWins(name, null);
+      int drawn = this.getDraws(name, null);
+      int lost = this.getLosses(name, null);
+      int games = won + drawn + lost;
+      double score = games == 0 ? 0 : 100.0 * (won + drawn / 2.0) / games;
+      text.append(String.format("%-" + width + "s %6d %5d %5d %5d %6.1f%% %5.0f +-%4.0f%n",
+              name, games, won, drawn, lost, score, this.ratings.getRating(name),
+              Math.min(this.ratings.getMargin(name), 9999)));
+    }
+    text.append(System.lineSeparator());
+    text.append(String.format("%-" + width + "s", "w-d-l"));
+    for (String name : this.names) {
+      text.append(String.format(" %" + width + "s", name));
+    }
+    text.append(System.lineSeparator());
+    for (String name : this.names) {
+      text.append(String.format("%-" + width + "s", name));
+      for (String opponent : this.names) {
+        String cell = name.equals(opponent) ? "-" : this.getWins(name, opponent) + "-"
+                + this.getDraws(name, opponent) + "-" + this.getLosses(name, opponent);
+        text.append(String.format(" %" + width + "s", cell));
+      }
+      text.append(System.lineSeparator());
+    }
+    text.append(System.lineSeparator());
+    text.append(String.format("%d games in %.2fs on %d threads: %.1f games/s, %.0f plies/s%n",
+            this.results.size(), this.elapsedNanos / 1e9, this.threads,
+            this.getGamesPerSecond(), this.getPliesPerSecond()));
+    return text.toString();
+  }
+}
@@ -0,0 +1,142 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import discs.DiscColor;
+import eval.BatchEvaluation;
+import eval.BatchEvaluator;
+import eval.PositionBatch;
+import model.BoardSnapshot;
+import model.HexBitboard;
+import model.HexGeometry;
+import model.MoveDirection;
+import model.Posn;
+import model.ReversiHexModel;
+import model.ReversiModel;
+import player.PlayerTurn;
+
+public class BatchEvaluatorTests {
+  @Test
+  public void testBatchMatchesPositionByPosition() {
+    Random random = new Random(17);
+    for (int size = 5; size <= 21; size += 4) {
+      int[] weights = new int[size * size];
+      for (int cell = 0; cell < weights.length; cell++) {
+        weights[cell] = random.nextInt(21) - 10;
+      }
+      List<ReversiModel> games = new ArrayList<>();
+      PositionBatch batch = new PositionBatch(size, 100);
+      while (games.size() < 100) {
+        ReversiModel model = new ReversiHexModel();
+        model.startGame(size);
+        int plies = random.nextInt(size * size);
+        for (int ply = 0; ply < plies && !model.isGameOver(); ply++) {
+          List<Posn> moves = model.getLegalMoves();
+          Posn move = moves.get(random.nextInt(moves.size()));
+          model.makeMove(move.getX(), move.getY());
+        }
+        // every other position goes in as a bitboard, to cover both ways of packing one
+        Assert.assertEquals(games.size(), games.size() % 2 == 0 ? batch.add(model)
+                : batch.add(HexBitboard.replayOf(model)));
+        games.add(model);
+      }
+      Assert.assertThrows(IllegalStateException.class, () -> batch.add(games.get(0)));
+
+      BatchEvaluator evaluator = new BatchEvaluator(size, weights);
+      // the build sets the property when it compiles and runs with the Vector API
+      Assert.assertEquals(Boolean.getBoolean("reversi.vectorApi"), evaluator.isVectorised());
+      BatchEvaluation evaluation = evaluator.evaluate(batch);
+      Assert.assertEquals(100, evaluation.size());
+      for (int position = 0; position < games.size(); position++) {
+        ReversiModel model = games.get(position);
+        BoardSnapshot snapshot = model.snapshot();
+        Assert.assertEquals(model.getScore().getBlackCount(),
+                evaluation.getBlackCount(position));
+        Assert.assertEquals(model.getScore().getWhiteCount(),
+                evaluation.getWhiteCount(position));
+        Assert.assertEquals(model.getLegalMoves().size(), evaluation.getMobility(position));
+        Assert.assertEquals(frontier(snapshot, DiscColor.BLACK),
+                evaluation.getBlackFrontier(position));
+        Assert.assertEquals(frontier(snapshot, DiscColor.WHITE),
+                evaluation.getWhiteFrontier(position));
+        Assert.assertEquals(weightedScore(snapshot, weights),
+                evaluation.getWeightedScore(position));
+      }
+    }
+  }
+
+  @Test
+  public void testBatchesAreReusedAndChecked() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(7);
+    PositionBatch batch = new PositionBatch(7, 4);
+    BatchEvaluator evaluator = new BatchEvaluator(7, new int[49]);
+    BatchEvaluation evaluation = new BatchEvaluation(4);
+    batch.add(model);
+    model.makeMove(3, 1);
+    batch.add(model);
+    evaluator.evaluate(batch, evaluation);
+    Assert.assertEquals(2, evaluation.size());
+    Assert.assertEquals(3, evaluation.getBlackCount(0));
+    Assert.assertEquals(PlayerTurn.PLAYER2, model.currentTurn());
+    Assert.assertEquals(model.getLegalMoves().size(), evaluation.getMobility(1));
+    Assert.assertThrows(IndexOutOfBoundsException.class, () -> evaluation.getMobility(2));
+
+    batch.clear();
+    batch.add(model);
+    evaluator.evaluate(batch, evaluation);
+    Assert.assertEquals(1, evaluation.size());
+    Assert.assertEquals(model.getScore().getWhiteCount(), evaluation.getWhiteCount(0));
+
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> evaluator.evaluate(new PositionBatch(9, 4), evaluation));
+    batch.add(model);
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> evaluator.evaluate(batch, new BatchEvaluation(1)));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new BatchEvaluator(7, new int[48]));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new PositionBatch(7, 0));
+    ReversiModel other = new ReversiHexModel();
+    other.startGame(9);
+    Assert.assertThrows(IllegalArgumentException.class, () -> batch.add(other));
+  }
+
+  private static int frontier(BoardSnapshot snapshot, DiscColor color) {
+    int size = snapshot.getDimensions();
+    HexGeometry geometry = HexGeometry.forSize(size);
+    int count = 0;
+    for (int cell = 0; cell < size * size; cell++) {
+      if (!geometry.isValid(cell) || snapshot.getColorAt(cell % size, cell / size) != color) {
+        continue;
+      }
+      for (MoveDirection direction : MoveDirection.values()) {
+        int neighbour = geometry.neighbour(cell, direction);
+        if (neighbour >= 0 && snapshot.getColorAt(neighbour % size, neighbour / size)
+                == DiscColor.FACEDOWN) {
+          count++;
+          break;
+        }
+      }
+    }
+    return count;
+  }
+
+  private static int weightedScore(BoardSnapshot snapshot, int[] weights) {
+    int size = snapshot.getDimensions();
+    int score = 0;
+    for (int cell = 0; cell < size * size; cell++) {
+      if (!snapshot.isValid(cell % size, cell / size)) {
+        continue;
+      }
+      DiscColor color = snapshot.getColorAt(cell % size, cell / size);
+      if (color == DiscColor.BLACK) {
+        score += weights[cell];
+      } else if (color == DiscColor.WHITE) {
+        score -= weights[cell];
+      }
+    }
+    return score;
+  }
+}
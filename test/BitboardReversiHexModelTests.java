@@ -0,0 +1,162 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import discs.DiscColor;
+import model.BitboardReversiHexModel;
+import model.BoardEngine;
+import model.Posn;
+import model.ReversiHexModel;
+import model.ReversiModel;
+import model.ReversiModelFactory;
+import player.PlayerTurn;
+import view.TextualView;
+
+public class BitboardReversiHexModelTests {
+  ReversiModel model;
+
+  @Before
+  public void initData() {
+    this.model = new BitboardReversiHexModel();
+  }
+
+  @Test
+  public void testStartGameWithInvalidBoardSizes() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.startGame(1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.startGame(3));
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.startGame(6));
+    model.startGame(7);
+    Assert.assertThrows(IllegalStateException.class, () -> model.startGame(7));
+  }
+
+  @Test
+  public void testAttemptToDoSomethingWhileGameNotStarted() {
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(0, 0));
+    Assert.assertThrows(IllegalStateException.class, () -> model.isGameOver());
+    Assert.assertThrows(IllegalStateException.class, () -> model.currentTurn());
+    Assert.assertThrows(IllegalStateException.class, () -> model.getDiscAt(0, 0));
+    Assert.assertThrows(IllegalStateException.class, () -> model.isDiscFlipped(0, 0));
+    Assert.assertThrows(IllegalStateException.class, () -> model.pass());
+  }
+
+  @Test
+  public void testSameStartingBoardAsArrayModel() {
+    for (int size = 5; size <= 21; size += 2) {
+      ReversiModel reference = new ReversiHexModel();
+      ReversiModel bitboard = new BitboardReversiHexModel();
+      reference.startGame(size);
+      bitboard.startGame(size);
+      Assert.assertEquals(new TextualView(reference, new StringBuilder()).toString(),
+              new TextualView(bitboard, new StringBuilder()).toString());
+    }
+  }
+
+  @Test
+  public void testSimpleMovesAndInvalidMoves() {
+    model.startGame(7);
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(3, 3));
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(4, 3));
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.makeMove(6, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.makeMove(-1, 1));
+    model.pass();
+    model.makeMove(3, 1);
+    Assert.assertEquals(DiscColor.WHITE, model.getDiscAt(2, 3).getColor());
+    Assert.assertEquals(DiscColor.WHITE, model.getDiscAt(3, 2).getColor());
+    Assert.assertEquals(DiscColor.WHITE, model.getDiscAt(3, 1).getColor());
+    Assert.assertEquals(PlayerTurn.PLAYER1, model.currentTurn());
+  }
+
+  @Test
+  public void testIsGameOverWhenPassedTwice() {
+    model.startGame(7);
+    model.pass();
+    Assert.assertFalse(model.isGameOver());
+    model.pass();
+    Assert.assertTrue(model.isGameOver());
+  }
+
+  @Test
+  public void testFactoryBuildsBothEngines() {
+    Assert.assertTrue(ReversiModelFactory.create(BoardEngine.BITBOARD)
+            instanceof BitboardReversiHexModel);
+    Assert.assertTrue(ReversiModelFactory.create(BoardEngine.ARRAY) instanceof ReversiHexModel);
+  }
+
+  @Test
+  public void testRandomGamesMatchArrayModel() {
+    Random random = new Random(42);
+    for (int game = 0; game < 40; game++) {
+      int size = 5 + 2 * random.nextInt(5);
+      ReversiModel reference = new ReversiHexModel();
+      ReversiModel bitboard = new BitboardReversiHexModel();
+      reference.startGame(size);
+      bitboard.startGame(size);
+      playRandomGame(reference, bitboard, size, random);
+    }
+  }
+
+  /**
+   * Plays both models in lock step, trying every cell in a random order each turn and checking
+   * that both models accept and reject exactly the same moves.
+   */
+  private void playRandomGame(ReversiModel reference, ReversiModel bitboard, int size,
+                              Random random) {
+    List<int[]> cells = new ArrayList<>();
+    for (int y = -1; y <= size; y++) {
+      for (int x = -1; x <= size; x++) {
+        cells.add(new int[]{x, y});
+      }
+    }
+    while (!reference.isGameOver()) {
+      Assert.assertFalse(bitboard.isGameOver());
+      Assert.assertEquals(toText(reference.getLegalMoves()), toText(bitboard.getLegalMoves()));
+      Collections.shuffle(cells, random);
+      boolean moved = false;
+      for (int[] cell : cells) {
+        Class<?> referenceError = tryMove(reference, cell[0], cell[1]);
+        Class<?> bitboardError = tryMove(bitboard, cell[0], cell[1]);
+        Assert.assertEquals(referenceError, bitboardError);
+        if (referenceError == null) {
+          moved = true;
+          break;
+        }
+      }
+      if (!moved || random.nextInt(20) == 0) {
+        reference.pass();
+        bitboard.pass();
+      }
+      if (random.nextInt(10) == 0) {
+        reference.undoMove();
+        bitboard.undoMove();
+      }
+      Assert.assertEquals(reference.currentTurn(), bitboard.currentTurn());
+      Assert.assertEquals(reference.getScore(), bitboard.getScore());
+      Assert.assertEquals(reference.getPositionHash(), bitboard.getPositionHash());
+      Assert.assertEquals(new TextualView(reference, new StringBuilder()).toString(),
+              new TextualView(bitboard, new StringBuilder()).toString());
+    }
+    Assert.assertTrue(bitboard.isGameOver());
+  }
+
+  private String toText(List<Posn> moves) {
+    StringBuilder text = new StringBuilder();
+    for (Posn move : moves) {
+      text.append(move.getX()).append(',').append(move.getY()).append(' ');
+    }
+    return text.toString();
+  }
+
+  private Class<?> tryMove(ReversiModel model, int x, int y) {
+    try {
+      model.makeMove(x, y);
+      return null;
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return e.getClass();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import discs.DiscColor;
+import eval.DiscFeature;
+import eval.EvalWeights;
+import eval.Evaluator;
+import eval.Feature;
+import eval.MobilityFeature;
+import eval.ParityFeature;
+import model.BoardEngine;
+import model.GameScore;
+import model.Posn;
+import model.ReversiHexModel;
+import model.ReversiModel;
+import player.AlphaBetaStrategy;
+import player.PlayerTurn;
+import player.SearchLimits;
+import tournament.Entrant;
+
+public class EvaluatorTests {
+  @Test
+  public void testIncrementalFeaturesMatchAFreshEvaluation() {
+    Random random = new Random(25);
+    EvalWeights ones = EvalWeights.DEFAULT;
+    for (String name : EvalWeights.DEFAULT.getNames()) {
+      ones = ones.with(name, 1);
+    }
+    for (int size = 5; size <= 13; size += 2) {
+      ReversiModel model = new ReversiHexModel();
+      model.startGame(size);
+      MobilityFeature mobility = new MobilityFeature();
+      List<Feature> features = Evaluator.standardFeatures();
+      features.set(3, mobility);
+      Evaluator incremental = new Evaluator(ones, features);
+      incremental.reset(model);
+      for (int step = 0; step < 400; step++) {
+        int roll = random.nextInt(10);
+        if (roll < 3 && model.getMoveLog().size() > 0) {
+          incremental.undoMove(model);
+        } else if (roll == 3) {
+          incremental.pass(model);
+        } else if (!model.isGameOver()) {
+          List<Posn> moves = model.getLegalMoves();
+          Posn move = moves.get(random.nextInt(moves.size()));
+          incremental.makeMove(model, move.getX(), move.getY());
+        }
+
+        Evaluator fresh = new Evaluator(ones);
+        fresh.reset(model);
+        for (String name : ones.getNames()) {
+          Assert.assertEquals(name, fresh.getFeatureValue(name),
+                  incremental.getFeatureValue(name));
+        }
+        Assert.assertEquals(fresh.evaluate(), incremental.evaluate());
+
+        GameScore score = model.getScore();
+        int margin = score.getBlackCount() - score.getWhiteCount();
+        boolean blackToMove = model.currentTurn() == PlayerTurn.PLAYER1;
+        Assert.assertEquals(blackToMove ? margin : -margin,
+                incremental.getFeatureValue(DiscFeature.NAME));
+        Assert.assertEquals(model.getLegalMoves().size(),
+                mobility.getMoveCount(blackToMove ? DiscColor.BLACK : DiscColor.WHITE));
+        Assert.assertEquals(score.getEmptyCount() % 2 == 1 ? 1 : -1,
+                incremental.getFeatureValue(ParityFeature.NAME));
+      }
+    }
+  }
+
+  @Test
+  public void testWeightsAreReadWrittenAndChecked() throws IOException {
+    EvalWeights weights = EvalWeights.parse("# corners matter most\n"
+            + "corners = 12\n\nmobility=4\n  discs : -1\n");
+    Assert.assertEquals(12, weights.getWeight("corners"));
+    Assert.assertEquals(4, weights.getWeight("mobility"));
+    Assert.assertEquals(-1, weights.getWeight("discs"));
+    Assert.assertEquals(0, weights.getWeight("parity"));
+    Assert.assertEquals(List.of("corners", "discs", "mobility"),
+            new ArrayList<>(weights.getNames()));
+    Assert.assertEquals(weights, EvalWeights.parse(weights.toString()));
+    Assert.assertEquals(EvalWeights.of(Map.of("corners", 12, "mobility", 4, "discs", -1)),
+            weights);
+
+    Path file = Files.createTempFile("weights", ".properties");
+    try {
+      EvalWeights.DEFAULT.save(file);
+      Assert.assertEquals(EvalWeights.DEFAULT, EvalWeights.load(file));
+      Files.write(file, "mobility = lots\n".getBytes(StandardCharsets.UTF_8));
+      Assert.assertThrows(IOException.class, () -> EvalWeights.load(file));
+
+      Files.write(file, weights.toString().getBytes(StandardCharsets.UTF_8));
+      Entrant entrant = Entrant.parse("alphabeta:1:" + file);
+      ReversiModel model = new ReversiHexModel();
+      model.startGame(7);
+      Assert.assertTrue(entrant.newStrategy(0).chooseMove(model).isPresent());
+    } finally {
+      Files.delete(file);
+    }
+
+    Assert.assertThrows(IllegalArgumentException.class, () -> EvalWeights.parse("discs = 1.5"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> weights.with("two words", 1));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new Evaluator(weights.with("cornres", 1)));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new Evaluator(weights,
+            List.of(new DiscFeature(), new DiscFeature())));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> Entrant.parse("alphabeta:1:no-such-weights-file"));
+
+    Evaluator evaluator = new Evaluator(weights);
+    Assert.assertThrows(IllegalStateException.class, evaluator::evaluate);
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(7);
+    evaluator.reset(model);
+    Assert.assertThrows(IllegalStateException.class, () -> evaluator.undoMove(model));
+    // a cell on the top edge is on the board but can't be played yet
+    Assert.assertFalse(isLegal(model, 3, 0));
+    Assert.assertThrows(IllegalStateException.class, () -> evaluator.makeMove(model, 3, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> evaluator.makeMove(model, 0, 0));
+    Assert.assertEquals(0, model.getMoveLog().size());
+    // parity has no weight, so it isn't tracked
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> evaluator.getFeatureValue(ParityFeature.NAME));
+  }
+
+  @Test
+  public void testAlphaBetaPlaysWithWeights() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(7);
+    AlphaBetaStrategy weighted = new AlphaBetaStrategy(SearchLimits.ofDepth(3),
+            BoardEngine.ARRAY, null, EvalWeights.DEFAULT);
+    AlphaBetaStrategy again = new AlphaBetaStrategy(SearchLimits.ofDepth(3),
+            BoardEngine.BITBOARD, null, EvalWeights.DEFAULT);
+    while (!model.isGameOver()) {
+      Optional<Posn> move = weighted.chooseMove(model);
+      Assert.assertTrue(move.isPresent());
+      Assert.assertTrue(isLegal(model, move.get().getX(), move.get().getY()));
+      Posn other = again.chooseMove(model).get();
+      Assert.assertEquals(move.get().getX(), other.getX());
+      Assert.assertEquals(move.get().getY(), other.getY());
+      model.makeMove(move.get().getX(), move.get().getY());
+    }
+  }
+
+  private static boolean isLegal(ReversiModel model, int x, int y) {
+    for (Posn move : model.getLegalMoves()) {
+      if (move.getX() == x && move.getY() == y) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,262 @@
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import archive.GameArchive;
+import archive.GameArchiveWriter;
+import archive.GameRecord;
+import archive.GameRecordReader;
+import archive.GameRecordWriter;
+import model.GameState;
+import model.MoveLog;
+import model.Posn;
+import model.ReversiHexModel;
+import model.ReversiModel;
+import view.TextualView;
+
+public class GameRecordTests {
+  // the links to the files this process has open, on Linux
+  private static final Path OPEN_FILES = Paths.get("/proc/self/fd");
+
+  /**
+   * Plays random legal moves until the game ends, passing now and then.
+   */
+  private ReversiModel playRandomGame(int size, Random random) {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(size);
+    while (!model.isGameOver()) {
+      List<Posn> moves = model.getLegalMoves();
+      if (random.nextInt(40) == 0) {
+        model.pass();
+      } else {
+        Posn move = moves.get(random.nextInt(moves.size()));
+        model.makeMove(move.getX(), move.getY());
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Returns the length of the log in the text form the model used to keep, e.g.
+   * "BLACK moved to (34), " for a move and "pass " for a pass.
+   */
+  private int textLogLength(GameRecord record) {
+    int length = 0;
+    for (int ply = 0; ply < record.getNumPlies(); ply++) {
+      int entry = record.getPly(ply);
+      String color = ply % 2 == 0 ? "BLACK" : "WHITE";
+      length += entry == MoveLog.PASS ? "pass ".length()
+              : (color + " moved to (" + entry % record.getBoardSize()
+              + entry / record.getBoardSize() + "), ").length();
+    }
+    return length;
+  }
+
+  @Test
+  public void testRecordsSurviveAFileAndReplay() throws IOException {
+    Random random = new Random(18);
+    List<ReversiModel> games = new ArrayList<>();
+    List<GameRecord> records = new ArrayList<>();
+    // enough games that reading and writing cross several buffer boundaries
+    for (int game = 0; game < 2000; game++) {
+      ReversiModel model = this.playRandomGame(7 + 2 * random.nextInt(3), random);
+      games.add(model);
+      records.add(GameRecord.of(model));
+    }
+    Path file = Files.createTempFile("games", ".rec");
+    try {
+      long textLength = 0;
+      try (GameRecordWriter writer = GameRecordWriter.create(file)) {
+        for (GameRecord record : records) {
+          Assert.assertEquals(writer.position(), writer.write(record));
+          textLength += this.textLogLength(record);
+        }
+      }
+      Assert.assertTrue(Files.size(file) > 1 << 16);
+      Assert.assertTrue(Files.size(file) * 10 <= textLength);
+
+      try (GameRecordReader reader = GameRecordReader.open(file)) {
+        for (int game = 0; game < records.size(); game++) {
+          GameRecord record = reader.read();
+          Assert.assertEquals(records.get(game), record);
+          if (game % 50 == 0) {
+            ReversiModel replay = new ReversiHexModel();
+            record.replayInto(replay);
+            Assert.assertEquals(new TextualView(games.get(game), new StringBuilder()).toString(),
+                    new TextualView(replay, new StringBuilder()).toString());
+            Assert.assertEquals(games.get(game).getScore(), replay.getScore());
+            Assert.assertEquals(games.get(game).getPositionHash(), replay.getPositionHash());
+            Assert.assertNotEquals(GameState.ONGOING, record.getResult());
+          }
+        }
+        Assert.assertNull(reader.read());
+        Assert.assertEquals(Files.size(file), reader.position());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testEncoding() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(7);
+    model.pass();
+    model.makeMove(3, 1);
+    GameRecord record = GameRecord.of(model);
+    Assert.assertEquals(GameState.ONGOING, record.getResult());
+    ByteBuffer buffer = ByteBuffer.allocate(record.encodedSize());
+    record.writeTo(buffer);
+    // size, result, two plies, a pass and cell 10
+    Assert.assertArrayEquals(new byte[]{7, (byte) GameState.ONGOING.ordinal(), 2, 0, 11},
+            buffer.array());
+    buffer.flip();
+    Assert.assertEquals(record, GameRecord.readFrom(buffer));
+
+    // cell indices of 128 and above take two bytes
+    GameRecord large = new GameRecord(21, GameState.STALEMATE, new int[]{300, MoveLog.PASS});
+    ByteBuffer largeBuffer = ByteBuffer.allocate(large.encodedSize());
+    large.writeTo(largeBuffer);
+    Assert.assertEquals(6, largeBuffer.position());
+    largeBuffer.flip();
+    Assert.assertEquals(large, GameRecord.readFrom(largeBuffer));
+
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new GameRecord(7, GameState.STALEMATE, new int[]{49}));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new GameRecord(8, GameState.STALEMATE, new int[0]));
+    // the first recorded ply isn't legal on the starting board
+    Assert.assertThrows(IllegalStateException.class,
+        () -> new GameRecord(7, GameState.ONGOING, new int[]{0}).replayInto(new ReversiHexModel()));
+  }
+
+  @Test
+  public void testTruncatedFile() throws IOException {
+    Path file = Files.createTempFile("games", ".rec");
+    try {
+      try (GameRecordWriter writer = GameRecordWriter.create(file)) {
+        writer.write(GameRecord.of(this.playRandomGame(9, new Random(1))));
+        writer.write(GameRecord.of(this.playRandomGame(9, new Random(2))));
+      }
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(Files.size(file) - 1);
+      }
+      try (GameRecordReader reader = GameRecordReader.open(file)) {
+        Assert.assertNotNull(reader.read());
+        Assert.assertThrows(EOFException.class, reader::read);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testArchiveRandomAccessAndFilters() throws IOException {
+    Random random = new Random(19);
+    List<GameRecord> records = new ArrayList<>();
+    for (int game = 0; game < 400; game++) {
+      records.add(GameRecord.of(this.playRandomGame(7 + 2 * random.nextInt(3), random)));
+    }
+    Path file = Files.createTempFile("games", ".arc");
+    Path index = GameArchive.indexPathOf(file);
+    try {
+      try (GameArchiveWriter writer = GameArchiveWriter.create(file)) {
+        for (GameRecord record : records.subList(0, 300)) {
+          writer.append(record);
+        }
+      }
+      try (GameArchiveWriter writer = GameArchiveWriter.append(file)) {
+        Assert.assertEquals(300, writer.size());
+        for (GameRecord record : records.subList(300, 400)) {
+          writer.append(record);
+        }
+      }
+
+      try (GameArchive archive = GameArchive.open(file)) {
+        Assert.assertEquals(400, archive.size());
+        for (int game = 399; game >= 0; game -= 7) {
+          Assert.assertEquals(records.get(game), archive.read(game));
+          Assert.assertEquals(records.get(game).getBoardSize(), archive.getBoardSize(game));
+          Assert.assertEquals(records.get(game).getResult(), archive.getResult(game));
+          ReversiModel expected = new ReversiHexModel();
+          records.get(game).replayInto(expected);
+          ReversiModel replay = archive.replay(game);
+          Assert.assertEquals(expected.getPositionHash(), replay.getPositionHash());
+          Assert.assertEquals(expected.getScore(), replay.getScore());
+          Assert.assertEquals(records.get(game).getNumPlies(), replay.getMoveLog().size());
+        }
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> archive.read(400));
+
+        int[] size11 = archive.withBoardSize(11).toArray();
+        Assert.assertEquals(records.stream().filter(r -> r.getBoardSize() == 11).count(),
+                size11.length);
+        for (int game : size11) {
+          Assert.assertEquals(11, records.get(game).getBoardSize());
+        }
+        Assert.assertEquals(records.stream()
+                        .filter(r -> r.getResult() == GameState.PLAYER2WIN).count(),
+                archive.withResult(GameState.PLAYER2WIN).count());
+        Assert.assertEquals(0, archive.withResult(GameState.ONGOING).count());
+      }
+
+      // an index rebuilt from the records alone is the same as the one written alongside them
+      byte[] written = Files.readAllBytes(index);
+      Assert.assertEquals(400, GameArchive.rebuildIndex(file));
+      Assert.assertArrayEquals(written, Files.readAllBytes(index));
+    } finally {
+      Files.deleteIfExists(index);
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testArchiveWriterClosesWhatItOpenedWhenCreateFails() throws IOException {
+    Assume.assumeTrue(Files.isDirectory(OPEN_FILES));
+    // a directory can't be opened as the record file, nor as the index
+    Path records = Files.createTempDirectory("games");
+    Path index = GameArchive.indexPathOf(records);
+    try {
+      Assert.assertThrows(IOException.class, () -> GameArchiveWriter.create(records));
+      Assert.assertFalse(isOpen(index));
+    } finally {
+      Files.deleteIfExists(index);
+      Files.delete(records);
+    }
+
+    Path file = Files.createTempFile("games", ".arc");
+    Path indexDirectory = Files.createDirectory(GameArchive.indexPathOf(file));
+    try {
+      Assert.assertThrows(IOException.class, () -> GameArchiveWriter.create(file));
+      Assert.assertFalse(isOpen(file));
+    } finally {
+      Files.delete(indexDirectory);
+      Files.delete(file);
+    }
+  }
+
+  private static boolean isOpen(Path file) throws IOException {
+    try (Stream<Path> links = Files.list(OPEN_FILES)) {
+      return links.anyMatch(link -> {
+        try {
+          return Files.readSymbolicLink(link).equals(file.toAbsolutePath());
+        } catch (IOException e) {
+          // the link was to the listing itself, which is closed by now
+          return false;
+        }
+      });
+    }
+  }
+}
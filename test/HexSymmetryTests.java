@@ -0,0 +1,106 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.BitboardReversiHexModel;
+import model.BoardSnapshot;
+import model.HexSymmetry;
+import model.Posn;
+import model.ReversiHexModel;
+import model.ReversiModel;
+
+public class HexSymmetryTests {
+  @Test
+  public void testSymmetriesArePermutationsOfTheHexagon() {
+    for (int size = 5; size <= 15; size += 2) {
+      HexSymmetry symmetries = HexSymmetry.forSize(size);
+      ReversiModel model = new ReversiHexModel();
+      model.startGame(size);
+      for (int symmetry = 0; symmetry < HexSymmetry.COUNT; symmetry++) {
+        boolean[] seen = new boolean[size * size];
+        int inverse = HexSymmetry.inverse(symmetry);
+        for (int cell = 0; cell < size * size; cell++) {
+          int target = symmetries.mapCell(symmetry, cell);
+          boolean valid = model.getBoard()[cell / size][cell % size] != null;
+          Assert.assertEquals(valid, target >= 0);
+          if (valid) {
+            Assert.assertTrue(model.getBoard()[target / size][target % size] != null);
+            Assert.assertFalse(seen[target]);
+            seen[target] = true;
+            Assert.assertEquals(cell, symmetries.mapCell(inverse, target));
+          }
+        }
+      }
+      if (size % 4 == 3) {
+        // the starting discs alternate around the middle, so turning by 120 degrees keeps them
+        BoardSnapshot start = model.snapshot();
+        Assert.assertEquals(start.getPositionHash(), symmetries.hashOf(start, 2));
+        Assert.assertEquals(start.getPositionHash(), symmetries.hashOf(start, 4));
+        Assert.assertNotEquals(start.getPositionHash(), symmetries.hashOf(start, 1));
+      }
+    }
+    Assert.assertThrows(IllegalArgumentException.class, () -> HexSymmetry.inverse(12));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> HexSymmetry.forSize(7).map(0, new Posn(0, 0)));
+  }
+
+  @Test
+  public void testSymmetricGamesPlayTheSame() {
+    // the symmetries that keep the starting position of boards whose middle row is odd, so the
+    // mirrored game can start from an ordinary new game
+    int[] keepTheStart = {0, 2, 4, 7, 9, 11};
+    Random random = new Random(11);
+    for (int game = 0; game < 24; game++) {
+      int size = game % 2 == 0 ? 7 : 11;
+      int symmetry = keepTheStart[game % keepTheStart.length];
+      HexSymmetry symmetries = HexSymmetry.forSize(size);
+      ReversiModel model = new ReversiHexModel();
+      ReversiModel mirror = new BitboardReversiHexModel();
+      model.startGame(size);
+      mirror.startGame(size);
+      while (!model.isGameOver()) {
+        BoardSnapshot position = model.snapshot();
+        BoardSnapshot moved = symmetries.transform(position, symmetry);
+        Assert.assertEquals(mirror.getPositionHash(), moved.getPositionHash());
+        Assert.assertEquals(toText(mirror.getLegalMoves()), toText(moved.getLegalMoves()));
+        Assert.assertEquals(symmetries.canonicalHash(position),
+                symmetries.canonicalHash(mirror.snapshot()));
+        BoardSnapshot canonical = symmetries.canonicalize(position);
+        Assert.assertEquals(toText(canonical), toText(symmetries.canonicalize(moved)));
+        Assert.assertEquals(toText(position), toText(symmetries.transform(canonical,
+                HexSymmetry.inverse(symmetries.canonicalSymmetry(position)))));
+
+        List<Posn> moves = model.getLegalMoves();
+        Posn move = moves.get(random.nextInt(moves.size()));
+        model.makeMove(move.getX(), move.getY());
+        Posn mirrored = symmetries.map(symmetry, move);
+        mirror.makeMove(mirrored.getX(), mirrored.getY());
+      }
+      Assert.assertTrue(mirror.isGameOver());
+      Assert.assertEquals(model.getScore(), mirror.getScore());
+    }
+  }
+
+  private static String toText(List<Posn> moves) {
+    List<String> cells = new ArrayList<>();
+    for (Posn move : moves) {
+      cells.add(move.getX() + "," + move.getY());
+    }
+    return String.join(" ", cells);
+  }
+
+  private static String toText(BoardSnapshot snapshot) {
+    StringBuilder text = new StringBuilder();
+    for (int y = 0; y < snapshot.getDimensions(); y++) {
+      for (int x = 0; x < snapshot.getDimensions(); x++) {
+        text.append(snapshot.isValid(x, y) ? snapshot.getColorAt(x, y).ordinal() : "-");
+      }
+      text.append('\n');
+    }
+    return text.append(snapshot.getTurn()).append(' ').append(snapshot.getPositionHash())
+            .append(' ').append(toText(snapshot.getLegalMoves())).toString();
+  }
+}
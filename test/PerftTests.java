@@ -0,0 +1,82 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.BitboardReversiHexModel;
+import model.HexBitboard;
+import model.Perft;
+import model.ReversiHexModel;
+import model.ReversiModel;
+import view.TextualView;
+
+public class PerftTests {
+  // reference counts from the starting position, for depths 1, 2, 3, ...
+  private static final long[] PERFT_7 = {6L, 24L, 72L, 234L, 738L, 2514L, 8382L};
+  private static final long[] PERFT_9 = {4L, 8L, 16L, 44L, 156L, 552L};
+  private static final long[] PERFT_11 = {6L, 24L, 72L, 234L, 780L, 2874L};
+  private static final long[] PERFT_7_PASSES = {7L, 37L, 156L, 606L, 2262L, 8388L, 31878L};
+  private static final long[] PERFT_9_PASSES = {5L, 17L, 52L, 144L, 524L, 1976L};
+  private static final long[] PERFT_11_PASSES = {7L, 37L, 156L, 606L, 2316L, 8964L};
+
+  @Test
+  public void testRawBitboardMatchesReferenceCounts() {
+    checkRaw(7, PERFT_7, false);
+    checkRaw(9, PERFT_9, false);
+    checkRaw(11, PERFT_11, false);
+    checkRaw(7, PERFT_7_PASSES, true);
+    checkRaw(9, PERFT_9_PASSES, true);
+    checkRaw(11, PERFT_11_PASSES, true);
+  }
+
+  @Test
+  public void testBothModelsMatchReferenceCounts() {
+    checkModels(7, PERFT_7, false, 6);
+    checkModels(9, PERFT_9, false, 5);
+    checkModels(11, PERFT_11, false, 5);
+    checkModels(7, PERFT_7_PASSES, true, 5);
+    checkModels(9, PERFT_9_PASSES, true, 5);
+    checkModels(11, PERFT_11_PASSES, true, 5);
+  }
+
+  @Test
+  public void testSmallestBoardHasNoMoves() {
+    // black can't capture anything on a size 5 board, so the game is over before it starts
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(5);
+    Assert.assertEquals(1, Perft.count(model, 0, true));
+    Assert.assertEquals(0, Perft.count(model, 1, true));
+    Assert.assertEquals(0, Perft.count(HexBitboard.startingPosition(5), 3, false));
+  }
+
+  @Test
+  public void testCountLeavesGameUnchanged() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(9);
+    String before = new TextualView(model, new StringBuilder()).toString();
+    long hash = model.getPositionHash();
+    Perft.count(model, 4, true);
+    Assert.assertEquals(before, new TextualView(model, new StringBuilder()).toString());
+    Assert.assertEquals(hash, model.getPositionHash());
+    Assert.assertEquals(0, model.getMoveLog().size());
+    Assert.assertThrows(IllegalArgumentException.class, () -> Perft.count(model, -1, false));
+  }
+
+  private void checkRaw(int size, long[] expected, boolean includePasses) {
+    for (int depth = 1; depth <= expected.length; depth++) {
+      Assert.assertEquals("size " + size + " depth " + depth, expected[depth - 1],
+              Perft.count(HexBitboard.startingPosition(size), depth, includePasses));
+    }
+  }
+
+  private void checkModels(int size, long[] expected, boolean includePasses, int maxDepth) {
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      ReversiModel array = new ReversiHexModel();
+      ReversiModel bitboard = new BitboardReversiHexModel();
+      array.startGame(size);
+      bitboard.startGame(size);
+      Assert.assertEquals("size " + size + " depth " + depth, expected[depth - 1],
+              Perft.count(array, depth, includePasses));
+      Assert.assertEquals("size " + size + " depth " + depth, expected[depth - 1],
+              Perft.count(bitboard, depth, includePasses));
+    }
+  }
+}
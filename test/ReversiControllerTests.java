@@ -1,4 +1,79 @@
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import controller.GameSessionClient;
+import controller.GameSessionServer;
+import controller.GameSessions;
+import model.BoardEngine;
+
 public class ReversiControllerTests {
+
+  @Test
+  public void testSessionCommands() {
+    GameSessions sessions = new GameSessions(BoardEngine.ARRAY);
+    Assert.assertEquals("OK g1", sessions.handle("NEW 7"));
+    Assert.assertEquals("OK 7 PLAYER1 3 3 31 false "
+            + "..----..-----..--XO----O-X--.--XO--.-----...----.", sessions.handle("STATE g1"));
+    Assert.assertEquals("OK", sessions.handle("PASS g1"));
+    Assert.assertEquals("OK", sessions.handle("move g1 3 1"));
+    Assert.assertTrue(sessions.handle("STATE g1").startsWith("OK 7 PLAYER1 2 5 30 false"));
+    Assert.assertEquals("ERR Invalid Move: Disc is not facedown.",
+            sessions.handle("MOVE g1 3 1"));
+    Assert.assertEquals("ERR no game g9", sessions.handle("PASS g9"));
+    Assert.assertEquals("ERR expected a number", sessions.handle("MOVE g1 a 1"));
+    Assert.assertEquals("ERR MOVE takes 3 argument(s)", sessions.handle("MOVE g1 1"));
+    Assert.assertEquals("ERR Invalid Board Sizes", sessions.handle("NEW 4"));
+    Assert.assertEquals("ERR board size can be at most " + GameSessions.MAX_BOARD_SIZE,
+            sessions.handle("NEW 99999"));
+    Assert.assertTrue(sessions.handle("NEW 2147483647").startsWith("ERR"));
+    Assert.assertEquals("ERR unknown command JUMP", sessions.handle("JUMP"));
+    Assert.assertEquals("OK", sessions.handle("END g1"));
+    Assert.assertEquals(0, sessions.size());
+  }
+
+  @Test
+  public void testServerHostsConcurrentGames() throws Exception {
+    GameSessions sessions = new GameSessions(BoardEngine.ARRAY);
+    ExecutorService players = Executors.newFixedThreadPool(4);
+    try (GameSessionServer server = new GameSessionServer(sessions, 0)) {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(players.submit(() -> {
+          try (GameSessionClient client = new GameSessionClient(server.getPort())) {
+            String game = client.newGame(7);
+            Assert.assertEquals("OK", client.pass(game));
+            Assert.assertEquals("OK", client.move(game, 3, 1));
+            Assert.assertTrue(client.move(game, 3, 1).startsWith("ERR"));
+            return client.state(game);
+          }
+        }));
+      }
+      for (Future<String> result : results) {
+        Assert.assertTrue(result.get().startsWith("OK 7 PLAYER1 2 5 30 false"));
+      }
+      Assert.assertEquals(8, sessions.size());
+    } finally {
+      players.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testTwoClientsShareOneGame() throws Exception {
+    GameSessions sessions = new GameSessions(BoardEngine.BITBOARD);
+    try (GameSessionServer server = new GameSessionServer(sessions, 0);
+         GameSessionClient black = new GameSessionClient(server.getPort());
+         GameSessionClient white = new GameSessionClient(server.getPort())) {
+      String game = black.newGame(7);
+      Assert.assertEquals("OK", black.pass(game));
+      Assert.assertEquals("OK", white.move(game, 3, 1));
+      Assert.assertEquals(black.state(game), white.state(game));
+      Assert.assertTrue(black.state(game).startsWith("OK 7 PLAYER1 2 5 30 false"));
+    }
+  }
 }
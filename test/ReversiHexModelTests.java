@@ -1,14 +1,34 @@
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import discs.Disc;
 import discs.DiscColor;
 import discs.DiscType;
 import discs.GameDisc;
+import model.BoardEngine;
+import model.BoardSnapshot;
+import model.ConcurrentReversiModel;
+import model.GameScore;
+import model.HexGeometry;
 import model.MockReversiHexModel;
+import model.MoveDirection;
+import model.MoveLog;
+import model.MoveRules;
+import model.Posn;
 import model.ReversiHexModel;
 import model.ReversiModel;
+import model.ReversiModelFactory;
+import model.ZobristKeys;
 import player.PlayerTurn;
 import view.ReversiTextualView;
 import view.TextualView;
@@ -205,6 +225,478 @@ public class ReversiHexModelTests {
     Assert.assertTrue(model.isGameOver());
   }
 
+  @Test
+  public void testLegalMovesAtStartAndAfterMoves() {
+    Assert.assertThrows(IllegalStateException.class, () -> model.getLegalMoves());
+    model.startGame(7);
+    Assert.assertEquals("3,1 2,2 5,2 2,4 5,4 3,5", this.movesToText(model.getLegalMoves()));
+    model.pass();
+    Assert.assertEquals("3,1 2,2 5,2 2,4 5,4 3,5", this.movesToText(model.getLegalMoves()));
+    model.makeMove(3, 1);
+    Assert.assertEquals("3,0 2,2 5,4 3,5", this.movesToText(model.getLegalMoves()));
+
+    // the incremental set matches trying every empty cell of the same position from scratch
+    ReversiModel copy = new ReversiHexModel();
+    copy.startGame(7);
+    copy.pass();
+    copy.makeMove(3, 1);
+    Assert.assertEquals(this.movesToText(this.scanLegalMoves(copy)),
+            this.movesToText(model.getLegalMoves()));
+  }
+
+  /**
+   * Returns the moves the player to move can make, row by row, found by trying to play on every
+   * empty cell of the board and taking each move that succeeds back again.
+   */
+  private List<Posn> scanLegalMoves(ReversiModel model) {
+    List<Posn> moves = new ArrayList<>();
+    int size = model.getDimensions();
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        try {
+          if (model.isDiscFlipped(x, y)) {
+            continue;
+          }
+          model.makeMove(x, y);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          // outside the hexagon, or a move that flips nothing
+          continue;
+        }
+        model.undoMove();
+        moves.add(new Posn(x, y));
+      }
+    }
+    return moves;
+  }
+
+  private String movesToText(List<Posn> moves) {
+    StringBuilder text = new StringBuilder();
+    for (Posn move : moves) {
+      if (text.length() > 0) {
+        text.append(' ');
+      }
+      text.append(move.getX()).append(',').append(move.getY());
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void testScoreTracksMovesAndFlips() {
+    Assert.assertThrows(IllegalStateException.class, () -> model.getScore());
+    model.startGame(7);
+    Assert.assertEquals(new GameScore(3, 3, 31), model.getScore());
+    model.pass();
+    model.makeMove(3, 1);
+    Assert.assertEquals(new GameScore(2, 5, 30), model.getScore());
+    Assert.assertEquals(5, model.getScore().getPlayerCount(PlayerTurn.PLAYER2));
+    model.makeMove(3, 0);
+    Assert.assertEquals(new GameScore(5, 3, 29), model.getScore());
+  }
+
+  @Test
+  public void testMoveLogRecordsMovesAndPasses() {
+    Assert.assertThrows(IllegalStateException.class, () -> model.getMoveLog());
+    model.startGame(7);
+    MoveLog log = model.getMoveLog();
+    Assert.assertEquals(0, log.size());
+    model.pass();
+    model.makeMove(3, 1);
+    model.makeMove(3, 0);
+    model.pass();
+    Assert.assertEquals(4, log.size());
+    Assert.assertTrue(log.isPass(0));
+    Assert.assertEquals(3, log.getX(1));
+    Assert.assertEquals(1, log.getY(1));
+    Assert.assertEquals(3, log.getX(2));
+    Assert.assertEquals(0, log.getY(2));
+    Assert.assertEquals(MoveLog.PASS, log.get(3));
+    Assert.assertFalse(log.lastTwoArePasses());
+    Assert.assertThrows(IllegalArgumentException.class, () -> log.getX(0));
+    Assert.assertThrows(IndexOutOfBoundsException.class, () -> log.get(4));
+
+    PrimitiveIterator.OfInt plies = log.iterator();
+    Assert.assertEquals(MoveLog.PASS, plies.nextInt());
+    Assert.assertEquals(1 * 7 + 3, plies.nextInt());
+    Assert.assertEquals(0 * 7 + 3, plies.nextInt());
+    Assert.assertEquals(MoveLog.PASS, plies.nextInt());
+    Assert.assertFalse(plies.hasNext());
+
+    model.pass();
+    Assert.assertTrue(log.lastTwoArePasses());
+    Assert.assertTrue(model.isGameOver());
+  }
+
+  /**
+   * Describes everything undo has to restore: the board, the turn, the score and the legal
+   * moves.
+   */
+  private String describe(ReversiModel model) {
+    return new TextualView(model, new StringBuilder()).toString() + model.currentTurn()
+            + model.getScore() + this.movesToText(model.getLegalMoves());
+  }
+
+  @Test
+  public void testUndoRestoresEveryPreviousPosition() {
+    Assert.assertThrows(IllegalStateException.class, () -> model.undoMove());
+    model.startGame(7);
+    Assert.assertThrows(IllegalStateException.class, () -> model.undoMove());
+    List<String> positions = new java.util.ArrayList<>();
+    positions.add(this.describe(model));
+    model.makeMove(2, 2);
+    positions.add(this.describe(model));
+    model.makeMove(5, 2);
+    positions.add(this.describe(model));
+    model.makeMove(6, 2);
+    positions.add(this.describe(model));
+    model.pass();
+    positions.add(this.describe(model));
+    model.makeMove(5, 4);
+    positions.add(this.describe(model));
+
+    for (int i = positions.size() - 2; i >= 0; i--) {
+      model.undoMove();
+      Assert.assertEquals(positions.get(i), this.describe(model));
+      Assert.assertEquals(i, model.getMoveLog().size());
+    }
+    Assert.assertThrows(IllegalStateException.class, () -> model.undoMove());
+  }
+
+  @Test
+  public void testUndoRestoresPassState() {
+    model.startGame(7);
+    model.pass();
+    model.pass();
+    Assert.assertTrue(model.isGameOver());
+    model.undoMove();
+    Assert.assertFalse(model.isGameOver());
+    Assert.assertEquals(PlayerTurn.PLAYER2, model.currentTurn());
+    model.makeMove(3, 1);
+    model.pass();
+    Assert.assertFalse(model.isGameOver());
+    model.pass();
+    Assert.assertTrue(model.isGameOver());
+    model.undoMove();
+    model.undoMove();
+    model.pass();
+    Assert.assertFalse(model.isGameOver());
+  }
+
+  @Test
+  public void testLastFlipsAreTheDiscsTheMoveTurned() {
+    Random random = new Random(6);
+    List<ReversiModel> games = new ArrayList<>();
+    games.add(ReversiModelFactory.create(BoardEngine.ARRAY));
+    games.add(ReversiModelFactory.create(BoardEngine.BITBOARD));
+    games.add(new ConcurrentReversiModel(ReversiModelFactory.create(BoardEngine.BITBOARD)));
+    int[] flips = new int[11 * 11];
+    for (ReversiModel game : games) {
+      Assert.assertThrows(IllegalStateException.class, () -> game.lastFlips(flips));
+      game.startGame(11);
+      Assert.assertThrows(IllegalStateException.class, () -> game.lastFlips(flips));
+    }
+    ReversiModel first = games.get(0);
+    for (int step = 0; step < 200 && !first.isGameOver(); step++) {
+      BoardSnapshot before = first.snapshot();
+      List<Posn> moves = first.getLegalMoves();
+      int roll = random.nextInt(8);
+      Posn move = moves.isEmpty() || roll == 1 ? null : moves.get(random.nextInt(moves.size()));
+      boolean undo = roll == 0 && first.getMoveLog().size() > 1;
+      for (ReversiModel game : games) {
+        if (undo) {
+          game.undoMove();
+        } else if (move == null) {
+          game.pass();
+        } else {
+          game.makeMove(move.getX(), move.getY());
+        }
+      }
+
+      List<Integer> expected = new ArrayList<>();
+      if (undo) {
+        expected = this.sortedFlips(first, flips);
+      } else if (move != null) {
+        BoardSnapshot after = first.snapshot();
+        for (int cell = 0; cell < 11 * 11; cell++) {
+          int x = cell % 11;
+          int y = cell / 11;
+          if (after.isValid(x, y) && (x != move.getX() || y != move.getY())
+                  && after.getColorAt(x, y) != before.getColorAt(x, y)) {
+            expected.add(cell);
+          }
+        }
+        Assert.assertFalse(expected.isEmpty());
+      }
+      for (ReversiModel game : games) {
+        Assert.assertEquals(expected, this.sortedFlips(game, flips));
+      }
+    }
+  }
+
+  /**
+   * Returns the cells the model says its most recent move flipped, in increasing order.
+   */
+  private List<Integer> sortedFlips(ReversiModel model, int[] flips) {
+    int count = model.lastFlips(flips);
+    List<Integer> cells = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      cells.add(flips[i]);
+    }
+    cells.sort(null);
+    return cells;
+  }
+
+  @Test
+  public void testPositionHashIsIndependentOfMoveOrder() {
+    model.startGame(7);
+    ZobristKeys keys = ZobristKeys.forSize(7);
+    long start = model.getPositionHash();
+    Assert.assertEquals(keys.hashOf(model), start);
+    model.makeMove(3, 1);
+    model.makeMove(5, 2);
+    model.makeMove(2, 2);
+    model.makeMove(1, 2);
+    long transposed = model.getPositionHash();
+    Assert.assertEquals(keys.hashOf(model), transposed);
+
+    ReversiModel other = new ReversiHexModel();
+    other.startGame(7);
+    other.makeMove(2, 2);
+    other.makeMove(1, 2);
+    other.makeMove(3, 1);
+    other.makeMove(5, 2);
+    Assert.assertEquals(transposed, other.getPositionHash());
+
+    other.pass();
+    Assert.assertNotEquals(transposed, other.getPositionHash());
+    Assert.assertEquals(keys.hashOf(other), other.getPositionHash());
+    for (int ply = 0; ply < 5; ply++) {
+      other.undoMove();
+      Assert.assertEquals(keys.hashOf(other), other.getPositionHash());
+    }
+    Assert.assertEquals(start, other.getPositionHash());
+  }
+
+  @Test
+  public void testGeometryRaysFollowMoveRules() {
+    for (int size = 5; size <= 21; size += 2) {
+      HexGeometry geometry = HexGeometry.forSize(size);
+      Assert.assertSame(geometry, HexGeometry.forSize(size));
+      model = new ReversiHexModel();
+      model.startGame(size);
+      Disc[][] board = model.getBoard();
+      for (int cell = 0; cell < size * size; cell++) {
+        int x = cell % size;
+        int y = cell / size;
+        Assert.assertEquals(board[y][x] != null, geometry.isValid(cell));
+        if (board[y][x] == null) {
+          continue;
+        }
+        for (MoveDirection direction : MoveDirection.values()) {
+          List<Integer> walked = new ArrayList<>();
+          List<Integer> next = MoveRules.applyShiftBasedOnDirection(x, y, direction);
+          while (next.get(0) >= 0 && next.get(1) >= 0 && next.get(0) < size
+                  && next.get(1) < size && board[next.get(1)][next.get(0)] != null) {
+            walked.add(next.get(1) * size + next.get(0));
+            next = MoveRules.applyShiftBasedOnDirection(next.get(0), next.get(1), direction);
+          }
+          int[] ray = geometry.ray(cell, direction);
+          Assert.assertEquals(walked.size(), geometry.rayLength(cell, direction));
+          Assert.assertEquals(walked.isEmpty() ? -1 : (int) walked.get(0),
+                  geometry.neighbour(cell, direction));
+          for (int i = 0; i < ray.length; i++) {
+            Assert.assertEquals((int) walked.get(i), ray[i]);
+          }
+        }
+      }
+    }
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> HexGeometry.forSize(7).ray(0, MoveDirection.LEFT));
+  }
+
+  @Test
+  public void testDiscsAreSharedAndBoardIsACopy() {
+    model.startGame(7);
+    Assert.assertSame(GameDisc.of(DiscType.HEXDISC, DiscColor.BLACK), model.getDiscAt(4, 3));
+    Assert.assertSame(model.getDiscAt(0, 3), model.getDiscAt(6, 3));
+    Assert.assertEquals(new GameDisc(DiscType.HEXDISC, DiscColor.FACEDOWN),
+            model.getDiscAt(0, 3));
+
+    Disc[][] board = model.getBoard();
+    Assert.assertNull(board[0][0]);
+    Assert.assertSame(model.getDiscAt(2, 3), board[3][2]);
+    board[3][2] = GameDisc.of(DiscType.HEXDISC, DiscColor.BLACK);
+    Assert.assertEquals(DiscColor.WHITE, model.getDiscAt(2, 3).getColor());
+    Assert.assertEquals(DiscColor.WHITE, model.getBoard()[3][2].getColor());
+  }
+
+  @Test
+  public void testConcurrentModelPublishesSnapshots() {
+    ConcurrentReversiModel shared = new ConcurrentReversiModel(new ReversiHexModel());
+    Assert.assertThrows(IllegalStateException.class, shared::snapshot);
+    Assert.assertNull(shared.getBoard());
+    shared.startGame(7);
+    BoardSnapshot start = shared.snapshot();
+    shared.pass();
+    shared.makeMove(3, 1);
+    Assert.assertThrows(IllegalStateException.class, () -> shared.makeMove(3, 1));
+    BoardSnapshot now = shared.snapshot();
+
+    // the old snapshot still shows the starting position
+    Assert.assertEquals(0, start.getPly());
+    Assert.assertEquals(DiscColor.FACEDOWN, start.getColorAt(3, 1));
+    Assert.assertEquals(new GameScore(3, 3, 31), start.getScore());
+    Assert.assertEquals(2, now.getPly());
+    Assert.assertEquals(DiscColor.WHITE, now.getColorAt(3, 1));
+    Assert.assertEquals(new GameScore(2, 5, 30), shared.getScore());
+    Assert.assertEquals(PlayerTurn.PLAYER1, shared.currentTurn());
+    Assert.assertEquals(DiscColor.WHITE, shared.getDiscAt(3, 1).getColor());
+    Assert.assertEquals(2, shared.getMoveLog().size());
+    shared.undoMove();
+    Assert.assertEquals(1, shared.snapshot().getPly());
+    Assert.assertEquals(2, now.getPly());
+
+    // the published log follows moves, passes and undos, including a different move made
+    // after an undo
+    ReversiModel plain = new ReversiHexModel();
+    plain.startGame(7);
+    plain.pass();
+    Random random = new Random(15);
+    for (int step = 0; step < 300; step++) {
+      if (random.nextInt(3) == 0 && plain.getMoveLog().size() > 0) {
+        plain.undoMove();
+        shared.undoMove();
+      } else if (plain.isGameOver() || random.nextInt(10) == 0) {
+        plain.pass();
+        shared.pass();
+      } else {
+        List<Posn> moves = plain.getLegalMoves();
+        Posn move = moves.get(random.nextInt(moves.size()));
+        plain.makeMove(move.getX(), move.getY());
+        shared.makeMove(move.getX(), move.getY());
+      }
+      MoveLog expected = plain.getMoveLog();
+      MoveLog published = shared.getMoveLog();
+      Assert.assertEquals(expected.size(), published.size());
+      for (int ply = 0; ply < expected.size(); ply++) {
+        Assert.assertEquals(expected.get(ply), published.get(ply));
+      }
+      Assert.assertEquals(expected.lastTwoArePasses(), published.lastTwoArePasses());
+    }
+  }
+
+  @Test
+  public void testSnapshotsFollowTheGameAndStayIntact() {
+    for (BoardEngine engine : BoardEngine.values()) {
+      ReversiModel game = ReversiModelFactory.create(engine);
+      Assert.assertThrows(IllegalStateException.class, game::snapshot);
+      game.startGame(11);
+      List<BoardSnapshot> snapshots = new ArrayList<>();
+      List<String> expected = new ArrayList<>();
+      Random random = new Random(11);
+      for (int step = 0; step < 200; step++) {
+        BoardSnapshot snapshot = game.snapshot();
+        // nothing changed, so the same snapshot comes back
+        Assert.assertSame(snapshot, game.snapshot());
+        Assert.assertEquals(this.snapshotText(game), this.snapshotText(snapshot));
+        Assert.assertEquals(game.getPositionHash(), snapshot.getPositionHash());
+        Assert.assertEquals(game.getMoveLog().size(), snapshot.getPly());
+        snapshots.add(snapshot);
+        expected.add(this.snapshotText(game));
+        List<Posn> moves = game.getLegalMoves();
+        if (game.isGameOver() || random.nextInt(6) == 0) {
+          if (game.getMoveLog().size() > 0) {
+            game.undoMove();
+          }
+        } else if (random.nextInt(10) == 0) {
+          game.pass();
+        } else {
+          Posn move = moves.get(random.nextInt(moves.size()));
+          game.makeMove(move.getX(), move.getY());
+        }
+      }
+      // later moves and undos never reach back into earlier snapshots
+      for (int i = 0; i < snapshots.size(); i++) {
+        Assert.assertEquals(expected.get(i), this.snapshotText(snapshots.get(i)));
+      }
+    }
+  }
+
+  private String snapshotText(ReversiModel game) {
+    StringBuilder text = new StringBuilder();
+    for (int y = 0; y < game.getDimensions(); y++) {
+      for (int x = 0; x < game.getDimensions(); x++) {
+        Disc[] row = game.getBoard()[y];
+        text.append(row[x] == null ? ' ' : row[x].getColor().toString().charAt(0));
+      }
+    }
+    return text.append(game.currentTurn()).append(game.getScore()).append(game.isGameOver())
+            .append(this.movesToText(game.getLegalMoves())).toString();
+  }
+
+  private String snapshotText(BoardSnapshot snapshot) {
+    StringBuilder text = new StringBuilder();
+    for (int y = 0; y < snapshot.getDimensions(); y++) {
+      for (int x = 0; x < snapshot.getDimensions(); x++) {
+        text.append(snapshot.isValid(x, y)
+                ? snapshot.getColorAt(x, y).toString().charAt(0) : ' ');
+      }
+    }
+    return text.append(snapshot.getTurn()).append(snapshot.getScore())
+            .append(snapshot.isGameOver()).append(this.movesToText(snapshot.getLegalMoves()))
+            .toString();
+  }
+
+  @Test
+  public void testConcurrentReadersSeeConsistentPositions() throws InterruptedException {
+    ConcurrentReversiModel shared = new ConcurrentReversiModel(new ReversiHexModel());
+    shared.startGame(9);
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicReference<String> failure = new AtomicReference<>();
+    Thread[] readers = new Thread[3];
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = new Thread(() -> {
+        while (!done.get()) {
+          BoardSnapshot snapshot = shared.snapshot();
+          int black = 0;
+          int white = 0;
+          for (int y = 0; y < 9; y++) {
+            for (int x = 0; x < 9; x++) {
+              if (snapshot.isValid(x, y)) {
+                DiscColor color = snapshot.getColorAt(x, y);
+                black += color == DiscColor.BLACK ? 1 : 0;
+                white += color == DiscColor.WHITE ? 1 : 0;
+              }
+            }
+          }
+          boolean player1 = snapshot.getPly() % 2 == 0;
+          if (black != snapshot.getScore().getBlackCount()
+                  || white != snapshot.getScore().getWhiteCount()
+                  || player1 != (snapshot.getTurn() == PlayerTurn.PLAYER1)) {
+            failure.set("torn snapshot at ply " + snapshot.getPly());
+          }
+        }
+      });
+      readers[i].start();
+    }
+    Random random = new Random(5);
+    for (int step = 0; step < 3000; step++) {
+      List<Posn> moves = shared.getLegalMoves();
+      if (shared.isGameOver() || random.nextInt(8) == 0) {
+        if (shared.getMoveLog().size() > 0) {
+          shared.undoMove();
+        }
+      } else {
+        Posn move = moves.get(random.nextInt(moves.size()));
+        shared.makeMove(move.getX(), move.getY());
+      }
+    }
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    Assert.assertNull(failure.get());
+  }
+
   @Test
   public void testIsGameOverWhenPassedTwice() {
     model.startGame(7);
@@ -262,6 +754,53 @@ public class ReversiHexModelTests {
     Assert.assertTrue(mockModel.isGameOver());
   }
 
+  @Test
+  public void testMockRecordsAndUndoesItsMovesAndPasses() {
+    ReversiModel real = new ReversiHexModel();
+    real.startGame(7);
+    Disc[][] start = real.getBoard();
+    Disc[][] mockBoard = new Disc[start.length][];
+    for (int row = 0; row < start.length; row++) {
+      mockBoard[row] = start[row].clone();
+    }
+    ReversiModel mockModel = new MockReversiHexModel(mockBoard);
+    mockModel.startGame(7);
+    for (int ply = 0; ply < 3; ply++) {
+      if (ply == 1) {
+        real.pass();
+        mockModel.pass();
+      } else {
+        Posn move = real.getLegalMoves().get(0);
+        real.makeMove(move.getX(), move.getY());
+        mockModel.makeMove(move.getX(), move.getY());
+      }
+    }
+    MoveLog expected = real.getMoveLog();
+    MoveLog log = mockModel.getMoveLog();
+    Assert.assertEquals(3, log.size());
+    for (int ply = 0; ply < expected.size(); ply++) {
+      Assert.assertEquals(expected.get(ply), log.get(ply));
+    }
+    Assert.assertTrue(log.isPass(1));
+    int[] flips = new int[7 * 7];
+    Assert.assertEquals(this.sortedFlips(real, flips), this.sortedFlips(mockModel, flips));
+
+    // undoing on both games keeps them in step
+    for (int ply = 0; ply < 3; ply++) {
+      real.undoMove();
+      mockModel.undoMove();
+      Assert.assertEquals(real.currentTurn(), mockModel.currentTurn());
+      Assert.assertEquals(real.getMoveLog().size(), mockModel.getMoveLog().size());
+      Assert.assertEquals(real.getScore().getBlackCount(), mockModel.getScore().getBlackCount());
+      Assert.assertEquals(real.getScore().getWhiteCount(), mockModel.getScore().getWhiteCount());
+      if (real.getMoveLog().size() > 0) {
+        Assert.assertEquals(this.sortedFlips(real, flips), this.sortedFlips(mockModel, flips));
+      }
+    }
+    Assert.assertThrows(IllegalStateException.class, mockModel::undoMove);
+    Assert.assertThrows(IllegalStateException.class, () -> mockModel.lastFlips(flips));
+  }
+
   @Test
   public void testViewForSizes() {
     model.startGame(11);
@@ -278,4 +817,62 @@ public class ReversiHexModelTests {
             "     - - - - - -     \n", textualView.toString());
 
   }
-}
\ No newline at end of file
+
+  /**
+   * Plays a full game on a fresh model and records every move, trying each cell in turn.
+   * Returns the moves as alternating x and y coordinates.
+   */
+  private int[] recordGame(int size) {
+    ReversiModel recorder = new ReversiHexModel();
+    recorder.startGame(size);
+    int[] moves = new int[size * size * 2];
+    int count = 0;
+    while (!recorder.isGameOver()) {
+      boolean moved = false;
+      for (int y = 0; y < size && !moved; y++) {
+        for (int x = 0; x < size && !moved; x++) {
+          try {
+            recorder.makeMove(x, y);
+            moves[count++] = x;
+            moves[count++] = y;
+            moved = true;
+          } catch (IllegalArgumentException | IllegalStateException e) {
+            // not a legal move, try the next cell
+          }
+        }
+      }
+    }
+    return java.util.Arrays.copyOf(moves, count);
+  }
+
+  @Test
+  public void testMakeMoveDoesNotAllocate() {
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+    int[] moves = this.recordGame(11);
+    Assert.assertTrue(moves.length > 10);
+
+    // warm up so that class loading and compilation don't count against the measured game
+    for (int i = 0; i < 200; i++) {
+      ReversiModel warmup = new ReversiHexModel();
+      warmup.startGame(11);
+      for (int m = 0; m < moves.length; m += 2) {
+        warmup.makeMove(moves[m], moves[m + 1]);
+      }
+    }
+
+    ReversiModel measured = new ReversiHexModel();
+    measured.startGame(11);
+    long threadId = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(threadId);
+    long calibration = threads.getThreadAllocatedBytes(threadId) - before;
+    before = threads.getThreadAllocatedBytes(threadId);
+    for (int m = 0; m < moves.length; m += 2) {
+      measured.makeMove(moves[m], moves[m + 1]);
+    }
+    long allocated = threads.getThreadAllocatedBytes(threadId) - before - calibration;
+    Assert.assertEquals("bytes allocated over " + moves.length / 2 + " moves", 0, allocated);
+  }
+}
@@ -1,6 +1,33 @@
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import archive.GameRecord;
+
+import model.BoardEngine;
+import model.GameState;
+import model.HexSymmetry;
+import model.Posn;
 import model.ReversiHexModel;
+import model.ReversiModel;
+import player.AlphaBetaStrategy;
+import player.BookMove;
+import player.BookStrategy;
+import player.EndgameSolver;
+import player.MctsStrategy;
+import player.OpeningBook;
+import player.PlayerTurn;
+import player.ParallelSearchStrategy;
+import player.SearchLimits;
+import player.SearchReport;
+import player.TranspositionTable;
+import view.TextualView;
 
 public class ReversiPlayerTests {
   @Test
@@ -13,4 +40,361 @@ public class ReversiPlayerTests {
     ReversiHexModel rihm = new ReversiHexModel();
     rihm.startGame(11);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testAlphaBetaChoosesLegalMoveWithoutChangingModel() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(7);
+    model.makeMove(2, 2);
+    String before = new TextualView(model, new StringBuilder()).toString();
+    Optional<Posn> move = new AlphaBetaStrategy(SearchLimits.ofDepth(4)).chooseMove(model);
+    Assert.assertTrue(move.isPresent());
+    Assert.assertEquals(before, new TextualView(model, new StringBuilder()).toString());
+    Assert.assertEquals(1, model.getMoveLog().size());
+    model.makeMove(move.get().getX(), move.get().getY());
+  }
+
+  @Test
+  public void testAlphaBetaIsDeterministicWithDepthLimit() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(9);
+    SearchReport first = new AlphaBetaStrategy(SearchLimits.ofDepth(4)).search(model);
+    SearchReport second = new AlphaBetaStrategy(SearchLimits.ofDepth(4),
+            BoardEngine.BITBOARD).search(model);
+    Assert.assertEquals(4, first.getDepth());
+    Assert.assertEquals(first.getNodes(), second.getNodes());
+    Assert.assertEquals(first.getScore(), second.getScore());
+    Assert.assertEquals(first.getBestMove().get().getX(), second.getBestMove().get().getX());
+    Assert.assertEquals(first.getBestMove().get().getY(), second.getBestMove().get().getY());
+  }
+
+  @Test
+  public void testAlphaBetaRespectsNodeBudget() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(11);
+    SearchReport report = new AlphaBetaStrategy(SearchLimits.ofNodes(5000)).search(model);
+    Assert.assertTrue(report.getBestMove().isPresent());
+    Assert.assertTrue(report.getNodes() <= 5000 + 256);
+  }
+
+  @Test
+  public void testAlphaBetaReturnsWithinDeadline() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(15);
+    long start = System.nanoTime();
+    SearchReport report = new AlphaBetaStrategy(SearchLimits.ofTime(50)).search(model);
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    Assert.assertTrue(report.getBestMove().isPresent());
+    Assert.assertTrue("took " + elapsedMillis + "ms", elapsedMillis < 250);
+  }
+
+  @Test
+  public void testAlphaBetaPassesWhenGameIsOver() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(7);
+    model.pass();
+    model.pass();
+    Assert.assertFalse(new AlphaBetaStrategy(SearchLimits.ofDepth(3)).chooseMove(model)
+            .isPresent());
+  }
+
+  @Test
+  public void testSearchLimitsMustBePositive() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new SearchLimits(0, 1, 1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new SearchLimits(1, -1, 1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new SearchLimits(1, 1, 0));
+  }
+
+  @Test
+  public void testTranspositionTableStoresAndProbes() {
+    TranspositionTable table = new TranspositionTable(1000);
+    Assert.assertEquals(1024, table.capacity());
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(12345L));
+    table.store(12345L, -70, 6, TranspositionTable.LOWER_BOUND, 40);
+    long entry = table.probe(12345L);
+    Assert.assertEquals(-70, TranspositionTable.score(entry));
+    Assert.assertEquals(6, TranspositionTable.depth(entry));
+    Assert.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+    Assert.assertEquals(40, TranspositionTable.move(entry));
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(12345L + (1L << 40)));
+    table.clear();
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(12345L));
+  }
+
+  @Test
+  public void testTranspositionTablePrefersDeeperEntries() {
+    TranspositionTable table = new TranspositionTable(2);
+    table.store(1, 10, 8, TranspositionTable.EXACT, TranspositionTable.NO_MOVE);
+    table.store(2, 20, 3, TranspositionTable.EXACT, 5);
+    table.store(3, 30, 2, TranspositionTable.EXACT, 6);
+    // the deep entry survives, the always-replace slot holds the latest shallow one
+    Assert.assertEquals(8, TranspositionTable.depth(table.probe(1)));
+    Assert.assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(table.probe(1)));
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(2));
+    Assert.assertEquals(30, TranspositionTable.score(table.probe(3)));
+    // entries from an earlier search give way to new ones
+    table.newSearch();
+    table.store(4, 40, 1, TranspositionTable.UPPER_BOUND, 7);
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(1));
+    Assert.assertEquals(40, TranspositionTable.score(table.probe(4)));
+  }
+
+  @Test
+  public void testTranspositionTableReducesNodes() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(9);
+    SearchReport without = new AlphaBetaStrategy(SearchLimits.ofDepth(10), BoardEngine.ARRAY,
+            null).search(model);
+    SearchReport with = new AlphaBetaStrategy(SearchLimits.ofDepth(10), BoardEngine.ARRAY,
+            new TranspositionTable(1 << 16)).search(model);
+    Assert.assertEquals(10, with.getDepth());
+    Assert.assertEquals(without.getScore(), with.getScore());
+    Assert.assertTrue(with.getNodes() + " vs " + without.getNodes(),
+            with.getNodes() * 2 < without.getNodes());
+  }
+
+  @Test
+  public void testDeterministicParallelSearchIsRepeatable() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(9);
+    Posn opening = model.getLegalMoves().get(0);
+    model.makeMove(opening.getX(), opening.getY());
+    SearchReport serial = new AlphaBetaStrategy(SearchLimits.ofDepth(5), BoardEngine.ARRAY,
+            null).search(model);
+    try (ParallelSearchStrategy one = new ParallelSearchStrategy(SearchLimits.ofDepth(5), 1,
+            true);
+         ParallelSearchStrategy three = new ParallelSearchStrategy(SearchLimits.ofDepth(5), 3,
+                 true)) {
+      SearchReport first = one.search(model);
+      SearchReport second = three.search(model);
+      Assert.assertEquals(5, first.getDepth());
+      Assert.assertEquals(serial.getScore(), first.getScore());
+      Assert.assertEquals(first.getScore(), second.getScore());
+      Assert.assertEquals(first.getNodes(), second.getNodes());
+      Assert.assertEquals(first.getBestMove().get().getX(), second.getBestMove().get().getX());
+      Assert.assertEquals(first.getBestMove().get().getY(), second.getBestMove().get().getY());
+    }
+  }
+
+  @Test
+  public void testLazySmpSearchReturnsLegalMove() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(11);
+    ParallelSearchStrategy strategy = new ParallelSearchStrategy(SearchLimits.ofDepth(6), 4,
+            false);
+    SearchReport report = strategy.search(model);
+    Assert.assertEquals(6, report.getDepth());
+    Assert.assertTrue(report.getNodes() > 0);
+    Posn move = report.getBestMove().get();
+    model.makeMove(move.getX(), move.getY());
+    strategy.close();
+    Assert.assertThrows(IllegalStateException.class, () -> strategy.search(model));
+  }
+
+  @Test
+  public void testMctsIsDeterministicWithPlayoutBudget() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(9);
+    SearchReport first = new MctsStrategy(SearchLimits.ofNodes(500), 7).search(model);
+    SearchReport second = new MctsStrategy(SearchLimits.ofNodes(500), 7).search(model);
+    Assert.assertEquals(500, first.getNodes());
+    Assert.assertEquals(first.getScore(), second.getScore());
+    Assert.assertEquals(first.getBestMove().get().getX(), second.getBestMove().get().getX());
+    Assert.assertEquals(first.getBestMove().get().getY(), second.getBestMove().get().getY());
+    Assert.assertEquals(0, model.getMoveLog().size());
+  }
+
+  @Test
+  public void testMctsPlaysWholeGameReusingItsTree() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(7);
+    MctsStrategy strategy = new MctsStrategy(SearchLimits.ofNodes(200), 3);
+    while (!model.isGameOver()) {
+      Optional<Posn> move = strategy.chooseMove(model);
+      Assert.assertTrue(move.isPresent());
+      model.makeMove(move.get().getX(), move.get().getY());
+    }
+    Assert.assertFalse(strategy.chooseMove(model).isPresent());
+
+    // a different game can't reuse the old tree but must still be searched correctly
+    ReversiModel other = new ReversiHexModel();
+    other.startGame(9);
+    other.pass();
+    Posn move = strategy.chooseMove(other).get();
+    other.makeMove(move.getX(), move.getY());
+  }
+
+  @Test
+  public void testMctsRootParallelismSharesPlayoutBudget() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(11);
+    try (MctsStrategy strategy = new MctsStrategy(SearchLimits.ofNodes(301), 5, 3)) {
+      SearchReport report = strategy.search(model);
+      Assert.assertEquals(301, report.getNodes());
+      Posn move = report.getBestMove().get();
+      model.makeMove(move.getX(), move.getY());
+    }
+  }
+
+  @Test
+  public void testOpeningBookCountsMovesAndResults() throws IOException {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(11);
+    List<Posn> openings = model.getLegalMoves();
+    int first = this.cellOf(openings.get(0));
+    int second = this.cellOf(openings.get(1));
+    model.makeMove(openings.get(0).getX(), openings.get(0).getY());
+    int reply = this.cellOf(model.getLegalMoves().get(0));
+    List<GameRecord> games = List.of(
+            new GameRecord(11, GameState.PLAYER1WIN, new int[]{first}),
+            new GameRecord(11, GameState.PLAYER1WIN, new int[]{first}),
+            new GameRecord(11, GameState.PLAYER2WIN, new int[]{first}),
+            new GameRecord(11, GameState.PLAYER1WIN, new int[]{first, reply}),
+            new GameRecord(11, GameState.STALEMATE, new int[]{second}),
+            // unfinished games teach nothing
+            new GameRecord(11, GameState.ONGOING, new int[]{second}));
+    OpeningBook book = OpeningBook.build(games, 2, 1);
+    Assert.assertEquals(3, book.size());
+
+    ReversiModel start = new ReversiHexModel();
+    start.startGame(11);
+    List<BookMove> candidates = book.lookup(start);
+    Assert.assertEquals(2, candidates.size());
+    Assert.assertEquals(first, this.cellOf(candidates.get(0).getMove()));
+    Assert.assertEquals(4, candidates.get(0).getGames());
+    Assert.assertEquals(0.75, candidates.get(0).getScore(), 1e-9);
+    Assert.assertEquals(second, this.cellOf(candidates.get(1).getMove()));
+    Assert.assertEquals(0.5, candidates.get(1).getScore(), 1e-9);
+    // white lost the one game it answered with this reply
+    Assert.assertEquals(0.0, book.lookup(model).get(0).getScore(), 1e-9);
+    Assert.assertEquals(1, OpeningBook.build(games, 1, 2).size());
+    Assert.assertEquals(2, OpeningBook.build(games, 1, 1).size());
+
+    ReversiModel other = new ReversiHexModel();
+    other.startGame(9);
+    Assert.assertTrue(book.lookup(other).isEmpty());
+
+    Path file = Files.createTempFile("openings", ".book");
+    try {
+      book.save(file);
+      OpeningBook saved = OpeningBook.open(file);
+      Assert.assertEquals(book.size(), saved.size());
+      Assert.assertEquals(candidates.toString(), saved.lookup(start).toString());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testOpeningBookSharesSymmetricPositions() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(11);
+    HexSymmetry symmetries = HexSymmetry.forSize(11);
+    Posn opening = model.getLegalMoves().get(0);
+    model.makeMove(opening.getX(), opening.getY());
+    Posn reply = model.getLegalMoves().get(0);
+    // turning by 120 degrees keeps the starting position, so the turned game is as good a game
+    Posn turnedOpening = symmetries.map(2, opening);
+    Posn turnedReply = symmetries.map(2, reply);
+    OpeningBook book = OpeningBook.build(List.of(
+            new GameRecord(11, GameState.PLAYER2WIN, new int[]{this.cellOf(opening),
+                this.cellOf(reply)}),
+            new GameRecord(11, GameState.PLAYER2WIN, new int[]{this.cellOf(turnedOpening),
+                this.cellOf(turnedReply)})), 2, 1);
+    // both openings from the start, and one reply shared by the two positions after them
+    Assert.assertEquals(3, book.size());
+
+    ReversiModel turned = new ReversiHexModel();
+    turned.startGame(11);
+    turned.makeMove(turnedOpening.getX(), turnedOpening.getY());
+    List<BookMove> moves = book.lookup(turned);
+    Assert.assertEquals(1, moves.size());
+    Assert.assertEquals(this.cellOf(turnedReply), this.cellOf(moves.get(0).getMove()));
+    Assert.assertEquals(2, moves.get(0).getGames());
+    Assert.assertEquals(this.cellOf(reply), this.cellOf(book.lookup(model).get(0).getMove()));
+  }
+
+  @Test
+  public void testBookStrategyFallsBackOutsideTheBook() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(11);
+    Posn opening = model.getLegalMoves().get(2);
+    OpeningBook book = OpeningBook.build(
+            List.of(new GameRecord(11, GameState.PLAYER1WIN, new int[]{this.cellOf(opening)})),
+            4, 1);
+    BookStrategy strategy = new BookStrategy(book, game -> Optional.empty(), 4, 1);
+    Assert.assertEquals(this.cellOf(opening), this.cellOf(strategy.chooseMove(model).get()));
+    model.makeMove(opening.getX(), opening.getY());
+    Assert.assertFalse(strategy.chooseMove(model).isPresent());
+
+    ReversiModel start = new ReversiHexModel();
+    start.startGame(11);
+    Assert.assertFalse(new BookStrategy(book, game -> Optional.empty(), 0, 1)
+            .chooseMove(start).isPresent());
+  }
+
+  @Test
+  public void testEndgameSolverMatchesFullMinimax() {
+    Random random = new Random(7);
+    EndgameSolver solver = new EndgameSolver(9, game -> Optional.empty());
+    for (int game = 0; game < 12; game++) {
+      ReversiModel model = new ReversiHexModel();
+      model.startGame(7);
+      while (!model.isGameOver() && model.getScore().getEmptyCount() > 9) {
+        List<Posn> moves = model.getLegalMoves();
+        Posn move = moves.get(random.nextInt(moves.size()));
+        model.makeMove(move.getX(), move.getY());
+      }
+      String before = new TextualView(model, new StringBuilder()).toString();
+      SearchReport report = solver.solve(model);
+      Assert.assertEquals(before, new TextualView(model, new StringBuilder()).toString());
+      Assert.assertEquals(this.minimax(model), report.getScore());
+      Assert.assertEquals(model.getScore().getEmptyCount(), report.getDepth());
+      if (model.isGameOver()) {
+        Assert.assertFalse(report.getBestMove().isPresent());
+      } else {
+        Posn best = report.getBestMove().get();
+        model.makeMove(best.getX(), best.getY());
+        Assert.assertEquals(report.getScore(), -this.minimax(model));
+      }
+    }
+  }
+
+  @Test
+  public void testEndgameSolverFallsBackOutsideTheEndgame() {
+    ReversiModel model = new ReversiHexModel();
+    model.startGame(11);
+    Posn marker = new Posn(-1, -1);
+    EndgameSolver solver = new EndgameSolver(20, game -> Optional.of(marker));
+    Assert.assertSame(marker, solver.chooseMove(model).get());
+    ReversiModel large = new ReversiHexModel();
+    large.startGame(15);
+    Assert.assertThrows(IllegalArgumentException.class, () -> solver.solve(large));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new EndgameSolver(-1, game -> Optional.empty()));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(10, null));
+  }
+
+  /**
+   * Returns the final disc margin of the player to move under perfect play, found by playing
+   * out every line on the model itself.
+   */
+  private int minimax(ReversiModel model) {
+    if (model.isGameOver()) {
+      int black = model.getScore().getBlackCount();
+      int white = model.getScore().getWhiteCount();
+      return model.currentTurn() == PlayerTurn.PLAYER1 ? black - white : white - black;
+    }
+    int best = Integer.MIN_VALUE;
+    for (Posn move : model.getLegalMoves()) {
+      model.makeMove(move.getX(), move.getY());
+      best = Math.max(best, -this.minimax(model));
+      model.undoMove();
+    }
+    return best;
+  }
+
+  private int cellOf(Posn move) {
+    return move.getY() * 11 + move.getX();
+  }
+}
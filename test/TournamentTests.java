@@ -0,0 +1,124 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import model.BoardEngine;
+import model.GameScore;
+import model.GameState;
+import model.Posn;
+import tournament.EloRatings;
+import tournament.Entrant;
+import tournament.MatchResult;
+import tournament.Tournament;
+import tournament.TournamentFormat;
+import tournament.TournamentResult;
+
+public class TournamentTests {
+  private static final List<Entrant> ENTRANTS = List.of(Entrant.parse("alphabeta:1"),
+          Entrant.parse("alphabeta:2"), Entrant.parse("mcts:50"));
+
+  @Test
+  public void testRoundRobinPlaysEveryPairingWithBothColours() {
+    Tournament tournament = new Tournament(TournamentFormat.ROUND_ROBIN, ENTRANTS,
+            List.of(7, 9), 2, BoardEngine.BITBOARD);
+    Assert.assertEquals(12, tournament.getNumGames());
+    TournamentResult result = tournament.run(2);
+    Assert.assertEquals(12, result.getResults().size());
+    for (int round = 0; round < 12; round++) {
+      MatchResult game = result.getResults().get(round);
+      Assert.assertEquals(round, game.getRound());
+      Assert.assertTrue(game.getPlies() > 0);
+    }
+    Assert.assertEquals("alphabeta:1", result.getResults().get(0).getBlack());
+    Assert.assertEquals("alphabeta:1", result.getResults().get(1).getWhite());
+    for (Entrant entrant : ENTRANTS) {
+      String name = entrant.getName();
+      Assert.assertEquals(8, result.getWins(name, null) + result.getDraws(name, null)
+              + result.getLosses(name, null));
+    }
+    Assert.assertEquals(result.getWins("alphabeta:2", "mcts:50"),
+            result.getLosses("mcts:50", "alphabeta:2"));
+    Assert.assertTrue(result.getGamesPerSecond() > 0);
+    Assert.assertTrue(result.toString().contains("games/s"));
+
+    // every game is seeded by its place in the schedule, so a rerun gives the same games
+    TournamentResult again = tournament.run(1);
+    for (int round = 0; round < 12; round++) {
+      Assert.assertEquals(result.getResults().get(round).getScore(),
+              again.getResults().get(round).getScore());
+    }
+  }
+
+  @Test
+  public void testGauntletOnlyPlaysTheFirstEntrant() {
+    Tournament tournament = new Tournament(TournamentFormat.GAUNTLET, ENTRANTS, List.of(7), 3,
+            BoardEngine.ARRAY);
+    TournamentResult result = tournament.run(1);
+    Assert.assertEquals(6, result.getResults().size());
+    for (MatchResult game : result.getResults()) {
+      Assert.assertTrue(game.getBlack().equals("alphabeta:1")
+              || game.getWhite().equals("alphabeta:1"));
+    }
+    Assert.assertEquals(0, result.getWins("alphabeta:2", "mcts:50")
+            + result.getLosses("alphabeta:2", "mcts:50"));
+  }
+
+  @Test
+  public void testInvalidTournaments() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new Tournament(
+            TournamentFormat.ROUND_ROBIN, ENTRANTS.subList(0, 1), List.of(7), 1,
+            BoardEngine.ARRAY));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new Tournament(
+            TournamentFormat.ROUND_ROBIN, ENTRANTS, List.of(8), 1, BoardEngine.ARRAY));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new Tournament(
+            TournamentFormat.ROUND_ROBIN, List.of(ENTRANTS.get(0), ENTRANTS.get(0)), List.of(7),
+            1, BoardEngine.ARRAY));
+    Assert.assertThrows(IllegalArgumentException.class, () -> Entrant.parse("minimax:3"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> Entrant.parse("mcts"));
+
+    Entrant cheater = new Entrant("cheater", seed -> model -> Optional.of(new Posn(0, 0)));
+    Assert.assertThrows(IllegalStateException.class,
+            () -> Tournament.play(0, cheater, ENTRANTS.get(0), 7, BoardEngine.ARRAY));
+  }
+
+  @Test
+  public void testEloRatings() {
+    List<String> names = List.of("a", "b", "c");
+    List<MatchResult> results = new ArrayList<>();
+    for (int game = 0; game < 40; game++) {
+      // a beats b three times in four, b and c are even
+      boolean aWins = game % 4 != 3;
+      results.add(this.game(game, "a", "b", aWins ? GameState.PLAYER1WIN : GameState.PLAYER2WIN));
+      results.add(this.game(game, "b", "c", game % 2 == 0
+              ? GameState.PLAYER1WIN : GameState.STALEMATE));
+      results.add(this.game(game, "c", "b", game % 2 == 0
+              ? GameState.PLAYER1WIN : GameState.STALEMATE));
+    }
+    EloRatings ratings = EloRatings.estimate(names, results);
+    Assert.assertEquals(0, ratings.getRating("a") + ratings.getRating("b")
+            + ratings.getRating("c"), 1e-6);
+    Assert.assertEquals(ratings.getRating("b"), ratings.getRating("c"), 1e-6);
+    // 75% is about 191 points; the virtual draw pulls it in a little
+    double gap = ratings.getRating("a") - ratings.getRating("b");
+    Assert.assertTrue(gap > 170 && gap < 191);
+    Assert.assertTrue(ratings.getMargin("a") > ratings.getMargin("b"));
+
+    EloRatings fewer = EloRatings.estimate(names, results.subList(0, 30));
+    Assert.assertTrue(fewer.getMargin("a") > ratings.getMargin("a"));
+    Assert.assertTrue(Double.isInfinite(EloRatings.estimate(names, List.of()).getMargin("a")));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> EloRatings.estimate(List.of("a", "a"), results));
+  }
+
+  private MatchResult game(int round, String black, String white, GameState outcome) {
+    GameScore score = outcome == GameState.PLAYER1WIN ? new GameScore(20, 10, 7)
+            : outcome == GameState.PLAYER2WIN ? new GameScore(10, 20, 7)
+            : new GameScore(15, 15, 7);
+    MatchResult result = new MatchResult(round, black, white, 7, score, 30);
+    Assert.assertEquals(outcome, result.getOutcome());
+    return result;
+  }
+}
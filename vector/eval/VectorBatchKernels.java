@@ -0,0 +1,89 @@
+package eval;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A 'VectorBatchKernels' runs the inner loops of a {@link BatchEvaluator} with the JDK Vector
+ * API, as many positions per instruction as the widest vectors of the hardware hold. The
+ * positions after the last full vector go through the plain loops.
+ * <p>
+ * It is compiled only by the vectorApi build profile and loaded only when the
+ * {@code jdk.incubator.vector} module is added at run time.
+ */
+final class VectorBatchKernels extends BatchKernels {
+  private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+  @Override
+  boolean isVectorised() {
+    return true;
+  }
+
+  @Override
+  void shiftLeft(long[] from, long[] carried, int bitShift, long valid, long[] to, int start,
+                 int end) {
+    int bound = start + SPECIES.loopBound(end - start);
+    for (int p = start; p < bound; p += SPECIES.length()) {
+      LongVector shifted = LongVector.fromArray(SPECIES, from, p)
+              .lanewise(VectorOperators.LSHL, bitShift);
+      if (carried != null) {
+        shifted = shifted.or(LongVector.fromArray(SPECIES, carried, p)
+                .lanewise(VectorOperators.LSHR, 64 - bitShift));
+      }
+      shifted.and(valid).intoArray(to, p);
+    }
+    super.shiftLeft(from, carried, bitShift, valid, to, bound, end);
+  }
+
+  @Override
+  void shiftRight(long[] from, long[] carried, int bitShift, long valid, long[] to, int start,
+                  int end) {
+    int bound = start + SPECIES.loopBound(end - start);
+    for (int p = start; p < bound; p += SPECIES.length()) {
+      LongVector shifted = LongVector.fromArray(SPECIES, from, p)
+              .lanewise(VectorOperators.LSHR, bitShift);
+      if (carried != null) {
+        shifted = shifted.or(LongVector.fromArray(SPECIES, carried, p)
+                .lanewise(VectorOperators.LSHL, 64 - bitShift));
+      }
+      shifted.and(valid).intoArray(to, p);
+    }
+    super.shiftRight(from, carried, bitShift, valid, to, bound, end);
+  }
+
+  @Override
+  long capture(long[] next, long[] opp, long[] run, int start, int end) {
+    int bound = start + SPECIES.loopBound(end - start);
+    LongVector any = LongVector.zero(SPECIES);
+    for (int p = start; p < bound; p += SPECIES.length()) {
+      LongVector captured = LongVector.fromArray(SPECIES, next, p)
+              .and(LongVector.fromArray(SPECIES, opp, p));
+      captured.intoArray(run, p);
+      any = any.or(captured);
+    }
+    return any.reduceLanes(VectorOperators.OR) | super.capture(next, opp, run, bound, end);
+  }
+
+  @Override
+  void addMoves(long[] next, long[] empty, long[] moves, int start, int end) {
+    int bound = start + SPECIES.loopBound(end - start);
+    for (int p = start; p < bound; p += SPECIES.length()) {
+      LongVector.fromArray(SPECIES, moves, p)
+              .or(LongVector.fromArray(SPECIES, next, p)
+                      .and(LongVector.fromArray(SPECIES, empty, p)))
+              .intoArray(moves, p);
+    }
+    super.addMoves(next, empty, moves, bound, end);
+  }
+
+  @Override
+  void or(long[] from, long[] to, int start, int end) {
+    int bound = start + SPECIES.loopBound(end - start);
+    for (int p = start; p < bound; p += SPECIES.length()) {
+      LongVector.fromArray(SPECIES, to, p).or(LongVector.fromArray(SPECIES, from, p))
+              .intoArray(to, p);
+    }
+    super.or(from, to, bound, end);
+  }
+}